@@ -3,16 +3,28 @@ package application;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.Future;
 
 
+import gametree.GameNode;
 import gametree.GameTree;
 import gametree.ImpGameTree;
-import minimax.GameNodeMoveOrderingSelfDestructingAlphaBetaPruning;
+import gametree.Node;
+import gametree.NodePool;
+import minimax.FlatAlphaBetaPruning;
+import minimax.GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning;
 import minimax.GameTreeEvaluator;
+import minimax.IterativeDeepening;
 import minimax.IterativeDeepeningRunner;
+import minimax.StoringMoveOrderingSelfDestructingAlphaBetaPruning;
+import minimax.TranspositionTable;
 import model.Move;
+import model.MutablePosition;
 import model.Position;
 import movegenerator.MoveGenerator;
+import movegenerator.MoveListGenerator;
+import positionevaluator.EvaluationCache;
+import positionevaluator.PawnStructureEvaluator;
 import uciservice.Tokenizer;
 import uciservice.UCIOperator;
 import uciservice.UCIParserAlphaBetaPruning;
@@ -28,16 +40,62 @@ public class Conductor {
     private static List<Move> pastMoves = new ArrayList<Move>();
 
     public static volatile Position bestFollowUp;
+    /**
+     * The reply to {@link #bestFollowUp} expected by the last completed iteration,
+     * i.e. the second move of the principal variation. May be null.
+     */
+    public static volatile Move ponderMove;
     public static volatile boolean stopCalculating;
+    /**
+     * The position of the current search, used to find a move if the search is stopped
+     * before its first iteration completes.
+     */
+    private static volatile Position searchedPosition;
     public static volatile int depthCompleted;
+    /**
+     * Whether the current search is a ponder search that did not yet receive a ponderhit.
+     * While pondering, the time for the search does not start counting.
+     */
+    public static volatile boolean pondering;
+    /**
+     * The number of lines reported by the search (UCI option MultiPV).
+     */
+    public static volatile int multiPV = 1;
+    /**
+     * The memory in megabytes for storing the game tree between iterations (UCI option TreeMemory),
+     * 0 if the tree should not be stored.
+     */
+    public static volatile int treeMemory = 0;
+    private static final long BYTES_PER_MEGABYTE = 1 << 20;
+    /**
+     * The default size of the transposition table in megabytes (UCI option Hash).
+     */
+    public static final int DEFAULT_HASH = 16;
+    /**
+     * The transposition table of searches that do not store the tree, kept between moves.
+     */
+    private static volatile TranspositionTable transpositionTable = TranspositionTable.ofMegabytes(DEFAULT_HASH);
+    /**
+     * The evaluator of the current search if it stores the tree, used to report its memory.
+     */
+    private static volatile GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning storingEvaluator;
+    /**
+     * The tree of the last search if it was stored, its subtree of the current position is reused by the next search.
+     */
+    private static GameTree storedTree;
+    private static Future<?> runningSearch;
 
 
     private static List<String> pastPositions = new ArrayList<>();
+    /**
+     * The Zobrist keys of the positions of the game, see {@link #appendGamePosition(Position)}.
+     */
+    private static List<Long> pastPositionKeys = new ArrayList<>();
     private String startingPosition;
 
     private void start(){
         stopCalculating = true;
-        System.out.println("New Conductor entering the stage.");
+        UCIOperator.sendDebug("New Conductor entering the stage.");
         Position currentPosition = null;
         Scanner inputScanner = new Scanner(System.in);
         Tokenizer tokenizer = new UCITokenizer();
@@ -50,6 +108,7 @@ public class Conductor {
             }
         }
         inputScanner.close();
+        UCIOperator.awaitOutput();
         return;
 
 
@@ -62,12 +121,73 @@ public class Conductor {
 
     public static void stop(){
         stopCalculating = true;
-        System.out.println("Highest depth completed: " + depthCompleted);
-        UCIOperator.sendBestmove(bestFollowUp.getMove());
-        appendPosition(bestFollowUp.clone().toStringLight());
-        appendMove(bestFollowUp.getMove().clone());
-        cleanup();
-        System.gc();
+        UCIOperator.sendInfoString("highest depth completed " + depthCompleted);
+        EvaluationCache evaluationCache = GameNode.getEvaluationCache();
+        UCIOperator.sendInfoString("evaluation cache hits " + evaluationCache.getHits() + " of "
+            + evaluationCache.getProbes() + " probes");
+        evaluationCache.resetCounters();
+        EvaluationCache pawnHashTable = PawnStructureEvaluator.getPawnHashTable();
+        UCIOperator.sendInfoString("pawn hash hits " + pawnHashTable.getHits() + " of "
+            + pawnHashTable.getProbes() + " probes");
+        pawnHashTable.resetCounters();
+        NodePool nodePool = GameNode.getNodePool();
+        UCIOperator.sendInfoString("node pool reused " + nodePool.getReused() + " of "
+            + (nodePool.getReused() + nodePool.getCreated()) + " nodes");
+        nodePool.resetCounters();
+        GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning storing = storingEvaluator;
+        if (storing != null) {
+            UCIOperator.sendInfoString("tree memory " + storing.getStoredBytes() / BYTES_PER_MEGABYTE + " of "
+                + storing.getMemoryBudget() / BYTES_PER_MEGABYTE + " MB, " + storing.getStoredNodeCount()
+                + " nodes stored, " + storing.getEvictedNodeCount() + " nodes evicted");
+        }
+        Position bestFollowUp = Conductor.bestFollowUp;
+        Move bestMove = bestFollowUp != null ? bestFollowUp.getMove() : getFirstLegalMove(searchedPosition);
+        if (bestMove == null) {
+            UCIOperator.sendNullBestmove();
+        } else if (bestFollowUp != null && ponderMove != null) {
+            UCIOperator.sendBestmove(bestMove, ponderMove);
+        } else {
+            UCIOperator.sendBestmove(bestMove);
+        }
+        // the history is updated by the next position command, which contains the played move
+        // stopCalculating stays true so the search thread terminates
+        Conductor.bestFollowUp = null;
+        ponderMove = null;
+        depthCompleted = 0;
+    }
+
+    /**
+     * Used if a search is stopped before its first iteration completes,
+     * e.g. by a stop right after go ponder.
+     * @param position the searched position, may be null
+     * @return the first legal move of the position, null if no move can be made
+     */
+    private static Move getFirstLegalMove(Position position) {
+        if (position == null) {
+            return null;
+        }
+        // draws are not detected, a move has to be sent nonetheless
+        int[] moves = new int[MoveListGenerator.MAX_MOVES];
+        if (MoveListGenerator.generateMoves(new MutablePosition(position), moves) == 0) {
+            return null;
+        }
+        return Move.unpack(moves[0]);
+    }
+
+    /**
+     * Requests the running search to stop, the best move is sent once the search has stopped.
+     */
+    public static void requestStop(){
+        pondering = false;
+        stopCalculating = true;
+    }
+
+    /**
+     * The opponent played the expected move, the ponder search
+     * continues as a normal search whose time starts counting now.
+     */
+    public static void ponderhit(){
+        pondering = false;
     }
 
     public void quit(){
@@ -77,6 +197,7 @@ public class Conductor {
     public static void cleanup(){
         // System.out.println("cleaning up");
         bestFollowUp = null;
+        ponderMove = null;
         depthCompleted = 0;
         stopCalculating = false;
     }
@@ -93,6 +214,16 @@ public class Conductor {
         pastPositions.add(position);
     }
 
+    /**
+     * Appends a position of the game to the history, both as string used by {@link Position#isDraw()}
+     * and as Zobrist key used by searches that do not build a tree.
+     * @param position a position of the game preceding the current position
+     */
+    public static void appendGamePosition(Position position){
+        pastPositions.add(position.toStringLight());
+        pastPositionKeys.add(position.getZobristKey());
+    }
+
     public static void appendMove(Move move){
         pastMoves.add(move);
     }
@@ -111,17 +242,147 @@ public class Conductor {
 
     public static void emptyPositionList(){
         pastPositions.clear();
+        pastPositionKeys.clear();
     }
 
     public static List<String> getPastPositions(){
         return pastPositions;
     }
 
+    /**
+     * @return the Zobrist keys of the positions of the game preceding the current position, oldest first
+     */
+    public static List<Long> getPastPositionKeys(){
+        return pastPositionKeys;
+    }
+
+    /**
+     * Replaces the transposition table by an empty table of the passed size (UCI option Hash).
+     * @param megabytes the size of the table in megabytes
+     */
+    public static void setHashSize(int megabytes) {
+        awaitRunningSearch();
+        // drop the old table first, so it can be collected if the heap cannot hold both tables
+        transpositionTable = null;
+        transpositionTable = TranspositionTable.ofMegabytes(megabytes);
+    }
+
+    /**
+     * Discards the results of previous searches, i.e. the transposition table and the stored tree,
+     * e.g. for a new game or before the evaluation changes.
+     * A running search is stopped and awaited first.
+     */
+    public static void clearSearchResults() {
+        awaitRunningSearch();
+        transpositionTable.clear();
+        storedTree = null;
+    }
+
     public void calculateBestMove(Position currentPosition) {
-        stopCalculating = false;
-        GameTreeEvaluator evaluator = new GameNodeMoveOrderingSelfDestructingAlphaBetaPruning();
-        GameTree tree = new ImpGameTree(currentPosition, evaluator);
-        MoveGenerator.executor.submit(new TimerRunner(30));
-        MoveGenerator.executor.submit(new IterativeDeepeningRunner(tree, evaluator, currentPosition.getWhiteNextMove(), 30, 7));
+        calculateBestMove(currentPosition, false);
+    }
+
+    /**
+     * Starts searching for the best move in the passed position.
+     * <p>
+     * If ponder is true, the passed position is the one expected after the opponent's reply.
+     * The search then runs on the opponent's time until {@link #ponderhit()} converts it
+     * into a normal timed search or {@link #requestStop()} ends it.
+     * @param currentPosition the position to search
+     * @param ponder whether the search is a ponder search
+     */
+    public void calculateBestMove(Position currentPosition, boolean ponder) {
+        awaitRunningSearch();
+        cleanup();
+        searchedPosition = currentPosition;
+        pondering = ponder;
+        GameTreeEvaluator evaluator;
+        GameTree tree;
+        if (treeMemory > 0) {
+            storingEvaluator = new GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning(
+                StoringMoveOrderingSelfDestructingAlphaBetaPruning.ALL_LEVELS, (long) treeMemory * BYTES_PER_MEGABYTE);
+            evaluator = storingEvaluator;
+            GameNode storedRoot = detachStoredNode(storedTree, pastMoves, currentPosition);
+            if (storedRoot != null) {
+                // children are ordered by the values of the previous search
+                UCIOperator.sendDebug("reusing the stored tree of the previous search");
+                storingEvaluator.accountForStoredNodes(storedRoot);
+                tree = new ImpGameTree(storedRoot, evaluator);
+            } else {
+                tree = new ImpGameTree(currentPosition, evaluator);
+            }
+            storedTree = tree;
+        } else {
+            // the transposition table keeps the results of the previous search instead of a tree
+            storingEvaluator = null;
+            storedTree = null;
+            evaluator = new FlatAlphaBetaPruning(transpositionTable);
+            tree = new ImpGameTree(currentPosition, evaluator);
+        }
+        evaluator.setMultiPV(multiPV);
+        IterativeDeepening<Position> search = new IterativeDeepening<Position>();
+        MoveGenerator.executor.submit(new TimerRunner(30, search));
+        runningSearch = MoveGenerator.executor.submit(
+            new IterativeDeepeningRunner(tree, evaluator, currentPosition.getWhiteNextMove(), 30, 7, search));
+    }
+
+    /**
+     * Looks up the node of the passed position in the tree of the previous search,
+     * i.e. the grandchild of its root reached by the last two moves of the game (the move played by the engine
+     * and the reply of the opponent), and removes it from the tree so it can become the root of the next tree.
+     * The rest of the previous tree should be discarded.
+     * @param previous the tree of the previous search, may be null
+     * @param moves the moves of the game, the last two lead from the root of the previous tree to the position
+     * @param position the current position of the game
+     * @return the node of the position including its stored descendants, null if it is not stored
+     */
+    public static GameNode detachStoredNode(GameTree previous, List<Move> moves, Position position) {
+        if (previous == null || moves.size() < 2) {
+            return null;
+        }
+        GameNode node = previous.getRoot();
+        for (Move move : moves.subList(moves.size() - 2, moves.size())) {
+            node = getStoredChild(node, move);
+            if (node == null) {
+                return null;
+            }
+        }
+        if (node.getContent().getZobristKey() != position.getZobristKey()) {
+            return null;
+        }
+        node.getParent().deleteChild(node);
+        node.setContent(position);
+        return node;
+    }
+
+    /**
+     * @return the stored child of the node representing the passed move or null if there is none
+     */
+    private static GameNode getStoredChild(GameNode node, Move move) {
+        if (!node.hasChildren()) {
+            return null;
+        }
+        for (Node<Position> child : node.getChildren()) {
+            if (move.equals(((GameNode) child).getRepresentedMove())) {
+                return (GameNode) child;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stops the previous search if it is still running and waits for it to terminate,
+     * so it cannot overwrite the results of the next search.
+     */
+    private static void awaitRunningSearch() {
+        if (runningSearch == null || runningSearch.isDone()) {
+            return;
+        }
+        stopCalculating = true;
+        try {
+            runningSearch.get();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
     }
 }
@@ -272,6 +272,8 @@ public class DemoApplicationFenToAlgebraic {
         PerformanceData.leafValueComputations = 0;
         PerformanceData.ascendingComparisons = 0;
         PerformanceData.descendingComparisons = 0;
+        PerformanceData.lazyEvaluationExits = 0;
+        PerformanceData.fullEvaluations = 0;
         calculationTime = -1; //not required, but better safe than sorry
         System.gc();
     }
@@ -492,7 +494,9 @@ public class DemoApplicationFenToAlgebraic {
                 .append("\n\tevaluateStatically calls: " + format(PerformanceData.getOrComputeStaticValueCalls))
                 .append("\n\tascending comparisons:   " + format(PerformanceData.ascendingComparisons))
                 .append("\n\tdescending comparisons:  " + format(PerformanceData.descendingComparisons))
-                .append("\n\tactual static value computations: " + format(PerformanceData.staticValueComputations));
+                .append("\n\tactual static value computations: " + format(PerformanceData.staticValueComputations))
+                .append("\n\tlazy evaluation exits: " + format(PerformanceData.lazyEvaluationExits))
+                .append("\n\tfull evaluations: " + format(PerformanceData.fullEvaluations));
     }
 
     /**
@@ -0,0 +1,73 @@
+package application;
+
+import model.Position;
+import movegenerator.MoveGenerator;
+import positionevaluator.EvaluationKernel;
+import positionevaluator.PositionEvaluator;
+import uciservice.FenParser;
+import utility.TimeUtility;
+
+/**
+ * Compares the throughput of the evaluation kernels.
+ * <p>
+ * Run once with and once without the Vector API, e.g.
+ * <pre>
+ * java --add-modules jdk.incubator.vector -cp SchachMotor.jar application.EvaluationKernelBenchmark
+ * java --add-modules jdk.incubator.vector -Dschachmotor.evaluation.kernel=scalar -cp SchachMotor.jar application.EvaluationKernelBenchmark
+ * </pre>
+ * Each measurement is preceded by a warm-up so the JIT compiler has compiled the kernels.
+ */
+public class EvaluationKernelBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5_000;
+    private static final int MEASURED_ROUNDS = 5_000;
+
+    private static final String[] FENS = {
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4",
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"
+    };
+
+    public static void main(String[] args) {
+        System.out.println("kernel: " + EvaluationKernel.getInstance().getClass().getSimpleName());
+        Position[][] batches = new Position[FENS.length][];
+        for (int i = 0; i < FENS.length; i++) {
+            batches[i] = MoveGenerator.generatePossibleMoves(FenParser.parseFen(FENS[i]));
+        }
+        measure("batch evaluation of children", batches, true);
+        measure("piece square summation", batches, false);
+        MoveGenerator.shutDownThreads();
+    }
+
+    private static void measure(String name, Position[][] batches, boolean batchEvaluation) {
+        run(batches, batchEvaluation, WARMUP_ROUNDS);
+        long start = System.nanoTime();
+        long checksum = run(batches, batchEvaluation, MEASURED_ROUNDS);
+        long elapsed = System.nanoTime() - start;
+        long positions = 0;
+        for (Position[] batch : batches) {
+            positions += batch.length;
+        }
+        positions *= MEASURED_ROUNDS;
+        System.out.println(name + ": " + (positions * TimeUtility.SECOND_TO_NANO / elapsed)
+            + " positions per second (checksum " + checksum + ")");
+    }
+
+    private static long run(Position[][] batches, boolean batchEvaluation, int rounds) {
+        long checksum = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (Position[] batch : batches) {
+                if (batchEvaluation) {
+                    int[] results = new int[batch.length];
+                    PositionEvaluator.evaluatePositions(batch, batch.length, results);
+                    checksum += results[round % batch.length];
+                } else {
+                    for (Position position : batch) {
+                        checksum += PositionEvaluator.sumPieceSquareValues(position.getBoard(), round % 2 == 0);
+                    }
+                }
+            }
+        }
+        return checksum;
+    }
+}
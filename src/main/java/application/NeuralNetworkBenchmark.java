@@ -0,0 +1,74 @@
+package application;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import gametree.GameNode;
+import gametree.ImpGameTree;
+import minimax.GameNodeMoveOrderingSelfDestructingAlphaBetaPruning;
+import model.Position;
+import movegenerator.MoveGenerator;
+import positionevaluator.NeuralEvaluator;
+import positionevaluator.NeuralNetwork;
+import uciservice.FenParser;
+import utility.TimeUtility;
+
+/**
+ * Compares the nodes per second of searches using the classical evaluation and the neural network.
+ * <p>
+ * Usage: java -cp SchachMotor.jar application.NeuralNetworkBenchmark [weight file]
+ * <br>
+ * Without a weight file a network with random weights and {@value #RANDOM_HIDDEN_SIZE} hidden neurons is used.
+ * Each search is run once as warm-up before it is measured.
+ */
+public class NeuralNetworkBenchmark {
+
+    private static final int DEPTH = 4;
+    private static final int RANDOM_HIDDEN_SIZE = 256;
+
+    private static final String[] FENS = {
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4",
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"
+    };
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0) {
+            NeuralEvaluator.loadNetwork(Path.of(args[0]));
+        } else {
+            NeuralEvaluator.setNetwork(NeuralNetwork.createRandom(RANDOM_HIDDEN_SIZE, 1));
+        }
+        System.out.println("hidden size: " + NeuralEvaluator.getNetwork().getHiddenSize() + ", depth: " + DEPTH);
+        NeuralEvaluator.setEnabled(false);
+        measure("classical");
+        NeuralEvaluator.setEnabled(true);
+        measure("neural network");
+        MoveGenerator.shutDownThreads();
+    }
+
+    private static void measure(String name) {
+        search();
+        long start = System.nanoTime();
+        long nodes = search();
+        long elapsed = System.nanoTime() - start;
+        System.out.println(name + ": " + nodes + " nodes, "
+            + (nodes * TimeUtility.SECOND_TO_NANO / elapsed) + " nodes per second");
+    }
+
+    /**
+     * Searches all positions with an empty evaluation cache.
+     * @return the number of evaluated nodes
+     */
+    private static long search() {
+        long nodes = 0;
+        for (String fen : FENS) {
+            GameNode.getEvaluationCache().clear();
+            Position position = FenParser.parseFen(fen);
+            GameNodeMoveOrderingSelfDestructingAlphaBetaPruning evaluator = new GameNodeMoveOrderingSelfDestructingAlphaBetaPruning();
+            new ImpGameTree(position, evaluator).calculateBestMove(DEPTH);
+            nodes += evaluator.getEvaluatedNodeCount();
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,396 @@
+package gametree;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import application.Conductor;
+import model.Move;
+import model.Position;
+import movegenerator.MoveListGenerator;
+import positionevaluator.PositionEvaluator;
+import utility.PerformanceData;
+
+/**
+ * View of a node stored by an {@link ArrayGameTree}.
+ * <p>
+ * Views are created on demand and only reference the index of the stored node,
+ * two views of the same node are equal. Nodes removed from their parent stay stored with their descendants
+ * and keep their position, so they can be inserted again like linked nodes.
+ * Indices of deleted nodes are reused, so views also reference the generation of the index
+ * and throw an {@link IllegalStateException} when accessed after their node was deleted.
+ * Nodes of other trees cannot be linked into the arrays, inserting them stores a new child
+ * reached by the move of their position instead (see {@link #insertChild(Node)}).
+ * <p>
+ * Children of nodes on the deepest stored level are {@link GameNode GameNodes}, their parent is a game node
+ * holding the same position as this node.
+ */
+public class ArrayGameNode implements Node<Position> {
+
+    private final ArrayGameTree tree;
+    private final int index;
+    private final int generation;
+
+    ArrayGameNode(ArrayGameTree tree, int index) {
+        this.tree = tree;
+        this.index = index;
+        this.generation = tree.getGeneration(index);
+    }
+
+    /**
+     * @return the index of the stored node
+     * @throws IllegalStateException if the node was deleted from the tree
+     */
+    private int index() {
+        if (tree.getGeneration(index) != generation) {
+            throw new IllegalStateException("the node was deleted from the tree");
+        }
+        return index;
+    }
+
+    /**
+     * @return the move leading to this node
+     */
+    public Move getRepresentedMove() {
+        return tree.getMove(index());
+    }
+
+    @Override
+    public Position getContent() {
+        return tree.getPosition(index());
+    }
+
+    /**
+     * Replaces the position of this node.
+     * Unless this node has no parent, its position is replayed from the parent's position by the move
+     * of the passed position ({@link Position#getMove()}), if that move differs from the represented move
+     * the children and values of this node are deleted.
+     * @throws IllegalArgumentException if this node has a parent and the position was not reached by a move
+     */
+    @Override
+    public void setContent(Position content) {
+        tree.setPosition(index(), content);
+    }
+
+    /**
+     * Does nothing, positions are not stored.
+     */
+    @Override
+    public void deleteContent() {
+        //do nothing
+    }
+
+    /**
+     * Adds a child node to this node.
+     * Stored nodes of the same tree are linked, other nodes are copied into a new stored child
+     * reached by the move of their position, without their value and children.
+     * Children of nodes on the deepest stored level are inserted into their game node parent.
+     * @throws IllegalArgumentException if a stored node is not on the level below this node
+     */
+    @Override
+    public void insertChild(Node<Position> node) {
+        if (tree.isFrontier(index())) {
+            tree.getOrCreateFrontierParent(index()).insertChild(node);
+            return;
+        }
+        if (isStoredNode(node)) {
+            ArrayGameNode child = (ArrayGameNode) node;
+            child.setParent(this);
+            tree.addChild(index(), child.index(), 0);
+        } else {
+            tree.addChild(index(), ArrayGameTree.NONE, node.getContent().getMove().pack());
+        }
+    }
+
+    @Override
+    public void deleteSelf() {
+        Node<Position> parent = getParent();
+        if (parent != null) {
+            parent.deleteChild(this);
+        }
+    }
+
+    @Override
+    public void deleteChild(Node<Position> node) {
+        if (tree.isFrontier(index())) {
+            GameNode frontierParent = tree.getFrontierParent(index());
+            if (frontierParent == null) {
+                throw new NoSuchElementException("child to remove could not be found");
+            }
+            frontierParent.deleteChild(node);
+            return;
+        }
+        if (!isStoredNode(node)) {
+            throw new NoSuchElementException("child to remove could not be found");
+        }
+        tree.removeChild(index(), ((ArrayGameNode) node).index());
+        node.unsetParent();
+    }
+
+    @Override
+    public void deleteChildren() {
+        if (tree.isFrontier(index())) {
+            GameNode frontierParent = tree.getFrontierParent(index());
+            if (frontierParent != null) {
+                frontierParent.deleteChildren();
+                tree.removeFrontierParent(index());
+            }
+            return;
+        }
+        tree.freeChildren(index());
+    }
+
+    /**
+     * Deletes the children except the best child, which stays reachable by {@link #getBestChild()}
+     * with its descendants but is no longer a child of this node.
+     * Game node children of nodes on the deepest stored level are recycled by their game node parent.
+     */
+    @Override
+    public void recycleChildren() {
+        if (tree.isFrontier(index())) {
+            GameNode frontierParent = tree.getFrontierParent(index());
+            if (frontierParent != null) {
+                frontierParent.setBestChild(tree.getFrontierBestChild(index()));
+                frontierParent.recycleChildren();
+                tree.removeFrontierParent(index());
+            }
+            return;
+        }
+        tree.recycleChildren(index());
+    }
+
+    @Override
+    public ArrayGameNode getParent() {
+        int parent = tree.getParent(index());
+        return parent == ArrayGameTree.NONE ? null : new ArrayGameNode(tree, parent);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the parent is not a stored node of the same tree on the level above
+     */
+    @Override
+    public void setParent(Node<Position> parent) {
+        if (!isStoredNode(parent)) {
+            throw new IllegalArgumentException("stored nodes can only be linked to nodes of the same tree");
+        }
+        tree.setParent(index(), ((ArrayGameNode) parent).index());
+    }
+
+    /**
+     * Removes the link to the parent, this node keeps its current position.
+     */
+    @Override
+    public void unsetParent() {
+        tree.unsetParent(index());
+    }
+
+    @Override
+    public Node<Position> getBestChild() {
+        if (tree.isFrontier(index())) {
+            return tree.getFrontierBestChild(index());
+        }
+        int bestChild = tree.getBestChild(index());
+        return bestChild == ArrayGameTree.NONE ? null : new ArrayGameNode(tree, bestChild);
+    }
+
+    @Override
+    public void setBestChild(Node<Position> bestChild) {
+        if (tree.isFrontier(index())) {
+            tree.setFrontierBestChild(index(), bestChild);
+        } else if (bestChild == null) {
+            tree.setBestChild(index(), ArrayGameTree.NONE);
+        } else {
+            tree.setBestChild(index(), ((ArrayGameNode) bestChild).index());
+        }
+    }
+
+    @Override
+    public void computeChildrenStaticValues() {
+        if (tree.isFrontier(index())) {
+            GameNode frontierParent = tree.getFrontierParent(index());
+            if (frontierParent != null) {
+                frontierParent.computeChildrenStaticValues();
+            }
+            return;
+        }
+        for (int i = 0; i < tree.getChildCount(index()); i++) {
+            new ArrayGameNode(tree, tree.getChild(index(), i)).computeOrGetStaticValueOrBetter();
+        }
+    }
+
+    @Override
+    public void writeContentToHistory() {
+        Conductor.appendPosition(getContent().toStringLight());
+    }
+
+    @Override
+    public void deleteContentFromHistory() {
+        Conductor.deleteLastPosition();
+    }
+
+    @Override
+    public boolean hasChildren() {
+        if (tree.isFrontier(index())) {
+            GameNode frontierParent = tree.getFrontierParent(index());
+            return frontierParent != null && frontierParent.hasChildren();
+        }
+        return tree.getChildCount(index()) != 0;
+    }
+
+    @Override
+    public boolean hasOrComputeChildren() {
+        if (tree.isFrontier(index())) {
+            return tree.getOrCreateFrontierParent(index()).hasOrComputeChildren();
+        }
+        if (tree.getChildCount(index()) != 0) {
+            return true;
+        }
+        if (tree.hasFlag(index(), ArrayGameTree.TERMINAL)) {
+            return false;
+        }
+        int[] moves = MoveListGenerator.generateMoves(getContent());
+        if (moves.length == 0) {
+            tree.addFlags(index(), ArrayGameTree.TERMINAL);
+            return false;
+        }
+        tree.storeChildren(index(), moves);
+        return true;
+    }
+
+    @Override
+    public List<? extends Node<Position>> getOrComputeChildren() throws ComputeChildrenException {
+        if (tree.isFrontier(index())) {
+            return tree.getOrCreateFrontierParent(index()).getOrComputeChildren();
+        }
+        if (!hasOrComputeChildren()) {
+            throw new ComputeChildrenException("no children could be generated for this position: " + getContent());
+        }
+        return new ChildList();
+    }
+
+    @Override
+    public List<? extends Node<Position>> getChildren() {
+        if (tree.isFrontier(index())) {
+            GameNode frontierParent = tree.getFrontierParent(index());
+            return frontierParent == null ? null : frontierParent.getChildren();
+        }
+        return tree.getChildCount(index()) == 0 ? null : new ChildList();
+    }
+
+    //  *************************************
+    //  *     evaluable functionality       *
+    //  *************************************
+
+    @Override
+    public int getValue() throws UninitializedValueException {
+        if (tree.hasFlag(index(), (byte) (ArrayGameTree.STATIC_VALUE | ArrayGameTree.STATIC_ESTIMATE
+                | ArrayGameTree.LEAF_VALUE | ArrayGameTree.EXPLICIT_VALUE))) {
+            return tree.getValue(index());
+        }
+        throw new UninitializedValueException("this node was not yet evaluated");
+    }
+
+    @Override
+    public int computeOrGetStaticValueOrBetter() {
+        PerformanceData.getOrComputeStaticValueCalls += 1;
+        if (!tree.hasFlag(index(), ArrayGameTree.STATIC_VALUE)) {
+            tree.setValue(index(), GameNode.computeStaticValue(getContent()));
+            tree.addFlags(index(), ArrayGameTree.STATIC_VALUE);
+        }
+        return tree.getValue(index());
+    }
+
+    /**
+     * Always computes the exact value, stored levels are small compared to the whole tree.
+     */
+    @Override
+    public int computeOrGetStaticValueOrBetter(int alpha, int beta) {
+        return computeOrGetStaticValueOrBetter();
+    }
+
+    @Override
+    public int computeOrGetLeafValueOrBetter(int depth) {
+        PerformanceData.getOrComputeLeafValueCalls += 1;
+        if (!tree.hasFlag(index(), ArrayGameTree.LEAF_VALUE)) {
+            PerformanceData.leafValueComputations += 1;
+            tree.setValue(index(), PositionEvaluator.evaluateLeafPosition(getContent(), depth));
+            tree.addFlags(index(), ArrayGameTree.STATIC_VALUE | ArrayGameTree.LEAF_VALUE);
+        }
+        return tree.getValue(index());
+    }
+
+    @Override
+    public int getExplicitValue() throws UninitializedValueException {
+        if (tree.hasFlag(index(), ArrayGameTree.EXPLICIT_VALUE)) {
+            return tree.getValue(index());
+        }
+        throw new UninitializedValueException("no value was set explicitly");
+    }
+
+    @Override
+    public void setValue(int value) {
+        tree.setValue(index(), value);
+        tree.addFlags(index(), ArrayGameTree.STATIC_VALUE | ArrayGameTree.LEAF_VALUE | ArrayGameTree.EXPLICIT_VALUE);
+    }
+
+    /**
+     * @return whether the node is stored by the same tree as this node
+     */
+    private boolean isStoredNode(Node<Position> node) {
+        return node instanceof ArrayGameNode && ((ArrayGameNode) node).tree == tree;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof ArrayGameNode) {
+            ArrayGameNode other = (ArrayGameNode) obj;
+            return tree == other.tree && index == other.index && generation == other.generation;
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return getContent().toString();
+    }
+
+    /**
+     * The children of this node in their sorted order, sorting the list reorders the stored children.
+     */
+    private class ChildList extends AbstractList<ArrayGameNode> {
+
+        @Override
+        public ArrayGameNode get(int i) {
+            if (i < 0 || i >= size()) {
+                throw new IndexOutOfBoundsException(i);
+            }
+            return new ArrayGameNode(tree, tree.getChild(index(), i));
+        }
+
+        @Override
+        public int size() {
+            return tree.getChildCount(index());
+        }
+
+        @Override
+        public void sort(Comparator<? super ArrayGameNode> comparator) {
+            ArrayGameNode[] children = toArray(new ArrayGameNode[size()]);
+            Arrays.sort(children, comparator);
+            int[] sorted = new int[children.length];
+            for (int i = 0; i < children.length; i++) {
+                sorted[i] = children[i].index();
+            }
+            tree.setChildOrder(index(), sorted);
+        }
+    }
+}
@@ -0,0 +1,550 @@
+package gametree;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import model.Move;
+import model.Position;
+import movegenerator.MoveGenerator;
+
+/**
+ * Game tree storing its nodes in parallel primitive arrays instead of linked node objects.
+ * <p>
+ * A node is an index into the arrays. Each node stores the move leading to it packed into an int,
+ * its value, its evaluation flags packed into a byte, the index of its parent and best child
+ * and the range of entries of the order array listing its children. Generated siblings are stored next to each other
+ * and their order (see {@link java.util.List#sort(java.util.Comparator)}) is kept in the order array,
+ * so sorting children does not move them and node indices stay valid.
+ * Children are stored as the moves generated by {@link movegenerator.MoveListGenerator}.
+ * Positions are not stored but replayed from the root, the positions along the most recently accessed
+ * path are cached since searches access nodes depth first. Nodes without a parent, i.e. the root
+ * and nodes removed from their parent, keep their position.
+ * <p>
+ * Indices of deleted nodes are reused for new nodes. Each index has a generation that is increased
+ * when its node is deleted, so {@link ArrayGameNode ArrayGameNodes} of deleted nodes are detected
+ * (see {@link ArrayGameNode}). Removed nodes and best children kept by {@link ArrayGameNode#recycleChildren()}
+ * are not deleted, their indices are not reused while they are stored.
+ * <p>
+ * {@link ArrayGameNode ArrayGameNodes} are short-lived views of the stored nodes implementing the node contract,
+ * so the tree can be evaluated by any {@link minimax.TreeEvaluator TreeEvaluator &lt; Position &gt;}.
+ * Only the first <code>storedLevels</code> levels beneath the root are stored in the arrays,
+ * children of nodes on the deepest stored level are ordinary {@link GameNode GameNodes}
+ * that are discarded by self destructing evaluators. Use the same number of stored levels as the
+ * evaluator (see {@link minimax.StoringMoveOrderingSelfDestructingAlphaBetaPruning}).
+ * <p>
+ * A stored node needs {@link #BYTES_PER_NODE} bytes, compared to several hundred bytes
+ * for a {@link GameNode} together with its child list and position.
+ * The tree is not synchronized.
+ */
+public final class ArrayGameTree implements Tree<ArrayGameNode> {
+
+    /**
+     * Bytes of array storage per node: move, value, flags, depth, parent, first child,
+     * child count, best child, order and generation.
+     */
+    public static final int BYTES_PER_NODE = 4 + 4 + 1 + 1 + 4 + 4 + 2 + 4 + 4 + 4;
+
+    static final byte STATIC_VALUE = 1;
+    static final byte STATIC_ESTIMATE = 2;
+    static final byte LEAF_VALUE = 4;
+    static final byte EXPLICIT_VALUE = 8;
+    static final byte TERMINAL = 16;
+
+    static final int NONE = -1;
+
+    private final int storedLevels;
+
+    private int[] moves;
+    private int[] values;
+    private byte[] flags;
+    private byte[] depths;
+    private int[] parents;
+    private int[] firstChildren;
+    private short[] childCounts;
+    private int[] bestChildren;
+    /**
+     * Sorted order of siblings, entry firstChild + i holds the index of the i-th child.
+     */
+    private int[] order;
+    /**
+     * Increased whenever the node at an index is deleted.
+     */
+    private int[] generations;
+    private int size;
+    private int garbage = 0;
+
+    /**
+     * Positions along the most recently accessed path, indexed by depth.
+     */
+    private Position[] pathPositions;
+    private int[] pathIndices;
+
+    /**
+     * Game nodes holding the children of deepest stored nodes that are being evaluated.
+     */
+    private final Map<Integer, GameNode> frontierParents = new HashMap<Integer, GameNode>();
+    /**
+     * Best children of deepest stored nodes, only kept while the node is the best child of its parent.
+     */
+    private final Map<Integer, Node<Position>> frontierBestChildren = new HashMap<Integer, Node<Position>>();
+    /**
+     * Positions of the nodes without a parent, they cannot be replayed.
+     */
+    private final Map<Integer, Position> rootPositions = new HashMap<Integer, Position>();
+
+    private ArrayGameNode root;
+
+    /**
+     * Creates a tree with only a root node.
+     * @param position the position of the root
+     * @param storedLevels the number of levels beneath the root that are stored in arrays, at least 1
+     */
+    public ArrayGameTree(Position position, int storedLevels) {
+        if (storedLevels < 1 || storedLevels > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("at least one level has to be stored");
+        }
+        this.storedLevels = storedLevels;
+        allocate(1024);
+        pathPositions = new Position[storedLevels + 1];
+        pathIndices = new int[storedLevels + 1];
+        Arrays.fill(pathIndices, NONE);
+        size = 1;
+        parents[0] = NONE;
+        bestChildren[0] = NONE;
+        rootPositions.put(0, position);
+        pathPositions[0] = position;
+        pathIndices[0] = 0;
+        root = new ArrayGameNode(this, 0);
+    }
+
+    private void allocate(int capacity) {
+        moves = new int[capacity];
+        values = new int[capacity];
+        flags = new byte[capacity];
+        depths = new byte[capacity];
+        parents = new int[capacity];
+        firstChildren = new int[capacity];
+        childCounts = new short[capacity];
+        bestChildren = new int[capacity];
+        order = new int[capacity];
+        generations = new int[capacity];
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= moves.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, 2 * moves.length);
+        moves = Arrays.copyOf(moves, newCapacity);
+        values = Arrays.copyOf(values, newCapacity);
+        flags = Arrays.copyOf(flags, newCapacity);
+        depths = Arrays.copyOf(depths, newCapacity);
+        parents = Arrays.copyOf(parents, newCapacity);
+        firstChildren = Arrays.copyOf(firstChildren, newCapacity);
+        childCounts = Arrays.copyOf(childCounts, newCapacity);
+        bestChildren = Arrays.copyOf(bestChildren, newCapacity);
+        order = Arrays.copyOf(order, newCapacity);
+        generations = Arrays.copyOf(generations, newCapacity);
+    }
+
+    @Override
+    public ArrayGameNode getRoot() {
+        return root;
+    }
+
+    @Override
+    public void delete() {
+        freeChildren(0);
+        frontierParents.clear();
+        frontierBestChildren.clear();
+        rootPositions.clear();
+        root = null;
+    }
+
+    public int getStoredLevels() {
+        return storedLevels;
+    }
+
+    /**
+     * @return the number of occupied indices, including nodes that were deleted but not reclaimed
+     */
+    public int getNodeCount() {
+        return size;
+    }
+
+    /**
+     * @return the number of indices occupied by deleted nodes that could not be reclaimed yet,
+     * not including entries left unused by {@link #addChild(int, int, int)}
+     */
+    public int getGarbageCount() {
+        return garbage;
+    }
+
+    /**
+     * @return the number of bytes allocated by the arrays storing the nodes
+     */
+    public long getAllocatedBytes() {
+        return (long) moves.length * BYTES_PER_NODE;
+    }
+
+    //  *************************************
+    //  *         node storage              *
+    //  *************************************
+
+    int getDepth(int node) {
+        return depths[node];
+    }
+
+    int getParent(int node) {
+        return parents[node];
+    }
+
+    int getValue(int node) {
+        return values[node];
+    }
+
+    void setValue(int node, int value) {
+        values[node] = value;
+    }
+
+    boolean hasFlag(int node, byte flag) {
+        return (flags[node] & flag) != 0;
+    }
+
+    void addFlags(int node, int flag) {
+        flags[node] = (byte) (flags[node] | flag);
+    }
+
+    /**
+     * @return the generation of the node at the index, increased whenever a node at the index is deleted
+     */
+    int getGeneration(int node) {
+        return generations[node];
+    }
+
+    int getChildCount(int node) {
+        return childCounts[node];
+    }
+
+    /**
+     * @return the index of the i-th child in sorted order
+     */
+    int getChild(int node, int i) {
+        return order[firstChildren[node] + i];
+    }
+
+    /**
+     * Replaces the sorted order of the children.
+     * @param node the parent
+     * @param children the indices of all children of the parent in their new order
+     */
+    void setChildOrder(int node, int[] children) {
+        System.arraycopy(children, 0, order, firstChildren[node], childCounts[node]);
+    }
+
+    int getBestChild(int node) {
+        return bestChildren[node];
+    }
+
+    /**
+     * Stores the best child of a stored node.
+     * Best children of deepest stored nodes are discarded once their parent prefers a sibling.
+     */
+    void setBestChild(int node, int bestChild) {
+        int previous = bestChildren[node];
+        if (previous != NONE && previous != bestChild && depths[node] == storedLevels - 1) {
+            frontierBestChildren.remove(previous);
+        }
+        bestChildren[node] = bestChild;
+    }
+
+    /**
+     * @return whether the children of the node are game nodes instead of stored nodes
+     */
+    boolean isFrontier(int node) {
+        return depths[node] == storedLevels;
+    }
+
+    GameNode getFrontierParent(int node) {
+        return frontierParents.get(node);
+    }
+
+    GameNode getOrCreateFrontierParent(int node) {
+        GameNode parent = frontierParents.get(node);
+        if (parent == null) {
+            parent = new GameNode(getPosition(node));
+            frontierParents.put(node, parent);
+        }
+        return parent;
+    }
+
+    void removeFrontierParent(int node) {
+        frontierParents.remove(node);
+    }
+
+    Node<Position> getFrontierBestChild(int node) {
+        return frontierBestChildren.get(node);
+    }
+
+    void setFrontierBestChild(int node, Node<Position> bestChild) {
+        if (bestChild == null) {
+            frontierBestChildren.remove(node);
+        } else {
+            frontierBestChildren.put(node, bestChild);
+        }
+    }
+
+    /**
+     * Stores the children of a node, in the order of the passed moves.
+     * @param node the parent
+     * @param packedMoves the moves leading to the children, packed by {@link Move#pack(int, int, byte)}
+     */
+    void storeChildren(int node, int[] packedMoves) {
+        int first = size;
+        ensureCapacity(first + packedMoves.length);
+        byte depth = (byte) (depths[node] + 1);
+        for (int i = 0; i < packedMoves.length; i++) {
+            int child = first + i;
+            moves[child] = packedMoves[i];
+            values[child] = 0;
+            flags[child] = 0;
+            depths[child] = depth;
+            parents[child] = node;
+            firstChildren[child] = 0;
+            childCounts[child] = 0;
+            bestChildren[child] = NONE;
+            order[child] = child;
+        }
+        size += packedMoves.length;
+        firstChildren[node] = first;
+        childCounts[node] = (short) packedMoves.length;
+    }
+
+    /**
+     * Appends a child to the children of a node.
+     * The children of a node occupy consecutive entries of the order array. Unless they are the last entries,
+     * they are copied behind the last entry, leaving their previous entries and the node entries
+     * at the indices of the copy unused. Node indices are not changed.
+     * @param node the parent
+     * @param child the index of a node without parent, {@link #NONE} to store a new child
+     * @param packedMove the move leading to the new child, ignored if child is not {@link #NONE}
+     * @return the index of the child
+     */
+    int addChild(int node, int child, int packedMove) {
+        int count = childCounts[node];
+        int first = firstChildren[node];
+        int entry;
+        if (count != 0 && first + count == size) {
+            ensureCapacity(size + 1);
+            entry = size;
+            size += 1;
+        } else {
+            ensureCapacity(size + count + 1);
+            System.arraycopy(order, first, order, size, count);
+            firstChildren[node] = size;
+            entry = size + count;
+            size += count + 1;
+        }
+        if (child == NONE) {
+            child = entry;
+            moves[child] = packedMove;
+            values[child] = 0;
+            flags[child] = 0;
+            depths[child] = (byte) (depths[node] + 1);
+            parents[child] = node;
+            firstChildren[child] = 0;
+            childCounts[child] = 0;
+            bestChildren[child] = NONE;
+        }
+        order[entry] = child;
+        childCounts[node] = (short) (count + 1);
+        return child;
+    }
+
+    /**
+     * Removes a child from the children of a node, the child and its descendants stay stored.
+     * Its parent has to be unset separately (see {@link #unsetParent(int)}).
+     * @param node the parent
+     * @param child the index of the child
+     * @throws NoSuchElementException if the node is not the parent of the child
+     */
+    void removeChild(int node, int child) {
+        int count = childCounts[node];
+        int first = firstChildren[node];
+        for (int i = 0; i < count; i++) {
+            if (order[first + i] == child) {
+                System.arraycopy(order, first + i + 1, order, first + i, count - i - 1);
+                childCounts[node] = (short) (count - 1);
+                return;
+            }
+        }
+        throw new NoSuchElementException("child to remove could not be found");
+    }
+
+    /**
+     * Links a node without parent to a parent, without adding it to the children of the parent.
+     * @param node the index of the node
+     * @param parent the index of the parent, on the level above the node
+     * @throws IllegalStateException if the node already has a parent
+     * @throws IllegalArgumentException if the parent is not on the level above the node
+     */
+    void setParent(int node, int parent) {
+        if (parents[node] != NONE) {
+            throw new IllegalStateException("a node can only be child to a single node, this node already has a parent");
+        }
+        if (depths[parent] + 1 != depths[node]) {
+            throw new IllegalArgumentException("stored nodes keep their level, the parent has to be on the level above");
+        }
+        parents[node] = parent;
+        rootPositions.remove(node);
+    }
+
+    /**
+     * Removes the link of a node to its parent, the node keeps its current position.
+     * @param node the index of the node
+     */
+    void unsetParent(int node) {
+        if (parents[node] == NONE) {
+            return;
+        }
+        rootPositions.put(node, getPosition(node));
+        parents[node] = NONE;
+    }
+
+    /**
+     * Replaces the position of a node.
+     * Positions of nodes with a parent are replayed from the parent by the move of the position.
+     * If that move differs from the stored move, the children and values of the node are deleted.
+     * @param node the index of the node
+     * @param position the new position, reached by its move ({@link Position#getMove()}) unless the node has no parent
+     */
+    void setPosition(int node, Position position) {
+        if (parents[node] == NONE) {
+            rootPositions.put(node, position);
+        } else {
+            Move move = position.getMove();
+            if (move == null) {
+                throw new IllegalArgumentException("the position of a node with a parent has to be reached by a move");
+            }
+            if (move.pack() != moves[node]) {
+                moves[node] = move.pack();
+                flags[node] = 0;
+                freeChildren(node);
+                frontierParents.remove(node);
+                frontierBestChildren.remove(node);
+            }
+        }
+        GameNode frontierParent = frontierParents.get(node);
+        if (frontierParent != null) {
+            frontierParent.setContent(position);
+        }
+        // cached positions of descendants were replayed from the previous position
+        int depth = depths[node];
+        for (int i = depth + 1; i < pathIndices.length; i++) {
+            pathIndices[i] = NONE;
+            pathPositions[i] = null;
+        }
+        pathIndices[depth] = node;
+        pathPositions[depth] = position;
+    }
+
+    /**
+     * Deletes the children of a node and their descendants except the best child, which stays stored
+     * with its descendants but is not a child of the node anymore.
+     * Its index is not reused since the range of the children is not reclaimed.
+     * @param node the parent
+     */
+    void recycleChildren(int node) {
+        int bestChild = bestChildren[node];
+        if (bestChild == NONE || !isChild(node, bestChild)) {
+            freeChildren(node);
+            return;
+        }
+        removeChild(node, bestChild);
+        unsetParent(bestChild);
+        // the range still ends behind the best child, so it is not reclaimed
+        freeChildren(node);
+        bestChildren[node] = bestChild;
+    }
+
+    private boolean isChild(int node, int child) {
+        int first = firstChildren[node];
+        for (int i = 0; i < childCounts[node]; i++) {
+            if (order[first + i] == child) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deletes the children of a node and their descendants.
+     * Their storage is reclaimed if they occupy the last indices, which is the case
+     * when subtrees are deleted in the order they were created.
+     * @param node the parent
+     */
+    void freeChildren(int node) {
+        int count = childCounts[node];
+        if (count == 0) {
+            return;
+        }
+        int first = firstChildren[node];
+        // children are deleted from the last index on, so subtrees created later are reclaimed first
+        int[] children = Arrays.copyOfRange(order, first, first + count);
+        Arrays.sort(children);
+        int appended = 0;
+        for (int i = count - 1; i >= 0; i--) {
+            int child = children[i];
+            freeChildren(child);
+            frontierParents.remove(child);
+            frontierBestChildren.remove(child);
+            generations[child]++;
+            if (pathIndices[depths[child]] == child) {
+                pathIndices[depths[child]] = NONE;
+                pathPositions[depths[child]] = null;
+            }
+            if (child < first || child >= first + count) {
+                appended++;
+            }
+        }
+        childCounts[node] = 0;
+        bestChildren[node] = NONE;
+        if (first + count == size) {
+            size = first;
+            // children linked by addChild(int, int, int) outside of the reclaimed range stay garbage
+            // deleted ranges directly beneath the reclaimed one cannot be told apart, they stay garbage
+            garbage += appended;
+        } else {
+            garbage += count;
+        }
+    }
+
+    /**
+     * Returns the position of a node, replaying the moves from the nearest cached ancestor.
+     * @param node the index of the node
+     * @return the position of the node
+     */
+    Position getPosition(int node) {
+        int depth = depths[node];
+        if (pathIndices[depth] == node) {
+            return pathPositions[depth];
+        }
+        Position position = parents[node] == NONE ? rootPositions.get(node)
+            : MoveGenerator.applyMove(getPosition(parents[node]), Move.unpack(moves[node]));
+        pathIndices[depth] = node;
+        pathPositions[depth] = position;
+        return position;
+    }
+
+    /**
+     * @return the move leading to the node, null for the root
+     */
+    Move getMove(int node) {
+        if (node == 0) {
+            return getPosition(0).getMove();
+        }
+        return Move.unpack(moves[node]);
+    }
+}
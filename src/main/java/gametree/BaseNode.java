@@ -17,11 +17,21 @@ public abstract class BaseNode<ContentType> implements Node<ContentType> {
     private Node<ContentType> parent;
     private ContentType content;
     private List<Node<ContentType>> children;
+    private Node<ContentType> bestChild;
 
     private int value;
     private boolean isStaticValueOrBetter = false;
+    /**
+     * Whether the stored value is an estimate outside the window passed to
+     * {@link #computeOrGetStaticValueOrBetter(int, int)}.
+     */
+    private boolean isStaticEstimate = false;
     private boolean isStaticLeafValueOrBetter = false;
     private boolean isExplicitValue = false;
+    /**
+     * Whether it is known that no children can be computed for this node.
+     */
+    private boolean isTerminal = false;
 
     /**
      * Creates a root node.
@@ -82,6 +92,58 @@ public abstract class BaseNode<ContentType> implements Node<ContentType> {
         }
     }
 
+    /**
+     * Removes all children of this node and passes all of them except the best child to {@link #recycle(Node)}.
+     * The best child stays reachable by {@link #getBestChild()}.
+     * Iterates by index, so recycling children does not allocate.
+     */
+    @Override
+    public void recycleChildren() {
+        if (hasChildren()) {
+            for (int i = 0; i < children.size(); i++) {
+                Node<ContentType> child = children.get(i);
+                child.unsetParent();
+                if (child != bestChild) {
+                    recycle(child);
+                }
+            }
+            this.children.clear();
+        }
+    }
+
+    /**
+     * Hook for subclasses.
+     * Called by {@link #recycleChildren()} for every removed child that is no longer referenced by this node,
+     * intended to allow for reusing the storage of the child.
+     * @param child the removed child
+     */
+    protected void recycle(Node<ContentType> child) {
+        //do nothing, the child is garbage collected
+    }
+
+    /**
+     * Reinitializes this node as a root node storing the passed content, as if it was newly created.
+     * The list storing the children is kept to reuse its storage.
+     * <p>
+     * <b>Note:</b> This node must not be referenced by any other node.
+     * </p>
+     * @param content content stored by the node
+     */
+    protected void reset(ContentType content) {
+        this.parent = null;
+        this.content = content;
+        if (this.children != null) {
+            this.children.clear();
+        }
+        this.bestChild = null;
+        this.value = 0;
+        this.isStaticValueOrBetter = false;
+        this.isStaticEstimate = false;
+        this.isStaticLeafValueOrBetter = false;
+        this.isExplicitValue = false;
+        this.isTerminal = false;
+    }
+
     /**
      * @throws NoSuchElementException if this node has a parent but it could not be deleted from it
      */
@@ -150,6 +212,16 @@ public abstract class BaseNode<ContentType> implements Node<ContentType> {
         this.parent = null;
     }
 
+    @Override
+    public Node<ContentType> getBestChild() {
+        return this.bestChild; //possibly null
+    }
+
+    @Override
+    public void setBestChild(Node<ContentType> bestChild) {
+        this.bestChild = bestChild;
+    }
+
     /**
      * Creates a child of this node.
      * The nodes are properly linked to each other.
@@ -173,6 +245,40 @@ public abstract class BaseNode<ContentType> implements Node<ContentType> {
      */
     protected abstract void computeChildren() throws ComputeChildrenException;
 
+    /**
+     * Computes this node's children like {@link #computeChildren()}, but reports terminal nodes by returning false.
+     * <p>
+     * The default implementation catches the exception thrown by {@link #computeChildren()},
+     * override this if terminal nodes can be detected without it.
+     * This is a helper method called by {@link #hasOrComputeChildren()}.
+     * </p>
+     * @return whether children could be computed
+     */
+    protected boolean computeChildrenIfAny() {
+        try {
+            computeChildren();
+            return true;
+        } catch (ComputeChildrenException exception) {
+            return false;
+        }
+    }
+
+    @Override
+    public final boolean hasOrComputeChildren() {
+        if (hasChildren()) {
+            return true;
+        }
+        if (isTerminal) {
+            return false;
+        }
+        if (computeChildrenIfAny()) {
+            detachChildGenerationData();
+            return true;
+        }
+        isTerminal = true;
+        return false;
+    }
+
     @Override
     public final List<? extends Node<ContentType>> getOrComputeChildren() throws ComputeChildrenException {
         if (!hasChildren()) {
@@ -207,7 +313,7 @@ public abstract class BaseNode<ContentType> implements Node<ContentType> {
 
     @Override
     public final int getValue() throws UninitializedValueException {
-        if (isStaticValueOrBetter || isStaticLeafValueOrBetter || isExplicitValue) {
+        if (isStaticValueOrBetter || isStaticLeafValueOrBetter || isExplicitValue || isStaticEstimate) {
             return value;
         }
         throw new UninitializedValueException("this node was not yet evaluated");
@@ -224,12 +330,75 @@ public abstract class BaseNode<ContentType> implements Node<ContentType> {
         return value;
     }
 
+    @Override
+    public final int computeOrGetStaticValueOrBetter(int alpha, int beta) {
+        PerformanceData.getOrComputeStaticValueCalls += 1;
+        if (isStaticValueOrBetter) {
+            return value;
+        }
+        value = computeStaticValue(alpha, beta);
+        if (value > alpha && value < beta) {
+            isStaticValueOrBetter = true;
+        } else {
+            // might be an estimate, an exact value will be computed if requested without window
+            isStaticEstimate = true;
+        }
+        return value;
+    }
+
     /**
      * Computes the static value of this evaluable.
      * @return the static evaluation of this evaluable
      */
     protected abstract int computeStaticValue();
 
+    /**
+     * Evaluates the children one by one, override this to evaluate them in a batch.
+     */
+    @Override
+    public void computeChildrenStaticValues() {
+        if (hasChildren()) {
+            for (Node<ContentType> child : children) {
+                child.computeOrGetStaticValueOrBetter();
+            }
+        }
+    }
+
+    /**
+     * @return whether a static value or better is stored, i.e. {@link #computeOrGetStaticValueOrBetter()}
+     * would not compute a value
+     */
+    protected boolean hasStaticValueOrBetter() {
+        return isStaticValueOrBetter;
+    }
+
+    /**
+     * Stores a static value that was computed outside of {@link #computeStaticValue()},
+     * e.g. by evaluating many nodes at once.
+     * Does nothing if a static value or better is already stored.
+     * @param value the static value of this node
+     */
+    protected void storeStaticValue(int value) {
+        if (isStaticValueOrBetter) {
+            return;
+        }
+        isStaticValueOrBetter = true;
+        this.value = value;
+    }
+
+    /**
+     * Computes the static value of this evaluable, which only has to be exact if it lies between alpha and beta
+     * (see {@link #computeOrGetStaticValueOrBetter(int, int)}).
+     * <p>
+     * Override this if cheaper estimates are available, the default implementation computes the exact value.
+     * @param alpha minimum score that white player is already guaranteed of
+     * @param beta maximum score that black player is already guaranteed of
+     * @return the static evaluation of this evaluable or an estimate outside the window
+     */
+    protected int computeStaticValue(int alpha, int beta) {
+        return computeStaticValue();
+    }
+
     @Override
     public final int computeOrGetLeafValueOrBetter(int depth) {
         PerformanceData.getOrComputeLeafValueCalls += 1;
@@ -0,0 +1,347 @@
+package gametree;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import application.Conductor;
+import model.Move;
+import model.Position;
+import movegenerator.MoveGenerator;
+import movegenerator.MoveListGenerator;
+import positionevaluator.PositionEvaluator;
+import utility.PerformanceData;
+
+/**
+ * Node containing a position that only stores its position while it is being evaluated.
+ * <p>
+ * {@link DetachingGameNode} deletes positions as well, but every node still carries the fields of {@link BaseNode},
+ * a {@link Move} object and a child list. A compact node only stores the move leading to it packed into an int
+ * (see {@link Move#pack(int, int, byte)}), its value and evaluation flags packed into a single long,
+ * and its children in an array of exact size, so a stored node needs about {@link #ESTIMATED_BYTES} bytes.
+ * <p>
+ * The position of a node is kept from {@link #writeContentToHistory()} until {@link #deleteContentFromHistory()},
+ * i.e. while an evaluator visits the node or its descendants. Otherwise {@link #getContent()} regenerates the position
+ * by replaying the moves from the nearest ancestor that holds its position, which is the parent for
+ * nodes accessed during an evaluation. The root always keeps its position.
+ * <p>
+ * Children are generated by {@link MoveListGenerator}. Compact nodes are evaluated exactly, like {@link ArrayGameNode},
+ * and can be evaluated by any {@link minimax.TreeEvaluator TreeEvaluator &lt; Position &gt;},
+ * e.g. as the root of an {@link ImpTree}. Pass {@link #ESTIMATED_BYTES} to
+ * {@link minimax.StoringMoveOrderingSelfDestructingAlphaBetaPruning#StoringMoveOrderingSelfDestructingAlphaBetaPruning(int, long, int)}
+ * to limit a stored tree of compact nodes by a memory budget.
+ */
+public class CompactGameNode implements Node<Position> {
+
+    /**
+     * Estimated number of bytes retained by a stored compact node including its entry in the parent's child array,
+     * on a 64 bit JVM with compressed references.
+     */
+    public static final int ESTIMATED_BYTES = 40;
+
+    private static final int NO_MOVE = -1;
+
+    private static final long VALUE_MASK = 0xFFFFFFFFL;
+    private static final long STATIC_VALUE = 1L << 32;
+    private static final long LEAF_VALUE = 1L << 33;
+    private static final long EXPLICIT_VALUE = 1L << 34;
+    private static final long TERMINAL = 1L << 35;
+
+    private CompactGameNode parent;
+    private Position content;
+    private CompactGameNode[] children;
+    private CompactGameNode bestChild;
+    private final int move;
+    /**
+     * The value in the lower 32 bits and the evaluation flags in the upper bits.
+     */
+    private long evaluation = 0;
+
+    /**
+     * Creates a root node.
+     * @param position position stored by the node
+     */
+    public CompactGameNode(Position position) {
+        this.content = position;
+        this.move = NO_MOVE;
+    }
+
+    private CompactGameNode(CompactGameNode parent, int move) {
+        this.parent = parent;
+        this.move = move;
+    }
+
+    /**
+     * @return the move leading to this node, for the root the move stored in its position
+     */
+    public Move getRepresentedMove() {
+        if (move == NO_MOVE) {
+            return content == null ? null : content.getMove();
+        }
+        return Move.unpack(move);
+    }
+
+    /**
+     * @return whether this node currently holds its position instead of regenerating it
+     */
+    public boolean holdsContent() {
+        return content != null;
+    }
+
+    /**
+     * Returns the stored position or regenerates it from the nearest ancestor holding its position.
+     * A regenerated position is not stored.
+     * @throws IllegalStateException if neither this node nor any ancestor holds a position
+     */
+    @Override
+    public Position getContent() {
+        if (content != null) {
+            return content;
+        }
+        if (parent == null) {
+            throw new IllegalStateException("cannot regenerate the position because no ancestor holds a position");
+        }
+        return MoveGenerator.applyMove(parent.getContent(), Move.unpack(move));
+    }
+
+    @Override
+    public void setContent(Position content) {
+        this.content = content;
+    }
+
+    @Override
+    public void deleteContent() {
+        content = null;
+    }
+
+    /**
+     * Stores the position of this node until {@link #deleteContentFromHistory()}, so the position
+     * does not have to be regenerated while this node and its descendants are evaluated.
+     */
+    @Override
+    public void writeContentToHistory() {
+        content = getContent();
+        Conductor.appendPosition(content.toStringLight());
+    }
+
+    /**
+     * Deletes the position of this node unless it is the root.
+     */
+    @Override
+    public void deleteContentFromHistory() {
+        Conductor.deleteLastPosition();
+        if (parent != null) {
+            content = null;
+        }
+    }
+
+    //  *************************************
+    //  *         tree structure            *
+    //  *************************************
+
+    @Override
+    public void insertChild(Node<Position> node) {
+        node.setParent(this);
+        CompactGameNode child = (CompactGameNode) node;
+        if (children == null) {
+            children = new CompactGameNode[] {child};
+        } else {
+            children = Arrays.copyOf(children, children.length + 1);
+            children[children.length - 1] = child;
+        }
+    }
+
+    @Override
+    public void deleteSelf() {
+        if (parent != null) {
+            parent.deleteChild(this);
+        }
+    }
+
+    @Override
+    public void deleteChild(Node<Position> node) {
+        if (children != null) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == node) {
+                    CompactGameNode[] remaining = new CompactGameNode[children.length - 1];
+                    System.arraycopy(children, 0, remaining, 0, i);
+                    System.arraycopy(children, i + 1, remaining, i, remaining.length - i);
+                    children = remaining.length == 0 ? null : remaining;
+                    node.unsetParent();
+                    return;
+                }
+            }
+        }
+        throw new NoSuchElementException("child to remove could not be found");
+    }
+
+    @Override
+    public void deleteChildren() {
+        if (children != null) {
+            for (CompactGameNode child : children) {
+                child.unsetParent();
+            }
+            children = null;
+        }
+    }
+
+    /**
+     * Same as {@link #deleteChildren()}, compact nodes are not pooled.
+     * The best child stores its position since it cannot be regenerated once the child is removed from this node.
+     */
+    @Override
+    public void recycleChildren() {
+        if (bestChild != null && bestChild.parent == this && bestChild.content == null) {
+            bestChild.content = bestChild.getContent();
+        }
+        deleteChildren();
+    }
+
+    @Override
+    public CompactGameNode getParent() {
+        return parent;
+    }
+
+    @Override
+    public void setParent(Node<Position> parent) {
+        if (this.parent != null) {
+            throw new IllegalStateException("a node can only be child to a single node, this node already has a parent");
+        }
+        this.parent = (CompactGameNode) parent;
+    }
+
+    @Override
+    public void unsetParent() {
+        parent = null;
+    }
+
+    @Override
+    public CompactGameNode getBestChild() {
+        return bestChild;
+    }
+
+    @Override
+    public void setBestChild(Node<Position> bestChild) {
+        this.bestChild = (CompactGameNode) bestChild;
+    }
+
+    @Override
+    public boolean hasChildren() {
+        return children != null;
+    }
+
+    @Override
+    public boolean hasOrComputeChildren() {
+        if (children != null) {
+            return true;
+        }
+        if ((evaluation & TERMINAL) != 0) {
+            return false;
+        }
+        int[] moves = MoveListGenerator.generateMoves(getContent());
+        if (moves.length == 0) {
+            evaluation |= TERMINAL;
+            return false;
+        }
+        CompactGameNode[] generated = new CompactGameNode[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            generated[i] = new CompactGameNode(this, moves[i]);
+        }
+        children = generated;
+        return true;
+    }
+
+    @Override
+    public List<CompactGameNode> getOrComputeChildren() throws ComputeChildrenException {
+        if (!hasOrComputeChildren()) {
+            throw new ComputeChildrenException("no children could be generated for this position: " + getContent());
+        }
+        return Arrays.asList(children);
+    }
+
+    /**
+     * @return the children of this node backed by the child array, so sorting the list reorders the children,
+     * or null if this node has no children
+     */
+    @Override
+    public List<CompactGameNode> getChildren() {
+        return children == null ? null : Arrays.asList(children);
+    }
+
+    @Override
+    public void computeChildrenStaticValues() {
+        if (children != null) {
+            for (CompactGameNode child : children) {
+                child.computeOrGetStaticValueOrBetter();
+            }
+        }
+    }
+
+    //  *************************************
+    //  *     evaluable functionality       *
+    //  *************************************
+
+    private boolean hasFlag(long flag) {
+        return (evaluation & flag) != 0;
+    }
+
+    /**
+     * Stores the value and adds the flags, other flags are kept.
+     */
+    private void store(int value, long flags) {
+        evaluation = (evaluation & ~VALUE_MASK) | flags | (value & VALUE_MASK);
+    }
+
+    @Override
+    public int getValue() throws UninitializedValueException {
+        if (hasFlag(STATIC_VALUE | LEAF_VALUE | EXPLICIT_VALUE)) {
+            return (int) evaluation;
+        }
+        throw new UninitializedValueException("this node was not yet evaluated");
+    }
+
+    @Override
+    public int computeOrGetStaticValueOrBetter() {
+        PerformanceData.getOrComputeStaticValueCalls += 1;
+        if (!hasFlag(STATIC_VALUE)) {
+            store(GameNode.computeStaticValue(getContent()), STATIC_VALUE);
+        }
+        return (int) evaluation;
+    }
+
+    /**
+     * Always computes the exact value.
+     */
+    @Override
+    public int computeOrGetStaticValueOrBetter(int alpha, int beta) {
+        return computeOrGetStaticValueOrBetter();
+    }
+
+    @Override
+    public int computeOrGetLeafValueOrBetter(int depth) {
+        PerformanceData.getOrComputeLeafValueCalls += 1;
+        if (!hasFlag(LEAF_VALUE)) {
+            PerformanceData.leafValueComputations += 1;
+            store(PositionEvaluator.evaluateLeafPosition(getContent(), depth), STATIC_VALUE | LEAF_VALUE);
+        }
+        return (int) evaluation;
+    }
+
+    @Override
+    public int getExplicitValue() throws UninitializedValueException {
+        if (hasFlag(EXPLICIT_VALUE)) {
+            return (int) evaluation;
+        }
+        throw new UninitializedValueException("no value was set explicitly");
+    }
+
+    @Override
+    public void setValue(int value) {
+        store(value, STATIC_VALUE | LEAF_VALUE | EXPLICIT_VALUE);
+    }
+
+    @Override
+    public String toString() {
+        return getContent().toString();
+    }
+}
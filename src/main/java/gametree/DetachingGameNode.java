@@ -34,6 +34,14 @@ public class DetachingGameNode extends GameNode {
         return new DetachingGameNode(position, this);
     }
 
+    /**
+     * Positions are deleted once the children are computed, so the children need their positions right away.
+     */
+    @Override
+    protected boolean expandsLazily() {
+        return false;
+    }
+
     @Override
     public Move getRepresentedMove() {
         return representedMove;
@@ -46,6 +46,21 @@ public interface Evaluable {
      */
     public abstract int computeOrGetStaticValueOrBetter();
 
+    /**
+     * Like {@link #computeOrGetStaticValueOrBetter()}, but the static value only has to be exact
+     * if it lies within the window between alpha and beta.
+     * <p>
+     * If the value is certainly not greater than alpha or not less than beta, a cheaper estimate
+     * that lies outside the window on the same side may be returned instead.
+     * Such estimates are stored so they can be retrieved by {@link #getValue()},
+     * but they are not returned by {@link #computeOrGetStaticValueOrBetter()}, which computes the exact value.
+     * @param alpha minimum score that white player is already guaranteed of
+     * @param beta maximum score that black player is already guaranteed of
+     * @return this Evaluable's static value, an estimate outside the window
+     * or the value set by {@link #computeOrGetLeafValueOrBetter(int)} or {@link #setValue(int)}
+     */
+    public abstract int computeOrGetStaticValueOrBetter(int alpha, int beta);
+
     /**
      * If a value was explicitly assigned to this Evaluable using {@link #setValue(int)},
      * returns that value.
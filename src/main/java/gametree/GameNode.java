@@ -1,9 +1,16 @@
 package gametree;
 
+import java.util.List;
+
 import application.Conductor;
 import model.Move;
 import model.Position;
 import movegenerator.MoveGenerator;
+import movegenerator.MoveListGenerator;
+import positionevaluator.Accumulator;
+import positionevaluator.EvaluationCache;
+import positionevaluator.NeuralEvaluator;
+import positionevaluator.NeuralNetwork;
 import positionevaluator.PositionEvaluator;
 import utility.PerformanceData;
 import utility.TimeUtility;
@@ -15,8 +22,13 @@ import utility.TimeUtility;
  * and implements {@link #evaluateStatically()} to calculate the position's point value.
  * Additionally, this class narrows the return types of node methods from Node < Position > to GameNode.
  * <p>
- * {@link #computeChildren()} instantiates GameNodes by invoking {@link #createChild(Position)}.
- * This method can be overriden by subtypes to instantiate their class instead.
+ * {@link #computeChildren()} only generates the moves of this node and instantiates GameNodes by invoking
+ * {@link #createChild(int)}. The position of such a child is computed from this node's position once it is accessed,
+ * i.e. when an evaluator descends into the child or evaluates it, so the positions of children that are pruned
+ * are never computed.
+ * Subtypes that do not keep the position of a node after computing its children (see {@link #expandsLazily()})
+ * generate all follow-up positions instead and instantiate children by invoking {@link #createChild(Position)}.
+ * Both methods can be overriden by subtypes to instantiate their class instead.
  * </p>
  * <p>
  * <b>Important Notes:</b>
@@ -35,6 +47,40 @@ import utility.TimeUtility;
  */
 public class GameNode extends BaseNode<Position> {
 
+    /**
+     * Estimated number of bytes retained by an evaluated game node, including its position and its entry
+     * in the parent's child list, as measured for middlegame positions on a 64 bit JVM with compressed references.
+     */
+    public static final int ESTIMATED_BYTES = 400;
+
+    /**
+     * Static evaluations shared by all game nodes, consulted by {@link #computeStaticValue()}.
+     */
+    private static final EvaluationCache evaluationCache = new EvaluationCache(EvaluationCache.DEFAULT_SIZE);
+
+    /**
+     * The hidden layers of the neural network for this node's board, stored when children are computed
+     * while the {@link NeuralEvaluator} is enabled so the children can update them instead of computing their own.
+     */
+    private Accumulator accumulator;
+
+    /**
+     * Recycled game nodes that are reused by {@link #createChild(Position)}.
+     */
+    private static final NodePool nodePool = new NodePool(NodePool.DEFAULT_CAPACITY);
+
+    /**
+     * Whether this node was released to the node pool and awaits reuse.
+     */
+    private boolean pooled = false;
+
+    private static final int NO_MOVE = -1;
+
+    /**
+     * The packed move leading to this node while its position was not computed yet, see {@link #getContent()}.
+     */
+    private int pendingMove = NO_MOVE;
+
     /**
      * Creates a root node.
      * @param position position stored by the node
@@ -54,9 +100,91 @@ public class GameNode extends BaseNode<Position> {
         // other attributes e.g. children are null here
     }
 
+    /**
+     * Creates a child node, reusing a node recycled by {@link #recycleChildren()} if available.
+     */
     @Override
     public GameNode createChild(Position position) {
-        return new GameNode(position, this);
+        return nodePool.acquire(position, this);
+    }
+
+    /**
+     * Creates a child node whose position is computed from this node's position once it is accessed.
+     * @param packedMove the move leading to the child, packed by {@link Move#pack(int, int, byte)}
+     * @return a child of this node
+     */
+    protected GameNode createChild(int packedMove) {
+        GameNode child = nodePool.acquire(null, this);
+        child.pendingMove = packedMove;
+        return child;
+    }
+
+    /**
+     * Whether {@link #computeChildren()} only generates moves and leaves the positions of the children to be computed
+     * on demand from this node's position.
+     * Subtypes that delete the position of a node once its children were computed have to return false.
+     * @return true if children are created by {@link #createChild(int)}, false if they are created
+     * by {@link #createChild(Position)}
+     */
+    protected boolean expandsLazily() {
+        return true;
+    }
+
+    /**
+     * Returns the position of this node, computing it by applying the move leading to this node to the parent's position
+     * if this node was created by {@link #createChild(int)} and its position was not accessed yet.
+     */
+    @Override
+    public Position getContent() {
+        Position content = super.getContent();
+        if (content == null && pendingMove != NO_MOVE) {
+            GameNode parent = getParent();
+            if (parent == null) {
+                throw new IllegalStateException("cannot compute the position because the node was removed from its parent");
+            }
+            content = MoveGenerator.applyMove(parent.getContent(), Move.unpack(pendingMove));
+            super.setContent(content);
+            pendingMove = NO_MOVE;
+        }
+        return content;
+    }
+
+    @Override
+    public void setContent(Position content) {
+        super.setContent(content);
+        pendingMove = NO_MOVE;
+    }
+
+    @Override
+    public void deleteContent() {
+        super.deleteContent();
+        pendingMove = NO_MOVE;
+    }
+
+    /**
+     * Returns the child to the node pool, subtypes of GameNode are not pooled.
+     */
+    @Override
+    protected void recycle(Node<Position> child) {
+        if (child.getClass() == GameNode.class) {
+            nodePool.release((GameNode) child);
+        }
+    }
+
+    @Override
+    protected void reset(Position position) {
+        super.reset(position);
+        accumulator = null;
+        pooled = false;
+        pendingMove = NO_MOVE;
+    }
+
+    boolean isPooled() {
+        return pooled;
+    }
+
+    void setPooled(boolean pooled) {
+        this.pooled = pooled;
     }
 
     @Override
@@ -71,12 +199,15 @@ public class GameNode extends BaseNode<Position> {
      * @return the move represented by this node
      */
     public Move getRepresentedMove() {
+        if (pendingMove != NO_MOVE) {
+            return Move.unpack(pendingMove);
+        }
         return getContent().getMove();
     }
 
     /**
     * Computes this node's children and overwrites its current child list accordingly.
-    * Uses {@link #createChild(Position)} to instantiate children.
+    * Uses {@link #createChild(int)} or {@link #createChild(Position)} (see {@link #expandsLazily()}) to instantiate children.
     * <br><br>
     * <b>Note:</b> Do not use this method directly to generate children of this node.
     * This is a helper method that is implemented individually by subtypes and called by {@link #getOrComputeChildren()}.
@@ -85,11 +216,39 @@ public class GameNode extends BaseNode<Position> {
     */
     @Override
     protected void computeChildren() throws ComputeChildrenException {
+        if (!computeChildrenIfAny()) {
+            // no moves were generated
+            throw new ComputeChildrenException("no children could be generated for this position: " + this.getContent().toString());
+        }
+    }
+
+    /**
+     * Computes this node's children without throwing for checkmate and stalemate positions,
+     * see {@link #computeChildren()}.
+     */
+    @Override
+    protected boolean computeChildrenIfAny() {
         if (hasChildren()) {
             throw new IllegalStateException("node already has children");
         }
         createChildListIfNotExists();
         Position pos = this.getContent();
+        if (NeuralEvaluator.isEnabled()) {
+            accumulator = computeAccumulator(NeuralEvaluator.getNetwork());
+        }
+
+        if (expandsLazily()) {
+            TimeUtility<int[]> timer = new TimeUtility<int[]>();
+            int[] moves = timer.time(() -> MoveListGenerator.generateMoves(pos));
+            PerformanceData.moveGenerationTime += timer.getElapsedTime();
+            if (moves.length == 0) {
+                return false;
+            }
+            for (int move : moves) {
+                createChild(move);
+            }
+            return true;
+        }
 
         TimeUtility<Position[]> timer = new TimeUtility<Position[]>();
         Position[] followUpPositions = timer.time(() -> MoveGenerator.generatePossibleMoves(pos));
@@ -97,8 +256,7 @@ public class GameNode extends BaseNode<Position> {
         PerformanceData.moveGenerationTime += timer.getElapsedTime();
 
         if (followUpPositions.length == 0) {
-            // no moves were generated
-            throw new ComputeChildrenException("no children could be generated for this position: " + this.getContent().toString());
+            return false;
         }
 
         // add follow-up moves as child nodes to this node
@@ -106,6 +264,7 @@ public class GameNode extends BaseNode<Position> {
             createChild(position);
             //instantiates GameNodes in GameNode but DetachingGameNodes in DetachingGameNode
         }
+        return true;
     }
 
     @Override
@@ -114,7 +273,136 @@ public class GameNode extends BaseNode<Position> {
             throw new NullPointerException("cannot evaluate because position was already detached");
         }
         PerformanceData.staticValueComputations += 1;
-        return PositionEvaluator.evaluatePosition(getContent());
+        long key = getContent().getZobristKey();
+        int value = evaluationCache.probe(key);
+        if (value == EvaluationCache.MISS) {
+            if (NeuralEvaluator.isEnabled()) {
+                value = NeuralEvaluator.evaluatePosition(getContent(), computeAccumulator(NeuralEvaluator.getNetwork()));
+            } else {
+                value = PositionEvaluator.evaluatePosition(getContent());
+            }
+            evaluationCache.store(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Evaluates lazily, see {@link PositionEvaluator#evaluatePosition(Position, int, int)}.
+     * Only values within the window are known to be exact, so only they are stored in the evaluation cache.
+     * The neural network is always evaluated exactly.
+     */
+    @Override
+    protected int computeStaticValue(int alpha, int beta) {
+        if (NeuralEvaluator.isEnabled()) {
+            return computeStaticValue();
+        }
+        if (getContent() == null) {
+            throw new NullPointerException("cannot evaluate because position was already detached");
+        }
+        PerformanceData.staticValueComputations += 1;
+        long key = getContent().getZobristKey();
+        int value = evaluationCache.probe(key);
+        if (value == EvaluationCache.MISS) {
+            value = PositionEvaluator.evaluatePosition(getContent(), alpha, beta);
+            if (value > alpha && value < beta) {
+                evaluationCache.store(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Evaluates all children that are neither stored in the evaluation cache nor evaluated yet
+     * in one batch using {@link PositionEvaluator#evaluatePositions(Position[], int, int[])}.
+     * Children are evaluated one by one if the {@link NeuralEvaluator} is enabled.
+     */
+    @Override
+    public void computeChildrenStaticValues() {
+        if (NeuralEvaluator.isEnabled()) {
+            super.computeChildrenStaticValues();
+            return;
+        }
+        List<? extends Node<Position>> children = getChildren();
+        if (children == null || children.isEmpty()) {
+            return;
+        }
+        GameNode[] pending = new GameNode[children.size()];
+        Position[] positions = new Position[children.size()];
+        int pendingCount = 0;
+        for (Node<Position> node : children) {
+            GameNode child = (GameNode) node;
+            if (child.hasStaticValueOrBetter()) {
+                continue;
+            }
+            if (child.getContent() == null) {
+                throw new NullPointerException("cannot evaluate because position was already detached");
+            }
+            PerformanceData.staticValueComputations += 1;
+            int value = evaluationCache.probe(child.getContent().getZobristKey());
+            if (value != EvaluationCache.MISS) {
+                child.storeStaticValue(value);
+                continue;
+            }
+            pending[pendingCount] = child;
+            positions[pendingCount] = child.getContent();
+            pendingCount++;
+        }
+        int[] values = new int[pendingCount];
+        PositionEvaluator.evaluatePositions(positions, pendingCount, values);
+        for (int i = 0; i < pendingCount; i++) {
+            evaluationCache.store(positions[i].getZobristKey(), values[i]);
+            pending[i].storeStaticValue(values[i]);
+        }
+    }
+
+    /**
+     * Computes the accumulator of this node's board, by updating the parent's accumulator if it is stored.
+     * @param network the network whose weights are used
+     * @return the accumulator of this node's board
+     */
+    private Accumulator computeAccumulator(NeuralNetwork network) {
+        GameNode parent = getParent();
+        if (parent != null && parent.accumulator != null && parent.accumulator.getNetwork() == network) {
+            return parent.accumulator.update(getContent().getBoard());
+        }
+        return new Accumulator(network, getContent().getBoard());
+    }
+
+    /**
+     * @return the pool of recycled nodes shared by all game nodes
+     */
+    public static NodePool getNodePool() {
+        return nodePool;
+    }
+
+    /**
+     * @return the evaluation cache shared by all game nodes
+     */
+    public static EvaluationCache getEvaluationCache() {
+        return evaluationCache;
+    }
+
+    /**
+     * Evaluates a position like {@link #computeStaticValue()}, consulting the evaluation cache shared by all game nodes.
+     * Used by nodes that do not store an accumulator, the accumulator is computed from scratch if the
+     * {@link NeuralEvaluator} is enabled.
+     * @param position the position to evaluate
+     * @return the static evaluation of the position
+     */
+    static int computeStaticValue(Position position) {
+        PerformanceData.staticValueComputations += 1;
+        long key = position.getZobristKey();
+        int value = evaluationCache.probe(key);
+        if (value == EvaluationCache.MISS) {
+            if (NeuralEvaluator.isEnabled()) {
+                value = NeuralEvaluator.evaluatePosition(position,
+                    new Accumulator(NeuralEvaluator.getNetwork(), position.getBoard()));
+            } else {
+                value = PositionEvaluator.evaluatePosition(position);
+            }
+            evaluationCache.store(key, value);
+        }
+        return value;
     }
 
     @Override
@@ -16,6 +16,19 @@ public class ImpGameTree extends ImpTree<GameNode> implements GameTree {
         this.evaluator = evaluator;
     }
 
+    /**
+     * Used to create the initial game tree from a position, sharing nodes of transpositions
+     * on the first levels of the tree (see {@link TranspositionGameNode}).
+     * @param position the game state that the root node should represent
+     * @param evaluator the evaluator used by {@link #calculateBestMove(int)}
+     * @param mergedLevels the number of levels beneath the root whose nodes are merged,
+     * should not exceed the levels stored by the evaluator
+     */
+    public ImpGameTree(Position position, GameTreeEvaluator evaluator, int mergedLevels) {
+        super(new TranspositionGameNode(position, mergedLevels));
+        this.evaluator = evaluator;
+    }
+
     /**
      * Used to create a game tree from an existing game tree.
      * The tree is created as a subtree of the existing tree with the specified node as root.
@@ -55,6 +55,16 @@ public interface Node<ContentType> extends Evaluable {
      */
     public abstract void deleteChildren();
 
+    /**
+     * Removes all children of this node like {@link #deleteChildren()}, but additionally declares
+     * that the removed children except the best child (see {@link #getBestChild()}) are not used anymore,
+     * so their storage may be reused for new nodes.
+     * Does nothing if this node has no children.
+     * <br><br>
+     * <b>Note:</b> Only call this if no references to the removed children except the best child are kept.
+     */
+    public abstract void recycleChildren();
+
     /**
      * @return this node's parent
      */
@@ -85,6 +95,30 @@ public interface Node<ContentType> extends Evaluable {
      */
     public abstract void unsetParent();
 
+    /**
+     * Returns the child that determined this node's value during the last evaluation.
+     * <p>
+     * The reference is kept even if the children of this node are deleted,
+     * so following it from the root yields the principal variation of the last search.
+     * @return the best child of this node or null if none was determined
+     */
+    public abstract Node<ContentType> getBestChild();
+
+    /**
+     * Stores the child that determined this node's value.
+     * Passing null deletes the stored reference.
+     * @param bestChild the child that determined this node's value
+     */
+    public abstract void setBestChild(Node<ContentType> bestChild);
+
+    /**
+     * Computes the static values of all children of this node that do not have one yet,
+     * e.g. before the children are sorted by their values.
+     * Subtypes that can evaluate many nodes more efficiently at once should evaluate all children in one batch.
+     * Does nothing if this node has no children.
+     */
+    public abstract void computeChildrenStaticValues();
+
     /**
      * Adds the content of a Node to a type-specific log
      */
@@ -102,6 +136,16 @@ public interface Node<ContentType> extends Evaluable {
      */
     public abstract boolean hasChildren();
 
+    /**
+     * Returns whether this node has children, computing them if none are stored.
+     * <p>
+     * Different from {@link #getOrComputeChildren()}, no exception is thrown if no children can be computed,
+     * so terminal nodes are detected without cost. Nodes remember that they are terminal,
+     * so their children are not computed again.
+     * @return true if this node has children after the call, false if it is terminal
+     */
+    public abstract boolean hasOrComputeChildren();
+
     /**
     * Returns this node's children.
     * If necessary, calculates the children.
@@ -0,0 +1,143 @@
+package gametree;
+
+import java.util.Arrays;
+import java.util.List;
+
+import model.Position;
+
+/**
+ * Free list of {@link GameNode GameNodes} that were recycled by {@link Node#recycleChildren()}.
+ * <p>
+ * Self destructing evaluators discard the children of every node once it is evaluated,
+ * so a search allocates far more nodes than are alive at any time.
+ * Nodes taken from this pool are reinitialized instead of allocated, including their child lists,
+ * so after the first iterations a search allocates (almost) no new nodes,
+ * and the pool is kept across searches.
+ * <p>
+ * A recycled node still references its best child, which stays alive since principal variations are read
+ * by following best children (see {@link Node#getBestChild()}). The best child is released together with the node
+ * referencing it.
+ * <p>
+ * The pool is not synchronized, nodes must only be created and recycled by one search thread at a time.
+ */
+public class NodePool {
+
+    /**
+     * Default maximum number of nodes kept by a pool.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final int capacity;
+    private GameNode[] free = new GameNode[256];
+    private int size = 0;
+
+    private long created = 0;
+    private long reused = 0;
+
+    /**
+     * Creates an empty pool.
+     * @param capacity maximum number of nodes kept, further released nodes are left to the garbage collector
+     */
+    public NodePool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Creates a child node, reusing a pooled node if available.
+     * @param position position stored by the node
+     * @param parent parent of the created node
+     * @return a child of the parent
+     */
+    GameNode acquire(Position position, GameNode parent) {
+        GameNode node;
+        if (size > 0) {
+            size -= 1;
+            node = free[size];
+            free[size] = null;
+            node.reset(position);
+            parent.insertChild(node);
+            reused += 1;
+        } else {
+            node = new GameNode(position, parent);
+            created += 1;
+        }
+        return node;
+    }
+
+    /**
+     * Returns a node that is not referenced anymore to the pool,
+     * together with its remaining children and its best child.
+     * @param node a node without parent
+     */
+    void release(GameNode node) {
+        if (node.isPooled()) {
+            return;
+        }
+        node.setPooled(true);
+        List<? extends Node<Position>> children = node.getChildren();
+        if (children != null) {
+            for (int i = 0; i < children.size(); i++) {
+                Node<Position> child = children.get(i);
+                child.unsetParent();
+                releaseIfPoolable(child);
+            }
+            children.clear();
+        }
+        Node<Position> bestChild = node.getBestChild();
+        if (bestChild != null && bestChild.getParent() == null) {
+            releaseIfPoolable(bestChild);
+        }
+        node.deleteContent();
+        node.setBestChild(null);
+        if (size < capacity) {
+            if (size == free.length) {
+                free = Arrays.copyOf(free, Math.min(capacity, 2 * free.length));
+            }
+            free[size] = node;
+            size += 1;
+        }
+    }
+
+    /**
+     * Releases the node if it is an instance of GameNode itself, subtypes are not pooled.
+     */
+    private void releaseIfPoolable(Node<Position> node) {
+        if (node.getClass() == GameNode.class) {
+            release((GameNode) node);
+        }
+    }
+
+    /**
+     * Discards all pooled nodes, e.g. to return their memory after a large search.
+     */
+    public void clear() {
+        Arrays.fill(free, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * @return the number of pooled nodes
+     */
+    public int size() {
+        return size;
+    }
+
+    public void resetCounters() {
+        created = 0;
+        reused = 0;
+    }
+
+    /**
+     * @return the number of nodes that were allocated because the pool was empty
+     */
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * @return the number of nodes that were taken from the pool
+     */
+    public long getReused() {
+        return reused;
+    }
+}
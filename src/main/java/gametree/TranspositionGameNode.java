@@ -0,0 +1,177 @@
+package gametree;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.Move;
+import model.Position;
+import movegenerator.MoveGenerator;
+import movegenerator.MoveListGenerator;
+
+/**
+ * Game node on the first levels of a tree that shares nodes reached by different move orders.
+ * <p>
+ * When the children of a node are computed, a child whose position was already reached on the same level
+ * (equal {@link Position#getZobristKey() Zobrist keys}) is not created again, the existing node is inserted instead.
+ * Its children are computed once and shared by all its parents, so the first
+ * <code>mergedLevels</code> levels form a directed acyclic graph instead of a tree.
+ * Nodes are only merged within a level, so the remaining depth of a shared node is the same for all its parents.
+ * Nodes beneath the merged levels are ordinary {@link GameNode GameNodes}.
+ * <p>
+ * The parent link is multi-valued in the form of a counter: {@link #getParent()} returns the node that created
+ * this node, even if that node removed it from its children while other parents still reference it.
+ * Once the last parent removes the node, it is not shared anymore and its children are removed as well.
+ * Likewise {@link #getRepresentedMove()} returns the move from the parent that created the node.
+ * <p>
+ * <b>Note:</b> Since a shared node is evaluated by each parent, its value and best child reflect the most recent
+ * evaluation, which might have been done with a narrower window than the evaluation of another parent.
+ * Positions are compared by their Zobrist keys, which ignore the half move clock and the history of the game.
+ */
+public class TranspositionGameNode extends GameNode {
+
+    private final Transpositions transpositions;
+    private final int level;
+    // not initialized explicitly, the parent is set by the super constructor before initializers run
+    private int parentCount;
+
+    /**
+     * Creates a root node whose descendants on the first <code>mergedLevels</code> levels are shared.
+     * @param position position stored by the node
+     * @param mergedLevels the number of levels beneath the root whose nodes are merged
+     */
+    public TranspositionGameNode(Position position, int mergedLevels) {
+        super(position);
+        this.transpositions = new Transpositions(mergedLevels);
+        this.level = 0;
+    }
+
+    private TranspositionGameNode(Position position, TranspositionGameNode parent) {
+        super(position, parent);
+        this.transpositions = parent.transpositions;
+        this.level = parent.level + 1;
+    }
+
+    /**
+     * Computes the children like {@link GameNode}, but reuses nodes of positions that were already reached
+     * on the level of the children. The positions of all children are computed to look them up.
+     */
+    @Override
+    protected boolean computeChildrenIfAny() {
+        if (level >= transpositions.getMergedLevels()) {
+            return super.computeChildrenIfAny();
+        }
+        if (hasChildren()) {
+            throw new IllegalStateException("node already has children");
+        }
+        Position position = getContent();
+        int[] moves = MoveListGenerator.generateMoves(position);
+        if (moves.length == 0) {
+            return false;
+        }
+        Map<Long, TranspositionGameNode> childLevel = transpositions.getLevel(level + 1);
+        for (int move : moves) {
+            Position childPosition = MoveGenerator.applyMove(position, Move.unpack(move));
+            TranspositionGameNode shared = childLevel.get(childPosition.getZobristKey());
+            if (shared != null) {
+                insertChild(shared);
+                transpositions.mergedNodes += 1;
+            } else {
+                childLevel.put(childPosition.getZobristKey(), new TranspositionGameNode(childPosition, this));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds a parent, the first parent is returned by {@link #getParent()}.
+     */
+    @Override
+    public void setParent(Node<Position> parent) {
+        if (getParent() == null) {
+            super.setParent(parent);
+        }
+        parentCount += 1;
+    }
+
+    /**
+     * Removes one parent. If no parent is left, the node is not shared anymore and its children are removed.
+     */
+    @Override
+    public void unsetParent() {
+        if (parentCount == 0) {
+            return;
+        }
+        parentCount -= 1;
+        if (parentCount == 0) {
+            super.unsetParent();
+            Map<Long, TranspositionGameNode> nodes = transpositions.getLevel(level);
+            long key = getContent().getZobristKey();
+            if (nodes.get(key) == this) {
+                nodes.remove(key);
+            }
+            deleteChildren();
+        }
+    }
+
+    /**
+     * @return the number of nodes currently referencing this node as a child
+     */
+    public int getParentCount() {
+        return parentCount;
+    }
+
+    /**
+     * @return the shared nodes of the tree this node belongs to
+     */
+    public Transpositions getTranspositions() {
+        return transpositions;
+    }
+
+    /**
+     * Nodes of the merged levels of a tree, indexed by level and Zobrist key.
+     */
+    public static class Transpositions {
+
+        private final int mergedLevels;
+        private final List<Map<Long, TranspositionGameNode>> levels = new ArrayList<Map<Long, TranspositionGameNode>>();
+        private long mergedNodes = 0;
+
+        Transpositions(int mergedLevels) {
+            if (mergedLevels < 0) {
+                throw new IllegalArgumentException("the number of merged levels may not be negative");
+            }
+            this.mergedLevels = mergedLevels;
+            for (int level = 0; level <= mergedLevels; level++) {
+                levels.add(new HashMap<Long, TranspositionGameNode>());
+            }
+        }
+
+        Map<Long, TranspositionGameNode> getLevel(int level) {
+            return levels.get(level);
+        }
+
+        public int getMergedLevels() {
+            return mergedLevels;
+        }
+
+        /**
+         * @return the number of distinct nodes on the merged levels
+         */
+        public int size() {
+            int size = 0;
+            for (Map<Long, TranspositionGameNode> level : levels) {
+                size += level.size();
+            }
+            return size;
+        }
+
+        /**
+         * @return the number of times an existing node was inserted instead of creating a new one
+         */
+        public long getMergedNodeCount() {
+            return mergedNodes;
+        }
+    }
+}
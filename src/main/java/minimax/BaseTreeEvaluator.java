@@ -1,8 +1,12 @@
 package minimax;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import gametree.ComputeChildrenException;
 import gametree.Node;
 import gametree.Tree;
+import gametree.UninitializedValueException;
 
 /**
  * Abstract class implementing TreeEvaluator,
@@ -17,13 +21,147 @@ public abstract class BaseTreeEvaluator<ContentType> implements TreeEvaluator<Co
 
     private int evaluatedNodeCount = 0;
 
+    private int multiPV = 1;
+    private List<Node<ContentType>> bestLines = new ArrayList<Node<ContentType>>();
+
     @Override
     public Node<ContentType> evaluateTree(Tree<? extends Node<ContentType>> tree, int depth, boolean whitesTurn) {
         if (depth < 1) {
             throw new IllegalArgumentException("evaluation depth must be at least one");
         }
         resetEvaluatedNodeCount();
-        return evaluateNode(tree.getRoot(), depth, whitesTurn);
+        if (multiPV > 1) {
+            return evaluateRootMultiPV(tree.getRoot(), depth, whitesTurn);
+        }
+        Node<ContentType> bestNode = evaluateNode(tree.getRoot(), depth, whitesTurn);
+        bestLines = new ArrayList<Node<ContentType>>(1);
+        if (bestNode != tree.getRoot()) {
+            bestLines.add(bestNode);
+        }
+        return bestNode;
+    }
+
+    /**
+     * Evaluates the root so that the best {@link #getMultiPV()} children receive exact values.
+     * <p>
+     * Once multiPV children have been evaluated, later children are searched with a window
+     * bounded by the value of the currently worst of the best lines. Children that cannot
+     * improve on that value fail low and are cut off as early as in a single line search.
+     * <p>
+     * Children of the root are kept, so the next iteration can order them by the values
+     * determined in this iteration.
+     * @param root the root of the evaluated tree
+     * @param depth the maximum depth of the tree
+     * @param whitesTurn whether the turn to be searched is played by white
+     * @return the child of root that should be played or root if it is a leaf
+     */
+    private Node<ContentType> evaluateRootMultiPV(Node<ContentType> root, int depth, boolean whitesTurn) {
+        this.increaseEvaluatedNodeCount();
+        bestLines = new ArrayList<Node<ContentType>>(multiPV + 1);
+
+        root.writeContentToHistory();
+
+        if (evaluateIfLeaf(root, depth)) {
+            root.deleteContentFromHistory();
+            return root;
+        }
+
+        try {
+            List<? extends Node<ContentType>> children = root.getOrComputeChildren();
+            if (whitesTurn) {
+                children.sort(new DescendingValueComparator());
+            } else {
+                children.sort(new AscendingValueComparator());
+            }
+
+            for (Node<ContentType> child : children) {
+                int alpha = Integer.MIN_VALUE;
+                int beta = Integer.MAX_VALUE;
+                if (bestLines.size() == multiPV) {
+                    // only values better than the worst stored line are of interest
+                    int bound = bestLines.get(multiPV - 1).getValue();
+                    if (whitesTurn) {
+                        alpha = bound;
+                    } else {
+                        beta = bound;
+                    }
+                }
+                evaluateRootChild(child, depth - 1, alpha, beta, !whitesTurn);
+                if (isRootSearchAborted()) {
+                    break;
+                }
+                insertLine(child, whitesTurn);
+            }
+
+            root.deleteContentFromHistory();
+            if (bestLines.isEmpty()) {
+                // aborted before any child was evaluated
+                return root;
+            }
+            root.setValue(bestLines.get(0).getValue());
+            root.setBestChild(bestLines.get(0));
+            return bestLines.get(0);
+
+        } catch (UninitializedValueException exception) {
+            //thrown by getValue()
+            throw new IllegalStateException("tree evaluation attempted to read an unitialized value");
+
+        } catch (ComputeChildrenException exception) {
+            // evaluateIfLeaf() guarantees that children can be computed
+            throw new IllegalStateException("isLeaf() failed to recognise a leaf", exception);
+        }
+    }
+
+    /**
+     * Inserts the evaluated child into the best lines if it is better than the worst stored line
+     * or if less than multiPV lines are stored.
+     * @param child the evaluated child of the root
+     * @param whitesTurn whether the root is maximizing
+     * @throws UninitializedValueException if the child was not evaluated
+     */
+    private void insertLine(Node<ContentType> child, boolean whitesTurn) throws UninitializedValueException {
+        int value = child.getValue();
+        int index = bestLines.size();
+        while (index > 0 && isBetter(value, bestLines.get(index - 1).getValue(), whitesTurn)) {
+            index--;
+        }
+        if (index < multiPV) {
+            bestLines.add(index, child);
+            if (bestLines.size() > multiPV) {
+                bestLines.remove(multiPV);
+            }
+        }
+    }
+
+    private static boolean isBetter(int value, int otherValue, boolean whitesTurn) {
+        if (whitesTurn) {
+            return value > otherValue;
+        }
+        return value < otherValue;
+    }
+
+    /**
+     * Evaluates a child of the root within the window [alpha, beta].
+     * Used by the multi pv root search to search lines with a narrowed window.
+     * <p>
+     * The default implementation ignores the window, which is correct but does not prune.
+     * Evaluators supporting alpha-beta windows should override this method.
+     * @param child the child of the root that should be evaluated
+     * @param depth the additional depth to which the child should be evaluated
+     * @param alpha minimum score that white player is already guaranteed of
+     * @param beta maximum score that black player is already guaranteed of
+     * @param whitesTurn whether the move following child is played by white
+     */
+    protected void evaluateRootChild(Node<ContentType> child, int depth, int alpha, int beta, boolean whitesTurn) {
+        evaluateNode(child, depth, whitesTurn);
+    }
+
+    /**
+     * Hook for evaluators that can be aborted.
+     * @return true if the current evaluation was aborted and its results are incomplete
+     */
+    protected boolean isRootSearchAborted() {
+        return false;
     }
 
      /**
@@ -60,22 +198,88 @@ public abstract class BaseTreeEvaluator<ContentType> implements TreeEvaluator<Co
     protected boolean evaluateIfLeaf(Node<ContentType> parent, int depth) {
         if (depth == 0) {
             parent.computeOrGetStaticValueOrBetter(); //evaluate statically if no value is stored
+            parent.setBestChild(null);
             return true;
         }
-        try {
-            // attempt to retrieve or if none are stored calculate children
-            parent.getOrComputeChildren();
-        } catch (ComputeChildrenException exception) {
-            // node could not generate children -> is a leaf
-            parent.computeOrGetLeafValueOrBetter(depth);
+        return evaluateIfTerminal(parent, depth);
+    }
+
+    /**
+     * Like {@link #evaluateIfLeaf(Node, int)}, but nodes at depth 0 are evaluated lazily:
+     * their static value only has to be exact if it lies between alpha and beta
+     * (see {@link gametree.Evaluable#computeOrGetStaticValueOrBetter(int, int)}).
+     * @param parent the inspected node
+     * @param depth the current depth of alpha-beta pruning
+     * @param alpha minimum score that white player is already guaranteed of
+     * @param beta maximum score that black player is already guaranteed of
+     * @return true if the passed node is a leaf node, false otherwise
+     */
+    protected boolean evaluateIfLeaf(Node<ContentType> parent, int depth, int alpha, int beta) {
+        if (depth == 0) {
+            parent.computeOrGetStaticValueOrBetter(alpha, beta); //evaluate statically if no value is stored
+            parent.setBestChild(null);
             return true;
         }
-        // node is a leaf if it has no children
-        if (parent.hasChildren()) {
+        return evaluateIfTerminal(parent, depth);
+    }
+
+    /**
+     * Evaluates the passed node as leaf if no children can be calculated for it.
+     * @param parent the inspected node
+     * @param depth the current depth of alpha-beta pruning
+     * @return true if the passed node is a leaf node, false otherwise
+     */
+    private boolean evaluateIfTerminal(Node<ContentType> parent, int depth) {
+        // retrieve or if none are stored calculate children
+        if (parent.hasOrComputeChildren()) {
             return false;
         }
-        //getOrComputeChildren guarantees ComputeChildrenException or parent.hasChildren()
-        throw new IllegalStateException("branching error");
+        // node could not generate children -> is a leaf
+        parent.computeOrGetLeafValueOrBetter(depth);
+        parent.setBestChild(null);
+        return true;
+    }
+
+    @Override
+    public void setMultiPV(int multiPV) {
+        if (multiPV < 1) {
+            throw new IllegalArgumentException("at least one line has to be evaluated");
+        }
+        this.multiPV = multiPV;
+    }
+
+    @Override
+    public int getMultiPV() {
+        return this.multiPV;
+    }
+
+    @Override
+    public List<Node<ContentType>> getBestLines() {
+        return this.bestLines;
+    }
+
+    /**
+     * Evaluators using hash tables should override this method.
+     * @return -1
+     */
+    @Override
+    public int getHashfull() {
+        return -1;
+    }
+
+    /**
+     * Returns the principal variation starting with the passed node
+     * by following the best child of every node (see {@link Node#getBestChild()}).
+     * @param node the first node of the principal variation
+     * @return the nodes of the principal variation, starting with the passed node
+     */
+    public static <ContentType> List<Node<ContentType>> getPrincipalVariation(Node<ContentType> node) {
+        List<Node<ContentType>> variation = new ArrayList<Node<ContentType>>();
+        while (node != null) {
+            variation.add(node);
+            node = node.getBestChild();
+        }
+        return variation;
     }
 
     /**
@@ -0,0 +1,512 @@
+package minimax;
+
+import java.util.List;
+
+import application.Conductor;
+import gametree.GameNode;
+import gametree.Node;
+import gametree.Tree;
+import model.Move;
+import model.MutablePosition;
+import model.PieceType;
+import model.Position;
+import movegenerator.MoveGenerator;
+import movegenerator.MoveListGenerator;
+import positionevaluator.Accumulator;
+import positionevaluator.EvaluationCache;
+import positionevaluator.NeuralEvaluator;
+import positionevaluator.PositionEvaluator;
+import utility.PerformanceData;
+
+import static model.PieceEncoding.EMPTY_SQUARE;
+
+/**
+ * Alpha-beta-pruning that searches a position directly instead of building a tree of nodes.
+ * <p>
+ * The search is a recursive negamax over a single {@link MutablePosition}: moves are played by
+ * {@link MutablePosition#makeMove(int)} and taken back by {@link MutablePosition#unmakeMove()}.
+ * Moves are generated into preallocated buffers, one per ply, so visiting a node does not allocate
+ * apart from the position created to evaluate leaves statically.
+ * Results are stored in a {@link TranspositionTable} that is kept between iterations, so the best move
+ * of the previous iteration is searched first. Other moves are ordered by
+ * the value of the captured piece and the value of the capturing piece, and by two killer moves per ply.
+ * <p>
+ * The table is also kept between moves when it is passed to the evaluator of the next search
+ * (see {@link #FlatAlphaBetaPruning(TranspositionTable)}): the position reached by the opponent's reply
+ * was searched two plies below the previous root, so its entry and the entries of its descendants provide
+ * the first moves to search and bounds for nodes searched to the same depth again. From the second iteration on,
+ * quiet moves of the root are ordered by the number of nodes searched below them in the previous iteration.
+ * <p>
+ * Stored values are only used to cut off nodes searched to the same remaining depth,
+ * since mate values depend on the remaining depth and leaves are evaluated without quiescence search.
+ * Values are the same as those of the tree evaluators up to transpositions and lazy evaluation
+ * (see {@link PositionEvaluator#evaluatePosition(Position, int, int)}), which depend on the search window.
+ * <p>
+ * Only the nodes of the principal variation are created, as chain of {@link GameNode GameNodes} linked by their
+ * best children. The children of the root are not kept, like in {@link MoveOrderingSelfDestructingAlphaBetaPruning}.
+ * Repetitions are detected by the Zobrist keys of the game history ({@link Conductor#getPastPositionKeys()}).
+ */
+public class FlatAlphaBetaPruning extends BaseTreeEvaluator<Position> implements GameTreeEvaluator {
+
+    /**
+     * Number of entries of the transposition table created by {@link #FlatAlphaBetaPruning()}.
+     */
+    public static final int DEFAULT_TABLE_SIZE = 1 << 16;
+
+    /**
+     * The number of nodes evaluated between two checks of {@link Conductor#stopCalculating}.
+     */
+    private static final int ABORT_CHECK_INTERVAL = 50000;
+
+    /**
+     * Bounds of negamax values, chosen so that they can be negated.
+     */
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private static final int KING_VALUE = PieceType.KING.getPointValue();
+
+    // move ordering scores
+    private static final int HASH_MOVE = 1 << 30;
+    private static final int CAPTURE = 1 << 20;
+    private static final int FIRST_KILLER = 1 << 19;
+    private static final int SECOND_KILLER = FIRST_KILLER - 1;
+    /**
+     * Piece values used to order captures by their victim and attacker, indexed by piece encoding.
+     */
+    private static final int[] ORDERING_VALUES = {0, 3, 10, 3, 1, 9, 5, 0, 3, 10, 3, 1, 9, 5};
+
+    private final TranspositionTable table;
+
+    private MutablePosition position;
+    private int counter;
+    /**
+     * Whether the current evaluation was aborted due to {@link Conductor#stopCalculating}.
+     */
+    private boolean aborted;
+
+    // buffers indexed by ply, allocated for the deepest search so far
+    private int[][] moves = new int[0][];
+    private int[][] scores = new int[0][];
+    private int[][] principalVariations = new int[0][];
+    private int[] principalVariationLengths = new int[0];
+    private int[][] killers = new int[0][];
+
+    // nodes searched below each move of the root by the last completed search of the root
+    private long countedRootKey;
+    private boolean rootNodeCountsValid = false;
+    private int countedRootMoveCount;
+    private int[] countedRootMoves = new int[MoveListGenerator.MAX_MOVES];
+    private int[] rootNodeCounts = new int[MoveListGenerator.MAX_MOVES];
+    // nodes searched below each move of the root by the running search
+    private int searchedRootMoveCount;
+    private int[] searchedRootMoves = new int[MoveListGenerator.MAX_MOVES];
+    private int[] searchedRootNodeCounts = new int[MoveListGenerator.MAX_MOVES];
+
+    /**
+     * Creates an evaluator with a transposition table of {@link #DEFAULT_TABLE_SIZE} entries.
+     */
+    public FlatAlphaBetaPruning() {
+        this(new TranspositionTable(DEFAULT_TABLE_SIZE));
+    }
+
+    /**
+     * Creates an evaluator storing its results in the passed transposition table.
+     * @param table the transposition table, may be shared with other evaluators that are not run concurrently
+     */
+    public FlatAlphaBetaPruning(TranspositionTable table) {
+        this.table = table;
+    }
+
+    @Override
+    public GameNode evaluateTree(Tree<? extends Node<Position>> tree, int depth, boolean whitesTurn) {
+        aborted = false;
+        return (GameNode) super.evaluateTree(tree, depth, whitesTurn);
+    }
+
+    @Override
+    protected Node<Position> evaluateNode(Node<Position> node, int depth, boolean whitesTurn) {
+        Position root = node.getContent();
+        int value = searchRoot(root, getGameHistory(null), depth, -INFINITY, INFINITY);
+        if (aborted && principalVariationLengths[0] == 0) {
+            return node;
+        }
+        if (!aborted) {
+            storeRootNodeCounts(root.getZobristKey());
+        }
+        int whiteValue = whitesTurn ? value : -value;
+        node.setValue(whiteValue);
+        GameNode bestChild = createPrincipalVariation(root, whiteValue);
+        if (bestChild == null) {
+            // no moves can be made
+            node.setBestChild(null);
+            return node;
+        }
+        node.setBestChild(bestChild);
+        return bestChild;
+    }
+
+    @Override
+    protected void evaluateRootChild(Node<Position> child, int depth, int alpha, int beta, boolean whitesTurn) {
+        Position position = child.getContent();
+        // the window is given from white's point of view
+        int lower = whitesTurn ? alpha : negate(beta);
+        int upper = whitesTurn ? beta : negate(alpha);
+        long[] history = getGameHistory(child.getParent() == null ? null : child.getParent().getContent());
+        int value = searchRoot(position, history, depth, Math.max(lower, -INFINITY), upper);
+        if (aborted) {
+            return;
+        }
+        int whiteValue = whitesTurn ? value : -value;
+        child.setValue(whiteValue);
+        child.setBestChild(createPrincipalVariation(position, whiteValue));
+    }
+
+    @Override
+    protected boolean isRootSearchAborted() {
+        return aborted;
+    }
+
+    @Override
+    public int getHashfull() {
+        return table.getHashfull();
+    }
+
+    /**
+     * @return the transposition table used by this evaluator
+     */
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    private static int negate(int value) {
+        return value == Integer.MIN_VALUE ? INFINITY : -value;
+    }
+
+    /**
+     * @param parent the position played after the positions of the game, i.e. the parent of the searched position
+     * if it is not the current position of the game, otherwise null
+     * @return the Zobrist keys of the positions of the game, followed by the key of the passed position
+     */
+    private static long[] getGameHistory(Position parent) {
+        List<Long> history = Conductor.getPastPositionKeys();
+        long[] keys = new long[history.size() + (parent == null ? 0 : 1)];
+        for (int i = 0; i < history.size(); i++) {
+            keys[i] = history.get(i);
+        }
+        if (parent != null) {
+            keys[history.size()] = parent.getZobristKey();
+        }
+        return keys;
+    }
+
+    /**
+     * Searches the passed position from the point of view of the player to move.
+     * @param root the position to search
+     * @param history the Zobrist keys of the positions preceding the searched position
+     * @param depth the remaining depth
+     * @param alpha the lower bound of the window
+     * @param beta the upper bound of the window
+     * @return the value of the position, if the search was aborted the value of the best move searched completely
+     */
+    private int searchRoot(Position root, long[] history, int depth, int alpha, int beta) {
+        position = new MutablePosition(root, history);
+        allocateBuffers(depth + 1);
+        return search(depth, 0, alpha, beta);
+    }
+
+    private void allocateBuffers(int plies) {
+        if (moves.length >= plies) {
+            return;
+        }
+        moves = new int[plies][MoveListGenerator.MAX_MOVES];
+        scores = new int[plies][MoveListGenerator.MAX_MOVES];
+        principalVariations = new int[plies][plies];
+        principalVariationLengths = new int[plies];
+        killers = new int[plies][2];
+    }
+
+    private int search(int depth, int ply, int alpha, int beta) {
+        counter++;
+        this.increaseEvaluatedNodeCount();
+        if (counter == ABORT_CHECK_INTERVAL) {
+            counter = 0;
+            if (Conductor.stopCalculating) {
+                aborted = true;
+                return 0;
+            }
+        }
+        principalVariationLengths[ply] = 0;
+
+        if (depth == 0) {
+            return evaluateStatically(alpha, beta);
+        }
+        if (position.isDraw()) {
+            return 0;
+        }
+
+        long key = position.getZobristKey();
+        long entry = table.probe(key);
+        int hashMove = 0;
+        if (entry != TranspositionTable.MISS) {
+            hashMove = TranspositionTable.getMove(entry);
+            if (ply > 0 && TranspositionTable.getDepth(entry) == depth) {
+                int value = TranspositionTable.getValue(entry);
+                int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER_BOUND && value >= beta)
+                    || (bound == TranspositionTable.UPPER_BOUND && value <= alpha)) {
+                    if (hashMove != 0) {
+                        principalVariations[ply][0] = hashMove;
+                        principalVariationLengths[ply] = 1;
+                    }
+                    return value;
+                }
+            }
+        }
+
+        int[] plyMoves = moves[ply];
+        int count = MoveListGenerator.generateMoves(position, plyMoves);
+        if (count == 0) {
+            // mates are worth more the earlier they happen, see PositionEvaluator#evaluateLeafPosition
+            return position.isInCheck() ? -depth * KING_VALUE : 0;
+        }
+        scoreMoves(ply, count, hashMove);
+
+        int originalAlpha = alpha;
+        int bestValue = -INFINITY;
+        int bestMove = 0;
+        if (ply == 0) {
+            searchedRootMoveCount = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            int move = selectMove(ply, i, count);
+            int nodes = getEvaluatedNodeCount();
+            position.makeMove(move);
+            int value = -search(depth - 1, ply + 1, -beta, -alpha);
+            position.unmakeMove();
+            if (ply == 0) {
+                searchedRootMoves[searchedRootMoveCount] = move;
+                searchedRootNodeCounts[searchedRootMoveCount++] = getEvaluatedNodeCount() - nodes;
+            }
+            if (aborted) {
+                // the root keeps the best of the completed moves, like the tree evaluators
+                return ply == 0 ? bestValue : 0;
+            }
+            if (bestMove == 0 || value > bestValue) {
+                bestValue = value;
+                bestMove = move;
+                updatePrincipalVariation(ply, move);
+            }
+            if (value >= beta) {
+                if (isQuiet(move)) {
+                    storeKiller(ply, move);
+                }
+                break;
+            }
+            if (value > alpha) {
+                alpha = value;
+            }
+        }
+
+        // bounds are stored as the window bound that was exceeded, values outside the window
+        // may be estimates of the lazy evaluation
+        if (bestValue <= originalAlpha) {
+            table.store(key, originalAlpha, bestMove, depth, TranspositionTable.UPPER_BOUND);
+        } else if (bestValue >= beta) {
+            table.store(key, beta, bestMove, depth, TranspositionTable.LOWER_BOUND);
+        } else {
+            table.store(key, bestValue, bestMove, depth, TranspositionTable.EXACT);
+        }
+        return bestValue;
+    }
+
+    /**
+     * Evaluates the current position statically from the point of view of the player to move,
+     * consulting the evaluation cache shared with {@link GameNode}.
+     */
+    private int evaluateStatically(int alpha, int beta) {
+        PerformanceData.staticValueComputations += 1;
+        boolean white = position.getWhiteNextMove();
+        EvaluationCache cache = GameNode.getEvaluationCache();
+        long key = position.getZobristKey();
+        int value = cache.probe(key);
+        if (value == EvaluationCache.MISS) {
+            Position leaf = position.toPosition();
+            if (NeuralEvaluator.isEnabled()) {
+                value = NeuralEvaluator.evaluatePosition(leaf, new Accumulator(NeuralEvaluator.getNetwork(), leaf.getBoard()));
+                cache.store(key, value);
+            } else {
+                // the window from white's point of view
+                int lower = white ? alpha : -beta;
+                int upper = white ? beta : -alpha;
+                value = PositionEvaluator.evaluatePosition(leaf, lower, upper);
+                // only values within the window are known to be exact
+                if (value > lower && value < upper) {
+                    cache.store(key, value);
+                }
+            }
+        }
+        return white ? value : -value;
+    }
+
+    /**
+     * Keeps the node counts of the moves of the root searched last, to order them in the next search of the root.
+     */
+    private void storeRootNodeCounts(long rootKey) {
+        int[] counted = countedRootMoves;
+        int[] counts = rootNodeCounts;
+        countedRootMoves = searchedRootMoves;
+        rootNodeCounts = searchedRootNodeCounts;
+        searchedRootMoves = counted;
+        searchedRootNodeCounts = counts;
+        countedRootMoveCount = searchedRootMoveCount;
+        countedRootKey = rootKey;
+        rootNodeCountsValid = true;
+    }
+
+    /**
+     * Scores the generated moves of a ply for move ordering.
+     * If the position was searched as root before, its quiet moves are scored by the number of nodes
+     * searched below them instead of by killer moves, since a move whose refutation took many nodes to find
+     * is likely to be good.
+     */
+    private void scoreMoves(int ply, int count, int hashMove) {
+        int[] plyMoves = moves[ply];
+        int[] plyScores = scores[ply];
+        boolean countedRoot = ply == 0 && rootNodeCountsValid && position.getZobristKey() == countedRootKey;
+        byte[] squares = position.getSquares();
+        int[] plyKillers = killers[ply];
+        for (int i = 0; i < count; i++) {
+            int move = plyMoves[i];
+            byte victim = squares[(move >>> 6) & 0x3F];
+            byte promotion = (byte) (move >>> 12);
+            if (move == hashMove) {
+                plyScores[i] = HASH_MOVE;
+            } else if (victim != EMPTY_SQUARE || promotion != EMPTY_SQUARE) {
+                plyScores[i] = CAPTURE + (ORDERING_VALUES[victim] + ORDERING_VALUES[promotion]) * 16
+                    - ORDERING_VALUES[squares[move & 0x3F]];
+            } else if (countedRoot) {
+                plyScores[i] = Math.min(getRootNodeCount(move), CAPTURE - 1);
+            } else if (move == plyKillers[0]) {
+                plyScores[i] = FIRST_KILLER;
+            } else if (move == plyKillers[1]) {
+                plyScores[i] = SECOND_KILLER;
+            } else {
+                plyScores[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Moves the best scored of the remaining moves to the passed index, moves with equal scores
+     * keep the order they were generated in.
+     * @return the selected move
+     */
+    private int selectMove(int ply, int index, int count) {
+        int[] plyMoves = moves[ply];
+        int[] plyScores = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (plyScores[i] > plyScores[best]) {
+                best = i;
+            }
+        }
+        int move = plyMoves[best];
+        int score = plyScores[best];
+        // shift the skipped moves to keep their order
+        System.arraycopy(plyMoves, index, plyMoves, index + 1, best - index);
+        System.arraycopy(plyScores, index, plyScores, index + 1, best - index);
+        plyMoves[index] = move;
+        plyScores[index] = score;
+        return move;
+    }
+
+    /**
+     * @param move a move of the root of the last completed search
+     * @return the number of nodes searched below the move by the last completed search,
+     * 0 if it was not searched
+     */
+    public int getRootNodeCount(Move move) {
+        return getRootNodeCount(move.pack());
+    }
+
+    /**
+     * @return the number of nodes searched below the move of the root by the last completed search of the root,
+     * 0 if it was not searched
+     */
+    private int getRootNodeCount(int move) {
+        for (int i = 0; i < countedRootMoveCount; i++) {
+            if (countedRootMoves[i] == move) {
+                return rootNodeCounts[i];
+            }
+        }
+        return 0;
+    }
+
+    private boolean isQuiet(int move) {
+        // the move was already taken back, so the target square holds the piece that would have been captured
+        return position.getSquares()[(move >>> 6) & 0x3F] == EMPTY_SQUARE && (move >>> 12) == EMPTY_SQUARE;
+    }
+
+    private void storeKiller(int ply, int move) {
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+    }
+
+    /**
+     * Sets the principal variation of the ply to the move followed by the principal variation of the next ply.
+     */
+    private void updatePrincipalVariation(int ply, int move) {
+        int[] variation = principalVariations[ply];
+        variation[0] = move;
+        int length = 1;
+        if (ply + 1 < principalVariationLengths.length) {
+            int childLength = principalVariationLengths[ply + 1];
+            System.arraycopy(principalVariations[ply + 1], 0, variation, 1, childLength);
+            length += childLength;
+        }
+        principalVariationLengths[ply] = length;
+    }
+
+    /**
+     * Creates the nodes of the principal variation found by the last search.
+     * Moves of the variation are verified to be legal since moves taken from the transposition table
+     * might stem from a different position with the same index.
+     * @param root the position the principal variation starts in
+     * @param value the value of the variation from white's point of view, assigned to all nodes
+     * @return the first node of the variation, null if it is empty
+     */
+    private GameNode createPrincipalVariation(Position root, int value) {
+        GameNode first = null;
+        GameNode last = null;
+        Position current = root;
+        int[] variation = principalVariations[0];
+        for (int i = 0; i < principalVariationLengths[0]; i++) {
+            if (!contains(MoveListGenerator.generateMoves(current), variation[i])) {
+                break;
+            }
+            current = MoveGenerator.applyMove(current, Move.unpack(variation[i]));
+            GameNode node = new GameNode(current);
+            node.setValue(value);
+            if (last == null) {
+                first = node;
+            } else {
+                last.setBestChild(node);
+            }
+            last = node;
+        }
+        return first;
+    }
+
+    private static boolean contains(int[] moves, int move) {
+        for (int candidate : moves) {
+            if (candidate == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,16 @@
+package minimax;
+
+import gametree.GameNode;
+import gametree.Node;
+import gametree.Tree;
+import model.Position;
+
+public class GameNodeNonRecursiveMoveOrderingSelfDestructingAlphaBetaPruning
+        extends NonRecursiveMoveOrderingSelfDestructingAlphaBetaPruning<Position> implements GameTreeEvaluator {
+
+    @Override
+    public GameNode evaluateTree(Tree<? extends Node<Position>> tree, int depth, boolean whitesTurn) {
+        return (GameNode) super.evaluateTree(tree, depth, whitesTurn);
+    }
+
+}
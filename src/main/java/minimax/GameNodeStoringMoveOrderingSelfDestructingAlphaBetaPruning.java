@@ -9,7 +9,17 @@ public class GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning
         extends StoringMoveOrderingSelfDestructingAlphaBetaPruning<Position> implements GameTreeEvaluator {
 
     public GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning(int storedLevels) {
-        super(storedLevels);
+        super(storedLevels, 0, GameNode.ESTIMATED_BYTES);
+    }
+
+    /**
+     * Creates an evaluator storing the tree within a memory budget,
+     * the memory of game nodes is estimated by {@link GameNode#ESTIMATED_BYTES}.
+     * @param storedLevels the number of levels beneath the root that may be stored
+     * @param memoryBudget the maximum number of bytes of stored nodes, 0 for no limit
+     */
+    public GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning(int storedLevels, long memoryBudget) {
+        super(storedLevels, memoryBudget, GameNode.ESTIMATED_BYTES);
     }
 
     @Override
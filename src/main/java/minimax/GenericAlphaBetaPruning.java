@@ -19,6 +19,11 @@ public class GenericAlphaBetaPruning<ContentType> extends BaseTreeEvaluator<Cont
         return alphaBetaPruningMiniMax(node, depth, alpha, beta, whitesTurn);
     }
 
+    @Override
+    protected void evaluateRootChild(Node<ContentType> child, int depth, int alpha, int beta, boolean whitesTurn) {
+        alphaBetaPruningMiniMax(child, depth, alpha, beta, whitesTurn);
+    }
+
     /**
      * Applies alpha-beta-pruning minimax to the passed node and returns the child
      * node that should be played.
@@ -69,7 +74,7 @@ public class GenericAlphaBetaPruning<ContentType> extends BaseTreeEvaluator<Cont
         parent.writeContentToHistory();
 
         // assign static evaluation to leaves
-        boolean leaf = evaluateIfLeaf(parent, depth);
+        boolean leaf = evaluateIfLeaf(parent, depth, alpha, beta);
         if (leaf) {            
             parent.deleteContentFromHistory();
             return parent;
@@ -110,6 +115,7 @@ public class GenericAlphaBetaPruning<ContentType> extends BaseTreeEvaluator<Cont
                     parent.setValue(childValue);
                     // store current child as best child
                     bestChild = child;
+                    parent.setBestChild(child);
                     firstChild = false;
                 }
                 if (childValue <= alpha) {
@@ -171,7 +177,7 @@ public class GenericAlphaBetaPruning<ContentType> extends BaseTreeEvaluator<Cont
         parent.writeContentToHistory();
 
         // assign static evaluation to leaves
-        boolean leaf = evaluateIfLeaf(parent, depth);
+        boolean leaf = evaluateIfLeaf(parent, depth, alpha, beta);
         if (leaf) {
             parent.deleteContentFromHistory();
             return parent;
@@ -212,6 +218,7 @@ public class GenericAlphaBetaPruning<ContentType> extends BaseTreeEvaluator<Cont
                     parent.setValue(childValue);
                     // store current child as best child
                     bestChild = child;
+                    parent.setBestChild(child);
                     firstChild = false;
                 }
                 if (childValue >= beta) {
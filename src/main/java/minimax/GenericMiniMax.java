@@ -107,6 +107,7 @@ public class GenericMiniMax<ContentType> extends BaseTreeEvaluator<ContentType>
                     parent.setValue(childValue);
                     // store current child as best child
                     bestChild = child;
+                    parent.setBestChild(child);
                     firstChild = false;
                 }
 
@@ -193,6 +194,7 @@ public class GenericMiniMax<ContentType> extends BaseTreeEvaluator<ContentType>
                     parent.setValue(childValue);
                     // store current child as best child
                     bestChild = child;
+                    parent.setBestChild(child);
                     firstChild = false;
                 }
 
@@ -1,9 +1,17 @@
 package minimax;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import application.Conductor;
+import gametree.GameNode;
 import gametree.Node;
 import gametree.Tree;
+import gametree.UninitializedValueException;
+import model.Move;
 import model.Position;
+import uciservice.UCIOperator;
+import utility.TimeUtility;
 
 public class IterativeDeepening<ContentType> {
 
@@ -12,14 +20,31 @@ public class IterativeDeepening<ContentType> {
      * (e.g. Tree < Node < Position > >)
      */
     public Node<ContentType> lastResult;
+
+    /**
+     * Minimum time in milliseconds between two info lines sent by {@link #reportProgress()}.
+     */
+    public static final long INFO_INTERVAL = 1000;
+
+    private volatile TreeEvaluator<ContentType> evaluator;
+    private volatile long completedNodes;
+    private volatile int currentDepth;
+    private volatile long startTime = System.nanoTime();
+    private volatile long lastInfoTime;
     /**
      * Used to save an intermediate result of iterative deepning.
+     * Alongside the move to be played, the expected reply (the second move of the
+     * principal variation) is saved so it can be sent as ponder move.
      * @param bestNode the move that should be saved
      */
     private void saveMove(Node<ContentType> bestNode, int depth) {
         if (bestNode.getContent() instanceof Position){
             Position bestFollowUp   = (Position) bestNode.getContent();
             Conductor.bestFollowUp  = bestFollowUp;
+            Conductor.ponderMove    = null;
+            if (bestNode.getBestChild() instanceof GameNode) {
+                Conductor.ponderMove = ((GameNode) bestNode.getBestChild()).getRepresentedMove();
+            }
             Conductor.depthCompleted  = depth;
         } else {
             lastResult = bestNode;
@@ -28,8 +53,90 @@ public class IterativeDeepening<ContentType> {
         //System.out.println(((GameNode)bestMove).getRepresentedMove().toStringAlgebraic());
     }
 
+    /**
+     * Reports the result of a completed iteration as UCI info line,
+     * one line per pv if more than one line was requested.
+     * @param evaluator the evaluator that evaluated the tree
+     * @param depth the depth of the completed iteration
+     * @param whitesTurn whether the searched turn is played by white
+     */
+    private void reportIteration(TreeEvaluator<ContentType> evaluator, int depth, boolean whitesTurn) {
+        List<Node<ContentType>> lines = evaluator.getBestLines();
+        long nodes = getNodeCount();
+        long time = getElapsedMillis();
+        try {
+            for (int i = 0; i < lines.size(); i++) {
+                Node<ContentType> line = lines.get(i);
+                if (!(line instanceof GameNode)) {
+                    return;
+                }
+                List<Move> moves = new ArrayList<Move>();
+                for (Node<ContentType> node : BaseTreeEvaluator.getPrincipalVariation(line)) {
+                    moves.add(((GameNode) node).getRepresentedMove());
+                }
+                // values are computed from white's point of view
+                int score = whitesTurn ? line.getValue() : -line.getValue();
+                int multiPV = evaluator.getMultiPV() > 1 ? i + 1 : 0;
+                // the search does not extend any lines, so no line is deeper than the iteration
+                UCIOperator.sendInfo(depth, depth, multiPV, score, nodes, getNodesPerSecond(nodes, time), time,
+                    evaluator.getHashfull(), moves);
+            }
+            lastInfoTime = System.nanoTime();
+        } catch (UninitializedValueException exception) {
+            throw new IllegalStateException("reported line was not evaluated", exception);
+        }
+    }
+
+    /**
+     * Reports the progress of the running iteration if no info was sent
+     * within the last {@link #INFO_INTERVAL} milliseconds.
+     * <p>
+     * Intended to be called periodically by a thread other than the search thread,
+     * the counters are read without synchronization and thus may be slightly outdated.
+     */
+    public void reportProgress() {
+        TreeEvaluator<ContentType> evaluator = this.evaluator;
+        if (evaluator == null || System.nanoTime() - lastInfoTime < INFO_INTERVAL * TimeUtility.MILLI_TO_NANO) {
+            return;
+        }
+        long nodes = getNodeCount();
+        long time = getElapsedMillis();
+        UCIOperator.sendProgress(currentDepth, nodes, getNodesPerSecond(nodes, time), time, evaluator.getHashfull());
+        lastInfoTime = System.nanoTime();
+    }
+
+    /**
+     * @return the number of nodes evaluated since the search started
+     */
+    public long getNodeCount() {
+        TreeEvaluator<ContentType> evaluator = this.evaluator;
+        if (evaluator == null) {
+            return completedNodes;
+        }
+        return completedNodes + evaluator.getEvaluatedNodeCount();
+    }
+
+    /**
+     * @return the time in milliseconds that passed since the search started
+     */
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startTime) / TimeUtility.MILLI_TO_NANO;
+    }
+
+    private static long getNodesPerSecond(long nodes, long millis) {
+        if (millis <= 0) {
+            return 0;
+        }
+        return nodes * 1000 / millis;
+    }
+
     /**
     * Evaluates the game tree using iterative deepening and returns the Node that should be played.
+    * <p>
+    * Results of an iteration that was aborted by {@link Conductor#stopCalculating}
+    * are discarded, the result of the last completed iteration is kept instead.
+    * The flag is not reset by this method, callers reset it by {@link Conductor#cleanup()} before starting the search,
+    * so a stop received before the search started is not lost.
     * @param tree the tree to be evaluated
     * @param secondsToCompute the maximum time in seconds that the computation may take
     * @param whitesTurn whether the turn to be searched is played by white
@@ -38,16 +145,29 @@ public class IterativeDeepening<ContentType> {
     */
     public void evaluateTree(Tree<? extends Node<ContentType>> tree, TreeEvaluator<ContentType> evaluator, boolean whitesTurn, int secondsToCompute,
             int maxDepth) {
-        
-        Conductor.cleanup();
+        startTime = System.nanoTime();
+        lastInfoTime = startTime;
+        completedNodes = 0;
+        this.evaluator = evaluator;
         int depth = 1;
         Node<ContentType> bestMove = null;
         while (depth <= maxDepth && !Conductor.stopCalculating) {
             // System.out.println("depth " + depth);
+            currentDepth = depth;
             bestMove = evaluator.evaluateTree(tree, depth, whitesTurn);
+            if (Conductor.stopCalculating) {
+                // the iteration was aborted, its result is incomplete
+                break;
+            }
             saveMove(bestMove, depth);
+            reportIteration(evaluator, depth, whitesTurn);
+            completedNodes += evaluator.getEvaluatedNodeCount();
+            evaluator.resetEvaluatedNodeCount();
             depth += 1;
         }
+        // nodes of an aborted iteration were evaluated nonetheless
+        completedNodes += evaluator.getEvaluatedNodeCount();
+        this.evaluator = null;
         Conductor.stopCalculating = true;
     }
 }
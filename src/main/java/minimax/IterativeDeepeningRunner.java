@@ -10,6 +10,7 @@ public class IterativeDeepeningRunner implements Runnable{
     boolean whitesTurn;
     int secondsToCompute;
     int depth;
+    IterativeDeepening<Position> search;
 
 
     public IterativeDeepeningRunner(GameTree tree, TreeEvaluator<Position> evaluator, boolean whitesTurn, int secondsToCompute, int depth) {
@@ -18,12 +19,22 @@ public class IterativeDeepeningRunner implements Runnable{
         this.whitesTurn = whitesTurn;
         this.secondsToCompute = secondsToCompute;
         this.depth = depth;
+        this.search = new IterativeDeepening<Position>();
+    }
+
+    /**
+     * Creates a runner executing the passed search, so its progress can be observed by other threads.
+     */
+    public IterativeDeepeningRunner(GameTree tree, TreeEvaluator<Position> evaluator, boolean whitesTurn, int secondsToCompute, int depth,
+            IterativeDeepening<Position> search) {
+        this(tree, evaluator, whitesTurn, secondsToCompute, depth);
+        this.search = search;
     }
 
 
     @Override
     public void run() {
-        new IterativeDeepening<Position>().evaluateTree(tree, evaluator, whitesTurn, -1, depth);
+        search.evaluateTree(tree, evaluator, whitesTurn, -1, depth);
     }
     
 }
@@ -5,6 +5,7 @@ import java.util.List;
 import application.Conductor;
 import gametree.ComputeChildrenException;
 import gametree.Node;
+import gametree.Tree;
 import gametree.UninitializedValueException;
 
 /**
@@ -16,6 +17,10 @@ import gametree.UninitializedValueException;
 public class MoveOrderingSelfDestructingAlphaBetaPruning<ContentType> extends BaseTreeEvaluator<ContentType> {
 
     private int counter;
+    /**
+     * Whether the current evaluation was aborted due to {@link Conductor#stopCalculating}.
+     */
+    private boolean aborted;
 
     private DescendingValueComparator whiteComparator;
     private AscendingValueComparator blackComparator;
@@ -25,6 +30,12 @@ public class MoveOrderingSelfDestructingAlphaBetaPruning<ContentType> extends Ba
         blackComparator = new AscendingValueComparator();
     }
 
+    @Override
+    public Node<ContentType> evaluateTree(Tree<? extends Node<ContentType>> tree, int depth, boolean whitesTurn) {
+        aborted = false;
+        return super.evaluateTree(tree, depth, whitesTurn);
+    }
+
     @Override
     public Node<ContentType> evaluateNode(Node<ContentType> node, int depth, boolean whitesTurn) {
         int alpha = Integer.MIN_VALUE;
@@ -32,6 +43,16 @@ public class MoveOrderingSelfDestructingAlphaBetaPruning<ContentType> extends Ba
         return alphaBetaPruningMiniMax(node, depth, alpha, beta, whitesTurn);
     }
 
+    @Override
+    protected void evaluateRootChild(Node<ContentType> child, int depth, int alpha, int beta, boolean whitesTurn) {
+        alphaBetaPruningMiniMax(child, depth, alpha, beta, whitesTurn);
+    }
+
+    @Override
+    protected boolean isRootSearchAborted() {
+        return aborted;
+    }
+
     /**
      * Applies alpha-beta-pruning minimax to the passed node and returns the child
      * node that should be played.
@@ -82,6 +103,7 @@ public class MoveOrderingSelfDestructingAlphaBetaPruning<ContentType> extends Ba
         if (counter == 50000){
             counter = 0;
             if (Conductor.stopCalculating){
+                aborted = true;
                 return parent;
             }
         }
@@ -90,7 +112,7 @@ public class MoveOrderingSelfDestructingAlphaBetaPruning<ContentType> extends Ba
 
         // assign static evaluation to leaves
         // assign static evaluation to leaves
-        boolean leaf = evaluateIfLeaf(parent, depth);
+        boolean leaf = evaluateIfLeaf(parent, depth, alpha, beta);
         if (leaf) {
             parent.deleteContentFromHistory();
             return parent;
@@ -108,6 +130,7 @@ public class MoveOrderingSelfDestructingAlphaBetaPruning<ContentType> extends Ba
             // recognise this node as a leaf
             List<? extends Node<ContentType>> children = parent.getOrComputeChildren();
 
+            parent.computeChildrenStaticValues();
             children.sort(blackComparator);
 
             for (Node<ContentType> child : children) {
@@ -135,6 +158,7 @@ public class MoveOrderingSelfDestructingAlphaBetaPruning<ContentType> extends Ba
                     parent.setValue(childValue);
                     // store current child as best child
                     bestChild = child;
+                    parent.setBestChild(child);
                     firstChild = false;
                 }
                 if (childValue <= alpha) {
@@ -155,7 +179,7 @@ public class MoveOrderingSelfDestructingAlphaBetaPruning<ContentType> extends Ba
             }
 
             // delete children from tree after parent was evaluated
-            parent.deleteChildren();
+            parent.recycleChildren();
 
             parent.deleteContentFromHistory();
 
@@ -199,6 +223,7 @@ public class MoveOrderingSelfDestructingAlphaBetaPruning<ContentType> extends Ba
         if (counter == 50000){
             counter = 0;
             if (Conductor.stopCalculating){
+                aborted = true;
                 return parent;
             }
         }
@@ -206,7 +231,7 @@ public class MoveOrderingSelfDestructingAlphaBetaPruning<ContentType> extends Ba
         parent.writeContentToHistory();
 
         // assign static evaluation to leaves
-        boolean leaf = evaluateIfLeaf(parent, depth);
+        boolean leaf = evaluateIfLeaf(parent, depth, alpha, beta);
         if (leaf) {
             parent.deleteContentFromHistory();
             return parent;
@@ -224,6 +249,7 @@ public class MoveOrderingSelfDestructingAlphaBetaPruning<ContentType> extends Ba
             // recognise this node as a leaf
             List<? extends Node<ContentType>> children = parent.getOrComputeChildren();
 
+            parent.computeChildrenStaticValues();
             children.sort(whiteComparator);
 
             for (Node<ContentType> child : children) {
@@ -251,6 +277,7 @@ public class MoveOrderingSelfDestructingAlphaBetaPruning<ContentType> extends Ba
                     parent.setValue(childValue);
                     // store current child as best child
                     bestChild = child;
+                    parent.setBestChild(child);
                     firstChild = false;
                 }
                 if (childValue >= beta) {
@@ -271,7 +298,7 @@ public class MoveOrderingSelfDestructingAlphaBetaPruning<ContentType> extends Ba
             }
 
             // delete children from tree after parent was evaluated
-            parent.deleteChildren();
+            parent.recycleChildren();
 
             parent.deleteContentFromHistory();
 
@@ -0,0 +1,262 @@
+package minimax;
+
+import java.util.List;
+
+import application.Conductor;
+import gametree.ComputeChildrenException;
+import gametree.Node;
+import gametree.Tree;
+import gametree.UninitializedValueException;
+
+/**
+ * Alpha-beta-pruning with move ordering that deletes child nodes after evaluating their parent,
+ * like {@link MoveOrderingSelfDestructingAlphaBetaPruning}, but without recursion.
+ * <p>
+ * The search is a single loop driven by an explicit stack of frames, one frame per node on the path
+ * from the evaluated node to the node currently being searched. A frame consists of the fields at its index
+ * in preallocated arrays: the node, its ordered children, the index of the next child to search,
+ * the node's depth, alpha, beta and value and whether it is maximizing. The arrays are only reallocated
+ * when a search is deeper than all previous ones.
+ * <p>
+ * Since the whole state of the search is kept in the frames, an abort due to {@link Conductor#stopCalculating}
+ * unwinds the stack at once instead of returning through every level. Values, best children and the number
+ * of evaluated nodes are the same as those of {@link MoveOrderingSelfDestructingAlphaBetaPruning}.
+ */
+public class NonRecursiveMoveOrderingSelfDestructingAlphaBetaPruning<ContentType> extends BaseTreeEvaluator<ContentType> {
+
+    /**
+     * The number of nodes evaluated between two checks of {@link Conductor#stopCalculating}.
+     */
+    private static final int ABORT_CHECK_INTERVAL = 50000;
+
+    private int counter;
+    /**
+     * Whether the current evaluation was aborted due to {@link Conductor#stopCalculating}.
+     */
+    private boolean aborted;
+
+    private DescendingValueComparator whiteComparator;
+    private AscendingValueComparator blackComparator;
+
+    // frame stack, frame i holds the node at distance i from the evaluated node
+    private Node<ContentType>[] nodes;
+    private List<? extends Node<ContentType>>[] children;
+    private Node<ContentType>[] bestChildren;
+    private int[] childIndices;
+    private int[] depths;
+    private int[] alphas;
+    private int[] betas;
+    private int[] values;
+    private boolean[] maximizing;
+
+    public NonRecursiveMoveOrderingSelfDestructingAlphaBetaPruning() {
+        whiteComparator = new DescendingValueComparator();
+        blackComparator = new AscendingValueComparator();
+        allocateFrames(16);
+    }
+
+    // arrays of generic types are created with wildcards, the frames only ever hold nodes of ContentType
+    @SuppressWarnings("unchecked")
+    private void allocateFrames(int capacity) {
+        nodes = (Node<ContentType>[]) new Node<?>[capacity];
+        children = (List<? extends Node<ContentType>>[]) new List<?>[capacity];
+        bestChildren = (Node<ContentType>[]) new Node<?>[capacity];
+        childIndices = new int[capacity];
+        depths = new int[capacity];
+        alphas = new int[capacity];
+        betas = new int[capacity];
+        values = new int[capacity];
+        maximizing = new boolean[capacity];
+    }
+
+    @Override
+    public Node<ContentType> evaluateTree(Tree<? extends Node<ContentType>> tree, int depth, boolean whitesTurn) {
+        aborted = false;
+        return super.evaluateTree(tree, depth, whitesTurn);
+    }
+
+    @Override
+    public Node<ContentType> evaluateNode(Node<ContentType> node, int depth, boolean whitesTurn) {
+        return search(node, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, whitesTurn);
+    }
+
+    @Override
+    protected void evaluateRootChild(Node<ContentType> child, int depth, int alpha, int beta, boolean whitesTurn) {
+        search(child, depth, alpha, beta, whitesTurn);
+    }
+
+    @Override
+    protected boolean isRootSearchAborted() {
+        return aborted;
+    }
+
+    /**
+     * Applies alpha-beta-pruning minimax to the passed node and returns the child
+     * node that should be played.
+     *
+     * @param node   the node whose value should be determined
+     * @param depth  the additional depth to which the tree should be evaluated
+     * @param alpha  minimum score that white player is already guaranteed of
+     * @param beta   maximum score that black player is already guaranteed of
+     * @param whiteNextMove whether the node is maximizing
+     * @return the child node that has the best value, the passed node if it is a leaf
+     *         or if the search was aborted before the node was evaluated
+     */
+    private Node<ContentType> search(Node<ContentType> node, int depth, int alpha, int beta, boolean whiteNextMove) {
+        if (nodes.length <= depth) {
+            allocateFrames(depth + 1);
+        }
+        if (!enter(0, node, depth, alpha, beta, whiteNextMove)) {
+            return node;
+        }
+        int top = 0;
+        try {
+            while (true) {
+                int index = childIndices[top];
+                List<? extends Node<ContentType>> siblings = children[top];
+                Node<ContentType> child;
+                if (index < siblings.size()) {
+                    child = siblings.get(index);
+                    if (enter(top + 1, child, depths[top] - 1, alphas[top], betas[top], !maximizing[top])) {
+                        // descend into the child, the current frame continues once the child is evaluated
+                        top++;
+                        continue;
+                    }
+                    if (aborted) {
+                        Node<ContentType> bestChild = bestChildren[0];
+                        unwind(top);
+                        return bestChild == null ? node : bestChild;
+                    }
+                } else {
+                    // all children were searched or the remaining children were pruned
+                    Node<ContentType> bestChild = bestChildren[top];
+                    leave(top);
+                    if (top == 0) {
+                        return bestChild;
+                    }
+                    top--;
+                    child = children[top].get(childIndices[top]);
+                }
+                update(top, child.getValue(), child);
+            }
+        } catch (UninitializedValueException exception) {
+            //thrown by getValue()
+            throw new IllegalStateException("tree evaluation attempted to read an unitialized value");
+        }
+    }
+
+    /**
+     * Visits the passed node and, unless it is a leaf, pushes a frame for it.
+     * Leaves are evaluated statically.
+     * @return true if a frame was pushed, false if the node is a leaf or the search was aborted
+     */
+    private boolean enter(int frame, Node<ContentType> node, int depth, int alpha, int beta, boolean whiteNextMove) {
+        counter++;
+        this.increaseEvaluatedNodeCount();
+
+        if (counter == ABORT_CHECK_INTERVAL) {
+            counter = 0;
+            if (Conductor.stopCalculating) {
+                aborted = true;
+                return false;
+            }
+        }
+
+        node.writeContentToHistory();
+
+        // assign static evaluation to leaves
+        if (evaluateIfLeaf(node, depth, alpha, beta)) {
+            node.deleteContentFromHistory();
+            return false;
+        }
+
+        try {
+            // if getOrComputeChildren() throws ComputeChildrenException, evaluateIfLeaf() failed to
+            // recognise this node as a leaf
+            List<? extends Node<ContentType>> nodeChildren = node.getOrComputeChildren();
+            node.computeChildrenStaticValues();
+            nodeChildren.sort(whiteNextMove ? whiteComparator : blackComparator);
+
+            int value = whiteNextMove ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+            node.setValue(value);
+            nodes[frame] = node;
+            children[frame] = nodeChildren;
+            bestChildren[frame] = null;
+            childIndices[frame] = 0;
+            depths[frame] = depth;
+            alphas[frame] = alpha;
+            betas[frame] = beta;
+            values[frame] = value;
+            maximizing[frame] = whiteNextMove;
+            return true;
+
+        } catch (ComputeChildrenException exception) {
+            // nodes that are not leaves may not throw ComputeChildrenException
+            // -> this case is never allowed to occur
+            throw new IllegalStateException("isLeaf() failed to recognise a leaf", exception);
+        }
+    }
+
+    /**
+     * Updates the frame with the value of its evaluated child and moves on to the next child.
+     * After a cut-off the index is moved past the last child, so the frame is left next.
+     */
+    private void update(int frame, int childValue, Node<ContentType> child) {
+        Node<ContentType> node = nodes[frame];
+        // the value has to be updated before alpha or beta,
+        // see MoveOrderingSelfDestructingAlphaBetaPruning
+        if (maximizing[frame]) {
+            if (bestChildren[frame] == null || childValue > values[frame]) {
+                values[frame] = childValue;
+                node.setValue(childValue);
+                bestChildren[frame] = child;
+                node.setBestChild(child);
+            }
+            if (childValue >= betas[frame]) {
+                childIndices[frame] = Integer.MAX_VALUE;
+                return;
+            }
+            if (childValue > alphas[frame]) {
+                alphas[frame] = childValue;
+            }
+        } else {
+            if (bestChildren[frame] == null || childValue < values[frame]) {
+                values[frame] = childValue;
+                node.setValue(childValue);
+                bestChildren[frame] = child;
+                node.setBestChild(child);
+            }
+            if (childValue <= alphas[frame]) {
+                childIndices[frame] = Integer.MAX_VALUE;
+                return;
+            }
+            if (childValue < betas[frame]) {
+                betas[frame] = childValue;
+            }
+        }
+        childIndices[frame]++;
+    }
+
+    /**
+     * Deletes the children of the node of the passed frame and pops the frame.
+     */
+    private void leave(int frame) {
+        Node<ContentType> node = nodes[frame];
+        // delete children from tree after parent was evaluated
+        node.recycleChildren();
+        node.deleteContentFromHistory();
+        nodes[frame] = null;
+        children[frame] = null;
+        bestChildren[frame] = null;
+    }
+
+    /**
+     * Leaves all frames up to and including the passed one, starting with the deepest.
+     */
+    private void unwind(int top) {
+        for (int frame = top; frame >= 0; frame--) {
+            leave(frame);
+        }
+    }
+
+}
@@ -12,14 +12,14 @@ public class SelfDestructingAlphaBetaPruning<ContentType> extends GenericAlphaBe
     @Override
     protected Node<ContentType> alphaBetaMinimize(Node<ContentType> parent, int depth, int alpha, int beta) {
         Node<ContentType> bestMove = super.alphaBetaMinimize(parent, depth, alpha, beta);
-        parent.deleteChildren();
+        parent.recycleChildren();
         return bestMove;
     }
 
     @Override
     protected Node<ContentType> alphaBetaMaximize(Node<ContentType> parent, int depth, int alpha, int beta) {
         Node<ContentType> bestMove = super.alphaBetaMaximize(parent, depth, alpha, beta);
-        parent.deleteChildren();
+        parent.recycleChildren();
         return bestMove;
     }
 
@@ -2,8 +2,10 @@ package minimax;
 
 import java.util.List;
 
+import application.Conductor;
 import gametree.ComputeChildrenException;
 import gametree.Node;
+import gametree.Tree;
 import gametree.UninitializedValueException;
 
 /**
@@ -17,13 +19,47 @@ import gametree.UninitializedValueException;
  * This implementation also applies move ordering
  * using the "best" available value for stored nodes (see {@link gametree.Evaluable})
  * and static evaluation of nodes that are not stored.
+ * <p>
+ * Additionally, the stored tree can be limited to a memory budget (see {@link #getStoredBytes()}).
+ * Whenever a stored node is evaluated while the budget is exceeded, subtrees are evicted:
+ * <ol>
+ *      <li>
+ *          the subtrees of all children except the best child, these are the low-value siblings
+ *          and subtrees kept from previous iterations whose root was cut off in this iteration
+ *      </li>
+ *      <li>
+ *          if the budget is still exceeded, all children of the node
+ *          except its principal variation, i.e. the node is not stored anymore
+ *      </li>
+ * </ol>
+ * Since nodes are completed depth first, deep subtrees are evicted before the shallow levels
+ * that are revisited most often.
  */
 public class StoringMoveOrderingSelfDestructingAlphaBetaPruning<ContentType> extends BaseTreeEvaluator<ContentType> {
 
     private DescendingValueComparator whiteComparator;
     private AscendingValueComparator blackComparator;
 
+    /**
+     * Value of <code>storedLevels</code> that stores all levels, the tree is then only limited by the memory budget.
+     */
+    public static final int ALL_LEVELS = Integer.MAX_VALUE;
+
     public final int storedLevels;
+    private final long memoryBudget;
+    private final int bytesPerNode;
+
+    /**
+     * Number of nodes stored in the tree, i.e. children of stored nodes.
+     */
+    private long storedNodes = 0;
+    private long evictedNodes = 0;
+
+    private int counter;
+    /**
+     * Whether the current evaluation was aborted due to {@link Conductor#stopCalculating}.
+     */
+    private boolean aborted;
 
     /**
      * Creates a tree evaluator that deletes any nodes past the specified layer from the evalauted tree.
@@ -34,11 +70,55 @@ public class StoringMoveOrderingSelfDestructingAlphaBetaPruning<ContentType> ext
      * @param storedLevels the number of levels beneath the root that should be stored
      */
     public StoringMoveOrderingSelfDestructingAlphaBetaPruning(int storedLevels) {
+        this(storedLevels, 0, 0);
+    }
+
+    /**
+     * Creates a tree evaluator that stores the first <code>storedLevels</code> levels of the tree
+     * as long as the estimated memory of the stored nodes does not exceed the budget.
+     * @param storedLevels the number of levels beneath the root that may be stored, see {@link #ALL_LEVELS}
+     * @param memoryBudget the maximum number of bytes of stored nodes, 0 for no limit
+     * @param bytesPerNode the estimated number of bytes required to store a node
+     */
+    public StoringMoveOrderingSelfDestructingAlphaBetaPruning(int storedLevels, long memoryBudget, int bytesPerNode) {
+        if (memoryBudget < 0 || (memoryBudget > 0 && bytesPerNode <= 0)) {
+            throw new IllegalArgumentException("memory budget and bytes per node have to be positive");
+        }
         this.storedLevels = storedLevels;
+        this.memoryBudget = memoryBudget;
+        this.bytesPerNode = bytesPerNode;
         whiteComparator = new DescendingValueComparator();
         blackComparator = new AscendingValueComparator();
     }
 
+    /**
+     * Counts the stored nodes before evaluating, so nodes that were removed from the tree
+     * between evaluations are not accounted for.
+     */
+    @Override
+    public Node<ContentType> evaluateTree(Tree<? extends Node<ContentType>> tree, int depth, boolean whitesTurn) {
+        aborted = false;
+        accountForStoredNodes(tree.getRoot());
+        return super.evaluateTree(tree, depth, whitesTurn);
+    }
+
+    /**
+     * Counts the nodes stored beneath the root, e.g. a subtree kept from the search of a previous move,
+     * and evicts subtrees if they exceed the memory budget.
+     * @param root the root of the tree evaluated next
+     */
+    public void accountForStoredNodes(Node<ContentType> root) {
+        storedNodes = countStoredNodes(root);
+        if (memoryBudget > 0 && getStoredBytes() > memoryBudget && root.hasChildren()) {
+            evict(root);
+        }
+    }
+
+    @Override
+    protected boolean isRootSearchAborted() {
+        return aborted;
+    }
+
     @Override
     public Node<ContentType> evaluateNode(Node<ContentType> node, int depth, boolean whitesTurn) {
         int alpha = Integer.MIN_VALUE;
@@ -46,6 +126,16 @@ public class StoringMoveOrderingSelfDestructingAlphaBetaPruning<ContentType> ext
         return alphaBetaPruningMiniMax(node, depth, alpha, beta, whitesTurn);
     }
 
+    @Override
+    protected void evaluateRootChild(Node<ContentType> child, int depth, int alpha, int beta, boolean whitesTurn) {
+        // children of the root are located on the second level
+        if (whitesTurn) {
+            alphaBetaMaximize(child, depth, alpha, beta, 2);
+        } else {
+            alphaBetaMinimize(child, depth, alpha, beta, 2);
+        }
+    }
+
     /**
      * Applies alpha-beta-pruning minimax to the passed node and returns the child
      * node that should be played.
@@ -91,13 +181,23 @@ public class StoringMoveOrderingSelfDestructingAlphaBetaPruning<ContentType> ext
      */
     protected Node<ContentType> alphaBetaMinimize(Node<ContentType> parent, int depth, int alpha, int beta, int currentDepth) {
 
+        counter++;
         this.increaseEvaluatedNodeCount();
 
+        if (counter == 50000) {
+            counter = 0;
+            if (Conductor.stopCalculating) {
+                aborted = true;
+                return parent;
+            }
+        }
+
+        boolean childrenStored = parent.hasChildren();
         parent.writeContentToHistory();
 
         // assign static evaluation to leaves
         // assign static evaluation to leaves
-        boolean leaf = evaluateIfLeaf(parent, depth);
+        boolean leaf = evaluateIfLeaf(parent, depth, alpha, beta);
         if (leaf) {
             parent.deleteContentFromHistory();
             return parent;
@@ -115,6 +215,7 @@ public class StoringMoveOrderingSelfDestructingAlphaBetaPruning<ContentType> ext
             // recognise this node as a leaf
             List<? extends Node<ContentType>> children = parent.getOrComputeChildren();
 
+            parent.computeChildrenStaticValues();
             children.sort(blackComparator);
 
             for (Node<ContentType> child : children) {
@@ -122,6 +223,12 @@ public class StoringMoveOrderingSelfDestructingAlphaBetaPruning<ContentType> ext
                 // if this node is minimizing, child nodes are maximizing
                 // child nodes are passed the determined alpha and beta values
                 alphaBetaMaximize(child, depth - 1, alpha, beta, currentDepth + 1);
+                if (aborted) {
+                    // the result is discarded, unwind without evaluating the remaining children
+                    recycleOrStoreChildren(parent, currentDepth, childrenStored);
+                    parent.deleteContentFromHistory();
+                    return parent;
+                }
 
                 // read value of child node = value of the node returned by alphaBetaMaximize(child ...)
                 childValue = child.getValue();
@@ -142,6 +249,7 @@ public class StoringMoveOrderingSelfDestructingAlphaBetaPruning<ContentType> ext
                     parent.setValue(childValue);
                     // store current child as best child
                     bestChild = child;
+                    parent.setBestChild(child);
                     firstChild = false;
                 }
                 if (childValue <= alpha) {
@@ -162,9 +270,7 @@ public class StoringMoveOrderingSelfDestructingAlphaBetaPruning<ContentType> ext
             }
 
             // delete children from tree after parent was evaluated
-            if (currentDepth > storedLevels) {
-                parent.deleteChildren();
-            }
+            recycleOrStoreChildren(parent, currentDepth, childrenStored);
 
             // return the best child node
             // the value stored by that node also is the value of this parent node
@@ -200,11 +306,23 @@ public class StoringMoveOrderingSelfDestructingAlphaBetaPruning<ContentType> ext
      * @return the child node that has the best (greatest) value
      */
     protected Node<ContentType> alphaBetaMaximize(Node<ContentType> parent, int depthLeft, int alpha, int beta, int currentDepth) {
+
+        counter++;
         this.increaseEvaluatedNodeCount();
+
+        if (counter == 50000) {
+            counter = 0;
+            if (Conductor.stopCalculating) {
+                aborted = true;
+                return parent;
+            }
+        }
+
+        boolean childrenStored = parent.hasChildren();
         parent.writeContentToHistory();
 
         // assign static evaluation to leaves
-        boolean leaf = evaluateIfLeaf(parent, depthLeft);
+        boolean leaf = evaluateIfLeaf(parent, depthLeft, alpha, beta);
         if (leaf) {
             parent.deleteContentFromHistory();
             return parent;
@@ -222,6 +340,7 @@ public class StoringMoveOrderingSelfDestructingAlphaBetaPruning<ContentType> ext
             // recognise this node as a leaf
             List<? extends Node<ContentType>> children = parent.getOrComputeChildren();
 
+            parent.computeChildrenStaticValues();
             children.sort(whiteComparator);
 
             for (Node<ContentType> child : children) {
@@ -230,6 +349,12 @@ public class StoringMoveOrderingSelfDestructingAlphaBetaPruning<ContentType> ext
                 // if this node is maximizing, child nodes are minimizing
                 // child nodes are passed the determined alpha and beta values
                 alphaBetaMinimize(child, depthLeft - 1, alpha, beta, currentDepth + 1);
+                if (aborted) {
+                    // the result is discarded, unwind without evaluating the remaining children
+                    recycleOrStoreChildren(parent, currentDepth, childrenStored);
+                    parent.deleteContentFromHistory();
+                    return parent;
+                }
 
                 // read value of child node = value of the node returned by alphaBetaMinimize(child ...)
                 childValue = child.getValue();
@@ -249,6 +374,7 @@ public class StoringMoveOrderingSelfDestructingAlphaBetaPruning<ContentType> ext
                     parent.setValue(childValue);
                     // store current child as best child
                     bestChild = child;
+                    parent.setBestChild(child);
                     firstChild = false;
                 }
                 if (childValue >= beta) {
@@ -269,9 +395,7 @@ public class StoringMoveOrderingSelfDestructingAlphaBetaPruning<ContentType> ext
             }
 
             // delete children from tree after parent was evaluated
-            if (currentDepth > storedLevels) {
-                parent.deleteChildren();
-            }
+            recycleOrStoreChildren(parent, currentDepth, childrenStored);
 
             // return the best child node
             // the value stored by that node also is the value of this parent node
@@ -292,4 +416,95 @@ public class StoringMoveOrderingSelfDestructingAlphaBetaPruning<ContentType> ext
         }
     }
 
+    /**
+     * Deletes the children of an evaluated node if its level is not stored,
+     * otherwise accounts for newly stored children and evicts subtrees if the memory budget is exceeded.
+     * @param parent the evaluated node
+     * @param currentDepth the level of the node's children
+     * @param childrenStored whether the children were already stored before the node was evaluated
+     */
+    private void recycleOrStoreChildren(Node<ContentType> parent, int currentDepth, boolean childrenStored) {
+        if (currentDepth > storedLevels) {
+            parent.recycleChildren();
+            return;
+        }
+        if (!childrenStored) {
+            storedNodes += parent.getChildren().size();
+        }
+        if (memoryBudget > 0 && getStoredBytes() > memoryBudget) {
+            evict(parent);
+        }
+    }
+
+    /**
+     * Evicts subtrees beneath the node, see the class documentation for the order of eviction.
+     * @param parent the evaluated node
+     */
+    private void evict(Node<ContentType> parent) {
+        Node<ContentType> bestChild = parent.getBestChild();
+        for (Node<ContentType> child : parent.getChildren()) {
+            if (child != bestChild && child.hasChildren()) {
+                long evicted = countStoredNodes(child);
+                storedNodes -= evicted;
+                evictedNodes += evicted;
+                child.setBestChild(null);
+                child.recycleChildren();
+            }
+        }
+        if (getStoredBytes() > memoryBudget) {
+            long evicted = countStoredNodes(parent);
+            storedNodes -= evicted;
+            evictedNodes += evicted;
+            // the principal variation is read by following best children, which are kept by recycleChildren()
+            Node<ContentType> node = parent;
+            while (node != null) {
+                Node<ContentType> next = node.getBestChild();
+                node.recycleChildren();
+                node = next;
+            }
+        }
+    }
+
+    /**
+     * @return the number of descendants of the node that are currently stored
+     */
+    private long countStoredNodes(Node<ContentType> node) {
+        List<? extends Node<ContentType>> children = node.getChildren();
+        if (children == null) {
+            return 0;
+        }
+        long count = children.size();
+        for (Node<ContentType> child : children) {
+            count += countStoredNodes(child);
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of nodes currently stored beneath the root
+     */
+    public long getStoredNodeCount() {
+        return storedNodes;
+    }
+
+    /**
+     * @return the estimated number of bytes required by the stored nodes, 0 if no bytes per node were specified
+     */
+    public long getStoredBytes() {
+        return storedNodes * bytesPerNode;
+    }
+
+    /**
+     * @return the maximum number of bytes of stored nodes, 0 if there is no limit
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * @return the number of nodes evicted since this evaluator was created
+     */
+    public long getEvictedNodeCount() {
+        return evictedNodes;
+    }
 }
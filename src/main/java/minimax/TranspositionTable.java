@@ -0,0 +1,159 @@
+package minimax;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size hash table storing search results by the Zobrist key of the searched position.
+ * <p>
+ * An entry consists of the value of the position from the point of view of the player to move,
+ * the best move found, the remaining depth the position was searched to and whether the value is exact
+ * or a bound. Entries are packed into a single long and stored without locks using the XOR technique
+ * like in {@link positionevaluator.EvaluationCache}, so a table can be shared by several searches.
+ * New entries always replace the entry stored at the same index.
+ */
+public class TranspositionTable {
+
+    /**
+     * The stored value is the exact value of the position.
+     */
+    public static final int EXACT = 0;
+    /**
+     * The stored value is a lower bound, the search failed high.
+     */
+    public static final int LOWER_BOUND = 1;
+    /**
+     * The stored value is an upper bound, the search failed low.
+     */
+    public static final int UPPER_BOUND = 2;
+
+    /**
+     * Returned by {@link #probe(long)} if no entry is stored for a key.
+     */
+    public static final long MISS = 0;
+
+    /**
+     * Number of bytes needed per entry (key and data).
+     */
+    public static final int BYTES_PER_ENTRY = 16;
+
+    private static final int MOVE_SHIFT = 32;
+    private static final int DEPTH_SHIFT = 48;
+    private static final int BOUND_SHIFT = 56;
+    /**
+     * Marks entries that were written, so empty entries never match a key.
+     */
+    private static final long OCCUPIED = 1L << 58;
+    /**
+     * The number of entries examined by {@link #getHashfull()}.
+     */
+    private static final int HASHFULL_SAMPLE = 1000;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+
+    /**
+     * Creates a transposition table with the specified number of entries.
+     * @param size the number of entries, must be a power of two
+     * @throws IllegalArgumentException if size is not a positive power of two
+     */
+    public TranspositionTable(int size) {
+        if (size <= 0 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("size must be a positive power of two, was " + size);
+        }
+        this.keys = new long[size];
+        this.data = new long[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Creates the largest transposition table that fits into the specified memory.
+     * @param megabytes the memory in megabytes, at least 1
+     * @return a new transposition table
+     */
+    public static TranspositionTable ofMegabytes(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("a transposition table needs at least one megabyte, was " + megabytes);
+        }
+        long entries = ((long) megabytes << 20) / BYTES_PER_ENTRY;
+        return new TranspositionTable((int) Math.min(Long.highestOneBit(entries), 1 << 30));
+    }
+
+    /**
+     * Looks up the entry stored for a key.
+     * Use {@link #getValue(long)}, {@link #getMove(long)}, {@link #getDepth(long)} and {@link #getBound(long)}
+     * to read the entry.
+     * @param key the Zobrist key
+     * @return the entry or {@link #MISS} if no entry is stored for the key
+     */
+    public long probe(long key) {
+        int index = (int) key & mask;
+        long entry = data[index];
+        if ((keys[index] ^ entry) != key || (entry & OCCUPIED) == 0) {
+            return MISS;
+        }
+        return entry;
+    }
+
+    /**
+     * Stores an entry for a key, replacing the entry previously stored at the same index.
+     * @param key the Zobrist key
+     * @param value the value from the point of view of the player to move
+     * @param move the packed best move, 0 if there is none
+     * @param depth the remaining depth the position was searched to, between 0 and 255
+     * @param bound {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+     */
+    public void store(long key, int value, int move, int depth, int bound) {
+        int index = (int) key & mask;
+        long entry = (value & 0xFFFFFFFFL)
+            | (long) (move & 0xFFFF) << MOVE_SHIFT
+            | (long) (depth & 0xFF) << DEPTH_SHIFT
+            | (long) bound << BOUND_SHIFT
+            | OCCUPIED;
+        keys[index] = key ^ entry;
+        data[index] = entry;
+    }
+
+    public static int getValue(long entry) {
+        return (int) entry;
+    }
+
+    public static int getMove(long entry) {
+        return (int) (entry >>> MOVE_SHIFT) & 0xFFFF;
+    }
+
+    public static int getDepth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int getBound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 0x3;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+    }
+
+    /**
+     * Estimates the fill rate from the first entries of the table.
+     * @return the share of occupied entries in permill
+     */
+    public int getHashfull() {
+        int sample = Math.min(HASHFULL_SAMPLE, data.length);
+        int occupied = 0;
+        for (int i = 0; i < sample; i++) {
+            if ((data[i] & OCCUPIED) != 0) {
+                occupied++;
+            }
+        }
+        return occupied * 1000 / sample;
+    }
+
+    public int getSize() {
+        return keys.length;
+    }
+}
@@ -1,5 +1,7 @@
 package minimax;
 
+import java.util.List;
+
 import gametree.Node;
 import gametree.Tree;
 
@@ -17,6 +19,32 @@ public interface TreeEvaluator<ContentType> {
      */
     public abstract Node<ContentType> evaluateTree(Tree<? extends Node<ContentType>> tree, int depth, boolean whitesTurn);
 
+    /**
+     * Sets the number of lines (best moves at the root) that receive an exact value
+     * when evaluating a tree. The default is 1.
+     * @param multiPV the number of lines, at least 1
+     */
+    public abstract void setMultiPV(int multiPV);
+
+    /**
+     * @return the number of lines that receive an exact value when evaluating a tree
+     */
+    public abstract int getMultiPV();
+
+    /**
+     * Returns the best children of the root determined by the last evaluation, best first.
+     * At most {@link #getMultiPV()} nodes are returned.
+     * Following their best children yields the principal variation of each line.
+     * @return the first nodes of the best lines
+     */
+    public abstract List<Node<ContentType>> getBestLines();
+
+    /**
+     * Returns how full the hash tables used by this evaluator are, in permill.
+     * @return the fill rate of the hash tables or -1 if this evaluator does not use any
+     */
+    public abstract int getHashfull();
+
     /**
     * @return the number of nodes that were evaluted by this TreeEvaluator
     */
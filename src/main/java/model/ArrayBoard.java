@@ -5,6 +5,8 @@ import java.util.Arrays;
 import java.util.List;
 import static model.PieceEncoding.*;
 
+import positionevaluator.PositionEvaluator;
+
 /**
  * An implementation of Board based on a two-dimensional array of Pieces representing the board.
  */
@@ -102,6 +104,54 @@ public class ArrayBoard implements Board {
         return new ArrayBoard(copySquares());
     }
 
+    /**
+     * Not updated incrementally, computed from all squares on every call.
+     */
+    @Override
+    public int getMidgameScore() {
+        return PositionEvaluator.sumPieceSquareValues(this, false);
+    }
+
+    /**
+     * Not updated incrementally, computed from all squares on every call.
+     */
+    @Override
+    public int getEndgameScore() {
+        return PositionEvaluator.sumPieceSquareValues(this, true);
+    }
+
+    /**
+     * Not updated incrementally, computed from all squares on every call.
+     */
+    @Override
+    public int getGamePhase() {
+        return PositionEvaluator.computeGamePhase(this);
+    }
+
+    /**
+     * Not updated incrementally, computed from all squares on every call.
+     */
+    @Override
+    public long getZobristKey() {
+        return ZobristKeys.computeBoardKey(this);
+    }
+
+    /**
+     * Not updated incrementally, computed from all squares on every call.
+     */
+    @Override
+    public long getPawnKey() {
+        return ZobristKeys.computePawnKey(this);
+    }
+
+    /**
+     * Not updated incrementally, computed from all squares on every call.
+     */
+    @Override
+    public long getPieceCounts() {
+        return PositionEvaluator.computePieceCounts(this);
+    }
+
     @Override
     public Piece getPieceAt(Coordinate square) {
         return getPieceAt(square.getRank(), square.getFile());
@@ -44,6 +44,59 @@ public interface Board {
 
     public abstract Board copyBoard();
 
+    /**
+     * Returns the sum of the midgame material and piece square values of all pieces on this board
+     * from white's point of view (see {@link positionevaluator.PieceSquareTable#getMidgameValue(byte, int, int)}).
+     * <p>
+     * Implementations should update this value incrementally whenever a square is set.
+     * @return the midgame material and piece square score of this board
+     */
+    public abstract int getMidgameScore();
+
+    /**
+     * Like {@link #getMidgameScore()} but using the endgame values
+     * (see {@link positionevaluator.PieceSquareTable#getEndgameValue(byte, int, int)}).
+     * @return the endgame material and piece square score of this board
+     */
+    public abstract int getEndgameScore();
+
+    /**
+     * Returns the sum of the phase weights of all pieces on this board
+     * (see {@link positionevaluator.PieceSquareTable#getPhaseWeight(byte)}).
+     * May exceed {@link positionevaluator.PieceSquareTable#MAX_GAME_PHASE} after promotions.
+     * <p>
+     * Implementations should update this value incrementally whenever a square is set.
+     * @return the game phase of this board
+     */
+    public abstract int getGamePhase();
+
+    /**
+     * Returns the Zobrist key of the pieces on this board (see {@link ZobristKeys#getPieceKey(byte, int, int)}).
+     * <p>
+     * Implementations should update this value incrementally whenever a square is set.
+     * @return the Zobrist key of this board
+     */
+    public abstract long getZobristKey();
+
+    /**
+     * Returns the Zobrist key of the pawns on this board (see {@link ZobristKeys#getPawnKey(byte, int, int)}).
+     * It only changes on pawn moves, captures of pawns and promotions.
+     * <p>
+     * Implementations should update this value incrementally whenever a square is set.
+     * @return the Zobrist key of the pawns on this board
+     */
+    public abstract long getPawnKey();
+
+    /**
+     * Returns the number of pieces of each kind on this board,
+     * packed into a long with {@link PieceEncoding#PIECE_COUNT_BITS} bits per piece
+     * (see {@link PieceEncoding#getPieceCount(long, byte)}).
+     * <p>
+     * Implementations should update this value incrementally whenever a square is set.
+     * @return the piece counts of this board
+     */
+    public abstract long getPieceCounts();
+
     public abstract String toStringFen();
     
 }
@@ -4,9 +4,23 @@ import java.util.ArrayList;
 import java.util.List;
 import static model.PieceEncoding.*;
 
+import positionevaluator.PieceSquareTable;
+
 public class ByteBoard implements Board {
     
     private byte[] squares;
+    /**
+     * Material and piece square scores and game phase, updated by {@link #setByteAt(int, int, byte)}.
+     */
+    private int midgameScore;
+    private int endgameScore;
+    private int gamePhase;
+    private long zobristKey;
+    private long pawnKey;
+    /**
+     * Packed piece counts, updated by {@link #setByteAt(int, int, byte)}.
+     */
+    private long pieceCounts;
 
     public ByteBoard(Piece[][] squares) {
         byte[] result = new byte[64];
@@ -20,6 +34,31 @@ public class ByteBoard implements Board {
 
     public ByteBoard(byte[] squares) {
         this.squares = squares;
+        for (int rank = 0; rank < 8; rank++) {
+            for (int file = 0; file < 8; file++) {
+                byte piece = getByteAt(squares, rank, file);
+                midgameScore += PieceSquareTable.getMidgameValue(piece, rank, file);
+                endgameScore += PieceSquareTable.getEndgameValue(piece, rank, file);
+                gamePhase += PieceSquareTable.getPhaseWeight(piece);
+                zobristKey ^= ZobristKeys.getPieceKey(piece, rank, file);
+                pawnKey ^= ZobristKeys.getPawnKey(piece, rank, file);
+                pieceCounts += getPieceCountIncrement(piece);
+            }
+        }
+    }
+
+    /**
+     * Creates a board with the passed squares and the incrementally updated values of the board they were copied from.
+     */
+    private ByteBoard(byte[] squares, int midgameScore, int endgameScore, int gamePhase, long zobristKey,
+            long pawnKey, long pieceCounts) {
+        this.squares = squares;
+        this.midgameScore = midgameScore;
+        this.endgameScore = endgameScore;
+        this.gamePhase = gamePhase;
+        this.zobristKey = zobristKey;
+        this.pawnKey = pawnKey;
+        this.pieceCounts = pieceCounts;
     }
 
     /**
@@ -169,7 +208,7 @@ public class ByteBoard implements Board {
 
     @Override
     public Board copyBoard() {
-        return new ByteBoard(copySquares());
+        return new ByteBoard(copySquares(), midgameScore, endgameScore, gamePhase, zobristKey, pawnKey, pieceCounts);
     }
 
     @Override
@@ -189,6 +228,13 @@ public class ByteBoard implements Board {
 
     @Override
     public byte getByteAt(int rank, int file) {
+        return getByteAt(squares, rank, file);
+    }
+
+    /**
+     * Unpacks a square, also used by the constructor where the overridable accessor must not be called.
+     */
+    private static byte getByteAt(byte[] squares, int rank, int file) {
         boolean leftBits = file % 2 == 0;
         byte piece = squares[rank*8+file/2];
         if (leftBits){
@@ -206,6 +252,16 @@ public class ByteBoard implements Board {
     @Override
     public void setByteAt(int rank, int file, byte b) {
 
+        byte previous = getByteAt(rank, file);
+        midgameScore += PieceSquareTable.getMidgameValue(b, rank, file)
+            - PieceSquareTable.getMidgameValue(previous, rank, file);
+        endgameScore += PieceSquareTable.getEndgameValue(b, rank, file)
+            - PieceSquareTable.getEndgameValue(previous, rank, file);
+        gamePhase += PieceSquareTable.getPhaseWeight(b) - PieceSquareTable.getPhaseWeight(previous);
+        zobristKey ^= ZobristKeys.getPieceKey(previous, rank, file) ^ ZobristKeys.getPieceKey(b, rank, file);
+        pawnKey ^= ZobristKeys.getPawnKey(previous, rank, file) ^ ZobristKeys.getPawnKey(b, rank, file);
+        pieceCounts += getPieceCountIncrement(b) - getPieceCountIncrement(previous);
+
         boolean leftBits = file % 2 == 0;
         
         byte piece = b;
@@ -227,6 +283,36 @@ public class ByteBoard implements Board {
         // }
     }
 
+    @Override
+    public int getMidgameScore() {
+        return midgameScore;
+    }
+
+    @Override
+    public int getEndgameScore() {
+        return endgameScore;
+    }
+
+    @Override
+    public int getGamePhase() {
+        return gamePhase;
+    }
+
+    @Override
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    @Override
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    @Override
+    public long getPieceCounts() {
+        return pieceCounts;
+    }
+
     @Override
     public String toStringFen() {
         String result = "";
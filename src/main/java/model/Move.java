@@ -58,6 +58,37 @@ public class Move implements Cloneable {
         return promotedTo;
     }
 
+    /**
+     * Packs the starting square, target square and promoted piece of a move into an int,
+     * squares are numbered rank * 8 + file.
+     * @param startingSquare the starting square
+     * @param targetSquare the target square
+     * @param promotedTo the piece the pawn is promoted to, 0 if the move is no promotion
+     * @return the packed move
+     */
+    public static int pack(int startingSquare, int targetSquare, byte promotedTo) {
+        return startingSquare | targetSquare << 6 | promotedTo << 12;
+    }
+
+    /**
+     * @return this move packed into an int, see {@link #pack(int, int, byte)}
+     */
+    public int pack() {
+        return pack(startingSquare.getRank() * 8 + startingSquare.getFile(),
+            targetSquare.getRank() * 8 + targetSquare.getFile(), promotedTo);
+    }
+
+    /**
+     * @param packedMove a move packed by {@link #pack(int, int, byte)}
+     * @return the unpacked move
+     */
+    public static Move unpack(int packedMove) {
+        int start = packedMove & 0x3F;
+        int target = (packedMove >>> 6) & 0x3F;
+        byte promotedTo = (byte) (packedMove >>> 12);
+        return new Move(new Coordinate(start / 8, start % 8), new Coordinate(target / 8, target % 8), promotedTo);
+    }
+
     @Override
     public String toString() {
         String result = startingSquare.toString() + targetSquare.toString();
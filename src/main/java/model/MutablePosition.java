@@ -0,0 +1,370 @@
+package model;
+
+import java.util.Arrays;
+
+import movegenerator.AttackMapGenerator;
+import static model.PieceEncoding.*;
+
+/**
+ * Position that is changed in place by playing moves and taking them back.
+ * <p>
+ * A search using {@link Position} creates a new position including a board and attack maps for every visited node.
+ * A mutable position instead keeps a single array of squares (index = rank * 8 + file, 0 is a8)
+ * that is updated by {@link #makeMove(int)} and restored by {@link #unmakeMove()}.
+ * The Zobrist key is updated incrementally and equals {@link Position#getZobristKey()} of the same position.
+ * Moves are packed by {@link Move#pack(int, int, byte)} and applied like {@link movegenerator.MoveGenerator#applyMove(Position, Move)}.
+ * <p>
+ * The position keeps the keys of all positions played on it, preceded by the keys of the game history
+ * passed to its constructor, to detect threefold repetitions without comparing positions.
+ * The state needed to take back moves is stored in arrays that grow with the number of moves played,
+ * so playing and taking back moves does not allocate.
+ */
+public class MutablePosition {
+
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final byte[] squares = new byte[64];
+    private boolean whiteNextMove;
+    private int castlingRights;
+    private int enPassantSquare;
+    private int halfMoves;
+    private int fullMoves;
+    private int whiteKing;
+    private int blackKing;
+    private long zobristKey;
+
+    // state before each played move, indexed by the number of moves played before it
+    private int playedMoves = 0;
+    private int[] moves = new int[INITIAL_CAPACITY];
+    private byte[] capturedPieces = new byte[INITIAL_CAPACITY];
+    private int[] previousCastlingRights = new int[INITIAL_CAPACITY];
+    private int[] previousEnPassantSquares = new int[INITIAL_CAPACITY];
+    private int[] previousHalfMoves = new int[INITIAL_CAPACITY];
+
+    /**
+     * Keys of the game history followed by the key of this position before any move was played
+     * and the keys after each played move.
+     */
+    private long[] keys;
+    private int keyCount;
+
+    /**
+     * Creates a mutable copy of the passed position without game history.
+     * @param position the position to copy
+     */
+    public MutablePosition(Position position) {
+        this(position, new long[0]);
+    }
+
+    /**
+     * Creates a mutable copy of the passed position.
+     * @param position the position to copy
+     * @param history the Zobrist keys of the positions of the game preceding the passed position, oldest first
+     */
+    public MutablePosition(Position position, long[] history) {
+        whiteKing = -1;
+        blackKing = -1;
+        for (int square = 0; square < 64; square++) {
+            byte piece = position.getByteAt(square / 8, square % 8);
+            squares[square] = piece;
+            if (piece == WHITE_KING) {
+                whiteKing = square;
+            } else if (piece == BLACK_KING) {
+                blackKing = square;
+            }
+        }
+        whiteNextMove = position.getWhiteNextMove();
+        castlingRights = (position.getWhiteCastlingKingside() ? WHITE_KINGSIDE : 0)
+            | (position.getWhiteCastlingQueenside() ? WHITE_QUEENSIDE : 0)
+            | (position.getBlackCastlingKingside() ? BLACK_KINGSIDE : 0)
+            | (position.getBlackCastlingQueenside() ? BLACK_QUEENSIDE : 0);
+        enPassantSquare = position.getEnPassantTargetRank() < 0
+            ? -1 : position.getEnPassantTargetRank() * 8 + position.getEnPassantTargetFile();
+        halfMoves = position.getHalfMoves();
+        fullMoves = position.getFullMoves();
+        zobristKey = position.getZobristKey();
+
+        keys = new long[history.length + 1 + INITIAL_CAPACITY];
+        System.arraycopy(history, 0, keys, 0, history.length);
+        keyCount = history.length;
+        keys[keyCount++] = zobristKey;
+    }
+
+    /**
+     * Plays a legal move, e.g. one generated by
+     * {@link movegenerator.MoveListGenerator#generateMoves(MutablePosition, int[])}.
+     * @param move the packed move
+     */
+    public void makeMove(int move) {
+        if (playedMoves == moves.length) {
+            grow();
+        }
+        int start = move & 0x3F;
+        int target = (move >>> 6) & 0x3F;
+        byte promotion = (byte) (move >>> 12);
+        byte piece = squares[start];
+        byte captured = squares[target];
+
+        moves[playedMoves] = move;
+        capturedPieces[playedMoves] = captured;
+        previousCastlingRights[playedMoves] = castlingRights;
+        previousEnPassantSquares[playedMoves] = enPassantSquare;
+        previousHalfMoves[playedMoves] = halfMoves;
+        playedMoves++;
+
+        long key = zobristKey ^ getStateKey();
+        byte placed = promotion == EMPTY_SQUARE ? piece : promotion;
+        key ^= ZobristKeys.getPieceKey(piece, start / 8, start % 8)
+            ^ ZobristKeys.getPieceKey(captured, target / 8, target % 8)
+            ^ ZobristKeys.getPieceKey(placed, target / 8, target % 8);
+        squares[start] = EMPTY_SQUARE;
+        squares[target] = placed;
+
+        boolean captureOrPawnMove = captured != EMPTY_SQUARE;
+        int newEnPassantSquare = -1;
+        switch (piece) {
+            case WHITE_PAWN:
+            case BLACK_PAWN:
+                captureOrPawnMove = true;
+                if (Math.abs(target - start) == 16) {
+                    newEnPassantSquare = (start + target) / 2;
+                } else if (start % 8 != target % 8 && captured == EMPTY_SQUARE) {
+                    // en passant, the captured pawn is next to the starting square
+                    int capturedPawn = start - start % 8 + target % 8;
+                    key ^= ZobristKeys.getPieceKey(squares[capturedPawn], start / 8, target % 8);
+                    squares[capturedPawn] = EMPTY_SQUARE;
+                }
+                break;
+            case WHITE_KING:
+            case BLACK_KING:
+                if (piece == WHITE_KING) {
+                    whiteKing = target;
+                    castlingRights &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+                } else {
+                    blackKing = target;
+                    castlingRights &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+                }
+                if (target - start == 2) {
+                    key ^= moveRook(start + 3, start + 1);
+                } else if (start - target == 2) {
+                    key ^= moveRook(start - 4, start - 1);
+                }
+                break;
+            case WHITE_ROOK:
+                if (start % 8 == 0) {
+                    castlingRights &= ~WHITE_QUEENSIDE;
+                } else if (start % 8 == 7) {
+                    castlingRights &= ~WHITE_KINGSIDE;
+                }
+                break;
+            case BLACK_ROOK:
+                if (start % 8 == 0) {
+                    castlingRights &= ~BLACK_QUEENSIDE;
+                } else if (start % 8 == 7) {
+                    castlingRights &= ~BLACK_KINGSIDE;
+                }
+                break;
+            default:
+                break;
+        }
+
+        halfMoves = captureOrPawnMove ? 0 : halfMoves + 1;
+        if (!whiteNextMove) {
+            fullMoves++;
+        }
+        whiteNextMove = !whiteNextMove;
+        enPassantSquare = newEnPassantSquare;
+        zobristKey = key ^ getStateKey();
+        keys[keyCount++] = zobristKey;
+    }
+
+    /**
+     * Takes back the move played last.
+     * @throws IllegalStateException if no move was played on this position
+     */
+    public void unmakeMove() {
+        if (playedMoves == 0) {
+            throw new IllegalStateException("no move was played that could be taken back");
+        }
+        playedMoves--;
+        keyCount--;
+        int move = moves[playedMoves];
+        int start = move & 0x3F;
+        int target = (move >>> 6) & 0x3F;
+        byte promotion = (byte) (move >>> 12);
+
+        whiteNextMove = !whiteNextMove;
+        if (!whiteNextMove) {
+            fullMoves--;
+        }
+        byte piece = promotion == EMPTY_SQUARE ? squares[target] : (whiteNextMove ? WHITE_PAWN : BLACK_PAWN);
+        byte captured = capturedPieces[playedMoves];
+        squares[start] = piece;
+        squares[target] = captured;
+
+        switch (piece) {
+            case WHITE_PAWN:
+            case BLACK_PAWN:
+                if (start % 8 != target % 8 && captured == EMPTY_SQUARE) {
+                    squares[start - start % 8 + target % 8] = whiteNextMove ? BLACK_PAWN : WHITE_PAWN;
+                }
+                break;
+            case WHITE_KING:
+            case BLACK_KING:
+                if (piece == WHITE_KING) {
+                    whiteKing = start;
+                } else {
+                    blackKing = start;
+                }
+                if (target - start == 2) {
+                    squares[start + 3] = squares[start + 1];
+                    squares[start + 1] = EMPTY_SQUARE;
+                } else if (start - target == 2) {
+                    squares[start - 4] = squares[start - 1];
+                    squares[start - 1] = EMPTY_SQUARE;
+                }
+                break;
+            default:
+                break;
+        }
+
+        castlingRights = previousCastlingRights[playedMoves];
+        enPassantSquare = previousEnPassantSquares[playedMoves];
+        halfMoves = previousHalfMoves[playedMoves];
+        zobristKey = keys[keyCount - 1];
+    }
+
+    /**
+     * Moves the rook while castling.
+     * @return the change of the Zobrist key
+     */
+    private long moveRook(int from, int to) {
+        byte rook = squares[from];
+        squares[from] = EMPTY_SQUARE;
+        squares[to] = rook;
+        return ZobristKeys.getPieceKey(rook, from / 8, from % 8) ^ ZobristKeys.getPieceKey(rook, to / 8, to % 8);
+    }
+
+    private long getStateKey() {
+        return ZobristKeys.getStateKey(whiteNextMove, (castlingRights & WHITE_KINGSIDE) != 0,
+            (castlingRights & WHITE_QUEENSIDE) != 0, (castlingRights & BLACK_KINGSIDE) != 0,
+            (castlingRights & BLACK_QUEENSIDE) != 0, enPassantSquare < 0 ? -1 : enPassantSquare % 8);
+    }
+
+    private void grow() {
+        int capacity = moves.length * 2;
+        keys = Arrays.copyOf(keys, keys.length + capacity - moves.length);
+        moves = Arrays.copyOf(moves, capacity);
+        capturedPieces = Arrays.copyOf(capturedPieces, capacity);
+        previousCastlingRights = Arrays.copyOf(previousCastlingRights, capacity);
+        previousEnPassantSquares = Arrays.copyOf(previousEnPassantSquares, capacity);
+        previousHalfMoves = Arrays.copyOf(previousHalfMoves, capacity);
+    }
+
+    /**
+     * Returns whether the position is drawn by the fifty move rule or by threefold repetition
+     * like {@link Position#isDraw()}, counting the positions of the game history and the positions played on this position.
+     * @return true if the position is a draw
+     */
+    public boolean isDraw() {
+        if (halfMoves >= 100) {
+            return true;
+        }
+        // positions before the last capture or pawn move cannot be repeated
+        int oldest = Math.max(0, keyCount - 1 - halfMoves);
+        int occurrences = 1;
+        for (int i = keyCount - 3; i >= oldest; i -= 2) {
+            if (keys[i] == zobristKey && ++occurrences >= 3) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return whether the king of the player to move is attacked, positions without that king count as check
+     */
+    public boolean isInCheck() {
+        int king = getKingSquare(whiteNextMove);
+        return king < 0 || AttackMapGenerator.isSquareAttacked(squares, king, !whiteNextMove);
+    }
+
+    /**
+     * Creates an immutable position equal to this position, e.g. to evaluate it.
+     * The move played last is stored as the move generating the position.
+     * @return a new position
+     */
+    public Position toPosition() {
+        Board board = ByteBoard.createEmpty();
+        for (int square = 0; square < 64; square++) {
+            if (squares[square] != EMPTY_SQUARE) {
+                board.setByteAt(square / 8, square % 8, squares[square]);
+            }
+        }
+        Position position = new Position(board, whiteNextMove, (castlingRights & WHITE_KINGSIDE) != 0,
+            (castlingRights & WHITE_QUEENSIDE) != 0, (castlingRights & BLACK_KINGSIDE) != 0,
+            (castlingRights & BLACK_QUEENSIDE) != 0, enPassantSquare < 0 ? -1 : enPassantSquare / 8,
+            enPassantSquare < 0 ? -1 : enPassantSquare % 8, (byte) halfMoves, fullMoves);
+        if (playedMoves > 0) {
+            position.setMove(Move.unpack(moves[playedMoves - 1]));
+        }
+        return position;
+    }
+
+    /**
+     * Returns the squares of this position, not a copy.
+     * Callers may change squares temporarily but have to restore them before this position is used again.
+     * @return the pieces by square index
+     */
+    public byte[] getSquares() {
+        return squares;
+    }
+
+    public boolean getWhiteNextMove() {
+        return whiteNextMove;
+    }
+
+    /**
+     * @param right one of {@link #WHITE_KINGSIDE}, {@link #WHITE_QUEENSIDE},
+     * {@link #BLACK_KINGSIDE} and {@link #BLACK_QUEENSIDE}
+     * @return whether the player still has the right to castle
+     */
+    public boolean hasCastlingRight(int right) {
+        return (castlingRights & right) != 0;
+    }
+
+    /**
+     * @return the square index of the en passant target square, -1 if there is none
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * @param white the color of the king
+     * @return the square index of the king, -1 if there is no such king
+     */
+    public int getKingSquare(boolean white) {
+        return white ? whiteKing : blackKing;
+    }
+
+    public int getHalfMoves() {
+        return halfMoves;
+    }
+
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * @return the number of moves played on this position that were not taken back
+     */
+    public int getPlayedMoveCount() {
+        return playedMoves;
+    }
+}
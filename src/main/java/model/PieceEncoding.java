@@ -29,6 +29,31 @@ public class PieceEncoding {
      * value do not represent valid PieceEncodings.*/
     public static final byte LOWER_LIMIT            = 1;
 
+    /**
+     * Number of bits used per piece in packed piece counts, see {@link Board#getPieceCounts()}.
+     */
+    public static final int PIECE_COUNT_BITS       = 4;
+
+    /**
+     * @param pieceCounts piece counts as returned by {@link Board#getPieceCounts()}
+     * @param piece the piece whose number should be returned
+     * @return the number of pieces of the specified kind
+     */
+    public static int getPieceCount(long pieceCounts, byte piece){
+        return (int) (pieceCounts >>> (piece * PIECE_COUNT_BITS)) & ((1 << PIECE_COUNT_BITS) - 1);
+    }
+
+    /**
+     * @param piece the piece to count
+     * @return the value that has to be added to packed piece counts to count one additional piece
+     */
+    public static long getPieceCountIncrement(byte piece){
+        if (piece == EMPTY_SQUARE) {
+            return 0;
+        }
+        return 1L << (piece * PIECE_COUNT_BITS);
+    }
+
     public static byte switchBytePieceColor(byte piece){
         if (piece == 0){
             return 0;
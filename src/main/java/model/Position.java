@@ -3,8 +3,10 @@ package model;
 import java.util.WeakHashMap;
 
 import application.Conductor;
+import movegenerator.AttackMap;
 import movegenerator.AttackMapGenerator;
 import movegenerator.MoveGenerator;
+import positionevaluator.PieceSquareTable;
 import static model.ByteEncodedBoolean.*;
 
 /**
@@ -35,8 +37,10 @@ public class Position implements Comparable<Position>, Cloneable {
     private Coordinate enPassantTargetSquare;
     private byte halfMovesSincePawnMoveOrCapture; //may not be greater than 100 at any time
     private int fullMoveCount;
-    // private boolean[] attackedByWhite;
-    // private boolean[] attackedByBlack;
+    /**
+     * Squares attacked by both sides, computed once for check detection and reused by the evaluation.
+     */
+    private AttackMap attackMap;
     private Move generatedByMove;
 
     private static WeakHashMap<String, Integer> hashMap = new WeakHashMap<>();
@@ -99,12 +103,11 @@ public class Position implements Comparable<Position>, Cloneable {
     }
 
     private int computeChecks(Board squares) {
-        byte[] attackedByWhite = AttackMapGenerator.computeChecksByteEncoded(squares, true);
-        byte[] attackedByBlack = AttackMapGenerator.computeChecksByteEncoded(squares, false);
-        Coordinate whiteKing = getKingPosition(true);
-        if (whiteKing != null) {
-           setWhiteInCheck(AttackMapGenerator.getBoolFromByte(whiteKing.getRank(), whiteKing.getFile(),
-                    attackedByBlack));
+        attackMap = AttackMapGenerator.computeAttackMap(squares);
+        // the attack map already located the kings, scanning the board again is not necessary
+        int whiteKing = attackMap.getKingSquare(true);
+        if (whiteKing >= 0) {
+           setWhiteInCheck(attackMap.isAttacked(false, whiteKing / 8, whiteKing % 8));
         } else {
             /*
              * This is done to prevent a position without a king from generating
@@ -113,10 +116,9 @@ public class Position implements Comparable<Position>, Cloneable {
              */
             setWhiteInCheck(true);
         }
-        Coordinate blackKing = getKingPosition(false);
-        if (blackKing != null) {
-            setBlackInCheck(AttackMapGenerator.getBoolFromByte(blackKing.getRank(), blackKing.getFile(),
-                    attackedByWhite));
+        int blackKing = attackMap.getKingSquare(false);
+        if (blackKing >= 0) {
+            setBlackInCheck(attackMap.isAttacked(true, blackKing / 8, blackKing % 8));
         } else {
             /*
              * This is done to prevent a position without a king from generating
@@ -126,14 +128,14 @@ public class Position implements Comparable<Position>, Cloneable {
             setBlackInCheck(true);
         }
 
-        setBlackQueensideLeft(AttackMapGenerator.getBoolFromByte(0, 2, attackedByWhite));
-        setBlackQueensideRight(AttackMapGenerator.getBoolFromByte(0, 3, attackedByWhite));
-        setBlackKingsideLeft(AttackMapGenerator.getBoolFromByte(0, 5, attackedByWhite));
-        setBlackKingsideRight(AttackMapGenerator.getBoolFromByte(0, 6, attackedByWhite));
-        setWhiteQueensideLeft(AttackMapGenerator.getBoolFromByte(7, 2, attackedByBlack));
-        setWhiteQueensideRight(AttackMapGenerator.getBoolFromByte(7, 3, attackedByBlack));
-        setWhiteKingsideLeft(AttackMapGenerator.getBoolFromByte(7, 5, attackedByBlack));
-        setWhiteKingsideRight(AttackMapGenerator.getBoolFromByte(7, 5, attackedByBlack));     
+        setBlackQueensideLeft(attackMap.isAttacked(true, 0, 2));
+        setBlackQueensideRight(attackMap.isAttacked(true, 0, 3));
+        setBlackKingsideLeft(attackMap.isAttacked(true, 0, 5));
+        setBlackKingsideRight(attackMap.isAttacked(true, 0, 6));
+        setWhiteQueensideLeft(attackMap.isAttacked(false, 7, 2));
+        setWhiteQueensideRight(attackMap.isAttacked(false, 7, 3));
+        setWhiteKingsideLeft(attackMap.isAttacked(false, 7, 5));
+        setWhiteKingsideRight(attackMap.isAttacked(false, 7, 5));
         
         return -1; //for timer compatability
     }
@@ -529,6 +531,35 @@ public class Position implements Comparable<Position>, Cloneable {
         this.generatedByMove = null;
     }
 
+    /**
+     * Returns the squares attacked by both sides of this position.
+     * The attack map is computed when the position is created and not updated if its board is modified.
+     * @return the attack map of this position
+     */
+    public AttackMap getAttackMap() {
+        return attackMap;
+    }
+
+    /**
+     * Returns the Zobrist hash key of this position.
+     * Equal positions (same pieces, side to move, castling rights and en passant square) have equal keys.
+     * @return the Zobrist key of this position
+     */
+    public long getZobristKey() {
+        return board.getZobristKey() ^ ZobristKeys.getStateKey(getWhiteNextMove(), getWhiteCastlingKingside(),
+            getWhiteCastlingQueenside(), getBlackCastlingKingside(), getBlackCastlingQueenside(), getEnPassantTargetFile());
+    }
+
+    /**
+     * Returns the game phase of this position based on the remaining pieces,
+     * e.g. for deciding how much time to spend or which search heuristics are safe.
+     * @return the game phase between 0 (only kings and pawns) and
+     * {@link positionevaluator.PieceSquareTable#MAX_GAME_PHASE} (all pieces on the board)
+     */
+    public int getGamePhase() {
+        return Math.min(board.getGamePhase(), PieceSquareTable.MAX_GAME_PHASE);
+    }
+
     public Board getBoard() {
         return this.board;
     }
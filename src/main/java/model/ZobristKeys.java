@@ -0,0 +1,125 @@
+package model;
+
+import java.util.Random;
+
+import static model.PieceEncoding.*;
+
+/**
+ * Random numbers used to compute Zobrist hash keys of positions.
+ * <p>
+ * The key of a position is the XOR of the numbers of every piece on its square,
+ * the side to move, the castling rights and the file of the en passant target square.
+ * Since XOR is its own inverse, the key can be updated incrementally when a square changes.
+ */
+public abstract class ZobristKeys {
+
+    /**
+     * Fixed seed so keys are identical in every run.
+     */
+    private static final long SEED = 0x5C4A_C4D0_7041_1EL;
+
+    private static final long[][] pieceKeys = new long[UPPER_LIMIT + 1][64];
+    private static final long whiteNextMoveKey;
+    private static final long[] castlingKeys = new long[4];
+    private static final long[] enPassantFileKeys = new long[8];
+
+    static {
+        Random random = new Random(SEED);
+        for (byte piece = LOWER_LIMIT; piece <= UPPER_LIMIT; piece++) {
+            if (piece == EXCLUSIVE_THRESHOLD) {
+                continue;
+            }
+            for (int square = 0; square < 64; square++) {
+                pieceKeys[piece][square] = random.nextLong();
+            }
+        }
+        whiteNextMoveKey = random.nextLong();
+        for (int i = 0; i < castlingKeys.length; i++) {
+            castlingKeys[i] = random.nextLong();
+        }
+        for (int i = 0; i < enPassantFileKeys.length; i++) {
+            enPassantFileKeys[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * @param piece the piece, may be {@link PieceEncoding#EMPTY_SQUARE}
+     * @param rank the rank of the square
+     * @param file the file of the square
+     * @return the key of the piece on the square, 0 for empty squares
+     */
+    public static long getPieceKey(byte piece, int rank, int file) {
+        return pieceKeys[piece][rank * 8 + file];
+    }
+
+    /**
+     * Computes the key of the parts of a position that are not stored in its board.
+     * @return the key to combine with the board's key
+     */
+    public static long getStateKey(boolean whiteNextMove, boolean whiteCastlingKingside, boolean whiteCastlingQueenside,
+            boolean blackCastlingKingside, boolean blackCastlingQueenside, int enPassantTargetFile) {
+        long key = 0;
+        if (whiteNextMove) {
+            key ^= whiteNextMoveKey;
+        }
+        if (whiteCastlingKingside) {
+            key ^= castlingKeys[0];
+        }
+        if (whiteCastlingQueenside) {
+            key ^= castlingKeys[1];
+        }
+        if (blackCastlingKingside) {
+            key ^= castlingKeys[2];
+        }
+        if (blackCastlingQueenside) {
+            key ^= castlingKeys[3];
+        }
+        if (enPassantTargetFile >= 0) {
+            key ^= enPassantFileKeys[enPassantTargetFile];
+        }
+        return key;
+    }
+
+    /**
+     * @param piece the piece, may be {@link PieceEncoding#EMPTY_SQUARE}
+     * @param rank the rank of the square
+     * @param file the file of the square
+     * @return the key of the piece on the square if it is a pawn, 0 otherwise
+     */
+    public static long getPawnKey(byte piece, int rank, int file) {
+        if (piece != WHITE_PAWN && piece != BLACK_PAWN) {
+            return 0;
+        }
+        return pieceKeys[piece][rank * 8 + file];
+    }
+
+    /**
+     * Computes the key of the pawns of a board from all of its squares.
+     * @param board the board whose pawn key should be computed
+     * @return the pawn key as it would be maintained incrementally
+     */
+    public static long computePawnKey(Board board) {
+        long key = 0;
+        for (int rank = 0; rank < 8; rank++) {
+            for (int file = 0; file < 8; file++) {
+                key ^= getPawnKey(board.getByteAt(rank, file), rank, file);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Computes the key of the pieces of a board from all of its squares.
+     * @param board the board whose key should be computed
+     * @return the key as it would be maintained incrementally
+     */
+    public static long computeBoardKey(Board board) {
+        long key = 0;
+        for (int rank = 0; rank < 8; rank++) {
+            for (int file = 0; file < 8; file++) {
+                key ^= getPieceKey(board.getByteAt(rank, file), rank, file);
+            }
+        }
+        return key;
+    }
+}
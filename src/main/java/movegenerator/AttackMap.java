@@ -0,0 +1,110 @@
+package movegenerator;
+
+/**
+ * Squares attacked by each side of a position together with statistics collected
+ * while computing them, see {@link AttackMapGenerator#computeAttackMap(model.Board)}.
+ * <p>
+ * Attacked squares are stored as bitboards, bit rank * 8 + file is set if the square is attacked.
+ * Positions compute one attack map for check detection, the evaluation reuses it.
+ */
+public class AttackMap {
+
+    private final long attackedByWhite;
+    private final long attackedByBlack;
+    private final int whiteMobility;
+    private final int blackMobility;
+    private final int whiteKingZoneAttacks;
+    private final int blackKingZoneAttacks;
+    private final int whiteKingSquare;
+    private final int blackKingSquare;
+    private final long whitePieces;
+    private final long blackPieces;
+
+    /**
+     * @param attackedByWhite bitboard of the squares attacked by white
+     * @param attackedByBlack bitboard of the squares attacked by black
+     * @param whiteMobility number of squares attacked by white knights, bishops, rooks and queens
+     * that are not occupied by white pieces, counted once per attacking piece
+     * @param blackMobility like whiteMobility, for black pieces
+     * @param whiteKingZoneAttacks number of attacks by white knights, bishops, rooks and queens
+     * on the black king and its adjacent squares, counted once per attacking piece
+     * @param blackKingZoneAttacks like whiteKingZoneAttacks, for attacks by black pieces on the white king
+     * @param whiteKingSquare the square of the white king (rank * 8 + file), -1 if there is none
+     * @param blackKingSquare the square of the black king, -1 if there is none
+     * @param whitePieces bitboard of the squares occupied by white knights, bishops, rooks and queens
+     * @param blackPieces bitboard of the squares occupied by black knights, bishops, rooks and queens
+     */
+    public AttackMap(long attackedByWhite, long attackedByBlack, int whiteMobility, int blackMobility,
+            int whiteKingZoneAttacks, int blackKingZoneAttacks, int whiteKingSquare, int blackKingSquare,
+            long whitePieces, long blackPieces) {
+        this.attackedByWhite = attackedByWhite;
+        this.attackedByBlack = attackedByBlack;
+        this.whiteMobility = whiteMobility;
+        this.blackMobility = blackMobility;
+        this.whiteKingZoneAttacks = whiteKingZoneAttacks;
+        this.blackKingZoneAttacks = blackKingZoneAttacks;
+        this.whiteKingSquare = whiteKingSquare;
+        this.blackKingSquare = blackKingSquare;
+        this.whitePieces = whitePieces;
+        this.blackPieces = blackPieces;
+    }
+
+    /**
+     * @param byWhite whether the attacks of white or black should be returned
+     * @return bitboard of the squares attacked by the side
+     */
+    public long getAttackedSquares(boolean byWhite) {
+        return byWhite ? attackedByWhite : attackedByBlack;
+    }
+
+    /**
+     * @param byWhite whether the attacks of white or black should be checked
+     * @param rank the rank of the square
+     * @param file the file of the square
+     * @return whether the side attacks the square
+     */
+    public boolean isAttacked(boolean byWhite, int rank, int file) {
+        return (getAttackedSquares(byWhite) & (1L << (rank * 8 + file))) != 0;
+    }
+
+    /**
+     * @param white whether the mobility of white or black should be returned
+     * @return the number of squares the side's knights, bishops, rooks and queens can move to or capture on
+     */
+    public int getMobility(boolean white) {
+        return white ? whiteMobility : blackMobility;
+    }
+
+    /**
+     * @param byWhite whether the attacks of white or black should be returned
+     * @return the number of attacks of the side on the squares around the opponent's king
+     */
+    public int getKingZoneAttacks(boolean byWhite) {
+        return byWhite ? whiteKingZoneAttacks : blackKingZoneAttacks;
+    }
+
+    /**
+     * @param white whether the square of the white or the black king should be returned
+     * @return the square of the king (rank * 8 + file) or -1 if the side has no king
+     */
+    public int getKingSquare(boolean white) {
+        return white ? whiteKingSquare : blackKingSquare;
+    }
+
+    /**
+     * @param white whether the pieces of white or black should be returned
+     * @return bitboard of the squares occupied by the side's knights, bishops, rooks and queens
+     */
+    public long getPieces(boolean white) {
+        return white ? whitePieces : blackPieces;
+    }
+
+    /**
+     * A piece is hanging if it is attacked by the opponent and not defended by its own side.
+     * @param white whether the pieces of white or black should be checked
+     * @return the number of the side's knights, bishops, rooks and queens that are hanging
+     */
+    public int getHangingPieces(boolean white) {
+        return Long.bitCount(getPieces(white) & getAttackedSquares(!white) & ~getAttackedSquares(white));
+    }
+}
@@ -6,6 +6,219 @@ import static model.PieceEncoding.*;
 
 public abstract class AttackMapGenerator {
 
+    private static final long[] knightAttacks = new long[64];
+    private static final long[] kingAttacks = new long[64];
+    private static final int[][] rookDirections = {{-1, 0}, {0, 1}, {1, 0}, {0, -1}};
+    private static final int[][] bishopDirections = {{-1, 1}, {1, 1}, {1, -1}, {-1, -1}};
+
+    static {
+        int[][] knightSteps = {{-2, -1}, {-2, 1}, {-1, 2}, {1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}};
+        int[][] kingSteps = {{-1, 0}, {0, 1}, {1, 0}, {0, -1}, {-1, 1}, {1, 1}, {1, -1}, {-1, -1}};
+        for (int square = 0; square < 64; square++) {
+            knightAttacks[square] = computeStepAttacks(square / 8, square % 8, knightSteps);
+            kingAttacks[square] = computeStepAttacks(square / 8, square % 8, kingSteps);
+        }
+    }
+
+    private static long computeStepAttacks(int rank, int file, int[][] steps) {
+        long result = 0;
+        for (int[] step : steps) {
+            int targetRank = rank + step[0];
+            int targetFile = file + step[1];
+            if (isInbounds(targetRank) && isInbounds(targetFile)) {
+                result |= 1L << (targetRank * 8 + targetFile);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the squares attacked by both sides in a single pass over the board.
+     * <p>
+     * Mobility and attacks on the squares around the enemy king are counted while painting the attacks,
+     * so the evaluation does not have to trace any rays again.
+     * @param board the board whose attacks should be computed
+     * @return the attack map of the board
+     */
+    public static AttackMap computeAttackMap(Board board) {
+        long whiteOccupied = 0;
+        long blackOccupied = 0;
+        int whiteKing = -1;
+        int blackKing = -1;
+        for (int square = 0; square < 64; square++) {
+            byte piece = board.getByteAt(square / 8, square % 8);
+            if (piece == EMPTY_SQUARE) {
+                continue;
+            }
+            if (isBytePieceWhite(piece)) {
+                whiteOccupied |= 1L << square;
+            } else {
+                blackOccupied |= 1L << square;
+            }
+            if (piece == WHITE_KING) {
+                whiteKing = square;
+            } else if (piece == BLACK_KING) {
+                blackKing = square;
+            }
+        }
+        long occupied = whiteOccupied | blackOccupied;
+        long whiteKingZone = whiteKing < 0 ? 0 : kingAttacks[whiteKing] | (1L << whiteKing);
+        long blackKingZone = blackKing < 0 ? 0 : kingAttacks[blackKing] | (1L << blackKing);
+
+        long attackedByWhite = 0;
+        long attackedByBlack = 0;
+        int whiteMobility = 0;
+        int blackMobility = 0;
+        long whitePieces = 0;
+        long blackPieces = 0;
+        int whiteKingZoneAttacks = 0;
+        int blackKingZoneAttacks = 0;
+
+        long remaining = occupied;
+        while (remaining != 0) {
+            int square = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            byte piece = board.getByteAt(square / 8, square % 8);
+            boolean isWhite = isBytePieceWhite(piece);
+            PieceType type = getBytePieceType(piece);
+            long attacks = computeAttacks(type, square, occupied, isWhite);
+            if (isWhite) {
+                attackedByWhite |= attacks;
+            } else {
+                attackedByBlack |= attacks;
+            }
+            if (type == PieceType.PAWN || type == PieceType.KING) {
+                continue;
+            }
+            if (isWhite) {
+                whitePieces |= 1L << square;
+                whiteMobility += Long.bitCount(attacks & ~whiteOccupied);
+                whiteKingZoneAttacks += Long.bitCount(attacks & blackKingZone);
+            } else {
+                blackPieces |= 1L << square;
+                blackMobility += Long.bitCount(attacks & ~blackOccupied);
+                blackKingZoneAttacks += Long.bitCount(attacks & whiteKingZone);
+            }
+        }
+        return new AttackMap(attackedByWhite, attackedByBlack, whiteMobility, blackMobility,
+            whiteKingZoneAttacks, blackKingZoneAttacks, whiteKing, blackKing, whitePieces, blackPieces);
+    }
+
+    /**
+     * @param type the type of the attacking piece
+     * @param square the square of the attacking piece (rank * 8 + file)
+     * @param occupied bitboard of all occupied squares, rays stop at the first occupied square
+     * @param isWhite whether the attacking piece is white, only relevant for pawns
+     * @return bitboard of the squares attacked by the piece
+     */
+    private static long computeAttacks(PieceType type, int square, long occupied, boolean isWhite) {
+        int rank = square / 8;
+        int file = square % 8;
+        switch (type) {
+            case BISHOP:
+                return computeRayAttacks(rank, file, occupied, bishopDirections);
+            case KING:
+                return kingAttacks[square];
+            case KNIGHT:
+                return knightAttacks[square];
+            case PAWN:
+                int targetRank = isWhite ? rank - 1 : rank + 1;
+                if (!isInbounds(targetRank)) {
+                    return 0;
+                }
+                long attacks = 0;
+                if (file > 0) {
+                    attacks |= 1L << (targetRank * 8 + file - 1);
+                }
+                if (file < 7) {
+                    attacks |= 1L << (targetRank * 8 + file + 1);
+                }
+                return attacks;
+            case QUEEN:
+                return computeRayAttacks(rank, file, occupied, bishopDirections)
+                    | computeRayAttacks(rank, file, occupied, rookDirections);
+            case ROOK:
+                return computeRayAttacks(rank, file, occupied, rookDirections);
+            default:
+                return 0;
+        }
+    }
+
+    private static long computeRayAttacks(int rank, int file, long occupied, int[][] directions) {
+        long result = 0;
+        for (int[] direction : directions) {
+            int targetRank = rank + direction[0];
+            int targetFile = file + direction[1];
+            while (isInbounds(targetRank) && isInbounds(targetFile)) {
+                long target = 1L << (targetRank * 8 + targetFile);
+                result |= target;
+                if ((occupied & target) != 0) {
+                    break;
+                }
+                targetRank += direction[0];
+                targetFile += direction[1];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Determines whether a single square is attacked, tracing only the rays starting at the square
+     * instead of the attacks of all pieces like {@link #computeAttackMap(Board)}.
+     * @param squares the pieces indexed by rank * 8 + file
+     * @param square the inspected square (rank * 8 + file)
+     * @param byWhite whether attacks by white or by black pieces are of interest
+     * @return true if a piece of the specified color attacks the square
+     */
+    public static boolean isSquareAttacked(byte[] squares, int square, boolean byWhite) {
+        byte offset = byWhite ? 0 : PIECE_OFFSET;
+        if (containsPiece(squares, knightAttacks[square], (byte) (WHITE_KNIGHT + offset))
+            || containsPiece(squares, kingAttacks[square], (byte) (WHITE_KING + offset))) {
+            return true;
+        }
+        int rank = square / 8;
+        int file = square % 8;
+        // pawns attack towards the opposing side, so attacking pawns stand one rank further back
+        int pawnRank = byWhite ? rank + 1 : rank - 1;
+        byte pawn = (byte) (WHITE_PAWN + offset);
+        if (isInbounds(pawnRank)
+            && (file > 0 && squares[pawnRank * 8 + file - 1] == pawn || file < 7 && squares[pawnRank * 8 + file + 1] == pawn)) {
+            return true;
+        }
+        byte queen = (byte) (WHITE_QUEEN + offset);
+        return isRayAttacked(squares, rank, file, rookDirections, (byte) (WHITE_ROOK + offset), queen)
+            || isRayAttacked(squares, rank, file, bishopDirections, (byte) (WHITE_BISHOP + offset), queen);
+    }
+
+    private static boolean containsPiece(byte[] squares, long candidates, byte piece) {
+        while (candidates != 0) {
+            if (squares[Long.numberOfTrailingZeros(candidates)] == piece) {
+                return true;
+            }
+            candidates &= candidates - 1;
+        }
+        return false;
+    }
+
+    private static boolean isRayAttacked(byte[] squares, int rank, int file, int[][] directions, byte piece, byte queen) {
+        for (int[] direction : directions) {
+            int targetRank = rank + direction[0];
+            int targetFile = file + direction[1];
+            while (isInbounds(targetRank) && isInbounds(targetFile)) {
+                byte target = squares[targetRank * 8 + targetFile];
+                if (target != EMPTY_SQUARE) {
+                    if (target == piece || target == queen) {
+                        return true;
+                    }
+                    break;
+                }
+                targetRank += direction[0];
+                targetFile += direction[1];
+            }
+        }
+        return false;
+    }
+
     public static boolean[] computeChecks(Board squares, boolean isWhite) {
         boolean[] result = new boolean[64];
         for (int rank = 0; rank < 8; rank++){
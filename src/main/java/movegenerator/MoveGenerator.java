@@ -9,6 +9,7 @@ import static model.PieceEncoding.*;
 
 import model.Position;
 import model.Board;
+import model.Move;
 
 /**
  * In the end the only public method will be generatePossibleMoves, but for
@@ -393,6 +394,93 @@ public abstract class MoveGenerator {
         return squares;
     }
 
+    /**
+     * Applies a move to a position without generating the other moves of the position.
+     * <p>
+     * Handles castling, en passant captures and promotions and updates castling rights,
+     * en passant target square and move counters the same way the compute[Piece]Moves()-methods do.
+     * </p><p>
+     * The move is not checked for legality, it has to be legal in the passed position
+     * (e.g. because it was received from the GUI).
+     * </p>
+     * @param position the position in which the move is played
+     * @param move the move to apply
+     * @return the position after the move
+     * @throws IllegalArgumentException if there is no piece of the player to move on the starting square
+     */
+    public static Position applyMove(Position position, Move move) {
+        int startingRank = move.getStartingSquare().getRank();
+        int startingFile = move.getStartingSquare().getFile();
+        int targetRank = move.getTargetSquare().getRank();
+        int targetFile = move.getTargetSquare().getFile();
+        byte movingPiece = position.getByteAt(startingRank, startingFile);
+        if (movingPiece == EMPTY_SQUARE || isBytePieceWhite(movingPiece) != position.getWhiteNextMove()) {
+            throw new IllegalArgumentException("no piece of the player to move on the starting square of " + move);
+        }
+        byte capturedPiece = position.getByteAt(targetRank, targetFile);
+        boolean captureOrPawnMove = capturedPiece != EMPTY_SQUARE;
+        int enPassantTargetRank = -1;
+        int enPassantTargetFile = -1;
+        boolean whiteCastlingKingside = position.getWhiteCastlingKingside();
+        boolean whiteCastlingQueenside = position.getWhiteCastlingQueenside();
+        boolean blackCastlingKingside = position.getBlackCastlingKingside();
+        boolean blackCastlingQueenside = position.getBlackCastlingQueenside();
+
+        Board board = getBoardAfterMove(position.copyBoard(), startingRank, startingFile, targetRank, targetFile);
+        switch (movingPiece) {
+            case WHITE_PAWN:
+            case BLACK_PAWN:
+                captureOrPawnMove = true;
+                if (Math.abs(targetRank - startingRank) == 2) {
+                    enPassantTargetRank = (startingRank + targetRank) / 2;
+                    enPassantTargetFile = startingFile;
+                } else if (startingFile != targetFile && capturedPiece == EMPTY_SQUARE) {
+                    // en passant, the captured pawn is next to the starting square
+                    board.setByteAt(startingRank, targetFile, EMPTY_SQUARE);
+                }
+                if (move.getPromotedTo() != 0) {
+                    board.setByteAt(targetRank, targetFile, move.getPromotedTo());
+                }
+                break;
+            case WHITE_KING:
+            case BLACK_KING:
+                if (movingPiece == WHITE_KING) {
+                    whiteCastlingKingside = false;
+                    whiteCastlingQueenside = false;
+                } else {
+                    blackCastlingKingside = false;
+                    blackCastlingQueenside = false;
+                }
+                if (targetFile - startingFile == 2) {
+                    getBoardAfterMove(board, startingRank, 7, startingRank, 5);
+                } else if (startingFile - targetFile == 2) {
+                    getBoardAfterMove(board, startingRank, 0, startingRank, 3);
+                }
+                break;
+            case WHITE_ROOK:
+                if (startingFile == 0) {
+                    whiteCastlingQueenside = false;
+                } else if (startingFile == 7) {
+                    whiteCastlingKingside = false;
+                }
+                break;
+            case BLACK_ROOK:
+                if (startingFile == 0) {
+                    blackCastlingQueenside = false;
+                } else if (startingFile == 7) {
+                    blackCastlingKingside = false;
+                }
+                break;
+            default:
+                break;
+        }
+
+        Position result = position.generateFollowUpPosition(board, enPassantTargetRank, enPassantTargetFile,
+                whiteCastlingKingside, whiteCastlingQueenside, blackCastlingKingside, blackCastlingQueenside,
+                captureOrPawnMove);
+        result.setMove(move);
+        return result;
+    }
 
     public static List<Position> generatePossibleMovesPerPiece(Position position, int rank, int file) {
         List<Position> resultList = new ArrayList<>();
@@ -0,0 +1,313 @@
+package movegenerator;
+
+import java.util.Arrays;
+
+import model.Move;
+import model.MutablePosition;
+import model.Position;
+import static model.PieceEncoding.*;
+
+/**
+ * Generates the legal moves of a position without generating the resulting positions.
+ * <p>
+ * {@link MoveGenerator#generatePossibleMoves(Position)} copies the board and computes the attack maps
+ * of every follow-up position, most of which are pruned by the search without ever being inspected.
+ * This generator plays each move on a single array of squares, checks whether the own king is attacked
+ * (see {@link AttackMapGenerator#isSquareAttacked(byte[], int, boolean)}) and takes the move back.
+ * The moves are packed by {@link Move#pack(int, int, byte)} and generated in the same order
+ * as the positions of {@link MoveGenerator#generatePossibleMoves(Position)},
+ * follow-up positions can be computed on demand by {@link MoveGenerator#applyMove(Position, Move)}.
+ * Moves of a {@link MutablePosition} are generated into a buffer passed by the caller and played on the position's own squares.
+ */
+public abstract class MoveListGenerator {
+
+    private static final int[][] knightSteps = {{-2, -1}, {-2, 1}, {-1, 2}, {1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}};
+    private static final int[][] kingSteps = {{-1, 0}, {-1, 1}, {0, 1}, {1, 1}, {1, 0}, {1, -1}, {0, -1}, {-1, -1}};
+    // {rank offset, file offset}, in the order used by MoveGenerator.computeRay
+    private static final int[][] rookDirections = {{0, -1}, {0, 1}, {-1, 0}, {1, 0}};
+    private static final int[][] bishopDirections = {{-1, -1}, {1, -1}, {-1, 1}, {1, 1}};
+    private static final byte[] promotions = {WHITE_BISHOP, WHITE_KNIGHT, WHITE_QUEEN, WHITE_ROOK};
+
+    /**
+     * Upper bound of the number of legal moves in any position.
+     */
+    public static final int MAX_MOVES = 256;
+
+    /**
+     * Generates the legal moves of a position.
+     * @param position the position whose moves should be generated
+     * @return the packed legal moves (empty if no moves can be made)
+     */
+    public static int[] generateMoves(Position position) {
+        if (position.isDraw()) {
+            return new int[0];
+        }
+        byte[] squares = new byte[64];
+        for (int square = 0; square < 64; square++) {
+            squares[square] = position.getByteAt(square / 8, square % 8);
+        }
+        boolean white = position.getWhiteNextMove();
+        byte ownKing = white ? WHITE_KING : BLACK_KING;
+        int king = -1;
+        for (int square = 0; square < 64; square++) {
+            if (squares[square] == ownKing) {
+                king = square;
+                break;
+            }
+        }
+        if (king < 0) {
+            // positions without a king count as being in check, no moves are generated for them
+            return new int[0];
+        }
+        int enPassantSquare = position.getEnPassantTargetRank() < 0
+            ? -1 : position.getEnPassantTargetRank() * 8 + position.getEnPassantTargetFile();
+        MoveList moves = new MoveList(squares, white, king, new int[MAX_MOVES]);
+        addMoves(moves, white ? position.getWhiteInCheck() : position.getBlackInCheck(),
+            white ? position.getWhiteCastlingKingside() : position.getBlackCastlingKingside(),
+            white ? position.getWhiteCastlingQueenside() : position.getBlackCastlingQueenside(), enPassantSquare);
+        return Arrays.copyOf(moves.moves, moves.size);
+    }
+
+    /**
+     * Generates the legal moves of a mutable position into the passed array, e.g. a move buffer of a search ply,
+     * in the same order as {@link #generateMoves(Position)}.
+     * Unlike {@link #generateMoves(Position)}, draws are not detected (see {@link MutablePosition#isDraw()}).
+     * The squares of the position are changed while testing moves and restored afterwards.
+     * @param position the position whose moves should be generated
+     * @param moves the array the packed moves are written to, starting at index 0,
+     * should have room for {@link #MAX_MOVES} moves
+     * @return the number of legal moves
+     */
+    public static int generateMoves(MutablePosition position, int[] moves) {
+        boolean white = position.getWhiteNextMove();
+        int king = position.getKingSquare(white);
+        if (king < 0) {
+            return 0;
+        }
+        byte[] squares = position.getSquares();
+        MoveList list = new MoveList(squares, white, king, moves);
+        addMoves(list, AttackMapGenerator.isSquareAttacked(squares, king, !white),
+            position.hasCastlingRight(white ? MutablePosition.WHITE_KINGSIDE : MutablePosition.BLACK_KINGSIDE),
+            position.hasCastlingRight(white ? MutablePosition.WHITE_QUEENSIDE : MutablePosition.BLACK_QUEENSIDE),
+            position.getEnPassantSquare());
+        return list.size;
+    }
+
+    /**
+     * Adds the legal moves of all pieces of the player to move.
+     * @param inCheck whether the king of the player to move is attacked
+     * @param castlingKingside whether the player has the right to castle kingside
+     * @param castlingQueenside whether the player has the right to castle queenside
+     * @param enPassantSquare the square index of the en passant target square, -1 if there is none
+     */
+    private static void addMoves(MoveList moves, boolean inCheck, boolean castlingKingside, boolean castlingQueenside,
+            int enPassantSquare) {
+        byte[] squares = moves.squares;
+        boolean white = moves.white;
+        for (int square = 0; square < 64; square++) {
+            byte piece = squares[square];
+            if (piece == EMPTY_SQUARE || isBytePieceWhite(piece) != white) {
+                continue;
+            }
+            switch (getBytePieceType(piece)) {
+                case BISHOP:
+                    addRayMoves(moves, square, bishopDirections);
+                    break;
+                case KING:
+                    addKingMoves(moves, square, inCheck, castlingKingside, castlingQueenside);
+                    break;
+                case KNIGHT:
+                    addStepMoves(moves, square, knightSteps);
+                    break;
+                case PAWN:
+                    addPawnMoves(moves, square, enPassantSquare);
+                    break;
+                case QUEEN:
+                    addRayMoves(moves, square, rookDirections);
+                    addRayMoves(moves, square, bishopDirections);
+                    break;
+                case ROOK:
+                    addRayMoves(moves, square, rookDirections);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static void addRayMoves(MoveList moves, int square, int[][] directions) {
+        int rank = square / 8;
+        int file = square % 8;
+        for (int[] direction : directions) {
+            int targetRank = rank + direction[0];
+            int targetFile = file + direction[1];
+            while (isInbounds(targetRank, targetFile)) {
+                int target = targetRank * 8 + targetFile;
+                if (moves.isOwnPiece(target)) {
+                    break;
+                }
+                moves.addIfLegal(square, target);
+                if (moves.squares[target] != EMPTY_SQUARE) {
+                    break;
+                }
+                targetRank += direction[0];
+                targetFile += direction[1];
+            }
+        }
+    }
+
+    private static void addStepMoves(MoveList moves, int square, int[][] steps) {
+        int rank = square / 8;
+        int file = square % 8;
+        for (int[] step : steps) {
+            int targetRank = rank + step[0];
+            int targetFile = file + step[1];
+            if (isInbounds(targetRank, targetFile) && !moves.isOwnPiece(targetRank * 8 + targetFile)) {
+                moves.addIfLegal(square, targetRank * 8 + targetFile);
+            }
+        }
+    }
+
+    /**
+     * Adds the moves of the king including castling. The king may not castle out of or through check,
+     * whether it would be in check on its target square is tested like for any other move.
+     */
+    private static void addKingMoves(MoveList moves, int square, boolean inCheck, boolean castlingKingside,
+            boolean castlingQueenside) {
+        addStepMoves(moves, square, kingSteps);
+        if (inCheck) {
+            return;
+        }
+        boolean white = moves.white;
+        byte[] squares = moves.squares;
+        int rank = white ? 7 : 0;
+        // castling rights imply that king and rook are on their starting squares
+        if (castlingKingside
+            && squares[rank * 8 + 5] == EMPTY_SQUARE && squares[rank * 8 + 6] == EMPTY_SQUARE
+            && !AttackMapGenerator.isSquareAttacked(squares, rank * 8 + 5, !white)) {
+            moves.addCastlingIfLegal(rank * 8 + 4, rank * 8 + 6, rank * 8 + 7, rank * 8 + 5);
+        }
+        if (castlingQueenside
+            && squares[rank * 8 + 1] == EMPTY_SQUARE && squares[rank * 8 + 2] == EMPTY_SQUARE
+            && squares[rank * 8 + 3] == EMPTY_SQUARE
+            && !AttackMapGenerator.isSquareAttacked(squares, rank * 8 + 3, !white)) {
+            moves.addCastlingIfLegal(rank * 8 + 4, rank * 8 + 2, rank * 8, rank * 8 + 3);
+        }
+    }
+
+    private static void addPawnMoves(MoveList moves, int square, int enPassantSquare) {
+        int rank = square / 8;
+        int file = square % 8;
+        int sign = moves.white ? -1 : 1;
+        int target = square + sign * 8;
+        if (moves.squares[target] == EMPTY_SQUARE) {
+            moves.addPawnMoveIfLegal(square, target);
+            int doubleStepTarget = target + sign * 8;
+            if (rank == (moves.white ? 6 : 1) && moves.squares[doubleStepTarget] == EMPTY_SQUARE) {
+                moves.addIfLegal(square, doubleStepTarget);
+            }
+        }
+        if (file != 0 && isOpponentPiece(moves, target - 1)) {
+            moves.addPawnMoveIfLegal(square, target - 1);
+        }
+        if (file != 7 && isOpponentPiece(moves, target + 1)) {
+            moves.addPawnMoveIfLegal(square, target + 1);
+        }
+        if (enPassantSquare >= 0 && enPassantSquare / 8 == rank + sign && Math.abs(enPassantSquare % 8 - file) == 1) {
+            moves.addEnPassantIfLegal(square, enPassantSquare, rank * 8 + enPassantSquare % 8);
+        }
+    }
+
+    private static boolean isOpponentPiece(MoveList moves, int square) {
+        byte piece = moves.squares[square];
+        return piece != EMPTY_SQUARE && isBytePieceWhite(piece) != moves.white;
+    }
+
+    private static boolean isInbounds(int rank, int file) {
+        return rank >= 0 && rank < 8 && file >= 0 && file < 8;
+    }
+
+    /**
+     * Collects the legal moves, moves are played on the squares to test whether they leave the king in check.
+     */
+    private static class MoveList {
+
+        private final byte[] squares;
+        private final boolean white;
+        private final int king;
+        private final int[] moves;
+        private int size = 0;
+
+        MoveList(byte[] squares, boolean white, int king, int[] moves) {
+            this.squares = squares;
+            this.white = white;
+            this.king = king;
+            this.moves = moves;
+        }
+
+        boolean isOwnPiece(int square) {
+            byte piece = squares[square];
+            return piece != EMPTY_SQUARE && isBytePieceWhite(piece) == white;
+        }
+
+        void addIfLegal(int start, int target) {
+            if (isLegal(start, target, -1)) {
+                moves[size++] = Move.pack(start, target, EMPTY_SQUARE);
+            }
+        }
+
+        void addPawnMoveIfLegal(int start, int target) {
+            if (!isLegal(start, target, -1)) {
+                return;
+            }
+            if (target / 8 == 0 || target / 8 == 7) {
+                byte offset = white ? 0 : PIECE_OFFSET;
+                for (byte promotion : promotions) {
+                    moves[size++] = Move.pack(start, target, (byte) (promotion + offset));
+                }
+            } else {
+                moves[size++] = Move.pack(start, target, EMPTY_SQUARE);
+            }
+        }
+
+        void addEnPassantIfLegal(int start, int target, int capturedPawn) {
+            if (isLegal(start, target, capturedPawn)) {
+                moves[size++] = Move.pack(start, target, EMPTY_SQUARE);
+            }
+        }
+
+        void addCastlingIfLegal(int kingStart, int kingTarget, int rookStart, int rookTarget) {
+            byte rook = squares[rookStart];
+            squares[rookStart] = EMPTY_SQUARE;
+            squares[rookTarget] = rook;
+            boolean legal = isLegal(kingStart, kingTarget, -1);
+            squares[rookTarget] = EMPTY_SQUARE;
+            squares[rookStart] = rook;
+            if (legal) {
+                moves[size++] = Move.pack(kingStart, kingTarget, EMPTY_SQUARE);
+            }
+        }
+
+        /**
+         * Plays the move on the squares, tests whether the own king is attacked and takes the move back.
+         * @param capturedPawn the square of the pawn captured en passant, -1 for other moves
+         */
+        private boolean isLegal(int start, int target, int capturedPawn) {
+            byte piece = squares[start];
+            byte captured = squares[target];
+            byte capturedEnPassant = capturedPawn < 0 ? EMPTY_SQUARE : squares[capturedPawn];
+            squares[start] = EMPTY_SQUARE;
+            squares[target] = piece;
+            if (capturedPawn >= 0) {
+                squares[capturedPawn] = EMPTY_SQUARE;
+            }
+            boolean legal = !AttackMapGenerator.isSquareAttacked(squares, start == king ? target : king, !white);
+            if (capturedPawn >= 0) {
+                squares[capturedPawn] = capturedEnPassant;
+            }
+            squares[target] = captured;
+            squares[start] = piece;
+            return legal;
+        }
+    }
+}
@@ -172,7 +172,8 @@ public class PawnMoveGenerator extends PieceMoveGenerator{
                 Board resultingSquares = MoveGenerator.getBoardAfterMove(position.copyBoard(),
                     rank, file, targetRank, targetFile);
                 resultingSquares.setByteAt(targetRank-(sign*1),targetFile,(byte)0);
-                addPawnMove(position, results, rank, file, sign, resultingSquares, false, false, false);
+                addPawnMove(position, results, rank, file, sign, resultingSquares, false,
+                    targetFile == file-1, targetFile == file+1);
             }
         }
     }
@@ -0,0 +1,109 @@
+package positionevaluator;
+
+import model.Board;
+
+import static model.PieceEncoding.EMPTY_SQUARE;
+
+/**
+ * The hidden layers of a {@link NeuralNetwork} for one board, from white's and from black's perspective.
+ * <p>
+ * Computing the hidden layers from scratch adds the weights of all pieces. A move changes at most four squares
+ * (castling), so {@link #update(Board)} derives the accumulator of a following board by subtracting the weights
+ * of the pieces that left their squares and adding those of the pieces that arrived.
+ * The changed squares are found by comparing the boards, so moves need not be known.
+ * <p>
+ * Accumulators are immutable after construction. Values are int16 like the weights and wrap on overflow,
+ * networks have to keep the sums in range.
+ */
+public class Accumulator {
+
+    private final NeuralNetwork network;
+    private final short[] white;
+    private final short[] black;
+    /**
+     * The pieces of the board the accumulator was computed for, indexed by rank * 8 + file.
+     */
+    private final byte[] pieces;
+
+    /**
+     * Computes the hidden layers of a board from scratch.
+     * @param network the network whose weights are used
+     * @param board the board
+     */
+    public Accumulator(NeuralNetwork network, Board board) {
+        this.network = network;
+        this.white = network.getFeatureBiases().clone();
+        this.black = network.getFeatureBiases().clone();
+        this.pieces = new byte[64];
+        for (int square = 0; square < 64; square++) {
+            byte piece = board.getByteAt(square / 8, square % 8);
+            pieces[square] = piece;
+            if (piece != EMPTY_SQUARE) {
+                addPiece(piece, square, 1);
+            }
+        }
+    }
+
+    private Accumulator(Accumulator previous) {
+        this.network = previous.network;
+        this.white = previous.white.clone();
+        this.black = previous.black.clone();
+        this.pieces = previous.pieces.clone();
+    }
+
+    /**
+     * Computes the hidden layers of a board that differs from this accumulator's board on few squares,
+     * e.g. the board after a move.
+     * @param board the following board
+     * @return the accumulator of the board
+     */
+    public Accumulator update(Board board) {
+        Accumulator result = new Accumulator(this);
+        for (int square = 0; square < 64; square++) {
+            byte piece = board.getByteAt(square / 8, square % 8);
+            byte previousPiece = pieces[square];
+            if (piece == previousPiece) {
+                continue;
+            }
+            if (previousPiece != EMPTY_SQUARE) {
+                result.addPiece(previousPiece, square, -1);
+            }
+            if (piece != EMPTY_SQUARE) {
+                result.addPiece(piece, square, 1);
+            }
+            result.pieces[square] = piece;
+        }
+        return result;
+    }
+
+    /**
+     * Adds the weights of a piece on a square to both perspectives.
+     * @param sign 1 to add the piece, -1 to remove it
+     */
+    private void addPiece(byte piece, int square, int sign) {
+        short[] weights = network.getFeatureWeights();
+        int hiddenSize = network.getHiddenSize();
+        int whiteOffset = NeuralNetwork.getInputIndex(piece, square, true) * hiddenSize;
+        int blackOffset = NeuralNetwork.getInputIndex(piece, square, false) * hiddenSize;
+        // the sums wrap to int16, networks keep them in range (see the class description)
+        for (int i = 0; i < hiddenSize; i++) {
+            white[i] = (short) (white[i] + sign * weights[whiteOffset + i]);
+            black[i] = (short) (black[i] + sign * weights[blackOffset + i]);
+        }
+    }
+
+    /**
+     * @param whitePerspective whether the hidden layer of white's or of black's perspective should be returned
+     * @return the hidden layer, must not be modified
+     */
+    short[] getHiddenLayer(boolean whitePerspective) {
+        return whitePerspective ? white : black;
+    }
+
+    /**
+     * @return the network whose weights were used to compute this accumulator
+     */
+    public NeuralNetwork getNetwork() {
+        return network;
+    }
+}
@@ -0,0 +1,117 @@
+package positionevaluator;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size cache mapping Zobrist keys to int values,
+ * e.g. positions to their static evaluation or pawn structures to their score.
+ * <p>
+ * Entries are stored without locks using the XOR technique: the key of an entry is stored XORed with its data.
+ * If another thread overwrote only one of both values of an entry, the key does not match anymore
+ * and the probe is treated as a miss instead of returning a wrong value.
+ * <p>
+ * The hit and probe counters are not synchronized and only meant for performance statistics.
+ */
+public class EvaluationCache {
+
+    /**
+     * Returned by {@link #probe(long)} if no value is stored for a key.
+     * Values stored in the cache must never be equal to it.
+     */
+    public static final int MISS = Integer.MIN_VALUE;
+
+    /**
+     * Default number of entries, 2^18 entries need 4 MiB.
+     */
+    public static final int DEFAULT_SIZE = 1 << 18;
+
+    /**
+     * Marks entries that were written, so empty entries never match a key.
+     */
+    private static final long OCCUPIED = 1L << 32;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+
+    private long probes = 0;
+    private long hits = 0;
+
+    /**
+     * Creates an evaluation cache with the specified number of entries.
+     * @param size the number of entries, must be a power of two
+     * @throws IllegalArgumentException if size is not a positive power of two
+     */
+    public EvaluationCache(int size) {
+        if (size <= 0 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("size must be a positive power of two, was " + size);
+        }
+        this.keys = new long[size];
+        this.data = new long[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Looks up the value stored for a key.
+     * @param key the Zobrist key
+     * @return the stored value or {@link #MISS} if no value is stored for the key
+     */
+    public int probe(long key) {
+        probes += 1;
+        int index = (int) key & mask;
+        long entryData = data[index];
+        if ((keys[index] ^ entryData) != key || (entryData & OCCUPIED) == 0) {
+            return MISS;
+        }
+        hits += 1;
+        return (int) entryData;
+    }
+
+    /**
+     * Stores a value for a key, replacing the entry previously stored at the same index.
+     * @param key the Zobrist key
+     * @param value the value to store, must not be {@link #MISS}
+     */
+    public void store(long key, int value) {
+        int index = (int) key & mask;
+        long entryData = (value & 0xFFFFFFFFL) | OCCUPIED;
+        keys[index] = key ^ entryData;
+        data[index] = entryData;
+    }
+
+    /**
+     * Removes all entries and resets the counters.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+        resetCounters();
+    }
+
+    public void resetCounters() {
+        probes = 0;
+        hits = 0;
+    }
+
+    public long getProbes() {
+        return probes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the share of probes that were hits in per mille, 0 if there were no probes
+     */
+    public int getHitRatePermill() {
+        if (probes == 0) {
+            return 0;
+        }
+        return (int) (hits * 1000 / probes);
+    }
+
+    public int getSize() {
+        return keys.length;
+    }
+}
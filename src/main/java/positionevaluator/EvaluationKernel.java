@@ -0,0 +1,43 @@
+package positionevaluator;
+
+/**
+ * Arithmetic kernels of the evaluation that operate on many values at once.
+ * <p>
+ * {@link ScalarEvaluationKernel} works on any JVM, {@link VectorEvaluationKernel} uses the
+ * incubating Vector API if the module jdk.incubator.vector is available.
+ * Both must produce exactly the same results. Use {@link #getInstance()} to obtain the selected kernel.
+ */
+public interface EvaluationKernel {
+
+    /**
+     * System property selecting the kernel, either "vector" (default) or "scalar".
+     * The vector kernel is only used if the JVM was started with --add-modules jdk.incubator.vector.
+     */
+    public static final String KERNEL_PROPERTY = "schachmotor.evaluation.kernel";
+
+    /**
+     * Sums the material and piece square values of 64 squares.
+     * @param pieces the piece on each square, indexed by rank*8+file
+     * @param endgame whether the endgame values should be summed
+     * @return the material and piece square score from white's point of view
+     */
+    public abstract int sumPieceSquareValues(byte[] pieces, boolean endgame);
+
+    /**
+     * Interpolates midgame and endgame scores of a batch of positions (see {@link PositionEvaluator#taper(int, int, int)}),
+     * adds their imbalance and applies their scale factor:
+     * <br>
+     * results[i] = (taper(midgameScores[i], endgameScores[i], gamePhases[i]) + imbalances[i])
+     *     * scaleFactors[i] / {@link MaterialEntry#SCALE_NORMAL}
+     * @param length the number of positions in the batch, the arrays may be longer
+     */
+    public abstract void taper(int[] midgameScores, int[] endgameScores, int[] gamePhases, int[] imbalances,
+            int[] scaleFactors, int[] results, int length);
+
+    /**
+     * @return the kernel selected by {@link #KERNEL_PROPERTY}
+     */
+    public static EvaluationKernel getInstance() {
+        return EvaluationKernelSelector.INSTANCE;
+    }
+}
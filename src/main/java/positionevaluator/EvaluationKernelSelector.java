@@ -0,0 +1,27 @@
+package positionevaluator;
+
+/**
+ * Selects the {@link EvaluationKernel} once when first used.
+ * <p>
+ * {@link VectorEvaluationKernel} is only loaded if its module is present,
+ * so the engine still runs on JVMs started without --add-modules jdk.incubator.vector.
+ */
+abstract class EvaluationKernelSelector {
+
+    static final EvaluationKernel INSTANCE = select();
+
+    private static EvaluationKernel select() {
+        String requested = System.getProperty(EvaluationKernel.KERNEL_PROPERTY, "vector");
+        if ("vector".equals(requested) && isVectorApiAvailable()) {
+            return new VectorEvaluationKernel();
+        }
+        return new ScalarEvaluationKernel();
+    }
+
+    /**
+     * @return whether the Vector API module was added to the boot layer
+     */
+    static boolean isVectorApiAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+}
@@ -0,0 +1,174 @@
+package positionevaluator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Scanner;
+
+import static model.PieceEncoding.*;
+
+/**
+ * All weights of the classical evaluation in one array, so they can be tuned, saved and loaded.
+ * <p>
+ * The array is divided into groups:
+ * <ul>
+ *      <li>material plus piece square values of each white piece, in the order of {@link model.PieceEncoding},
+ *          for the midgame ({@link #PIECE_SQUARE_MIDGAME}) and the endgame ({@link #PIECE_SQUARE_ENDGAME}),
+ *          64 values per piece indexed by rank*8+file from white's point of view (rank 0 is the 8th rank)</li>
+ *      <li>pawn structure weights for the midgame and the endgame, indexed like
+ *          {@link PawnStructureEvaluator#countTerms(model.Board, int[])}</li>
+ *      <li>mobility (midgame and endgame), king zone attacks, hanging pieces and the bishop pair</li>
+ * </ul>
+ * Parameter files are text files listing each group's name followed by its values,
+ * lines starting with # are comments. Groups missing from a file keep their current values.
+ * <p>
+ * Boards maintain material and piece square scores incrementally,
+ * so parameters should be set before positions are created and cached evaluations must be discarded.
+ */
+public abstract class EvaluationParameters {
+
+    private static final String[] PIECE_NAMES = {"bishop", "king", "knight", "pawn", "queen", "rook"};
+
+    public static final int PIECE_SQUARE_MIDGAME = 0;
+    public static final int PIECE_SQUARE_ENDGAME = PIECE_SQUARE_MIDGAME + PIECE_NAMES.length * 64;
+    public static final int PAWN_STRUCTURE_MIDGAME = PIECE_SQUARE_ENDGAME + PIECE_NAMES.length * 64;
+    public static final int PAWN_STRUCTURE_ENDGAME = PAWN_STRUCTURE_MIDGAME + PawnStructureEvaluator.TERM_COUNT;
+    public static final int MOBILITY_MIDGAME = PAWN_STRUCTURE_ENDGAME + PawnStructureEvaluator.TERM_COUNT;
+    public static final int MOBILITY_ENDGAME = MOBILITY_MIDGAME + 1;
+    public static final int KING_ZONE_ATTACK_MIDGAME = MOBILITY_ENDGAME + 1;
+    public static final int HANGING_PIECE = KING_ZONE_ATTACK_MIDGAME + 1;
+    public static final int BISHOP_PAIR = HANGING_PIECE + 1;
+    public static final int COUNT = BISHOP_PAIR + 1;
+
+    private static final String[] groupNames = new String[2 * PIECE_NAMES.length + 7];
+    private static final int[] groupOffsets = new int[groupNames.length];
+    private static final int[] groupLengths = new int[groupNames.length];
+
+    static {
+        int group = 0;
+        for (int endgame = 0; endgame < 2; endgame++) {
+            for (int piece = 0; piece < PIECE_NAMES.length; piece++) {
+                groupNames[group] = "piece-square." + (endgame == 0 ? "midgame." : "endgame.") + PIECE_NAMES[piece];
+                groupOffsets[group] = (endgame == 0 ? PIECE_SQUARE_MIDGAME : PIECE_SQUARE_ENDGAME) + piece * 64;
+                groupLengths[group] = 64;
+                group++;
+            }
+        }
+        String[] names = {"pawn-structure.midgame", "pawn-structure.endgame", "mobility.midgame", "mobility.endgame",
+            "king-zone-attack.midgame", "hanging-piece", "bishop-pair"};
+        int[] offsets = {PAWN_STRUCTURE_MIDGAME, PAWN_STRUCTURE_ENDGAME, MOBILITY_MIDGAME, MOBILITY_ENDGAME,
+            KING_ZONE_ATTACK_MIDGAME, HANGING_PIECE, BISHOP_PAIR};
+        for (int i = 0; i < names.length; i++) {
+            groupNames[group] = names[i];
+            groupOffsets[group] = offsets[i];
+            groupLengths[group] = (i + 1 < offsets.length ? offsets[i + 1] : COUNT) - offsets[i];
+            group++;
+        }
+    }
+
+    /**
+     * @return the weights currently used by the evaluation
+     */
+    public static int[] get() {
+        int[] parameters = new int[COUNT];
+        for (byte piece = WHITE_BISHOP; piece <= WHITE_ROOK; piece++) {
+            System.arraycopy(PieceSquareTable.getValues(piece, false), 0, parameters, PIECE_SQUARE_MIDGAME + (piece - WHITE_BISHOP) * 64, 64);
+            System.arraycopy(PieceSquareTable.getValues(piece, true), 0, parameters, PIECE_SQUARE_ENDGAME + (piece - WHITE_BISHOP) * 64, 64);
+        }
+        System.arraycopy(PawnStructureEvaluator.getWeights(false), 0, parameters, PAWN_STRUCTURE_MIDGAME, PawnStructureEvaluator.TERM_COUNT);
+        System.arraycopy(PawnStructureEvaluator.getWeights(true), 0, parameters, PAWN_STRUCTURE_ENDGAME, PawnStructureEvaluator.TERM_COUNT);
+        System.arraycopy(PositionEvaluator.getAttackWeights(), 0, parameters, MOBILITY_MIDGAME, 4);
+        parameters[BISHOP_PAIR] = MaterialTable.getBishopPairBonus();
+        return parameters;
+    }
+
+    /**
+     * Replaces the weights used by the evaluation and clears the pawn hash table and the material table.
+     * @param parameters the new weights, laid out like the result of {@link #get()}
+     * @throws IllegalArgumentException if the number of parameters is not {@link #COUNT}
+     */
+    public static void set(int[] parameters) {
+        if (parameters.length != COUNT) {
+            throw new IllegalArgumentException("expected " + COUNT + " parameters but got " + parameters.length);
+        }
+        int[] values = new int[64];
+        for (byte piece = WHITE_BISHOP; piece <= WHITE_ROOK; piece++) {
+            System.arraycopy(parameters, PIECE_SQUARE_MIDGAME + (piece - WHITE_BISHOP) * 64, values, 0, 64);
+            PieceSquareTable.setValues(piece, false, values);
+            System.arraycopy(parameters, PIECE_SQUARE_ENDGAME + (piece - WHITE_BISHOP) * 64, values, 0, 64);
+            PieceSquareTable.setValues(piece, true, values);
+        }
+        int[] pawnWeights = new int[PawnStructureEvaluator.TERM_COUNT];
+        System.arraycopy(parameters, PAWN_STRUCTURE_MIDGAME, pawnWeights, 0, pawnWeights.length);
+        PawnStructureEvaluator.setWeights(false, pawnWeights);
+        System.arraycopy(parameters, PAWN_STRUCTURE_ENDGAME, pawnWeights, 0, pawnWeights.length);
+        PawnStructureEvaluator.setWeights(true, pawnWeights);
+        int[] attackWeights = new int[4];
+        System.arraycopy(parameters, MOBILITY_MIDGAME, attackWeights, 0, attackWeights.length);
+        PositionEvaluator.setAttackWeights(attackWeights);
+        MaterialTable.setBishopPairBonus(parameters[BISHOP_PAIR]);
+    }
+
+    /**
+     * Reads a parameter file. Groups that are not listed in the file are taken from the current weights.
+     * @param path the parameter file
+     * @return the parameters, to be passed to {@link #set(int[])}
+     * @throws IOException if the file cannot be read or contains unknown groups or invalid values
+     */
+    public static int[] load(Path path) throws IOException {
+        int[] parameters = get();
+        StringBuilder content = new StringBuilder();
+        for (String line : Files.readAllLines(path)) {
+            if (!line.trim().startsWith("#")) {
+                content.append(line).append('\n');
+            }
+        }
+        try (Scanner scanner = new Scanner(content.toString())) {
+            while (scanner.hasNext()) {
+                String name = scanner.next();
+                int group = findGroup(name);
+                if (group < 0) {
+                    throw new IOException("unknown parameter group " + name + " in " + path);
+                }
+                for (int i = 0; i < groupLengths[group]; i++) {
+                    if (!scanner.hasNextInt()) {
+                        throw new IOException("expected " + groupLengths[group] + " integers after " + name + " in " + path);
+                    }
+                    parameters[groupOffsets[group] + i] = scanner.nextInt();
+                }
+            }
+        }
+        return parameters;
+    }
+
+    private static int findGroup(String name) {
+        for (int group = 0; group < groupNames.length; group++) {
+            if (groupNames[group].equals(name)) {
+                return group;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes parameters to a file that can be read by {@link #load(Path)}.
+     * Piece square values are written as 8 lines per piece, starting with the 8th rank.
+     * @param path the file to write, an existing file is overwritten
+     * @param parameters the parameters, laid out like the result of {@link #get()}
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(Path path, int[] parameters) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("# evaluation parameters of SchachMotor in centipawns, positive values favor the piece's owner\n");
+            for (int group = 0; group < groupNames.length; group++) {
+                writer.write(groupNames[group]);
+                for (int i = 0; i < groupLengths[group]; i++) {
+                    writer.write(i % 8 == 0 && groupLengths[group] > 1 ? "\n   " : " ");
+                    writer.write(String.format("%5d", parameters[groupOffsets[group] + i]));
+                }
+                writer.write('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package positionevaluator;
+
+import model.Board;
+
+import static model.PieceEncoding.*;
+
+/**
+ * Data derived from the material of a position alone, stored by the {@link MaterialTable}.
+ * <p>
+ * Entries are immutable, so they can be shared between threads without synchronization.
+ */
+public class MaterialEntry {
+
+    /**
+     * Scale factor that leaves an evaluation unchanged.
+     */
+    public static final int SCALE_NORMAL = 64;
+    /**
+     * Scale factor for endgames with bishops on squares of opposite colors.
+     */
+    public static final int SCALE_OPPOSITE_BISHOPS = 32;
+
+    private final long pieceCounts;
+    private final int gamePhase;
+    private final int imbalance;
+    private final boolean draw;
+    private final boolean onlyBishopsAndPawns;
+    private final SpecialisedEndgame specialisedEndgame;
+    private final boolean whiteIsStronger;
+
+    public MaterialEntry(long pieceCounts, int gamePhase, int imbalance, boolean draw, boolean onlyBishopsAndPawns,
+            SpecialisedEndgame specialisedEndgame, boolean whiteIsStronger) {
+        this.pieceCounts = pieceCounts;
+        this.gamePhase = gamePhase;
+        this.imbalance = imbalance;
+        this.draw = draw;
+        this.onlyBishopsAndPawns = onlyBishopsAndPawns;
+        this.specialisedEndgame = specialisedEndgame;
+        this.whiteIsStronger = whiteIsStronger;
+    }
+
+    /**
+     * @return the piece counts (see {@link Board#getPieceCounts()}) this entry was computed for
+     */
+    public long getPieceCounts() {
+        return pieceCounts;
+    }
+
+    /**
+     * @return the game phase between 0 (endgame) and {@link PieceSquareTable#MAX_GAME_PHASE} (midgame)
+     */
+    public int getGamePhase() {
+        return gamePhase;
+    }
+
+    /**
+     * @return the bonus for material combinations such as the bishop pair, from white's point of view
+     */
+    public int getImbalance() {
+        return imbalance;
+    }
+
+    /**
+     * @return whether neither side can possibly win with this material
+     */
+    public boolean isDraw() {
+        return draw;
+    }
+
+    /**
+     * @return whether this material should be evaluated by {@link #evaluateSpecialised(Board)}
+     */
+    public boolean hasSpecialisedEvaluation() {
+        return specialisedEndgame != null;
+    }
+
+    /**
+     * @return the known endgame of this material or null if there is none
+     */
+    public SpecialisedEndgame getSpecialisedEndgame() {
+        return specialisedEndgame;
+    }
+
+    /**
+     * Evaluates a board with this material using the function of its known endgame.
+     * @param board the board to evaluate
+     * @return the static evaluation from white's point of view
+     * @throws IllegalStateException if this material is not a known endgame
+     */
+    public int evaluateSpecialised(Board board) {
+        if (specialisedEndgame == null) {
+            throw new IllegalStateException("no specialised evaluation for this material");
+        }
+        return specialisedEndgame.evaluate(board, whiteIsStronger);
+    }
+
+    /**
+     * Returns the factor by which the evaluation of a board with this material should be scaled
+     * towards a draw, in units of 1/{@link #SCALE_NORMAL}.
+     * <p>
+     * Bishops on squares of opposite colors depend on the board, they are only looked up
+     * if the material allows for them.
+     * @param board a board with this material
+     * @return the scale factor
+     */
+    public int getScaleFactor(Board board) {
+        if (onlyBishopsAndPawns && hasOppositeColoredBishops(board)) {
+            return SCALE_OPPOSITE_BISHOPS;
+        }
+        return SCALE_NORMAL;
+    }
+
+    /**
+     * @return whether {@link #getScaleFactor(Board)} might return a factor other than {@link #SCALE_NORMAL}
+     */
+    public boolean mayScale() {
+        return onlyBishopsAndPawns;
+    }
+
+    private static boolean hasOppositeColoredBishops(Board board) {
+        int whiteColor = -1;
+        int blackColor = -1;
+        for (int rank = 0; rank < 8; rank++) {
+            for (int file = 0; file < 8; file++) {
+                byte piece = board.getByteAt(rank, file);
+                if (piece == WHITE_BISHOP) {
+                    whiteColor = (rank + file) % 2;
+                } else if (piece == BLACK_BISHOP) {
+                    blackColor = (rank + file) % 2;
+                }
+            }
+        }
+        return whiteColor != blackColor;
+    }
+}
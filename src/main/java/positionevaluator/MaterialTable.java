@@ -0,0 +1,175 @@
+package positionevaluator;
+
+import java.util.Arrays;
+
+import model.Board;
+
+import static model.PieceEncoding.*;
+
+/**
+ * Table mapping material signatures to {@link MaterialEntry MaterialEntries}.
+ * <p>
+ * The material signature of a board are its packed piece counts ({@link Board#getPieceCounts()}),
+ * which boards already maintain incrementally. Since material changes only on captures and promotions,
+ * the few signatures reached during a search fit into a small table.
+ * <p>
+ * Entries are immutable and written with a single reference assignment,
+ * so the table can be used by multiple threads without locks.
+ * The hit and probe counters are not synchronized and only meant for performance statistics.
+ */
+public abstract class MaterialTable {
+
+    /**
+     * Number of entries, must be a power of two.
+     */
+    public static final int SIZE = 1 << 12;
+    private static final int INDEX_BITS = Integer.numberOfTrailingZeros(SIZE);
+
+    /**
+     * Default bonus for the bishop pair, see {@link #setBishopPairBonus(int)}.
+     */
+    public static final int BISHOP_PAIR_BONUS = 150;
+    private static int bishopPairBonus = BISHOP_PAIR_BONUS;
+
+    private static final MaterialEntry[] entries = new MaterialEntry[SIZE];
+
+    private static long probes = 0;
+    private static long hits = 0;
+
+    /**
+     * Looks up the entry for a material signature and computes it if it is not stored.
+     * @param pieceCounts the packed piece counts of a board
+     * @return the entry for the material
+     */
+    public static MaterialEntry probe(long pieceCounts) {
+        probes += 1;
+        // fibonacci hashing spreads the counts of all pieces over the index bits
+        int index = (int) ((pieceCounts * 0x9E3779B97F4A7C15L) >>> (64 - INDEX_BITS));
+        MaterialEntry entry = entries[index];
+        if (entry != null && entry.getPieceCounts() == pieceCounts) {
+            hits += 1;
+            return entry;
+        }
+        entry = computeEntry(pieceCounts);
+        entries[index] = entry;
+        return entry;
+    }
+
+    /**
+     * Computes the entry for a material signature without consulting the table.
+     * @param pieceCounts the packed piece counts of a board
+     * @return the entry for the material
+     */
+    public static MaterialEntry computeEntry(long pieceCounts) {
+        int gamePhase = 0;
+        for (byte piece = LOWER_LIMIT; piece <= UPPER_LIMIT; piece++) {
+            if (piece != EXCLUSIVE_THRESHOLD) {
+                gamePhase += getPieceCount(pieceCounts, piece) * PieceSquareTable.getPhaseWeight(piece);
+            }
+        }
+        gamePhase = Math.min(gamePhase, PieceSquareTable.MAX_GAME_PHASE);
+
+        int imbalance = 0;
+        if (getPieceCount(pieceCounts, WHITE_BISHOP) >= 2) {
+            imbalance += bishopPairBonus;
+        }
+        if (getPieceCount(pieceCounts, BLACK_BISHOP) >= 2) {
+            imbalance -= bishopPairBonus;
+        }
+
+        boolean whiteBare = isBareKing(pieceCounts, true);
+        boolean blackBare = isBareKing(pieceCounts, false);
+        boolean draw = (whiteBare && cannotMateAlone(pieceCounts, false))
+            || (blackBare && cannotMateAlone(pieceCounts, true));
+
+        SpecialisedEndgame specialisedEndgame = null;
+        boolean whiteIsStronger = blackBare;
+        if (whiteBare != blackBare) {
+            specialisedEndgame = getSpecialisedEndgame(pieceCounts, blackBare);
+        }
+
+        boolean onlyBishopsAndPawns = getPieceCount(pieceCounts, WHITE_BISHOP) == 1
+            && getPieceCount(pieceCounts, BLACK_BISHOP) == 1
+            && countPieces(pieceCounts, true) == 1 && countPieces(pieceCounts, false) == 1;
+
+        return new MaterialEntry(pieceCounts, gamePhase, imbalance, draw, onlyBishopsAndPawns,
+            specialisedEndgame, whiteIsStronger);
+    }
+
+    /**
+     * @return whether the side has no pieces except its king
+     */
+    private static boolean isBareKing(long pieceCounts, boolean white) {
+        return countPieces(pieceCounts, white) == 0 && getPieceCount(pieceCounts, white ? WHITE_PAWN : BLACK_PAWN) == 0;
+    }
+
+    /**
+     * @return the number of knights, bishops, rooks and queens of the side
+     */
+    private static int countPieces(long pieceCounts, boolean white) {
+        byte offset = white ? 0 : PIECE_OFFSET;
+        return getPieceCount(pieceCounts, (byte) (WHITE_KNIGHT + offset))
+            + getPieceCount(pieceCounts, (byte) (WHITE_BISHOP + offset))
+            + getPieceCount(pieceCounts, (byte) (WHITE_ROOK + offset))
+            + getPieceCount(pieceCounts, (byte) (WHITE_QUEEN + offset));
+    }
+
+    /**
+     * Whether the side cannot force mate against a bare king: KK, KNK, KBK and KNNK.
+     */
+    private static boolean cannotMateAlone(long pieceCounts, boolean white) {
+        byte offset = white ? 0 : PIECE_OFFSET;
+        int pawns = getPieceCount(pieceCounts, (byte) (WHITE_PAWN + offset));
+        int knights = getPieceCount(pieceCounts, (byte) (WHITE_KNIGHT + offset));
+        int bishops = getPieceCount(pieceCounts, (byte) (WHITE_BISHOP + offset));
+        int pieces = countPieces(pieceCounts, white);
+        if (pawns != 0 || pieces != knights + bishops) {
+            return false;
+        }
+        return pieces <= 1 || (knights == 2 && bishops == 0);
+    }
+
+    /**
+     * @return the known endgame of the stronger side against a bare king or null if there is none
+     */
+    private static SpecialisedEndgame getSpecialisedEndgame(long pieceCounts, boolean whiteIsStronger) {
+        byte offset = whiteIsStronger ? 0 : PIECE_OFFSET;
+        if (countPieces(pieceCounts, whiteIsStronger) != 1
+            || getPieceCount(pieceCounts, (byte) (WHITE_PAWN + offset)) != 0) {
+            return null;
+        }
+        if (getPieceCount(pieceCounts, (byte) (WHITE_ROOK + offset)) == 1) {
+            return SpecialisedEndgame.KRK;
+        }
+        if (getPieceCount(pieceCounts, (byte) (WHITE_QUEEN + offset)) == 1) {
+            return SpecialisedEndgame.KQK;
+        }
+        return null;
+    }
+
+    public static int getBishopPairBonus() {
+        return bishopPairBonus;
+    }
+
+    /**
+     * Replaces the bonus for the bishop pair and discards all stored entries, since their imbalance is outdated.
+     * @param bonus the new bonus
+     */
+    public static void setBishopPairBonus(int bonus) {
+        bishopPairBonus = bonus;
+        Arrays.fill(entries, null);
+    }
+
+    public static void resetCounters() {
+        probes = 0;
+        hits = 0;
+    }
+
+    public static long getProbes() {
+        return probes;
+    }
+
+    public static long getHits() {
+        return hits;
+    }
+}
@@ -0,0 +1,79 @@
+package positionevaluator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import model.Position;
+
+/**
+ * Evaluates positions with a {@link NeuralNetwork} instead of {@link PositionEvaluator}.
+ * <p>
+ * The network is loaded once, e.g. by the UCI option EvalFile, and used for static evaluations
+ * while this evaluator is enabled (UCI option Evaluator).
+ * Leaf values of mated and stalemated positions are still computed by {@link PositionEvaluator#evaluateLeafPosition(Position, int)}.
+ * <p>
+ * The network and the switch are only meant to be changed between searches.
+ */
+public abstract class NeuralEvaluator {
+
+    private static volatile NeuralNetwork network;
+    private static volatile boolean enabled = false;
+
+    /**
+     * Loads the network used by this evaluator. If loading fails, the previous network is kept.
+     * @param path the weight file
+     * @throws IOException if the file cannot be read or is no valid weight file
+     */
+    public static void loadNetwork(Path path) throws IOException {
+        setNetwork(NeuralNetwork.load(path));
+    }
+
+    /**
+     * @param network the network used by this evaluator, null disables this evaluator
+     */
+    public static void setNetwork(NeuralNetwork network) {
+        NeuralEvaluator.network = network;
+        if (network == null) {
+            enabled = false;
+        }
+    }
+
+    /**
+     * @return the network used by this evaluator or null if none was loaded
+     */
+    public static NeuralNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * @param enabled whether static evaluations should use the network
+     * @throws IllegalStateException if this evaluator should be enabled but no network was loaded
+     */
+    public static void setEnabled(boolean enabled) {
+        if (enabled && network == null) {
+            throw new IllegalStateException("no network was loaded");
+        }
+        NeuralEvaluator.enabled = enabled;
+    }
+
+    /**
+     * @return whether static evaluations use the network
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Evaluates the position statically from white's point of view.
+     * Trivially drawn material is evaluated as 0, like by {@link PositionEvaluator}.
+     * @param position the position to evaluate
+     * @param accumulator the accumulator of the position's board computed with the loaded network
+     * @return the static evaluation of the position
+     */
+    public static int evaluatePosition(Position position, Accumulator accumulator) {
+        if (MaterialTable.probe(position.getBoard().getPieceCounts()).isDraw()) {
+            return 0;
+        }
+        return accumulator.getNetwork().evaluate(accumulator, position.getWhiteNextMove());
+    }
+}
@@ -0,0 +1,208 @@
+package positionevaluator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static model.PieceEncoding.*;
+
+/**
+ * Weights of an efficiently updatable neural network evaluating positions from the side to move's point of view.
+ * <p>
+ * The network has {@value #INPUT_SIZE} binary inputs, one for each combination of colour, piece type and square,
+ * which are transformed to two hidden layers of {@link #getHiddenSize()} neurons: one from white's
+ * and one from black's perspective. The black perspective sees the board with colours swapped and ranks mirrored,
+ * so both perspectives share the same weights. These hidden layers are maintained by {@link Accumulator Accumulators}.
+ * The output neuron reads the clipped hidden layer of the side to move first, followed by the one of the other side.
+ * <p>
+ * All weights are quantised to int16. Hidden neurons are clipped to [0, {@value #QA}],
+ * output weights are scaled by {@value #QB} and the output bias by {@value #QA} * {@value #QB}.
+ * <p>
+ * Weight files are little endian and contain, in this order:
+ * <ul>
+ *      <li>int {@value #MAGIC} and int {@value #VERSION}</li>
+ *      <li>int hidden size H</li>
+ *      <li>short[{@value #INPUT_SIZE} * H] feature weights, the H weights of each input are stored consecutively</li>
+ *      <li>short[H] feature biases</li>
+ *      <li>short[2 * H] output weights</li>
+ *      <li>int output bias</li>
+ * </ul>
+ * The input of a piece on a square from white's perspective is (colour * 6 + type) * 64 + rank * 8 + file,
+ * where colour is 0 for white and 1 for black, type is the piece's index in the order bishop, king, knight,
+ * pawn, queen, rook (like {@link model.PieceEncoding}) and rank 0 is the 8th rank.
+ */
+public class NeuralNetwork {
+
+    public static final int MAGIC = 0x4E4E4D53; // "SMNN" in little endian
+    public static final int VERSION = 1;
+    public static final int INPUT_SIZE = 2 * 6 * 64;
+
+    public static final int QA = 255;
+    public static final int QB = 64;
+    /**
+     * Converts the output of the network to centipawns.
+     */
+    public static final int OUTPUT_SCALE = 400;
+
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+
+    private final int hiddenSize;
+    private final short[] featureWeights;
+    private final short[] featureBiases;
+    private final short[] outputWeights;
+    private final int outputBias;
+
+    /**
+     * Creates a network from its weights, the arrays are not copied.
+     * @param hiddenSize the number of neurons of each perspective's hidden layer
+     * @param featureWeights the weights of the inputs, see the class description for their layout
+     * @param featureBiases the biases of the hidden neurons
+     * @param outputWeights the weights of the hidden neurons of the side to move followed by those of the other side
+     * @param outputBias the bias of the output neuron
+     * @throws IllegalArgumentException if the arrays do not match the hidden size
+     */
+    public NeuralNetwork(int hiddenSize, short[] featureWeights, short[] featureBiases, short[] outputWeights,
+            int outputBias) {
+        if (hiddenSize <= 0 || featureWeights.length != INPUT_SIZE * hiddenSize
+                || featureBiases.length != hiddenSize || outputWeights.length != 2 * hiddenSize) {
+            throw new IllegalArgumentException("weights do not match hidden size " + hiddenSize);
+        }
+        this.hiddenSize = hiddenSize;
+        this.featureWeights = featureWeights;
+        this.featureBiases = featureBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * Loads a network from a weight file by mapping it into memory.
+     * @param path the weight file
+     * @return the network stored in the file
+     * @throws IOException if the file cannot be read or is no valid weight file
+     */
+    public static NeuralNetwork load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("weight file is too short: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("not a weight file of version " + VERSION + ": " + path);
+            }
+            int hiddenSize = buffer.getInt();
+            if (hiddenSize <= 0 || channel.size() != getFileSize(hiddenSize)) {
+                throw new IOException("size of weight file does not match hidden size " + hiddenSize + ": " + path);
+            }
+            short[] featureWeights = new short[INPUT_SIZE * hiddenSize];
+            short[] featureBiases = new short[hiddenSize];
+            short[] outputWeights = new short[2 * hiddenSize];
+            buffer.asShortBuffer().get(featureWeights).get(featureBiases).get(outputWeights);
+            buffer.position(buffer.position() + (featureWeights.length + featureBiases.length + outputWeights.length) * Short.BYTES);
+            int outputBias = buffer.getInt();
+            return new NeuralNetwork(hiddenSize, featureWeights, featureBiases, outputWeights, outputBias);
+        }
+    }
+
+    /**
+     * Writes this network to a weight file that can be read by {@link #load(Path)}.
+     * @param path the file to write, an existing file is overwritten
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) getFileSize(hiddenSize)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(hiddenSize);
+        buffer.asShortBuffer().put(featureWeights).put(featureBiases).put(outputWeights);
+        buffer.position(buffer.position() + (featureWeights.length + featureBiases.length + outputWeights.length) * Short.BYTES);
+        buffer.putInt(outputBias);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private static long getFileSize(int hiddenSize) {
+        return HEADER_BYTES + (long) (INPUT_SIZE + 1 + 2) * hiddenSize * Short.BYTES + Integer.BYTES;
+    }
+
+    /**
+     * Creates a network with random weights that are small enough for the accumulators not to overflow.
+     * Intended for tests and benchmarks, it does not play well.
+     * @param hiddenSize the number of neurons of each perspective's hidden layer
+     * @param seed the seed of the random weights
+     * @return a network with random weights
+     */
+    public static NeuralNetwork createRandom(int hiddenSize, long seed) {
+        Random random = new Random(seed);
+        short[] featureWeights = new short[INPUT_SIZE * hiddenSize];
+        short[] featureBiases = new short[hiddenSize];
+        short[] outputWeights = new short[2 * hiddenSize];
+        for (int i = 0; i < featureWeights.length; i++) {
+            featureWeights[i] = (short) (random.nextInt(129) - 64);
+        }
+        for (int i = 0; i < featureBiases.length; i++) {
+            featureBiases[i] = (short) random.nextInt(QA + 1);
+        }
+        for (int i = 0; i < outputWeights.length; i++) {
+            outputWeights[i] = (short) (random.nextInt(2 * QB + 1) - QB);
+        }
+        return new NeuralNetwork(hiddenSize, featureWeights, featureBiases, outputWeights, random.nextInt(QA * QB));
+    }
+
+    /**
+     * Computes the output of the network.
+     * @param accumulator the hidden layers of the position
+     * @param whiteNextMove whether white is to move
+     * @return the evaluation of the position from white's point of view
+     */
+    public int evaluate(Accumulator accumulator, boolean whiteNextMove) {
+        short[] own = accumulator.getHiddenLayer(whiteNextMove);
+        short[] other = accumulator.getHiddenLayer(!whiteNextMove);
+        long sum = outputBias;
+        for (int i = 0; i < hiddenSize; i++) {
+            sum += clip(own[i]) * outputWeights[i] + clip(other[i]) * outputWeights[hiddenSize + i];
+        }
+        int result = (int) (sum * OUTPUT_SCALE / (QA * QB));
+        return whiteNextMove ? result : -result;
+    }
+
+    private static int clip(short value) {
+        return Math.max(0, Math.min(QA, value));
+    }
+
+    /**
+     * Computes the index of the input that is active if the piece stands on the square.
+     * @param piece the piece, see {@link model.PieceEncoding}
+     * @param square the square, rank * 8 + file
+     * @param whitePerspective whether the index is needed for white's or black's perspective
+     * @return the index of the input
+     */
+    static int getInputIndex(byte piece, int square, boolean whitePerspective) {
+        boolean white = piece < EXCLUSIVE_THRESHOLD;
+        int type = (white ? piece : piece - PIECE_OFFSET) - LOWER_LIMIT;
+        if (whitePerspective) {
+            return ((white ? 0 : 1) * 6 + type) * 64 + square;
+        }
+        return ((white ? 1 : 0) * 6 + type) * 64 + (square ^ 56);
+    }
+
+    public int getHiddenSize() {
+        return hiddenSize;
+    }
+
+    short[] getFeatureWeights() {
+        return featureWeights;
+    }
+
+    short[] getFeatureBiases() {
+        return featureBiases;
+    }
+}
@@ -0,0 +1,265 @@
+package positionevaluator;
+
+import java.util.Arrays;
+
+import model.Board;
+
+import static model.PieceEncoding.*;
+
+/**
+ * Evaluates the pawn structure of a board: doubled, isolated, backward, passed and connected pawns.
+ * <p>
+ * These terms only depend on the pawns, so results are cached in a pawn hash table
+ * keyed by {@link Board#getPawnKey()}. Since pawn structures change rarely along a search path
+ * most lookups are hits.
+ * <p>
+ * Scores are computed separately for the midgame and the endgame and returned packed into one int,
+ * see {@link #pack(int, int)}, {@link #getMidgameScore(int)} and {@link #getEndgameScore(int)}.
+ * Positive scores favor white.
+ */
+public abstract class PawnStructureEvaluator {
+
+    /**
+     * Default number of entries of the pawn hash table, 2^14 entries need 256 KiB.
+     */
+    public static final int PAWN_HASH_SIZE = 1 << 14;
+
+    /*
+     * Default weights of the terms, the weights in use can be replaced by tuned ones (see setWeights).
+     */
+    public static final int DOUBLED_MIDGAME = -10;
+    public static final int DOUBLED_ENDGAME = -20;
+    public static final int ISOLATED_MIDGAME = -10;
+    public static final int ISOLATED_ENDGAME = -15;
+    public static final int BACKWARD_MIDGAME = -8;
+    public static final int BACKWARD_ENDGAME = -10;
+    public static final int CONNECTED_MIDGAME = 8;
+    public static final int CONNECTED_ENDGAME = 6;
+
+    /*
+     * Indices of the terms counted by countTerms.
+     */
+    public static final int DOUBLED = 0;
+    public static final int ISOLATED = 1;
+    public static final int BACKWARD = 2;
+    public static final int CONNECTED = 3;
+    /**
+     * Index of the first of 8 passed pawn terms, indexed by the number of ranks the pawn has advanced
+     * from its starting rank.
+     */
+    public static final int PASSED = 4;
+    public static final int TERM_COUNT = PASSED + 8;
+
+    private static final int[] midgameWeights = {DOUBLED_MIDGAME, ISOLATED_MIDGAME, BACKWARD_MIDGAME, CONNECTED_MIDGAME,
+        0, 5, 10, 15, 25, 40, 60, 0};
+    private static final int[] endgameWeights = {DOUBLED_ENDGAME, ISOLATED_ENDGAME, BACKWARD_ENDGAME, CONNECTED_ENDGAME,
+        0, 10, 20, 35, 60, 90, 130, 0};
+
+    private static final long[] fileMasks = new long[8];
+    private static final long[] adjacentFileMasks = new long[8];
+    /**
+     * Squares on lower (index 0) and higher (index 1) ranks than the indexed rank.
+     */
+    private static final long[][] rankRangeMasks = new long[2][8];
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            for (int rank = 0; rank < 8; rank++) {
+                fileMasks[file] |= 1L << (rank * 8 + file);
+            }
+        }
+        for (int file = 0; file < 8; file++) {
+            if (file > 0) {
+                adjacentFileMasks[file] |= fileMasks[file - 1];
+            }
+            if (file < 7) {
+                adjacentFileMasks[file] |= fileMasks[file + 1];
+            }
+        }
+        for (int rank = 0; rank < 8; rank++) {
+            for (int square = 0; square < 64; square++) {
+                if (square / 8 < rank) {
+                    rankRangeMasks[0][rank] |= 1L << square;
+                } else if (square / 8 > rank) {
+                    rankRangeMasks[1][rank] |= 1L << square;
+                }
+            }
+        }
+    }
+
+    private static final EvaluationCache pawnHashTable = new EvaluationCache(PAWN_HASH_SIZE);
+
+    /**
+     * Looks up the pawn structure score of a board in the pawn hash table and computes it on a miss.
+     * @param board the board whose pawns should be evaluated
+     * @return the packed midgame and endgame score of the pawn structure
+     */
+    public static int evaluate(Board board) {
+        long key = board.getPawnKey();
+        int score = pawnHashTable.probe(key);
+        if (score == EvaluationCache.MISS) {
+            score = computeScore(board);
+            pawnHashTable.store(key, score);
+        }
+        return score;
+    }
+
+    /**
+     * Computes the pawn structure score of a board without consulting the pawn hash table.
+     * @param board the board whose pawns should be evaluated
+     * @return the packed midgame and endgame score of the pawn structure
+     */
+    public static int computeScore(Board board) {
+        int[] counts = new int[TERM_COUNT];
+        countTerms(board, counts);
+        int midgame = 0;
+        int endgame = 0;
+        for (int term = 0; term < TERM_COUNT; term++) {
+            midgame += counts[term] * midgameWeights[term];
+            endgame += counts[term] * endgameWeights[term];
+        }
+        return pack(midgame, endgame);
+    }
+
+    /**
+     * Counts how often each term of the pawn structure occurs on a board.
+     * The score of the pawn structure is the sum of these counts multiplied by the weights of the terms.
+     * @param board the board whose pawns should be evaluated
+     * @param counts array of at least {@link #TERM_COUNT} entries that receives the number of white minus the number
+     * of black occurrences of each term, indexed by {@link #DOUBLED}, {@link #ISOLATED}, ...
+     */
+    public static void countTerms(Board board, int[] counts) {
+        long whitePawns = 0;
+        long blackPawns = 0;
+        for (int rank = 0; rank < 8; rank++) {
+            for (int file = 0; file < 8; file++) {
+                byte piece = board.getByteAt(rank, file);
+                if (piece == WHITE_PAWN) {
+                    whitePawns |= 1L << (rank * 8 + file);
+                } else if (piece == BLACK_PAWN) {
+                    blackPawns |= 1L << (rank * 8 + file);
+                }
+            }
+        }
+        Arrays.fill(counts, 0, TERM_COUNT, 0);
+        countSide(whitePawns, blackPawns, true, counts, 1);
+        countSide(blackPawns, whitePawns, false, counts, -1);
+    }
+
+    /**
+     * Counts the terms of the pawns of one side.
+     * @param ownPawns bitboard of the pawns to evaluate, bit rank * 8 + file is set for each pawn
+     * @param enemyPawns bitboard of the opponent's pawns
+     * @param white whether the evaluated pawns are white (white pawns advance towards rank 0)
+     * @param counts the counts to add the occurrences to
+     * @param sign 1 to add the occurrences, -1 to subtract them
+     */
+    private static void countSide(long ownPawns, long enemyPawns, boolean white, int[] counts, int sign) {
+        int forward = white ? -1 : 1;
+        // index into rankRangeMasks selecting the squares in front of a pawn
+        int ahead = white ? 0 : 1;
+
+        for (int file = 0; file < 8; file++) {
+            int pawnsOnFile = Long.bitCount(ownPawns & fileMasks[file]);
+            if (pawnsOnFile > 1) {
+                counts[DOUBLED] += sign * (pawnsOnFile - 1);
+            }
+        }
+
+        long remaining = ownPawns;
+        while (remaining != 0) {
+            int square = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            int rank = square / 8;
+            int file = square % 8;
+            long neighbours = ownPawns & adjacentFileMasks[file];
+
+            long inFront = rankRangeMasks[ahead][rank];
+            if ((enemyPawns & (fileMasks[file] | adjacentFileMasks[file]) & inFront) == 0) {
+                int advanced = white ? 6 - rank : rank - 1;
+                counts[PASSED + advanced] += sign;
+            }
+
+            if (neighbours == 0) {
+                counts[ISOLATED] += sign;
+                continue;
+            }
+
+            // side by side or defended by a pawn on an adjacent file
+            long supporting = rankMask(rank) | rankMask(rank - forward);
+            if ((neighbours & supporting) != 0) {
+                counts[CONNECTED] += sign;
+                continue;
+            }
+
+            // all neighbours are in front, so the pawn cannot be defended by advancing them,
+            // and advancing the pawn itself loses it to an enemy pawn
+            if ((neighbours & ~inFront) == 0 && isAttackedByPawn(rank + forward, file, enemyPawns, forward)) {
+                counts[BACKWARD] += sign;
+            }
+        }
+    }
+
+    /**
+     * @param rank the rank of the square
+     * @param file the file of the square
+     * @param enemyPawns bitboard of the pawns that might attack the square
+     * @param forward the direction of the side being attacked, the enemy pawns move in the opposite direction
+     * @return whether one of the enemy pawns attacks the square
+     */
+    private static boolean isAttackedByPawn(int rank, int file, long enemyPawns, int forward) {
+        return (enemyPawns & adjacentFileMasks[file] & rankMask(rank + forward)) != 0;
+    }
+
+    /**
+     * @return a bitboard of all squares of the rank, empty if the rank is not on the board
+     */
+    private static long rankMask(int rank) {
+        if (rank < 0 || rank > 7) {
+            return 0;
+        }
+        return 0xFFL << (rank * 8);
+    }
+
+    /**
+     * Packs a midgame and an endgame score into one int.
+     * The endgame score is stored in the lower 16 bits, the midgame score in the upper 16 bits.
+     * Both scores must lie between {@link Short#MIN_VALUE} and {@link Short#MAX_VALUE}.
+     */
+    public static int pack(int midgameScore, int endgameScore) {
+        return (midgameScore << 16) + endgameScore;
+    }
+
+    public static int getMidgameScore(int packedScore) {
+        return (packedScore + 0x8000) >> 16;
+    }
+
+    public static int getEndgameScore(int packedScore) {
+        return (short) packedScore;
+    }
+
+    /**
+     * @param endgame whether the endgame weights should be returned
+     * @return a copy of the weights of the terms, indexed like the counts of {@link #countTerms(Board, int[])}
+     */
+    public static int[] getWeights(boolean endgame) {
+        return (endgame ? endgameWeights : midgameWeights).clone();
+    }
+
+    /**
+     * Replaces the weights of the terms and clears the pawn hash table, whose scores are outdated.
+     * @param endgame whether the endgame weights should be replaced
+     * @param weights the weights of the terms, indexed like the counts of {@link #countTerms(Board, int[])}
+     */
+    public static void setWeights(boolean endgame, int[] weights) {
+        System.arraycopy(weights, 0, endgame ? endgameWeights : midgameWeights, 0, TERM_COUNT);
+        pawnHashTable.clear();
+    }
+
+    /**
+     * @return the pawn hash table used by {@link #evaluate(Board)}
+     */
+    public static EvaluationCache getPawnHashTable() {
+        return pawnHashTable;
+    }
+}
@@ -14,7 +14,34 @@ public class PieceSquareTable {
         -20,-10,-10,-10,-10,-10,-10,-20  // 1
       // a   b   c   d   e   f   g   h
     };
-    private static int[] kingTable = new int[64];
+    /**
+     * Midgame king table: the king should stay behind its pawns, preferably castled.
+     */
+    private static int[] kingTable = {
+        -30,-40,-40,-50,-50,-40,-40,-30, // 8
+        -30,-40,-40,-50,-50,-40,-40,-30, // 7
+        -30,-40,-40,-50,-50,-40,-40,-30, // 6
+        -30,-40,-40,-50,-50,-40,-40,-30, // 5
+        -20,-30,-30,-40,-40,-30,-30,-20, // 4
+        -10,-20,-20,-20,-20,-20,-20,-10, // 3
+         20, 20,  0,  0,  0,  0, 20, 20, // 2
+         20, 30, 10,  0,  0, 10, 30, 20  // 1
+      // a   b   c   d   e   f   g   h
+    };
+    /**
+     * Endgame king table: the king should be active and centralized.
+     */
+    private static int[] kingEndgameTable = {
+        -50,-40,-30,-20,-20,-30,-40,-50, // 8
+        -30,-20,-10,  0,  0,-10,-20,-30, // 7
+        -30,-10, 20, 30, 30, 20,-10,-30, // 6
+        -30,-10, 30, 40, 40, 30,-10,-30, // 5
+        -30,-10, 30, 40, 40, 30,-10,-30, // 4
+        -30,-10, 20, 30, 30, 20,-10,-30, // 3
+        -30,-30,  0,  0,  0,  0,-30,-30, // 2
+        -50,-30,-30,-30,-30,-30,-30,-50  // 1
+      // a   b   c   d   e   f   g   h
+    };
     private static int[] knightTable = {
         -50,-40,-30,-30,-30,-30,-40,-50, // 8
         -40,-20,  0,  0,  0,  0,-20,-40, // 7
@@ -37,6 +64,20 @@ public class PieceSquareTable {
         0,  0,  0,  0,  0,  0,  0,  0   // 1
       // a   b   c   d   e   f   g   h
     };
+    /**
+     * Endgame pawn table: advanced pawns are close to promotion.
+     */
+    private static int[] pawnEndgameTable = {
+         0,  0,  0,  0,  0,  0,  0,  0, // 8
+        80, 80, 80, 80, 80, 80, 80, 80, // 7
+        50, 50, 50, 50, 50, 50, 50, 50, // 6
+        30, 30, 30, 30, 30, 30, 30, 30, // 5
+        20, 20, 20, 20, 20, 20, 20, 20, // 4
+        10, 10, 10, 10, 10, 10, 10, 10, // 3
+         0,  0,  0,  0,  0,  0,  0,  0, // 2
+         0,  0,  0,  0,  0,  0,  0,  0  // 1
+      // a   b   c   d   e   f   g   h
+    };
     private static int[] queenTable = {
         -20,-10,-10, -5, -5,-10,-10,-20, // 8
         -10,  0,  0,  0,  0,  0,  0,-10, // 7
@@ -61,20 +102,157 @@ public class PieceSquareTable {
 
     };
 
-    public static int evaluatePiecePosition(int rank, int file, byte piece){
+    /**
+     * The game phase of a position with all pieces except pawns and kings on the board.
+     * The phase of a position is the sum of the phase weights of its pieces.
+     */
+    public static final int MAX_GAME_PHASE = 24;
+
+    private static final int KNIGHT_PHASE = 1;
+    private static final int BISHOP_PHASE = 1;
+    private static final int ROOK_PHASE = 2;
+    private static final int QUEEN_PHASE = 4;
+
+    /**
+     * Material plus piece square value of every piece on every square from white's point of view,
+     * indexed by [piece][rank*8+file]. Empty squares are worth 0.
+     */
+    private static final int[][] midgameValues = computePieceSquareValues(false);
+    private static final int[][] endgameValues = computePieceSquareValues(true);
+    private static final int[] phaseWeights = computePhaseWeights();
+    /**
+     * The values of {@link #midgameValues} and {@link #endgameValues} in one array each,
+     * indexed by [piece*64+rank*8+file], for gathering by {@link EvaluationKernel EvaluationKernels}.
+     */
+    private static final int[] flatMidgameValues = flatten(midgameValues);
+    private static final int[] flatEndgameValues = flatten(endgameValues);
+
+    private static int[] flatten(int[][] values) {
+        int[] result = new int[values.length * 64];
+        for (int piece = 0; piece < values.length; piece++) {
+            System.arraycopy(values[piece], 0, result, piece * 64, 64);
+        }
+        return result;
+    }
+
+    private static int[][] computePieceSquareValues(boolean endgame) {
+        int[][] values = new int[UPPER_LIMIT + 1][64];
+        for (byte piece = LOWER_LIMIT; piece <= UPPER_LIMIT; piece++) {
+            if (piece == EXCLUSIVE_THRESHOLD) {
+                continue;
+            }
+            int sign = isBytePieceWhite(piece) ? 1 : -1;
+            for (int rank = 0; rank < 8; rank++) {
+                for (int file = 0; file < 8; file++) {
+                    values[piece][rank * 8 + file] = sign * (getBytePieceType(piece).getPointValue()
+                        + evaluatePiecePosition(rank, file, piece, endgame));
+                }
+            }
+        }
+        return values;
+    }
+
+    private static int[] computePhaseWeights() {
+        int[] weights = new int[UPPER_LIMIT + 1];
+        weights[WHITE_KNIGHT] = weights[BLACK_KNIGHT] = KNIGHT_PHASE;
+        weights[WHITE_BISHOP] = weights[BLACK_BISHOP] = BISHOP_PHASE;
+        weights[WHITE_ROOK]   = weights[BLACK_ROOK]   = ROOK_PHASE;
+        weights[WHITE_QUEEN]  = weights[BLACK_QUEEN]  = QUEEN_PHASE;
+        return weights;
+    }
+
+    /**
+     * Returns the midgame material and piece square value of a piece on the specified square.
+     * The value is positive for white and negative for black pieces.
+     * @param piece the piece, may be {@link model.PieceEncoding#EMPTY_SQUARE}
+     * @param rank the rank of the square
+     * @param file the file of the square
+     * @return the value of the piece on the square from white's point of view
+     */
+    public static int getMidgameValue(byte piece, int rank, int file) {
+        return midgameValues[piece][rank * 8 + file];
+    }
+
+    /**
+     * Returns the material and piece square values of a white piece on all squares.
+     * @param whitePiece the white piece
+     * @param endgame whether the endgame values should be returned
+     * @return a copy of the values, indexed by rank*8+file
+     */
+    public static int[] getValues(byte whitePiece, boolean endgame) {
+        return (endgame ? endgameValues : midgameValues)[whitePiece].clone();
+    }
+
+    /**
+     * Replaces the material and piece square values of a white piece and the corresponding black piece,
+     * e.g. by tuned values (see {@link EvaluationParameters}).
+     * The black piece's values are mirrored and negated.
+     * <p>
+     * Boards maintain their scores incrementally, so only boards created afterwards use the new values.
+     * @param whitePiece the white piece
+     * @param endgame whether the endgame values should be replaced
+     * @param values the values of the white piece from white's point of view, indexed by rank*8+file
+     */
+    public static void setValues(byte whitePiece, boolean endgame, int[] values) {
+        int[][] pieceValues = endgame ? endgameValues : midgameValues;
+        int[] flatValues = endgame ? flatEndgameValues : flatMidgameValues;
+        byte blackPiece = (byte) (whitePiece + PIECE_OFFSET);
+        for (int square = 0; square < 64; square++) {
+            pieceValues[whitePiece][square] = values[square];
+            pieceValues[blackPiece][square] = -values[square ^ 56];
+        }
+        System.arraycopy(pieceValues[whitePiece], 0, flatValues, whitePiece * 64, 64);
+        System.arraycopy(pieceValues[blackPiece], 0, flatValues, blackPiece * 64, 64);
+    }
+
+    /**
+     * Returns the material and piece square values of all pieces on all squares, indexed by [piece*64+rank*8+file].
+     * The returned array is shared and must not be modified.
+     * @param endgame whether the endgame values should be returned
+     * @return the values of all pieces on all squares from white's point of view
+     */
+    static int[] getFlatValues(boolean endgame) {
+        return endgame ? flatEndgameValues : flatMidgameValues;
+    }
+
+    /**
+     * Like {@link #getMidgameValue(byte, int, int)} but using the endgame tables.
+     */
+    public static int getEndgameValue(byte piece, int rank, int file) {
+        return endgameValues[piece][rank * 8 + file];
+    }
+
+    /**
+     * @param piece the piece, may be {@link model.PieceEncoding#EMPTY_SQUARE}
+     * @return how much the piece contributes to the game phase
+     */
+    public static int getPhaseWeight(byte piece) {
+        return phaseWeights[piece];
+    }
+
+    /**
+     * Returns the default piece square value (without material) of a piece on the specified square.
+     * Values set by {@link #setValues(byte, boolean, int[])} are not considered.
+     * @param rank the rank of the square
+     * @param file the file of the square
+     * @param piece the piece
+     * @param endgame whether the endgame table should be used
+     * @return the piece square value of the piece, positive if the square is good for it
+     */
+    public static int evaluatePiecePosition(int rank, int file, byte piece, boolean endgame){
         int[] relevantTable = null;
         switch(getBytePieceType(piece)){
             case BISHOP:
                 relevantTable = bishopTable;
                 break;
             case KING:
-                relevantTable = kingTable;
+                relevantTable = endgame ? kingEndgameTable : kingTable;
                 break;
             case KNIGHT:
                 relevantTable = knightTable;
                 break;
             case PAWN:
-                relevantTable = pawnTable;
+                relevantTable = endgame ? pawnEndgameTable : pawnTable;
                 break;
             case QUEEN:
                 relevantTable =  queenTable;
@@ -1,12 +1,38 @@
 package positionevaluator;
 
+import model.Board;
 import model.Position;
 
 import model.PieceType;
+import movegenerator.AttackMap;
+import utility.PerformanceData;
 import static model.PieceEncoding.*;
 
 public class PositionEvaluator {
 
+    /**
+     * Upper bound for the terms skipped by lazy evaluation (see {@link #evaluatePosition(Position, int, int)}).
+     * The bound is not strict, extreme pawn structures could exceed it.
+     */
+    public static final int LAZY_MARGIN = 400;
+
+    /*
+     * Default weights of the terms read from the attack map,
+     * the weights in use can be replaced by tuned ones (see EvaluationParameters).
+     */
+    public static final int MOBILITY_MIDGAME = 4;
+    public static final int MOBILITY_ENDGAME = 2;
+    /**
+     * Only applied in the midgame, in the endgame the king is supposed to be active.
+     */
+    public static final int KING_ZONE_ATTACK_MIDGAME = 8;
+    public static final int HANGING_PIECE = 30;
+
+    private static int mobilityMidgame = MOBILITY_MIDGAME;
+    private static int mobilityEndgame = MOBILITY_ENDGAME;
+    private static int kingZoneAttackMidgame = KING_ZONE_ATTACK_MIDGAME;
+    private static int hangingPiece = HANGING_PIECE;
+
     public static int evaluateLeafPosition(Position position, int depth) {
         if (position.isDraw()) {
             return 0;
@@ -24,38 +50,220 @@ public class PositionEvaluator {
         }
     }
 
+    /**
+     * Evaluates the position statically from white's point of view.
+     * <p>
+     * Material and piece square values are maintained incrementally by the board
+     * for the midgame and the endgame. Together with the pawn structure score, which is looked up
+     * in the pawn hash table, and mobility, king zone attacks and hanging pieces, which are read from
+     * the attack map the position computed for check detection, they are interpolated according to the game phase.
+     * Game phase, material imbalance and draw scaling are looked up in the {@link MaterialTable}.
+     * Trivially drawn material and known endgames are evaluated without the general terms.
+     * @param position the position to evaluate
+     * @return the static evaluation of the position
+     */
     public static int evaluatePosition(Position position) {
+        return evaluatePosition(position, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Evaluates the position statically from white's point of view, skipping expensive terms
+     * if the result is not needed exactly.
+     * <p>
+     * Cheap terms (material, piece square values and material imbalance) are computed first.
+     * The remaining terms are pawn structure and the terms based on the attack map.
+     * If they are at least {@link #LAZY_MARGIN} below alpha or above beta, the remaining terms
+     * are assumed to be unable to bring the score back into the window and the cheap score is returned.
+     * @param position the position to evaluate
+     * @param alpha minimum score that white player is already guaranteed of
+     * @param beta maximum score that black player is already guaranteed of
+     * @return the static evaluation of the position if it lies between alpha and beta,
+     * otherwise either the static evaluation or an estimate outside the window on the same side
+     */
+    public static int evaluatePosition(Position position, int alpha, int beta) {
+        Board board = position.getBoard();
+        assert board.getMidgameScore() == computePieceSquareScore(board, false)
+            && board.getEndgameScore() == computePieceSquareScore(board, true)
+            && board.getGamePhase() == computeGamePhase(board)
+            : "incremental evaluation differs from full computation for " + position.toStringFen();
+        MaterialEntry material = MaterialTable.probe(board.getPieceCounts());
+        if (material.isDraw()) {
+            return 0;
+        }
+        if (material.hasSpecialisedEvaluation()) {
+            return material.evaluateSpecialised(board);
+        }
+        int gamePhase = material.getGamePhase();
+        int cheapScore = taper(board.getMidgameScore(), board.getEndgameScore(), gamePhase) + material.getImbalance();
+        // scaling might move the score back into the window
+        if (!material.mayScale() && (cheapScore + LAZY_MARGIN <= alpha || cheapScore - LAZY_MARGIN >= beta)) {
+            PerformanceData.lazyEvaluationExits += 1;
+            return cheapScore;
+        }
+        PerformanceData.fullEvaluations += 1;
+
+        int positionalScore = computePositionalScore(position);
+        int midgameScore = board.getMidgameScore() + PawnStructureEvaluator.getMidgameScore(positionalScore);
+        int endgameScore = board.getEndgameScore() + PawnStructureEvaluator.getEndgameScore(positionalScore);
+        int result = taper(midgameScore, endgameScore, gamePhase) + material.getImbalance();
+        return result * material.getScaleFactor(board) / MaterialEntry.SCALE_NORMAL;
+    }
+
+    /**
+     * Evaluates a batch of positions statically, e.g. all children of a node before they are ordered.
+     * <p>
+     * The results equal those of {@link #evaluatePosition(Position)}, but the final interpolation
+     * of all positions is done at once by the {@link EvaluationKernel}.
+     * @param positions the positions to evaluate
+     * @param length the number of positions to evaluate, starting with the first one
+     * @param results array the static evaluations are written to, at the same indices as their positions
+     */
+    public static void evaluatePositions(Position[] positions, int length, int[] results) {
+        int[] midgameScores = new int[length];
+        int[] endgameScores = new int[length];
+        int[] gamePhases = new int[length];
+        int[] imbalances = new int[length];
+        int[] scaleFactors = new int[length];
+        for (int i = 0; i < length; i++) {
+            Board board = positions[i].getBoard();
+            MaterialEntry material = MaterialTable.probe(board.getPieceCounts());
+            scaleFactors[i] = MaterialEntry.SCALE_NORMAL;
+            if (material.isDraw()) {
+                // all terms stay 0
+                continue;
+            }
+            if (material.hasSpecialisedEvaluation()) {
+                // interpolating equal scores yields the score itself
+                midgameScores[i] = endgameScores[i] = material.evaluateSpecialised(board);
+                continue;
+            }
+            PerformanceData.fullEvaluations += 1;
+            int positionalScore = computePositionalScore(positions[i]);
+            midgameScores[i] = board.getMidgameScore() + PawnStructureEvaluator.getMidgameScore(positionalScore);
+            endgameScores[i] = board.getEndgameScore() + PawnStructureEvaluator.getEndgameScore(positionalScore);
+            gamePhases[i] = material.getGamePhase();
+            imbalances[i] = material.getImbalance();
+            scaleFactors[i] = material.getScaleFactor(board);
+        }
+        EvaluationKernel.getInstance().taper(midgameScores, endgameScores, gamePhases, imbalances, scaleFactors,
+            results, length);
+    }
+
+    /**
+     * Computes the terms that are skipped by lazy evaluation: pawn structure, mobility, king zone attacks and hanging pieces.
+     * @param position the position to evaluate
+     * @return the midgame and endgame score of these terms, packed like the scores of {@link PawnStructureEvaluator}
+     */
+    private static int computePositionalScore(Position position) {
+        int pawnScore = PawnStructureEvaluator.evaluate(position.getBoard());
+        int midgameScore = PawnStructureEvaluator.getMidgameScore(pawnScore);
+        int endgameScore = PawnStructureEvaluator.getEndgameScore(pawnScore);
+
+        AttackMap attackMap = position.getAttackMap();
+        int mobility = attackMap.getMobility(true) - attackMap.getMobility(false);
+        int hanging = attackMap.getHangingPieces(true) - attackMap.getHangingPieces(false);
+        midgameScore += mobility * mobilityMidgame - hanging * hangingPiece
+            + (attackMap.getKingZoneAttacks(true) - attackMap.getKingZoneAttacks(false)) * kingZoneAttackMidgame;
+        endgameScore += mobility * mobilityEndgame - hanging * hangingPiece;
+        return PawnStructureEvaluator.pack(midgameScore, endgameScore);
+    }
+
+    /**
+     * @return the weights of mobility in the midgame and the endgame, king zone attacks and hanging pieces
+     */
+    static int[] getAttackWeights() {
+        return new int[] {mobilityMidgame, mobilityEndgame, kingZoneAttackMidgame, hangingPiece};
+    }
+
+    /**
+     * Replaces the weights of the terms read from the attack map.
+     * @param weights the weights of mobility in the midgame and the endgame, king zone attacks and hanging pieces
+     */
+    static void setAttackWeights(int[] weights) {
+        mobilityMidgame = weights[0];
+        mobilityEndgame = weights[1];
+        kingZoneAttackMidgame = weights[2];
+        hangingPiece = weights[3];
+    }
+
+    /**
+     * Interpolates between a midgame and an endgame score.
+     * @param midgameScore the score in the midgame
+     * @param endgameScore the score in the endgame
+     * @param gamePhase the game phase between 0 (endgame) and {@link PieceSquareTable#MAX_GAME_PHASE} (midgame)
+     * @return the interpolated score
+     */
+    public static int taper(int midgameScore, int endgameScore, int gamePhase) {
+        return (midgameScore * gamePhase + endgameScore * (PieceSquareTable.MAX_GAME_PHASE - gamePhase))
+            / PieceSquareTable.MAX_GAME_PHASE;
+    }
+
+    /**
+     * Computes the material and piece square score of a board from all of its squares.
+     * @param board the board to evaluate
+     * @param endgame whether the endgame tables should be used
+     * @return the material and piece square score as it would be maintained incrementally
+     */
+    public static int computePieceSquareScore(Board board, boolean endgame) {
         int result = 0;
-        int blackBishops = 0;
-        int whiteBishops = 0;
         for (int rank = 0; rank < 8; rank++) {
             for (int file = 0; file < 8; file++) {
-                byte currentPiece = position.getByteAt(rank, file);
+                byte currentPiece = board.getByteAt(rank, file);
                 if (currentPiece == 0) {
                     continue;
                 }
-                int sign = 0;
-                if (isBytePieceWhite(currentPiece)) {
-                    if (getBytePieceType(currentPiece) == PieceType.BISHOP) {
-                        whiteBishops++;
-                    }
-                    sign = 1;
+                if (endgame) {
+                    result += PieceSquareTable.getEndgameValue(currentPiece, rank, file);
                 } else {
-                    if (getBytePieceType(currentPiece) == PieceType.BISHOP) {
-                        blackBishops++;
-                    }
-                    sign = -1;
+                    result += PieceSquareTable.getMidgameValue(currentPiece, rank, file);
                 }
-                result += sign * getBytePieceType(currentPiece).getPointValue();
-                result += sign * PieceSquareTable.evaluatePiecePosition(rank, file, currentPiece);
             }
         }
-        if (whiteBishops >= 2) {
-            result += 150;
+        return result;
+    }
+
+    /**
+     * Sums the material and piece square values of all squares of a board using the {@link EvaluationKernel}.
+     * Produces the same result as {@link #computePieceSquareScore(Board, boolean)}, which serves as reference.
+     * @param board the board to evaluate
+     * @param endgame whether the endgame tables should be used
+     * @return the material and piece square score as it would be maintained incrementally
+     */
+    public static int sumPieceSquareValues(Board board, boolean endgame) {
+        byte[] pieces = new byte[64];
+        for (int square = 0; square < 64; square++) {
+            pieces[square] = board.getByteAt(square / 8, square % 8);
+        }
+        return EvaluationKernel.getInstance().sumPieceSquareValues(pieces, endgame);
+    }
+
+    /**
+     * Computes the game phase of a board from all of its squares.
+     * @param board the board whose game phase should be computed
+     * @return the game phase as it would be maintained incrementally
+     */
+    public static int computeGamePhase(Board board) {
+        int gamePhase = 0;
+        for (int rank = 0; rank < 8; rank++) {
+            for (int file = 0; file < 8; file++) {
+                gamePhase += PieceSquareTable.getPhaseWeight(board.getByteAt(rank, file));
+            }
         }
-        if (blackBishops >= 2) {
-            result -= 150;
+        return gamePhase;
+    }
+
+    /**
+     * Counts the pieces of a board.
+     * @param board the board whose pieces should be counted
+     * @return the packed piece counts as they would be maintained incrementally
+     */
+    public static long computePieceCounts(Board board) {
+        long pieceCounts = 0;
+        for (int rank = 0; rank < 8; rank++) {
+            for (int file = 0; file < 8; file++) {
+                pieceCounts += getPieceCountIncrement(board.getByteAt(rank, file));
+            }
         }
-        return result;
+        return pieceCounts;
     }
 }
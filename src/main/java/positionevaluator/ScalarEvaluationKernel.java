@@ -0,0 +1,26 @@
+package positionevaluator;
+
+/**
+ * {@link EvaluationKernel} processing one value at a time.
+ */
+public class ScalarEvaluationKernel implements EvaluationKernel {
+
+    @Override
+    public int sumPieceSquareValues(byte[] pieces, boolean endgame) {
+        int[] values = PieceSquareTable.getFlatValues(endgame);
+        int result = 0;
+        for (int square = 0; square < 64; square++) {
+            result += values[pieces[square] * 64 + square];
+        }
+        return result;
+    }
+
+    @Override
+    public void taper(int[] midgameScores, int[] endgameScores, int[] gamePhases, int[] imbalances,
+            int[] scaleFactors, int[] results, int length) {
+        for (int i = 0; i < length; i++) {
+            int score = PositionEvaluator.taper(midgameScores[i], endgameScores[i], gamePhases[i]) + imbalances[i];
+            results[i] = score * scaleFactors[i] / MaterialEntry.SCALE_NORMAL;
+        }
+    }
+}
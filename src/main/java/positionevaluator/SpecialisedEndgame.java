@@ -0,0 +1,42 @@
+package positionevaluator;
+
+import model.Board;
+import model.Coordinate;
+
+/**
+ * Known endgames that are evaluated by dedicated functions instead of the general evaluation.
+ * <p>
+ * The general evaluation does not know how to mate a lone king, so these functions reward
+ * pushing the lone king to the edge of the board and bringing the own king close to it.
+ */
+public enum SpecialisedEndgame {
+    /**
+     * King and rook against a lone king.
+     */
+    KRK,
+    /**
+     * King and queen against a lone king.
+     */
+    KQK;
+
+    private static final int EDGE_BONUS = 20;
+    private static final int KING_DISTANCE_BONUS = 10;
+
+    /**
+     * Evaluates a position of this endgame from white's point of view.
+     * @param board the board to evaluate
+     * @param whiteIsStronger whether white is the side with the rook or queen
+     * @return the static evaluation of the board
+     */
+    public int evaluate(Board board, boolean whiteIsStronger) {
+        Coordinate strongKing = board.getKingPosition(whiteIsStronger);
+        Coordinate weakKing = board.getKingPosition(!whiteIsStronger);
+        // 0 in the four central squares, 6 in the corners
+        int edgeDistance = Math.max(3 - weakKing.getRank(), weakKing.getRank() - 4)
+            + Math.max(3 - weakKing.getFile(), weakKing.getFile() - 4);
+        int kingDistance = Math.max(Math.abs(strongKing.getRank() - weakKing.getRank()),
+            Math.abs(strongKing.getFile() - weakKing.getFile()));
+        int bonus = EDGE_BONUS * edgeDistance + KING_DISTANCE_BONUS * (7 - kingDistance);
+        return board.getEndgameScore() + (whiteIsStronger ? bonus : -bonus);
+    }
+}
@@ -0,0 +1,62 @@
+package positionevaluator;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link EvaluationKernel} using the Vector API to process as many values at once as the CPU's vector registers hold.
+ * Remaining values that do not fill a whole vector are processed by scalar code.
+ * <p>
+ * Requires the JVM to be started with --add-modules jdk.incubator.vector,
+ * only instantiate this class through {@link EvaluationKernel#getInstance()}.
+ */
+public class VectorEvaluationKernel implements EvaluationKernel {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private final ScalarEvaluationKernel scalarKernel = new ScalarEvaluationKernel();
+
+    /**
+     * Sums the values with scalar code: the lookups would need gather loads,
+     * which were slower than scalar loads on the tested x86 CPU.
+     */
+    @Override
+    public int sumPieceSquareValues(byte[] pieces, boolean endgame) {
+        return scalarKernel.sumPieceSquareValues(pieces, endgame);
+    }
+
+    @Override
+    public void taper(int[] midgameScores, int[] endgameScores, int[] gamePhases, int[] imbalances,
+            int[] scaleFactors, int[] results, int length) {
+        int i = 0;
+        for (; i < SPECIES.loopBound(length); i += SPECIES.length()) {
+            IntVector phase = IntVector.fromArray(SPECIES, gamePhases, i);
+            IntVector midgame = IntVector.fromArray(SPECIES, midgameScores, i).mul(phase);
+            IntVector endgame = IntVector.fromArray(SPECIES, endgameScores, i)
+                .mul(phase.neg().add(PieceSquareTable.MAX_GAME_PHASE));
+            IntVector score = divide(midgame.add(endgame), PieceSquareTable.MAX_GAME_PHASE)
+                .add(IntVector.fromArray(SPECIES, imbalances, i));
+            divide(score.mul(IntVector.fromArray(SPECIES, scaleFactors, i)), MaterialEntry.SCALE_NORMAL)
+                .intoArray(results, i);
+        }
+        for (; i < length; i++) {
+            int score = PositionEvaluator.taper(midgameScores[i], endgameScores[i], gamePhases[i]) + imbalances[i];
+            results[i] = score * scaleFactors[i] / MaterialEntry.SCALE_NORMAL;
+        }
+    }
+
+    /**
+     * Divides all lanes like the int operator /, rounding towards zero.
+     * <p>
+     * There are no vector instructions for integer division, so the lanes are divided as floats.
+     * This is exact as long as the dividends are smaller than 2^24:
+     * they are converted without loss, and a quotient that is no integer is at least 1 / divisor away from the next one,
+     * which is far more than the rounding error of the float division.
+     */
+    private static IntVector divide(IntVector dividends, int divisor) {
+        FloatVector quotients = ((FloatVector) dividends.convert(VectorOperators.I2F, 0)).div(divisor);
+        return (IntVector) quotients.convert(VectorOperators.F2I, 0);
+    }
+}
@@ -0,0 +1,304 @@
+package tuner;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import movegenerator.MoveGenerator;
+import positionevaluator.EvaluationParameters;
+import positionevaluator.MaterialEntry;
+import positionevaluator.PieceSquareTable;
+import positionevaluator.PositionEvaluator;
+import utility.TimeUtility;
+
+import static positionevaluator.EvaluationParameters.*;
+
+/**
+ * Tunes the {@link EvaluationParameters} by minimising the error between the results of labelled positions
+ * and the evaluations of these positions mapped to an expected result (Texel's tuning method):
+ * <br>
+ * error = mean((result - 1 / (1 + 10^(-k * evaluation / 400)))^2)
+ * <p>
+ * The evaluation of {@link PositionEvaluator} is linear in its parameters once the game phase and scale factor
+ * of a position are known, so it is computed from a {@link TrainingSet} instead of from positions.
+ * The gradient of the error is computed in parallel over chunks of positions and the parameters are updated by Adam.
+ * A pass over the training set allocates no objects.
+ * <p>
+ * Usage: java -cp SchachMotor.jar tuner.TexelTuner [-epochs n] [-rate r] [-params file] [-output file] files...
+ */
+public class TexelTuner {
+
+    private static final double LN_10 = Math.log(10);
+    private static final double BETA_1 = 0.9;
+    private static final double BETA_2 = 0.999;
+    private static final double EPSILON = 1e-8;
+
+    private final TrainingSet trainingSet;
+    private final double[] parameters;
+    private final int chunkCount;
+    /**
+     * Partial gradients computed by each chunk, reused by every epoch.
+     */
+    private final double[][] chunkGradients;
+    private final double[] chunkErrors;
+    private final double[] firstMoments = new double[EvaluationParameters.COUNT];
+    private final double[] secondMoments = new double[EvaluationParameters.COUNT];
+    private int steps = 0;
+
+    /**
+     * @param trainingSet the labelled positions
+     * @param initialParameters the parameters to start from, laid out like {@link EvaluationParameters#get()}
+     */
+    public TexelTuner(TrainingSet trainingSet, int[] initialParameters) {
+        this.trainingSet = trainingSet;
+        this.parameters = new double[EvaluationParameters.COUNT];
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = initialParameters[i];
+        }
+        // more chunks than cores balance the load
+        this.chunkCount = Math.max(1, Math.min(trainingSet.size(), Runtime.getRuntime().availableProcessors() * 4));
+        this.chunkGradients = new double[chunkCount][EvaluationParameters.COUNT];
+        this.chunkErrors = new double[chunkCount];
+    }
+
+    /**
+     * Evaluates a position of the training set with the current parameters like
+     * {@link PositionEvaluator#evaluatePosition(model.Position)}, but without rounding.
+     * @param position the index of the position in the training set
+     * @return the evaluation from white's point of view
+     */
+    public double evaluate(int position) {
+        double scale = trainingSet.getScaleFactor(position) / (double) MaterialEntry.SCALE_NORMAL;
+        double midgameFactor = scale * trainingSet.getGamePhase(position) / PieceSquareTable.MAX_GAME_PHASE;
+        double endgameFactor = scale - midgameFactor;
+
+        double midgame = 0;
+        double endgame = 0;
+        for (int i = trainingSet.getPieceStart(position); i < trainingSet.getPieceStart(position + 1); i++) {
+            int piece = trainingSet.getPiece(i);
+            if (piece >= 0) {
+                midgame += parameters[PIECE_SQUARE_MIDGAME + piece];
+                endgame += parameters[PIECE_SQUARE_ENDGAME + piece];
+            } else {
+                midgame -= parameters[PIECE_SQUARE_MIDGAME - piece - 1];
+                endgame -= parameters[PIECE_SQUARE_ENDGAME - piece - 1];
+            }
+        }
+        for (int term = 0; term < TrainingSet.MOBILITY; term++) {
+            int count = trainingSet.getTerm(position, term);
+            midgame += count * parameters[PAWN_STRUCTURE_MIDGAME + term];
+            endgame += count * parameters[PAWN_STRUCTURE_ENDGAME + term];
+        }
+        int mobility = trainingSet.getTerm(position, TrainingSet.MOBILITY);
+        midgame += mobility * parameters[MOBILITY_MIDGAME]
+            + trainingSet.getTerm(position, TrainingSet.KING_ZONE_ATTACKS) * parameters[KING_ZONE_ATTACK_MIDGAME];
+        endgame += mobility * parameters[MOBILITY_ENDGAME];
+        // hanging pieces are counted in the midgame and the endgame, the bishop pair is not tapered
+        double untapered = -trainingSet.getTerm(position, TrainingSet.HANGING_PIECES) * parameters[HANGING_PIECE]
+            + trainingSet.getTerm(position, TrainingSet.BISHOP_PAIR) * parameters[BISHOP_PAIR];
+        return midgame * midgameFactor + endgame * endgameFactor + untapered * scale;
+    }
+
+    /**
+     * Adds the gradient of the squared error of a position to the gradient of all parameters.
+     * @param position the index of the position in the training set
+     * @param derivative the derivative of the position's squared error by its evaluation
+     */
+    private void addGradient(int position, double derivative, double[] gradient) {
+        double scale = trainingSet.getScaleFactor(position) / (double) MaterialEntry.SCALE_NORMAL;
+        double midgameFactor = derivative * scale * trainingSet.getGamePhase(position) / PieceSquareTable.MAX_GAME_PHASE;
+        double endgameFactor = derivative * scale - midgameFactor;
+
+        for (int i = trainingSet.getPieceStart(position); i < trainingSet.getPieceStart(position + 1); i++) {
+            int piece = trainingSet.getPiece(i);
+            if (piece >= 0) {
+                gradient[PIECE_SQUARE_MIDGAME + piece] += midgameFactor;
+                gradient[PIECE_SQUARE_ENDGAME + piece] += endgameFactor;
+            } else {
+                gradient[PIECE_SQUARE_MIDGAME - piece - 1] -= midgameFactor;
+                gradient[PIECE_SQUARE_ENDGAME - piece - 1] -= endgameFactor;
+            }
+        }
+        for (int term = 0; term < TrainingSet.MOBILITY; term++) {
+            int count = trainingSet.getTerm(position, term);
+            gradient[PAWN_STRUCTURE_MIDGAME + term] += count * midgameFactor;
+            gradient[PAWN_STRUCTURE_ENDGAME + term] += count * endgameFactor;
+        }
+        int mobility = trainingSet.getTerm(position, TrainingSet.MOBILITY);
+        gradient[MOBILITY_MIDGAME] += mobility * midgameFactor;
+        gradient[MOBILITY_ENDGAME] += mobility * endgameFactor;
+        gradient[KING_ZONE_ATTACK_MIDGAME] += trainingSet.getTerm(position, TrainingSet.KING_ZONE_ATTACKS) * midgameFactor;
+        gradient[HANGING_PIECE] -= trainingSet.getTerm(position, TrainingSet.HANGING_PIECES) * derivative * scale;
+        gradient[BISHOP_PAIR] += trainingSet.getTerm(position, TrainingSet.BISHOP_PAIR) * derivative * scale;
+    }
+
+    /**
+     * Maps an evaluation to the expected result from white's point of view.
+     */
+    private static double sigmoid(double k, double evaluation) {
+        return 1 / (1 + Math.exp(-k * LN_10 * evaluation / 400));
+    }
+
+    private int getChunkStart(int chunk) {
+        return (int) ((long) trainingSet.size() * chunk / chunkCount);
+    }
+
+    /**
+     * Computes the mean squared error of all positions in parallel.
+     * @param k the scaling constant mapping evaluations to expected results
+     * @return the mean squared error with the current parameters
+     */
+    public double computeError(double k) {
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            double error = 0;
+            for (int position = getChunkStart(chunk); position < getChunkStart(chunk + 1); position++) {
+                double difference = trainingSet.getResult(position) - sigmoid(k, evaluate(position));
+                error += difference * difference;
+            }
+            chunkErrors[chunk] = error;
+        });
+        double error = 0;
+        for (double chunkError : chunkErrors) {
+            error += chunkError;
+        }
+        return error / trainingSet.size();
+    }
+
+    /**
+     * Finds the scaling constant k that minimises the error of the current parameters by golden section search.
+     * @return the scaling constant
+     */
+    public double findScalingConstant() {
+        double ratio = (Math.sqrt(5) - 1) / 2;
+        double low = 0;
+        double high = 4;
+        while (high - low > 1e-4) {
+            double lowerProbe = high - ratio * (high - low);
+            double upperProbe = low + ratio * (high - low);
+            if (computeError(lowerProbe) < computeError(upperProbe)) {
+                high = upperProbe;
+            } else {
+                low = lowerProbe;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    /**
+     * Runs one epoch: computes the gradient of the error over all positions in parallel and updates
+     * all parameters by one Adam step.
+     * @param k the scaling constant mapping evaluations to expected results
+     * @param learningRate the maximum change of a parameter per epoch in centipawns
+     * @return the mean squared error before the update
+     */
+    public double step(double k, double learningRate) {
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            double[] gradient = chunkGradients[chunk];
+            Arrays.fill(gradient, 0);
+            double error = 0;
+            for (int position = getChunkStart(chunk); position < getChunkStart(chunk + 1); position++) {
+                double expected = sigmoid(k, evaluate(position));
+                double difference = expected - trainingSet.getResult(position);
+                error += difference * difference;
+                // derivative of the squared error, the constant factor 2 * k * ln(10) / 400 is applied below
+                addGradient(position, difference * expected * (1 - expected), gradient);
+            }
+            chunkErrors[chunk] = error;
+        });
+
+        steps++;
+        double factor = 2 * k * LN_10 / 400 / trainingSet.size();
+        double firstCorrection = 1 - Math.pow(BETA_1, steps);
+        double secondCorrection = 1 - Math.pow(BETA_2, steps);
+        for (int i = 0; i < parameters.length; i++) {
+            double gradient = 0;
+            for (double[] chunkGradient : chunkGradients) {
+                gradient += chunkGradient[i];
+            }
+            gradient *= factor;
+            firstMoments[i] = BETA_1 * firstMoments[i] + (1 - BETA_1) * gradient;
+            secondMoments[i] = BETA_2 * secondMoments[i] + (1 - BETA_2) * gradient * gradient;
+            parameters[i] -= learningRate * (firstMoments[i] / firstCorrection)
+                / (Math.sqrt(secondMoments[i] / secondCorrection) + EPSILON);
+        }
+        double error = 0;
+        for (double chunkError : chunkErrors) {
+            error += chunkError;
+        }
+        return error / trainingSet.size();
+    }
+
+    /**
+     * @return the current parameters rounded to integers, laid out like {@link EvaluationParameters#get()}
+     */
+    public int[] getParameters() {
+        int[] result = new int[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            result[i] = (int) Math.round(parameters[i]);
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int epochs = 1000;
+        double learningRate = 1;
+        Path output = Path.of("parameters.txt");
+        int[] initialParameters = EvaluationParameters.get();
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-epochs":
+                    epochs = Integer.parseInt(args[++i]);
+                    break;
+                case "-rate":
+                    learningRate = Double.parseDouble(args[++i]);
+                    break;
+                case "-params":
+                    initialParameters = EvaluationParameters.load(Path.of(args[++i]));
+                    EvaluationParameters.set(initialParameters);
+                    break;
+                case "-output":
+                    output = Path.of(args[++i]);
+                    break;
+                default:
+                    files.add(Path.of(args[i]));
+                    break;
+            }
+        }
+        if (files.isEmpty()) {
+            System.out.println("usage: TexelTuner [-epochs n] [-rate r] [-params file] [-output file] files...");
+            return;
+        }
+
+        long start = System.nanoTime();
+        TrainingSet trainingSet = TrainingSet.load(files);
+        // the thread pool of the move generator would keep the JVM running
+        MoveGenerator.shutDownThreads();
+        System.out.println("loaded " + trainingSet.size() + " positions, skipped " + trainingSet.getSkipped()
+            + " in " + (System.nanoTime() - start) / TimeUtility.MILLI_TO_NANO + " ms");
+        if (trainingSet.size() == 0) {
+            return;
+        }
+
+        TexelTuner tuner = new TexelTuner(trainingSet, initialParameters);
+        double k = tuner.findScalingConstant();
+        System.out.println("k = " + k + ", initial error " + tuner.computeError(k));
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            start = System.nanoTime();
+            double error = tuner.step(k, learningRate);
+            if (epoch % 10 == 0 || epoch == 1) {
+                System.out.println("epoch " + epoch + ": error " + error + ", "
+                    + (System.nanoTime() - start) / TimeUtility.MILLI_TO_NANO + " ms per pass");
+            }
+            if (epoch % 100 == 0) {
+                EvaluationParameters.save(output, tuner.getParameters());
+            }
+        }
+        System.out.println("final error " + tuner.computeError(k));
+        EvaluationParameters.save(output, tuner.getParameters());
+        System.out.println("parameters written to " + output);
+    }
+}
@@ -0,0 +1,274 @@
+package tuner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import model.Board;
+import model.Position;
+import movegenerator.AttackMap;
+import positionevaluator.MaterialEntry;
+import positionevaluator.MaterialTable;
+import positionevaluator.PawnStructureEvaluator;
+import uciservice.FenParseException;
+import uciservice.FenParser;
+
+import static model.PieceEncoding.*;
+
+/**
+ * Labelled positions reduced to what the {@link TexelTuner} needs to evaluate them with any parameters:
+ * the pieces on the board, how often each evaluation term occurs, the game phase, the scale factor and the result.
+ * <p>
+ * The data of all positions is stored in a few primitive arrays, which takes about 80 bytes per position.
+ * Positions whose evaluation does not depend on the parameters (trivial draws and specialised endgames) are skipped.
+ */
+public class TrainingSet {
+
+    /*
+     * Indices of the terms following the pawn structure terms
+     * (see PawnStructureEvaluator.countTerms), counted as white minus black occurrences.
+     */
+    public static final int MOBILITY = PawnStructureEvaluator.TERM_COUNT;
+    public static final int KING_ZONE_ATTACKS = MOBILITY + 1;
+    public static final int HANGING_PIECES = MOBILITY + 2;
+    public static final int BISHOP_PAIR = MOBILITY + 3;
+    public static final int TERM_COUNT = BISHOP_PAIR + 1;
+
+    /**
+     * Number of lines that are parsed in parallel.
+     */
+    private static final int BATCH_SIZE = 1 << 14;
+
+    private int size = 0;
+    /**
+     * The pieces of all positions, see {@link #getPiece(int)}.
+     * The pieces of position i are stored from pieceStarts[i] to pieceStarts[i + 1].
+     */
+    private short[] pieces = new short[1 << 16];
+    private int[] pieceStarts = new int[1 << 12];
+    private short[] terms = new short[(1 << 12) * TERM_COUNT];
+    private byte[] gamePhases = new byte[1 << 12];
+    private byte[] scaleFactors = new byte[1 << 12];
+    /**
+     * Results from white's point of view in half points: 0 (black won), 1 (draw) or 2 (white won).
+     */
+    private byte[] results = new byte[1 << 12];
+    private int skipped = 0;
+
+    /**
+     * Reads labelled positions from EPD or FEN files, one position per line.
+     * <p>
+     * A line starts with a position, either in FEN or with only the first four FEN fields (EPD).
+     * The result from white's point of view follows anywhere in the line, either as game result
+     * ("1-0", "0-1" or "1/2-1/2", e.g. in a c9 opcode) or as score in brackets ([1.0], [0.5] or [0.0]).
+     * Lines without result or with an invalid position are skipped.
+     * <p>
+     * Lines are parsed by {@link FenParser} in parallel batches.
+     * @param paths the files to read
+     * @return the positions of all files
+     * @throws IOException if a file cannot be read
+     */
+    public static TrainingSet load(List<Path> paths) throws IOException {
+        TrainingSet trainingSet = new TrainingSet();
+        String[] lines = new String[BATCH_SIZE];
+        Position[] positions = new Position[BATCH_SIZE];
+        double[] lineResults = new double[BATCH_SIZE];
+        for (Path path : paths) {
+            try (BufferedReader reader = Files.newBufferedReader(path)) {
+                int count;
+                do {
+                    count = 0;
+                    String line;
+                    while (count < BATCH_SIZE && (line = reader.readLine()) != null) {
+                        if (!line.isBlank()) {
+                            lines[count] = line;
+                            count++;
+                        }
+                    }
+                    IntStream.range(0, count).parallel().forEach(i -> {
+                        lineResults[i] = parseResult(lines[i]);
+                        positions[i] = Double.isNaN(lineResults[i]) ? null : parsePosition(lines[i]);
+                    });
+                    for (int i = 0; i < count; i++) {
+                        if (positions[i] == null || !trainingSet.add(positions[i], lineResults[i])) {
+                            trainingSet.skipped++;
+                        }
+                        positions[i] = null;
+                    }
+                } while (count == BATCH_SIZE);
+            }
+        }
+        return trainingSet;
+    }
+
+    /**
+     * Extracts the result of a labelled position.
+     * @param line a line of an EPD or FEN file, see {@link #load(List)}
+     * @return 1 if white won, 0.5 for a draw, 0 if black won or NaN if the line contains no result
+     */
+    public static double parseResult(String line) {
+        if (line.contains("1/2-1/2") || line.contains("[0.5]")) {
+            return 0.5;
+        }
+        if (line.contains("1-0") || line.contains("[1.0]") || line.contains("[1]")) {
+            return 1;
+        }
+        if (line.contains("0-1") || line.contains("[0.0]") || line.contains("[0]")) {
+            return 0;
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Parses the position at the start of a line.
+     * @param line a line of an EPD or FEN file, see {@link #load(List)}
+     * @return the position or null if the line does not start with a valid position
+     */
+    public static Position parsePosition(String line) {
+        String[] fields = line.trim().split("\\s+", 7);
+        if (fields.length < 4 || countRanks(fields[0]) != 8) {
+            // the parser accepts placements with missing ranks
+            return null;
+        }
+        StringBuilder fen = new StringBuilder();
+        fen.append(fields[0]).append(' ').append(fields[1]).append(' ').append(fields[2]).append(' ').append(fields[3]);
+        if (fields.length >= 6 && fields[4].matches("\\d+") && fields[5].matches("\\d+")) {
+            fen.append(' ').append(fields[4]).append(' ').append(fields[5]);
+        } else {
+            // EPD lines have no move counters
+            fen.append(" 0 1");
+        }
+        try {
+            return FenParser.parseFen(fen.toString());
+        } catch (FenParseException | IllegalArgumentException | IndexOutOfBoundsException exception) {
+            return null;
+        }
+    }
+
+    private static int countRanks(String placement) {
+        int ranks = 1;
+        for (int i = 0; i < placement.length(); i++) {
+            if (placement.charAt(i) == '/') {
+                ranks++;
+            }
+        }
+        return ranks;
+    }
+
+    /**
+     * Adds a labelled position.
+     * @param position the position
+     * @param result the result of the game from white's point of view: 1, 0.5 or 0
+     * @return false if the position was skipped because its evaluation does not depend on the parameters
+     */
+    public boolean add(Position position, double result) {
+        Board board = position.getBoard();
+        MaterialEntry material = MaterialTable.probe(board.getPieceCounts());
+        if (material.isDraw() || material.hasSpecialisedEvaluation()) {
+            return false;
+        }
+        ensureCapacity(pieceStarts[size] + 64);
+
+        int pieceIndex = pieceStarts[size];
+        for (int square = 0; square < 64; square++) {
+            byte piece = board.getByteAt(square / 8, square % 8);
+            if (piece == EMPTY_SQUARE) {
+                continue;
+            }
+            if (piece < EXCLUSIVE_THRESHOLD) {
+                pieces[pieceIndex] = (short) ((piece - WHITE_BISHOP) * 64 + square);
+            } else {
+                // black pieces are stored as negative index of the white piece on the mirrored square
+                pieces[pieceIndex] = (short) -((piece - BLACK_BISHOP) * 64 + (square ^ 56) + 1);
+            }
+            pieceIndex++;
+        }
+        pieceStarts[size + 1] = pieceIndex;
+
+        int[] counts = new int[PawnStructureEvaluator.TERM_COUNT];
+        PawnStructureEvaluator.countTerms(board, counts);
+        int termStart = size * TERM_COUNT;
+        for (int term = 0; term < counts.length; term++) {
+            terms[termStart + term] = (short) counts[term];
+        }
+        AttackMap attackMap = position.getAttackMap();
+        terms[termStart + MOBILITY] = (short) (attackMap.getMobility(true) - attackMap.getMobility(false));
+        terms[termStart + KING_ZONE_ATTACKS] = (short) (attackMap.getKingZoneAttacks(true) - attackMap.getKingZoneAttacks(false));
+        terms[termStart + HANGING_PIECES] = (short) (attackMap.getHangingPieces(true) - attackMap.getHangingPieces(false));
+        terms[termStart + BISHOP_PAIR] = (short) ((getPieceCount(board.getPieceCounts(), WHITE_BISHOP) >= 2 ? 1 : 0)
+            - (getPieceCount(board.getPieceCounts(), BLACK_BISHOP) >= 2 ? 1 : 0));
+
+        gamePhases[size] = (byte) material.getGamePhase();
+        scaleFactors[size] = (byte) material.getScaleFactor(board);
+        results[size] = (byte) Math.round(result * 2);
+        size++;
+        return true;
+    }
+
+    /**
+     * Grows the arrays so one more position with up to the specified number of pieces in total fits.
+     */
+    private void ensureCapacity(int pieceCapacity) {
+        if (pieceCapacity > pieces.length) {
+            pieces = Arrays.copyOf(pieces, Math.max(pieceCapacity, pieces.length * 2));
+        }
+        if (size + 2 > pieceStarts.length) {
+            int capacity = pieceStarts.length * 2;
+            pieceStarts = Arrays.copyOf(pieceStarts, capacity);
+            terms = Arrays.copyOf(terms, capacity * TERM_COUNT);
+            gamePhases = Arrays.copyOf(gamePhases, capacity);
+            scaleFactors = Arrays.copyOf(scaleFactors, capacity);
+            results = Arrays.copyOf(results, capacity);
+        }
+    }
+
+    /**
+     * @return the number of positions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of lines or positions that were skipped
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    int getPieceStart(int position) {
+        return pieceStarts[position];
+    }
+
+    /**
+     * Returns a piece of a position. White pieces are encoded as (piece - WHITE_BISHOP) * 64 + rank * 8 + file,
+     * black pieces as -(index of the white piece on the mirrored square + 1).
+     * @param index index between {@link #getPieceStart(int)} of a position and the next position
+     */
+    short getPiece(int index) {
+        return pieces[index];
+    }
+
+    int getTerm(int position, int term) {
+        return terms[position * TERM_COUNT + term];
+    }
+
+    int getGamePhase(int position) {
+        return gamePhases[position];
+    }
+
+    int getScaleFactor(int position) {
+        return scaleFactors[position];
+    }
+
+    /**
+     * @return the result from white's point of view: 1, 0.5 or 0
+     */
+    double getResult(int position) {
+        return results[position] * 0.5;
+    }
+}
@@ -1,8 +1,55 @@
 package uciservice;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import model.Move;
 
+/**
+ * Sends messages to the GUI.
+ * <p>
+ * Messages are not written by the calling thread but queued and written
+ * to a buffered stdout by a single writer thread, so neither the search nor the timer
+ * ever wait for the output. The buffer is flushed on bestmove, readyok and uciok,
+ * or once no messages were queued for {@link #FLUSH_DELAY} milliseconds.
+ */
 public abstract class UCIOperator {
+
+    /**
+     * Time in milliseconds the writer thread waits for further messages before flushing.
+     */
+    private static final long FLUSH_DELAY = 50;
+
+    private static final BlockingQueue<OutputLine> outputQueue = new LinkedBlockingQueue<OutputLine>();
+    private static final AtomicInteger unwrittenLines = new AtomicInteger();
+    private static final Writer output = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+    private static volatile boolean debug = false;
+
+    static {
+        Thread writer = new Thread(UCIOperator::writeOutput, "UCI output");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * A message waiting to be written.
+     */
+    private static final class OutputLine {
+        private final String text;
+        private final boolean flush;
+
+        private OutputLine(String text, boolean flush) {
+            this.text = text;
+            this.flush = flush;
+        }
+    }
     
     public static void sendId(String argument, boolean isAuthor){
         if (isAuthor) {
@@ -17,25 +64,172 @@ public abstract class UCIOperator {
         sendOff("id author " + author);
     }
 
+    public static void sendOption(String name, String type, String defaultValue) {
+        sendOff("option name " + name + " type " + type + " default " + defaultValue);
+    }
+
+    public static void sendOption(String name, String type, int defaultValue, int min, int max) {
+        sendOff("option name " + name + " type " + type + " default " + defaultValue
+            + " min " + min + " max " + max);
+    }
+
+    public static void sendOption(String name, String defaultValue, String... values) {
+        StringBuilder option = new StringBuilder("option name " + name + " type combo default " + defaultValue);
+        for (String value : values) {
+            option.append(" var ").append(value);
+        }
+        sendOff(option.toString());
+    }
+
     public static void sendUciOk() {
-        sendOff("uciok");
+        sendOff("uciok", true);
     }
 
     public static void sendReadyOk() {
-        sendOff("readyok");
+        sendOff("readyok", true);
     }
 
     public static void sendBestmove(Move bestmove){
-        sendOff("bestmove " + bestmove.toStringAlgebraic());
+        sendOff("bestmove " + bestmove.toStringAlgebraic(), true);
+    }
+
+    /**
+     * Sends the null move as best move, used if no legal move can be made.
+     */
+    public static void sendNullBestmove(){
+        sendOff("bestmove 0000", true);
     }
 
     public static void sendBestmove(Move bestMove, Move ponderMove){
         sendOff(
             "bestmove " + bestMove.toStringAlgebraic() +  
-            " ponder "  + ponderMove.toStringAlgebraic());
+            " ponder "  + ponderMove.toStringAlgebraic(), true);
+    }
+
+    /**
+     * Sends the result of a completed iteration.
+     * @param depth the depth of the iteration
+     * @param selDepth the depth of the deepest evaluated line
+     * @param multiPV the rank of the line starting with 1 for the best line, 0 if only one line is searched
+     * @param centipawns the score of the line from the engine's point of view
+     * @param nodes the number of nodes evaluated since the search started
+     * @param nodesPerSecond the number of nodes evaluated per second
+     * @param time the time in milliseconds since the search started
+     * @param hashfull the fill rate of the hash tables in permill, -1 if no hash tables are used
+     * @param principalVariation the moves of the line
+     */
+    public static void sendInfo(int depth, int selDepth, int multiPV, int centipawns, long nodes, long nodesPerSecond,
+            long time, int hashfull, List<Move> principalVariation) {
+        StringBuilder message = new StringBuilder(128);
+        message.append("info depth ").append(depth)
+            .append(" seldepth ").append(selDepth);
+        if (multiPV > 0) {
+            message.append(" multipv ").append(multiPV);
+        }
+        message.append(" score cp ").append(centipawns);
+        appendStatistics(message, nodes, nodesPerSecond, time, hashfull);
+        message.append(" pv");
+        for (Move move : principalVariation) {
+            message.append(' ').append(move.toStringAlgebraic());
+        }
+        sendOff(message.toString());
+    }
+
+    /**
+     * Sends the progress of an iteration that has not completed yet.
+     * @param depth the depth of the running iteration
+     * @param nodes the number of nodes evaluated since the search started
+     * @param nodesPerSecond the number of nodes evaluated per second
+     * @param time the time in milliseconds since the search started
+     * @param hashfull the fill rate of the hash tables in permill, -1 if no hash tables are used
+     */
+    public static void sendProgress(int depth, long nodes, long nodesPerSecond, long time, int hashfull) {
+        StringBuilder message = new StringBuilder(64);
+        message.append("info depth ").append(depth);
+        appendStatistics(message, nodes, nodesPerSecond, time, hashfull);
+        sendOff(message.toString());
+    }
+
+    private static void appendStatistics(StringBuilder message, long nodes, long nodesPerSecond, long time, int hashfull) {
+        message.append(" nodes ").append(nodes)
+            .append(" nps ").append(nodesPerSecond)
+            .append(" time ").append(time);
+        if (hashfull >= 0) {
+            message.append(" hashfull ").append(hashfull);
+        }
+    }
+
+    public static void sendInfoString(String info) {
+        sendOff("info string " + info);
+    }
+
+    /**
+     * Sends the message as info string if debug mode was switched on by "debug on".
+     * @param message the debug message
+     */
+    public static void sendDebug(String message) {
+        if (debug) {
+            sendInfoString(message);
+        }
+    }
+
+    public static void setDebug(boolean debug) {
+        UCIOperator.debug = debug;
+    }
+
+    public static boolean isDebug() {
+        return debug;
+    }
+
+    /**
+     * Waits until all queued messages were written and flushes the output.
+     * Call this before exiting, as the writer thread does not keep the program alive.
+     */
+    public static void awaitOutput() {
+        try {
+            while (unwrittenLines.get() > 0) {
+                Thread.sleep(1);
+            }
+            output.flush();
+        } catch (InterruptedException | IOException e) {
+            e.printStackTrace();
+        }
     }
 
     private static void sendOff(String message){
-        System.out.println(message);
+        sendOff(message, false);
+    }
+
+    /**
+     * Queues the message to be written by the writer thread.
+     * @param message the message to send
+     * @param flush whether the output has to be flushed right after writing the message
+     */
+    private static void sendOff(String message, boolean flush){
+        unwrittenLines.incrementAndGet();
+        outputQueue.add(new OutputLine(message, flush));
+    }
+
+    /**
+     * Body of the writer thread.
+     */
+    private static void writeOutput() {
+        try {
+            while (true) {
+                OutputLine line = outputQueue.poll(FLUSH_DELAY, TimeUnit.MILLISECONDS);
+                if (line == null) {
+                    output.flush();
+                    line = outputQueue.take();
+                }
+                output.write(line.text);
+                output.write(System.lineSeparator());
+                if (line.flush) {
+                    output.flush();
+                }
+                unwrittenLines.decrementAndGet();
+            }
+        } catch (InterruptedException | IOException e) {
+            e.printStackTrace();
+        }
     }
 }
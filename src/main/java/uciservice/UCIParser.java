@@ -34,7 +34,7 @@ public abstract class UCIParser{
                  * - infinite
                  */
                 if (children.get(0).getType() == CommandType.MOVETIME) {
-                    System.out.println("searching for best move for the next " +
+                    UCIOperator.sendDebug("searching for best move for the next " +
                     Integer.parseInt(children.get(1).getData())/1000 + " seconds");
                     Move testMove = new Move("a7a5");
                     UCIOperator.sendBestmove(testMove);
@@ -43,7 +43,7 @@ public abstract class UCIParser{
             case INFINITE:
                 break;
             case ISREADY:
-                System.out.println("readyok");
+                UCIOperator.sendReadyOk();
                 break;
             case LATER:
                 break;
@@ -65,28 +65,28 @@ public abstract class UCIParser{
                 break;
             case POSITION:
                 if (children == null){
-                    System.out.println("Error: nothing found after position");
+                    UCIOperator.sendInfoString("error: nothing found after position");
                 }
                 Command position = children.get(0);
                 if (position.getType() == CommandType.STARTPOS){
-                    System.out.println("Starting position initialized");
+                    UCIOperator.sendDebug("Starting position initialized");
                 } else if (position.getType() == CommandType.CONSTANT){
-                    System.out.println("Initializing position from FEN string");
+                    UCIOperator.sendDebug("Initializing position from FEN string");
                     break;
                 } else {
-                    System.out.println("Error: no position specified after \"position\" keyword");
+                    UCIOperator.sendInfoString("error: no position specified after \"position\" keyword");
                 }
                 if (children.size() > 1){
                     Command moves = children.get(1);
-                    System.out.println("applying moves");
+                    UCIOperator.sendDebug("applying moves");
                     if (moves.getType() != CommandType.MOVES){
-                        System.out.println("Error: expected \"moves\" keyword.");
+                        UCIOperator.sendInfoString("error: expected \"moves\" keyword.");
                     }
                     for (int i = 2; i < children.size(); i++){
                         Command currentMove = children.get(i);
                         if (currentMove.getType() == CommandType.CONSTANT){
                             if(currentMove.getData().matches("[a-h][1-8][a-h][1-8]")){
-                                System.out.println("applying move "+currentMove.getData());
+                                UCIOperator.sendDebug("applying move "+currentMove.getData());
                             }
                         }
                     }
@@ -107,10 +107,10 @@ public abstract class UCIParser{
                 return false;
             case UCI:
                 UCIOperator.sendId("SchachMotor", "lux&schoenenberger");
-                System.out.println("uciok");
+                UCIOperator.sendUciOk();
                 break;
             case UCINEWGAME:
-                System.out.println("*insert preparations for a new game");
+                UCIOperator.sendDebug("*insert preparations for a new game");
                 break;
             case VALUE:
                 break;
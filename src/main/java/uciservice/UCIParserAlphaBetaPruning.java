@@ -1,14 +1,39 @@
 package uciservice;
 
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.List;
 
 import application.Conductor;
+import gametree.GameNode;
 import model.Move;
 import model.Position;
+import movegenerator.MoveGenerator;
+import positionevaluator.EvaluationParameters;
+import positionevaluator.NeuralEvaluator;
 
 public abstract class UCIParserAlphaBetaPruning{
 
     private final static String STARTPOS = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private final static int MAX_MULTI_PV = 256;
+    /**
+     * Maximum of the UCI option TreeMemory in megabytes.
+     */
+    private final static int MAX_TREE_MEMORY = 65536;
+    /**
+     * Maximum of the UCI option Hash in megabytes.
+     */
+    private final static int MAX_HASH = 16384;
+    /**
+     * Values of the UCI option Evaluator.
+     */
+    private final static String CLASSICAL_EVALUATOR = "Classical";
+    private final static String NEURAL_EVALUATOR = "NNUE";
+    /**
+     * Index of the first move in the arguments of a position command ([startpos | fen] moves ...).
+     */
+    private final static int MOVES_OFFSET = 2;
 
     public static Position executeCommand(Command command, Position currentPosition, Conductor conductor){
         if (command == null){
@@ -25,6 +50,7 @@ public abstract class UCIParserAlphaBetaPruning{
             case CONSTANT:
                 break;
             case DEBUG:
+                UCIOperator.setDebug("on".equals(getArgument(command)));
                 break;
             case DEPTH:
                 break;
@@ -34,7 +60,7 @@ public abstract class UCIParserAlphaBetaPruning{
                 /*
                  * Supported arguments:
                  * - searchmoves
-                 * - ponder (if there is time to implement this)
+                 * - ponder
                  * - depth
                  * - nodes?
                  * - movetime
@@ -43,16 +69,17 @@ public abstract class UCIParserAlphaBetaPruning{
 
                 // For debugging purposes we verify, that the engine has reade the number of remaining seconds without error
                 if (children.size()>0 && children.get(0).getType() == CommandType.MOVETIME) {
-                    System.out.println("searching for best move for the next " +
+                    UCIOperator.sendDebug("searching for best move for the next " +
                     Integer.parseInt(children.get(1).getData())/1000 + " seconds");
                 }
 
-                conductor.calculateBestMove(currentPosition);
+                // go ponder: the position already contains the expected reply of the opponent
+                conductor.calculateBestMove(currentPosition, containsType(children, CommandType.PONDER));
                 return currentPosition;
             case INFINITE:
                 break;
             case ISREADY:
-                System.out.println("readyok");
+                UCIOperator.sendReadyOk();
                 break;
             case LATER:
                 break;
@@ -71,43 +98,14 @@ public abstract class UCIParserAlphaBetaPruning{
             case PONDER:
                 break;
             case PONDERHIT:
+                Conductor.ponderhit();
                 break;
             case POSITION:
-                if (children == null){
-                    System.out.println("Error: nothing found after position");
-                }
-                /* 
-                 * The first child of a position-command should be startpos or a
-                 * constant containing a fen string
-                 */
-                if (!isTheSameGame(conductor.getStartingPosition(), Conductor.getMoves(), children)){
-                    Command position = children.get(0);
-                    if (position.getType() == CommandType.STARTPOS){
-                        // if it is startpos we initiate the default starting position
-                        currentPosition = FenParser.parseFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR " +
-                        "w KQkq - 0 1");
-                        if (conductor.getStartingPosition() == null){
-                            conductor.setStartingPosition("startpos");
-                        }
-                        System.out.println("Starting position initialized");
-                    } else if (position.getType() == CommandType.CONSTANT){
-                        // if it is a constant we initialize that fen string
-                        currentPosition = FenParser.parseFen(position.getData());
-                        if (conductor.getStartingPosition() == null){
-                            conductor.setStartingPosition(position.getData());
-                        }
-                        System.out.println("Initializing position from FEN string");
-                    } else {
-                        System.out.println("Error: no position specified after \"position\" keyword");
-                    }
-                }
-                /* 
-                 * If there is more than 1 child then those children are moves
-                 * to apply to the position
-                 */
-                if (children.size() > 1){
-                    currentPosition = applyPositionMoves(command, conductor, currentPosition);
+                if (children == null || children.isEmpty()){
+                    UCIOperator.sendInfoString("error: nothing found after position");
+                    break;
                 }
+                currentPosition = setPosition(children, conductor, currentPosition);
                 break;
             case QUIT:
                 conductor.quit();
@@ -117,19 +115,33 @@ public abstract class UCIParserAlphaBetaPruning{
             case SEARCHMOVES:
                 break;
             case SETOPTION:
+                if (setOption(getArgument(children, CommandType.NAME), getArgument(children, CommandType.VALUE))) {
+                    // boards of the current position maintain scores computed with the previous parameters,
+                    // the next position command sets up the game from scratch
+                    return null;
+                }
                 break;
             case STARTPOS:
                 break;
             case STOP:
                 // UCIOperator.sendBestmove(new Move(new Coordinate(1, 0), new Coordinate(3, 0)));
-                Conductor.stop();
+                // the best move is sent as soon as the search has stopped
+                Conductor.requestStop();
                 return currentPosition;
             case UCI:
                 UCIOperator.sendId("SchachMotor", "lux&schoenenberger");
-                System.out.println("uciok");
+                UCIOperator.sendOption("Ponder", "check", "true");
+                UCIOperator.sendOption("MultiPV", "spin", 1, 1, MAX_MULTI_PV);
+                UCIOperator.sendOption("Hash", "spin", Conductor.DEFAULT_HASH, 1, MAX_HASH);
+                UCIOperator.sendOption("TreeMemory", "spin", 0, 0, MAX_TREE_MEMORY);
+                UCIOperator.sendOption("Evaluator", CLASSICAL_EVALUATOR, CLASSICAL_EVALUATOR, NEURAL_EVALUATOR);
+                UCIOperator.sendOption("EvalFile", "string", "<empty>");
+                UCIOperator.sendOption("EvalParams", "string", "<empty>");
+                UCIOperator.sendUciOk();
                 break;
             case UCINEWGAME:
-                System.out.println("*insert preparations for a new game");
+                // results of the previous game should not influence the next one
+                Conductor.clearSearchResults();
                 break;
             case VALUE:
                 break;
@@ -144,77 +156,187 @@ public abstract class UCIParserAlphaBetaPruning{
         return currentPosition;
     }
 
-    private static Position applyPositionMoves(Command command, Conductor conductor, Position currentPosition) {
-        List<Command> children = command.getChildren();
-        Command moves = children.get(1);
-        System.out.println("applying moves");
-        if (moves.getType() != CommandType.MOVES){
-            System.out.println("Error: expected \"moves\" keyword. Current Commandtype: "+moves.getType());
-        }
-        if (isTheSameGame(conductor.getStartingPosition(), Conductor.getMoves(), children)){
-            // for (int i = 0; i < 2; i++) {
-                Command currentMoveCommand = children.get(children.size()-1);
-                if (currentMoveCommand.getData().length()==5 && currentPosition.getWhiteNextMove()){
-                    currentMoveCommand.setData(currentMoveCommand.getData().substring(0,4)
-                    + currentMoveCommand.getData().substring(4,5).toUpperCase());
-                }
-                Move currentMove = new Move(currentMoveCommand.getData());
-                currentPosition = currentPosition.getFollowUpByMove(currentMove);
-                Conductor.appendPosition(currentPosition.toStringLight());
-                Conductor.appendMove(currentMove);
-            // }
-            System.out.println("only " + currentMove.toStringAlgebraic() + " was applied.");
+    /**
+     * Sets up the position specified by a position command.
+     * <p>
+     * The moves of the command are compared to the moves applied so far ({@link Conductor#getMoves()}).
+     * If the game continues the stored game, only the new moves are applied to the current position,
+     * otherwise the position is set up from scratch. Moves are applied without generating all moves
+     * of a position, see {@link MoveGenerator#applyMove(Position, Move)}.
+     * <p>
+     * Before each move is applied, the position it is played in is appended to the game history,
+     * so the history contains every position of the game except the current one.
+     * @param children the arguments of the position command
+     * @param conductor the conductor storing the starting position of the game
+     * @param currentPosition the position reached by the moves applied so far
+     * @return the position specified by the command
+     */
+    private static Position setPosition(List<Command> children, Conductor conductor, Position currentPosition) {
+        Command start = children.get(0);
+        String startingPosition;
+        if (start.getType() == CommandType.STARTPOS){
+            startingPosition = STARTPOS;
+        } else if (start.getType() == CommandType.CONSTANT){
+            startingPosition = start.getData();
         } else {
+            UCIOperator.sendInfoString("error: no position specified after \"position\" keyword");
+            return currentPosition;
+        }
+        if (children.size() > 1 && children.get(1).getType() != CommandType.MOVES){
+            UCIOperator.sendInfoString("error: expected \"moves\" keyword. Current Commandtype: " + children.get(1).getType());
+            return currentPosition;
+        }
+
+        int appliedMoves = -1;
+        if (currentPosition != null){
+            appliedMoves = getCommonPrefixLength(conductor.getStartingPosition(), Conductor.getMoves(), children);
+        }
+        if (appliedMoves < 0){
+            // a different game, set it up from scratch
             Conductor.emptyPositionList();
             Conductor.emptyMoveList();
-            if (children.get(0).getType() == CommandType.STARTPOS){
-                conductor.setStartingPosition("startpos");
-            } else {
-                conductor.setStartingPosition(children.get(0).getData());
+            conductor.setStartingPosition(startingPosition);
+            currentPosition = FenParser.parseFen(startingPosition);
+            appliedMoves = 0;
+            UCIOperator.sendDebug("position initialized from " + startingPosition);
+        }
+
+        for (int i = MOVES_OFFSET + appliedMoves; i < children.size(); i++){
+            String moveString = children.get(i).getData();
+            if (!moveString.matches("[a-h][1-8][a-h][1-8](B|N|Q|R|b|n|q|r)?")){
+                UCIOperator.sendInfoString("error: invalid move " + moveString);
+                break;
             }
-            for (int i = 2; i < children.size(); i++){
-                Command currentMoveCommand = children.get(i);
-                if (currentMoveCommand.getType() == CommandType.CONSTANT){
-                    if(currentMoveCommand.getData().matches("[a-h][1-8][a-h][1-8](B|N|Q|R|b|n|q|r)?")){
-                        if (currentMoveCommand.getData().length()==5 && currentPosition.getWhiteNextMove()){
-                            currentMoveCommand.setData(currentMoveCommand.getData().substring(0,4)
-                            + currentMoveCommand.getData().substring(4,5).toUpperCase());
-                        }
-                        Move currentMove = new Move(currentMoveCommand.getData());
-                        Conductor.appendPosition(currentPosition.toStringLight());
-                        currentPosition = currentPosition.getFollowUpByMove(currentMove);
-                        Conductor.appendMove(currentMove);
-                        System.out.println("applying move "+currentMoveCommand.getData());
-                    }
-                }
+            if (moveString.length() == 5 && currentPosition.getWhiteNextMove()){
+                // white pieces are encoded by upper case letters
+                moveString = moveString.substring(0, 4) + moveString.substring(4, 5).toUpperCase();
             }
+            Move move = new Move(moveString);
+            Conductor.appendGamePosition(currentPosition);
+            currentPosition = MoveGenerator.applyMove(currentPosition, move);
+            Conductor.appendMove(move);
+            UCIOperator.sendDebug("applying move " + moveString);
         }
         return currentPosition;
     }
 
-    public static boolean isTheSameGame(String startingPosition, List<Move> oldTurn, List<Command> children) {
-        if (startingPosition == null){
-            // System.out.println("Not the same because starting position not set");
+    /**
+     * Applies the option set by a setoption command.
+     * Unknown options are ignored.
+     * @param name the name of the option
+     * @param value the value of the option, may be null
+     * @return whether the current position has to be set up again
+     */
+    private static boolean setOption(String name, String value) {
+        if (name == null) {
+            UCIOperator.sendInfoString("error: expected \"name\" after setoption");
             return false;
         }
-        if (children.get(0).getType() == CommandType.STARTPOS && !startingPosition.equals("startpos")){
-            if (children.get(0).getType() == CommandType.STARTPOS && !startingPosition.equals(STARTPOS)){
-                if (!startingPosition.equals(children.get(0).getData())){
-                    // System.out.println("Not the same because starting position differs");
-                    return false;
-                }
+        try {
+            if (name.equalsIgnoreCase("MultiPV")) {
+                Conductor.multiPV = Math.max(1, Math.min(MAX_MULTI_PV, Integer.parseInt(value)));
+            } else if (name.equalsIgnoreCase("Hash")) {
+                Conductor.setHashSize(Math.max(1, Math.min(MAX_HASH, Integer.parseInt(value))));
+            } else if (name.equalsIgnoreCase("TreeMemory")) {
+                Conductor.treeMemory = Math.max(0, Math.min(MAX_TREE_MEMORY, Integer.parseInt(value)));
+            } else if (name.equalsIgnoreCase("EvalFile") && value != null) {
+                // a running search evaluates incrementally, it has to be stopped before the evaluation changes
+                Conductor.clearSearchResults();
+                NeuralEvaluator.loadNetwork(Path.of(value));
+                // cached evaluations were computed by the previous network
+                GameNode.getEvaluationCache().clear();
+                UCIOperator.sendInfoString("loaded network with hidden size " + NeuralEvaluator.getNetwork().getHiddenSize());
+            } else if (name.equalsIgnoreCase("Evaluator")) {
+                Conductor.clearSearchResults();
+                NeuralEvaluator.setEnabled(NEURAL_EVALUATOR.equalsIgnoreCase(value));
+                GameNode.getEvaluationCache().clear();
+            } else if (name.equalsIgnoreCase("EvalParams") && value != null) {
+                Conductor.clearSearchResults();
+                EvaluationParameters.set(EvaluationParameters.load(Path.of(value)));
+                GameNode.getEvaluationCache().clear();
+                UCIOperator.sendInfoString("loaded evaluation parameters from " + value);
+                return true;
             }
+        } catch (NumberFormatException exception) {
+            UCIOperator.sendInfoString("error: invalid value " + value + " for option " + name);
+        } catch (IOException | InvalidPathException exception) {
+            UCIOperator.sendInfoString("error: could not load " + name + ": " + exception.getMessage());
+        } catch (IllegalStateException exception) {
+            UCIOperator.sendInfoString("error: set EvalFile before selecting the " + NEURAL_EVALUATOR + " evaluator");
         }
-        if (oldTurn.size() != children.size() - 4){
-            // System.out.println("not the same because wrong length");
-            return false;
+        return false;
+    }
+
+    /**
+     * @param command the command whose argument should be returned
+     * @return the argument of the command, e.g. the "on" in "debug on", or null if there is none
+     */
+    private static String getArgument(Command command) {
+        if (command.getChildren() == null || command.getChildrenSize() == 0) {
+            return null;
+        }
+        return command.getChildAt(0).getData();
+    }
+
+    /**
+     * Returns the argument following the first command of the specified type,
+     * e.g. the 1000 in "wtime 1000".
+     * @param commands the commands to search
+     * @param type the type of the command whose argument should be returned
+     * @return the argument of the command or null if there is no such command
+     */
+    private static String getArgument(List<Command> commands, CommandType type) {
+        for (Command command : commands) {
+            if (command.getType() == type) {
+                return getArgument(command);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param commands the commands to search
+     * @param type the type to search for
+     * @return true if any of the passed commands is of the specified type
+     */
+    private static boolean containsType(List<Command> commands, CommandType type) {
+        for (Command command : commands) {
+            if (command.getType() == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a position command continues a stored game.
+     * @param startingPosition the starting position of the stored game, "startpos" or a fen string
+     * @param history the moves of the stored game
+     * @param children the arguments of the position command
+     * @return the number of moves of the command that were already applied to the stored game,
+     * or -1 if the command does not continue it (different starting position or differing moves)
+     */
+    public static int getCommonPrefixLength(String startingPosition, List<Move> history, List<Command> children) {
+        if (startingPosition == null){
+            return -1;
+        }
+        if (startingPosition.equals("startpos")){
+            startingPosition = STARTPOS;
+        }
+        Command start = children.get(0);
+        String commandStartingPosition = start.getType() == CommandType.STARTPOS ? STARTPOS : start.getData();
+        if (!startingPosition.equals(commandStartingPosition)){
+            return -1;
+        }
+        int commandMoves = Math.max(0, children.size() - MOVES_OFFSET);
+        if (history.size() > commandMoves){
+            return -1;
         }
-        for (int i = 0; i + 4 < children.size(); i++){
-            if (!oldTurn.get(i).toStringAlgebraic().toLowerCase().equals(children.get(i+2).getData())){
-                // System.out.println("Not the same because turn " + i + "differs");
-                return false;
+        for (int i = 0; i < history.size(); i++){
+            if (!history.get(i).toStringAlgebraic().equalsIgnoreCase(children.get(i + MOVES_OFFSET).getData())){
+                return -1;
             }
         }
-        return true;
+        return history.size();
     }
-}
\ No newline at end of file
+}
@@ -38,7 +38,7 @@ public abstract class UCIParserRandom{
                  */
 
                 if (children.size()>0 && children.get(0).getType() == CommandType.MOVETIME) {
-                    System.out.println("searching for best move for the next " +
+                    UCIOperator.sendDebug("searching for best move for the next " +
                     Integer.parseInt(children.get(1).getData())/1000 + " seconds");
                     // Move testMove = new Move("a7a5");
                 }
@@ -49,7 +49,7 @@ public abstract class UCIParserRandom{
             case INFINITE:
                 break;
             case ISREADY:
-                System.out.println("readyok");
+                UCIOperator.sendReadyOk();
                 break;
             case LATER:
                 break;
@@ -71,24 +71,24 @@ public abstract class UCIParserRandom{
                 break;
             case POSITION:
                 if (children == null){
-                    System.out.println("Error: nothing found after position");
+                    UCIOperator.sendInfoString("error: nothing found after position");
                 }
                 Command position = children.get(0);
                 if (position.getType() == CommandType.STARTPOS){
                     currentPosition = FenParser.parseFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR " +
                     "w KQkq - 0 1");
-                    System.out.println("Starting position initialized");
+                    UCIOperator.sendDebug("Starting position initialized");
                 } else if (position.getType() == CommandType.CONSTANT){
                     currentPosition = FenParser.parseFen(position.getData());
-                    System.out.println("Initializing position from FEN string");
+                    UCIOperator.sendDebug("Initializing position from FEN string");
                 } else {
-                    System.out.println("Error: no position specified after \"position\" keyword");
+                    UCIOperator.sendInfoString("error: no position specified after \"position\" keyword");
                 }
                 if (children.size() > 1){
                     Command moves = children.get(1);
-                    System.out.println("applying moves");
+                    UCIOperator.sendDebug("applying moves");
                     if (moves.getType() != CommandType.MOVES){
-                        System.out.println("Error: expected \"moves\" keyword. Current Commandtype: "+moves.getType());
+                        UCIOperator.sendInfoString("error: expected \"moves\" keyword. Current Commandtype: "+moves.getType());
                     }
                     if (isTheSameGame(testArena, children)){
                         Command currentMoveCommand = children.get(children.size()-1);
@@ -99,7 +99,7 @@ public abstract class UCIParserRandom{
                         Move currentMove = new Move(currentMoveCommand.getData());
                         currentPosition = currentPosition.getFollowUpByMove(currentMove);
                         testArena.appendMove(currentMove);
-                        System.out.println("only move "+currentMoveCommand.getData() + " applied.");
+                        UCIOperator.sendDebug("only move "+currentMoveCommand.getData() + " applied.");
                     } else {
                         for (int i = 2; i < children.size(); i++){
                             Command currentMoveCommand = children.get(i);
@@ -112,7 +112,7 @@ public abstract class UCIParserRandom{
                                     Move currentMove = new Move(currentMoveCommand.getData());
                                     currentPosition = currentPosition.getFollowUpByMove(currentMove);
                                     testArena.appendMove(currentMove);
-                                    System.out.println("applying move "+currentMoveCommand.getData());
+                                    UCIOperator.sendDebug("applying move "+currentMoveCommand.getData());
                                 }
                             }
                         }
@@ -136,10 +136,10 @@ public abstract class UCIParserRandom{
                 return currentPosition;
             case UCI:
                 UCIOperator.sendId("SchachMotor", "lux&schoenenberger");
-                System.out.println("uciok");
+                UCIOperator.sendUciOk();
                 break;
             case UCINEWGAME:
-                System.out.println("*insert preparations for a new game");
+                UCIOperator.sendDebug("*insert preparations for a new game");
                 break;
             case VALUE:
                 break;
@@ -134,7 +134,8 @@ public class UCITokenizer implements Tokenizer {
 
             case "setoption":
                 result = new Command(CommandType.SETOPTION, parent);
-                result.addChild(tokenizeWord(sentence, i+1, result));
+                // setoption name <id> [value <x>]
+                result.addAll(grabChildren(sentence, i+1, result));
             break;
 
             case "startpos":
@@ -9,6 +9,8 @@ public class PerformanceData {
     public static int getOrComputeLeafValueCalls = 0;
     public static int staticValueComputations = 0;
     public static int leafValueComputations = 0;
+    public static int lazyEvaluationExits = 0;
+    public static int fullEvaluations = 0;
     public static int ascendingComparisons = 0;
     public static int descendingComparisons = 0;
 }
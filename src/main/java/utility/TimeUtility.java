@@ -13,6 +13,10 @@ public class TimeUtility<ResultType> {
      * conversion multiplier: seconds * SECOND_TO_NANO = nanoseconds
      */
     public static final  long SECOND_TO_NANO = 1_000_000_000;
+    /**
+     * conversion multiplier: milliseconds * MILLI_TO_NANO = nanoseconds
+     */
+    public static final  long MILLI_TO_NANO = 1_000_000;
 
     /**
      * Converts nanoseconds stored as long to seconds represented as String.
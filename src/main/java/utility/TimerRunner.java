@@ -1,17 +1,20 @@
 package utility;
 
 import application.Conductor;
+import minimax.IterativeDeepening;
 
 public class TimerRunner implements Runnable {
     
+    /**
+     * Interval in milliseconds in which the timer checks whether the search was stopped.
+     */
+    private static final int POLLING_INTERVAL = 10;
+
     long stopTime;
     int secondsToCompute;
+    IterativeDeepening<?> search;
     
 
-    private long nanoSecondsLeft(){
-        return stopTime - System.nanoTime(); 
-    }
-
     private boolean isTimeLeft() {
         if (System.nanoTime() >= stopTime - 1 * TimeUtility.SECOND_TO_NANO) {
             return false;
@@ -23,17 +26,35 @@ public class TimerRunner implements Runnable {
         this.secondsToCompute = secondsToCompute;
     }
 
+    /**
+     * Creates a timer that additionally reports the progress of the passed search
+     * while it is running.
+     * @param secondsToCompute the time in seconds the search may take
+     * @param search the search whose progress is reported
+     */
+    public TimerRunner(int secondsToCompute, IterativeDeepening<?> search){
+        this(secondsToCompute);
+        this.search = search;
+    }
+
     @Override
     public void run() {
-        long start = System.nanoTime();
-        stopTime = start + secondsToCompute * TimeUtility.SECOND_TO_NANO;
-        while (isTimeLeft() && !Conductor.stopCalculating){
-            try {
-                Thread.sleep(1000);
-                System.out.println(nanoSecondsLeft()/1000000000 + " seconds left");
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+        try {
+            // while pondering the opponent's clock is running,
+            // the time for this search only starts on ponderhit
+            while (Conductor.pondering) {
+                Thread.sleep(POLLING_INTERVAL);
+            }
+            long start = System.nanoTime();
+            stopTime = start + secondsToCompute * TimeUtility.SECOND_TO_NANO;
+            while (isTimeLeft() && !Conductor.stopCalculating){
+                Thread.sleep(POLLING_INTERVAL);
+                if (search != null) {
+                    search.reportProgress();
+                }
             }
+        } catch (InterruptedException e) {
+            e.printStackTrace();
         }
         Conductor.stop();
     }
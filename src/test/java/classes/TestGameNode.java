@@ -8,9 +8,11 @@ import model.Position;
  * An implementation of GameNode used in testing.
  * Invocations of {@link #computeChildren()} increase the counter computeChildrenCalls, 
  * which is used to verify the storing of results in {@link #getOrComputeChildren()}.
+ * Invocations of {@link #computeChildrenIfAny()} increase the counter computeChildrenIfAnyCalls.
  */
 public class TestGameNode extends GameNode {
     public int computeChildrenCalls = 0;
+    public int computeChildrenIfAnyCalls = 0;
 
      /**
      * Creates a test node.
@@ -25,4 +27,10 @@ public class TestGameNode extends GameNode {
         computeChildrenCalls++;
         super.computeChildren();
     }
+
+    @Override
+    protected boolean computeChildrenIfAny() {
+        computeChildrenIfAnyCalls++;
+        return super.computeChildrenIfAny();
+    }
 }
@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.function.Supplier;
 
+import application.Conductor;
 import classes.FailureException;
 import classes.IntNode;
 import gametree.Node;
@@ -181,6 +182,8 @@ public class IntTreeEvaluationHelper {
         if (isIterativeDeepeningCompatible) {
             Tree<? extends Node<Integer>> iterativeTree = treeSupplier.get();
             IterativeDeepening<Integer> iterativeDeepening = new IterativeDeepening<Integer>();
+            // iterative deepening does not reset the stop flag of the previous search
+            Conductor.cleanup();
             iterativeDeepening.evaluateTree(iterativeTree, instantiateTreeEvaluator(), whitesTurn, -1, depth);
             try {
                 int iterativeResult = iterativeDeepening.lastResult.getValue();
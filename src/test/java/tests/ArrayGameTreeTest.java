@@ -0,0 +1,244 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+import gametree.ArrayGameNode;
+import gametree.ArrayGameTree;
+import gametree.ComputeChildrenException;
+import gametree.GameNode;
+import gametree.ImpGameTree;
+import gametree.Node;
+import gametree.UninitializedValueException;
+import minimax.BaseTreeEvaluator;
+import minimax.GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning;
+import minimax.StoringMoveOrderingSelfDestructingAlphaBetaPruning;
+import model.Move;
+import model.Position;
+import movegenerator.MoveGenerator;
+import uciservice.FenParser;
+
+public class ArrayGameTreeTest {
+
+    private static final String FEN = "r3k2r/pPppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    public void replayedPositionsMatchGeneratedPositionsTest() throws ComputeChildrenException {
+        Position position = FenParser.parseFen(FEN);
+        ArrayGameTree tree = new ArrayGameTree(position, 2);
+        List<? extends Node<Position>> children = tree.getRoot().getOrComputeChildren();
+        Position[] expected = MoveGenerator.generatePossibleMoves(position);
+        assertEquals(expected.length, children.size());
+        // expand another node so the positions of the root's children are replayed
+        children.get(1).getOrComputeChildren();
+        for (int i = 0; i < expected.length; i++) {
+            Position replayed = children.get(i).getContent();
+            assertEquals(expected[i].toStringFen(), replayed.toStringFen());
+            assertEquals(expected[i].getZobristKey(), replayed.getZobristKey());
+            assertEquals(expected[i].getMove(), ((ArrayGameNode) children.get(i)).getRepresentedMove());
+        }
+    }
+
+    @Test
+    public void searchMatchesLinkedTreeTest() throws UninitializedValueException {
+        int storedLevels = 2;
+        ArrayGameTree arrayTree = new ArrayGameTree(FenParser.parseFen(FEN), storedLevels);
+        GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning linkedEvaluator =
+            new GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning(storedLevels);
+        ImpGameTree linkedTree = new ImpGameTree(FenParser.parseFen(FEN), linkedEvaluator);
+        StoringMoveOrderingSelfDestructingAlphaBetaPruning<Position> arrayEvaluator =
+            new StoringMoveOrderingSelfDestructingAlphaBetaPruning<Position>(storedLevels);
+
+        // iterations re-search the stored levels in the order of the previous iteration
+        for (int depth = 1; depth <= 4; depth++) {
+            GameNode linkedBest = linkedEvaluator.evaluateTree(linkedTree, depth, true);
+            Node<Position> arrayBest = arrayEvaluator.evaluateTree(arrayTree, depth, true);
+            assertEquals(linkedTree.getRoot().getValue(), arrayTree.getRoot().getValue());
+            assertEquals(getMoves(BaseTreeEvaluator.getPrincipalVariation(linkedBest)),
+                getMoves(BaseTreeEvaluator.getPrincipalVariation(arrayBest)));
+        }
+    }
+
+    @Test
+    public void sortedOrderIsStoredTest() throws ComputeChildrenException, UninitializedValueException {
+        ArrayGameTree tree = new ArrayGameTree(FenParser.parseFen(FEN), 1);
+        new StoringMoveOrderingSelfDestructingAlphaBetaPruning<Position>(1).evaluateTree(tree, 1, true);
+        List<? extends Node<Position>> children = tree.getRoot().getOrComputeChildren();
+        for (int i = 1; i < children.size(); i++) {
+            assertTrue(children.get(i - 1).getValue() >= children.get(i).getValue());
+        }
+        assertEquals(children.get(0), tree.getRoot().getBestChild());
+    }
+
+    @Test
+    public void deletedNodesAreReclaimedTest() throws ComputeChildrenException {
+        ArrayGameTree tree = new ArrayGameTree(FenParser.parseFen(FEN), 3);
+        ArrayGameNode root = tree.getRoot();
+        for (Node<Position> child : root.getOrComputeChildren()) {
+            child.getOrComputeChildren();
+        }
+        assertTrue(tree.getNodeCount() > 1000);
+        assertNotNull(root.getChildren());
+        root.deleteChildren();
+        assertEquals(1, tree.getNodeCount());
+        assertEquals(0, tree.getGarbageCount());
+        assertEquals(FEN, root.getContent().toStringFen());
+    }
+
+    @Test
+    public void detachedNodeKeepsPositionAndSubtreeTest() throws ComputeChildrenException {
+        ArrayGameTree tree = new ArrayGameTree(FenParser.parseFen(FEN), 3);
+        ArrayGameNode root = tree.getRoot();
+        ArrayGameNode child = (ArrayGameNode) root.getOrComputeChildren().get(2);
+        ArrayGameNode grandchild = (ArrayGameNode) child.getOrComputeChildren().get(3);
+        Position position = grandchild.getContent();
+        Position[] expected = MoveGenerator.generatePossibleMoves(position);
+        grandchild.getOrComputeChildren();
+        int siblings = child.getChildren().size();
+
+        grandchild.deleteSelf();
+        assertNull(grandchild.getParent());
+        assertEquals(siblings - 1, child.getChildren().size());
+        assertFalse(child.getChildren().contains(grandchild));
+        // replay a node on the same level, so the position of the detached node is not cached anymore
+        root.getOrComputeChildren().get(0).getOrComputeChildren().get(0).getContent();
+        assertEquals(position.toStringFen(), grandchild.getContent().toStringFen());
+        // the children of the detached node are replayed from its kept position
+        List<? extends Node<Position>> children = grandchild.getChildren();
+        assertEquals(expected.length, children.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i].getZobristKey(), children.get(i).getContent().getZobristKey());
+        }
+
+        // stored nodes keep their level
+        assertThrows(IllegalArgumentException.class, () -> root.insertChild(grandchild));
+        child.insertChild(grandchild);
+        assertEquals(child, grandchild.getParent());
+        assertEquals(siblings, child.getChildren().size());
+        assertTrue(child.getChildren().contains(grandchild));
+        assertThrows(IllegalStateException.class, () -> child.insertChild(grandchild));
+    }
+
+    @Test
+    public void insertedNodesAreStoredTest() throws ComputeChildrenException, UninitializedValueException {
+        int storedLevels = 2;
+        Position position = FenParser.parseFen(FEN);
+        ArrayGameTree tree = new ArrayGameTree(position, storedLevels);
+        ArrayGameNode root = tree.getRoot();
+        int count = root.getOrComputeChildren().size();
+        for (Node<Position> child : root.getOrComputeChildren()) {
+            child.getOrComputeChildren();
+        }
+        ArrayGameNode removed = (ArrayGameNode) root.getChildren().get(0);
+        Position removedPosition = removed.getContent();
+        removed.deleteSelf();
+        assertThrows(NoSuchElementException.class, () -> root.deleteChild(removed));
+
+        // nodes of other trees are copied into a new child behind the existing ones
+        root.insertChild(new GameNode(removedPosition));
+        List<? extends Node<Position>> children = root.getChildren();
+        assertEquals(count, children.size());
+        ArrayGameNode inserted = (ArrayGameNode) children.get(count - 1);
+        assertEquals(root, inserted.getParent());
+        assertEquals(removedPosition.getMove(), inserted.getRepresentedMove());
+        assertEquals(removedPosition.getZobristKey(), inserted.getContent().getZobristKey());
+        assertFalse(inserted.hasChildren());
+
+        // the changed tree is searched like a linked tree
+        GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning linkedEvaluator =
+            new GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning(storedLevels);
+        ImpGameTree linkedTree = new ImpGameTree(FenParser.parseFen(FEN), linkedEvaluator);
+        linkedEvaluator.evaluateTree(linkedTree, 3, true);
+        new StoringMoveOrderingSelfDestructingAlphaBetaPruning<Position>(storedLevels).evaluateTree(tree, 3, true);
+        assertEquals(linkedTree.getRoot().getValue(), root.getValue());
+    }
+
+    @Test
+    public void setContentReplacesMoveTest() throws ComputeChildrenException {
+        Position position = FenParser.parseFen(FEN);
+        ArrayGameTree tree = new ArrayGameTree(position, 2);
+        ArrayGameNode root = tree.getRoot();
+        List<? extends Node<Position>> children = root.getOrComputeChildren();
+        ArrayGameNode first = (ArrayGameNode) children.get(0);
+        first.getOrComputeChildren();
+        Position second = children.get(1).getContent();
+
+        // an equal position keeps the children
+        first.setContent(MoveGenerator.applyMove(position, first.getRepresentedMove()));
+        assertTrue(first.hasChildren());
+        first.setContent(second);
+        assertEquals(second.getMove(), first.getRepresentedMove());
+        assertFalse(first.hasChildren());
+        // replay the node from the root
+        root.getOrComputeChildren().get(1).getOrComputeChildren().get(0).getContent();
+        assertEquals(second.getZobristKey(), first.getContent().getZobristKey());
+
+        Position replacement = FenParser.parseFen(FEN);
+        root.setContent(replacement);
+        assertTrue(replacement == root.getContent());
+        assertThrows(IllegalArgumentException.class, () -> first.setContent(FenParser.parseFen(FEN)));
+    }
+
+    @Test
+    public void recycledChildrenKeepBestChildTest() throws ComputeChildrenException {
+        Position position = FenParser.parseFen(FEN);
+        ArrayGameTree tree = new ArrayGameTree(position, 2);
+        ArrayGameNode root = tree.getRoot();
+        List<? extends Node<Position>> children = root.getOrComputeChildren();
+        Node<Position> best = children.get(2);
+        Node<Position> other = children.get(3);
+        best.getOrComputeChildren();
+        Position bestPosition = best.getContent();
+        root.setBestChild(best);
+
+        root.recycleChildren();
+        assertFalse(root.hasChildren());
+        assertEquals(best, root.getBestChild());
+        assertNull(best.getParent());
+        assertTrue(best.hasChildren());
+        assertThrows(IllegalStateException.class, () -> other.getContent());
+
+        // the best child keeps its position and subtree when the root is expanded again
+        List<? extends Node<Position>> expanded = root.getOrComputeChildren();
+        expanded.get(0).getOrComputeChildren();
+        assertEquals(bestPosition.getZobristKey(), root.getBestChild().getContent().getZobristKey());
+        assertEquals(MoveGenerator.generatePossibleMoves(bestPosition).length,
+            root.getBestChild().getOrComputeChildren().size());
+        assertNotNull(expanded.get(3).getContent());
+        assertFalse(other.equals(expanded.get(3)));
+    }
+
+    @Test
+    public void deletedNodesCannotBeAccessedTest() throws ComputeChildrenException {
+        ArrayGameTree tree = new ArrayGameTree(FenParser.parseFen(FEN), 2);
+        ArrayGameNode root = tree.getRoot();
+        Node<Position> child = root.getOrComputeChildren().get(0);
+        root.deleteChildren();
+        assertThrows(IllegalStateException.class, () -> child.getContent());
+        assertThrows(IllegalStateException.class, () -> child.hasChildren());
+        // a new child at the reused index is a different node
+        Node<Position> replacement = root.getOrComputeChildren().get(0);
+        assertFalse(child.equals(replacement));
+        assertThrows(IllegalStateException.class, () -> root.deleteChild(child));
+    }
+
+    private static List<String> getMoves(List<Node<Position>> variation) {
+        List<String> moves = new ArrayList<String>();
+        for (Node<Position> node : variation) {
+            Move move = node instanceof ArrayGameNode
+                ? ((ArrayGameNode) node).getRepresentedMove() : ((GameNode) node).getRepresentedMove();
+            moves.add(move.toStringAlgebraic());
+        }
+        return moves;
+    }
+}
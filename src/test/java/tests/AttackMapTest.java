@@ -6,6 +6,7 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import model.Position;
+import movegenerator.AttackMap;
 import movegenerator.AttackMapGenerator;
 import uciservice.FenParser;
 
@@ -338,4 +339,40 @@ public class AttackMapTest {
             }
         }
     }
+
+    @Test
+    public void attackMapMatchesComputeChecksTest() {
+        Position[] positions = {emptyPosition, queenTestPosition, rookTestPosition, bishopTestPosition,
+            kingTestPosition, pawnAttackMapTestPosition, knightTestPosition,
+            FenParser.parseFen("r3k2r/pP5p/8/3pP3/8/8/P5pP/R3K2R w KQkq d6 0 1")};
+        for (Position position : positions) {
+            AttackMap attackMap = AttackMapGenerator.computeAttackMap(position.getBoard());
+            for (boolean white : new boolean[] {true, false}) {
+                boolean[] expected = AttackMapGenerator.computeChecks(position.getBoard(), white);
+                for (int square = 0; square < 64; square++) {
+                    assertEquals(expected[square], attackMap.isAttacked(white, square / 8, square % 8),
+                        "square " + square + " in " + position.toStringFen());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void attackMapStatisticsTest() {
+        // white rook on d1 attacks the black knight on d5, which is defended by the pawn on e6,
+        // the black bishop on a5 is attacked by the white knight on b3 and undefended
+        Position position = FenParser.parseFen("4k3/8/4p3/b2n4/8/1N6/8/3RK3 w - - 0 1");
+        AttackMap attackMap = position.getAttackMap();
+        // rook: a1 b1 c1 d2 d3 d4 d5, knight: a1 c1 d2 d4 a5 c5
+        assertEquals(13, attackMap.getMobility(true));
+        // knight: b4 b6 c3 c7 e3 e7 f4 f6, bishop: b4 c3 d2 e1 b6 c7 d8
+        assertEquals(15, attackMap.getMobility(false));
+        // the bishop attacks d2 and e1 next to the white king
+        assertEquals(2, attackMap.getKingZoneAttacks(false));
+        assertEquals(0, attackMap.getKingZoneAttacks(true));
+        assertEquals(1, attackMap.getHangingPieces(false));
+        assertEquals(0, attackMap.getHangingPieces(true));
+        assertEquals(60, attackMap.getKingSquare(true));
+        assertEquals(4, attackMap.getKingSquare(false));
+    }
 }
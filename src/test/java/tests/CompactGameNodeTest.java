@@ -0,0 +1,113 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import gametree.CompactGameNode;
+import gametree.ComputeChildrenException;
+import gametree.GameNode;
+import gametree.ImpGameTree;
+import gametree.ImpTree;
+import gametree.Node;
+import gametree.UninitializedValueException;
+import minimax.BaseTreeEvaluator;
+import minimax.GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning;
+import minimax.StoringMoveOrderingSelfDestructingAlphaBetaPruning;
+import model.Move;
+import model.Position;
+import movegenerator.MoveGenerator;
+import uciservice.FenParser;
+
+public class CompactGameNodeTest {
+
+    private static final String FEN = "r3k2r/pPppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    public void positionsAreReplayedFromAncestorTest() throws ComputeChildrenException {
+        CompactGameNode root = new CompactGameNode(FenParser.parseFen(FEN));
+        List<CompactGameNode> children = root.getOrComputeChildren();
+        Position[] expected = MoveGenerator.generatePossibleMoves(root.getContent());
+        assertEquals(expected.length, children.size());
+        for (int i = 0; i < expected.length; i++) {
+            CompactGameNode child = children.get(i);
+            assertFalse(child.holdsContent());
+            assertEquals(expected[i].getMove(), child.getRepresentedMove());
+            List<CompactGameNode> grandchildren = child.getOrComputeChildren();
+            Position[] expectedGrandchildren = MoveGenerator.generatePossibleMoves(expected[i]);
+            assertEquals(expectedGrandchildren.length, grandchildren.size());
+            // replayed over two moves since neither the grandchild nor its parent hold a position
+            CompactGameNode grandchild = grandchildren.get(grandchildren.size() - 1);
+            assertFalse(child.holdsContent());
+            assertEquals(expectedGrandchildren[expectedGrandchildren.length - 1].toStringFen(),
+                grandchild.getContent().toStringFen());
+        }
+    }
+
+    @Test
+    public void positionsAreOnlyHeldWhileVisitedTest() throws ComputeChildrenException {
+        CompactGameNode root = new CompactGameNode(FenParser.parseFen(FEN));
+        CompactGameNode child = root.getOrComputeChildren().get(0);
+        child.writeContentToHistory();
+        assertTrue(child.holdsContent());
+        child.deleteContentFromHistory();
+        assertFalse(child.holdsContent());
+
+        root.writeContentToHistory();
+        root.deleteContentFromHistory();
+        assertTrue(root.holdsContent());
+    }
+
+    @Test
+    public void packedValuesAndFlagsTest() throws UninitializedValueException {
+        CompactGameNode node = new CompactGameNode(FenParser.parseFen("k7/8/1Q6/8/8/8/8/K7 b - - 0 1"));
+        assertFalse(node.hasOrComputeChildren());
+        node.setValue(Integer.MIN_VALUE);
+        assertEquals(Integer.MIN_VALUE, node.getValue());
+        assertEquals(Integer.MIN_VALUE, node.getExplicitValue());
+        node.setValue(-5);
+        assertEquals(-5, node.getValue());
+        // the terminal flag is kept when values are stored
+        assertFalse(node.hasOrComputeChildren());
+    }
+
+    @Test
+    public void searchMatchesGameNodeSearchTest() throws UninitializedValueException {
+        int storedLevels = 2;
+        GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning linkedEvaluator =
+            new GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning(storedLevels);
+        ImpGameTree linkedTree = new ImpGameTree(FenParser.parseFen(FEN), linkedEvaluator);
+        ImpTree<CompactGameNode> compactTree = new ImpTree<CompactGameNode>(new CompactGameNode(FenParser.parseFen(FEN)));
+        StoringMoveOrderingSelfDestructingAlphaBetaPruning<Position> compactEvaluator =
+            new StoringMoveOrderingSelfDestructingAlphaBetaPruning<Position>(storedLevels);
+
+        for (int depth = 1; depth <= 4; depth++) {
+            GameNode linkedBest = linkedEvaluator.evaluateTree(linkedTree, depth, true);
+            Node<Position> compactBest = compactEvaluator.evaluateTree(compactTree, depth, true);
+            assertNotNull(compactBest);
+            assertEquals(linkedTree.getRoot().getValue(), compactTree.getRoot().getValue());
+            assertEquals(getMoves(BaseTreeEvaluator.getPrincipalVariation(linkedBest)),
+                getMoves(BaseTreeEvaluator.getPrincipalVariation(compactBest)));
+        }
+        // stored nodes do not keep their positions
+        for (CompactGameNode child : compactTree.getRoot().getChildren()) {
+            assertFalse(child.holdsContent());
+        }
+    }
+
+    private static List<String> getMoves(List<Node<Position>> variation) {
+        List<String> moves = new ArrayList<String>();
+        for (Node<Position> node : variation) {
+            Move move = node instanceof CompactGameNode
+                ? ((CompactGameNode) node).getRepresentedMove() : ((GameNode) node).getRepresentedMove();
+            moves.add(move.toStringAlgebraic());
+        }
+        return moves;
+    }
+}
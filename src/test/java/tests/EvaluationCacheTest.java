@@ -0,0 +1,84 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import model.Move;
+import model.Position;
+import movegenerator.MoveGenerator;
+import positionevaluator.EvaluationCache;
+import positionevaluator.PositionEvaluator;
+import uciservice.FenParser;
+
+public class EvaluationCacheTest {
+
+    private static Position play(Position position, String... moves) {
+        for (String move : moves) {
+            position = MoveGenerator.applyMove(position, new Move(move));
+        }
+        return position;
+    }
+
+    @Test
+    public void probeReturnsStoredValueTest() {
+        EvaluationCache cache = new EvaluationCache(16);
+        assertEquals(EvaluationCache.MISS, cache.probe(42));
+        cache.store(42, -317);
+        assertEquals(-317, cache.probe(42));
+        assertEquals(2, cache.getProbes());
+        assertEquals(1, cache.getHits());
+        assertEquals(500, cache.getHitRatePermill());
+    }
+
+    @Test
+    public void collidingKeyReplacesEntryTest() {
+        EvaluationCache cache = new EvaluationCache(16);
+        cache.store(3, 100);
+        cache.store(3 + 16, 200);
+        assertEquals(EvaluationCache.MISS, cache.probe(3));
+        assertEquals(200, cache.probe(3 + 16));
+    }
+
+    @Test
+    public void emptyEntryDoesNotMatchKeyZeroTest() {
+        EvaluationCache cache = new EvaluationCache(16);
+        assertEquals(EvaluationCache.MISS, cache.probe(0));
+        cache.store(0, 0);
+        assertEquals(0, cache.probe(0));
+    }
+
+    @Test
+    public void illegalSizeTest() {
+        assertThrows(IllegalArgumentException.class, () -> new EvaluationCache(0));
+        assertThrows(IllegalArgumentException.class, () -> new EvaluationCache(100));
+    }
+
+    @Test
+    public void transpositionsHaveEqualKeysTest() {
+        Position start = FenParser.parseFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        Position first = play(start, "g1f3", "g8f6", "b1c3", "b8c6");
+        Position second = play(start, "b1c3", "b8c6", "g1f3", "g8f6");
+        assertEquals(first.getZobristKey(), second.getZobristKey());
+        assertEquals(PositionEvaluator.evaluatePosition(first), PositionEvaluator.evaluatePosition(second));
+    }
+
+    @Test
+    public void stateChangesKeyTest() {
+        Position position = FenParser.parseFen("r3k2r/pppppppp/8/8/8/8/PPPPPPPP/R3K2R w KQkq - 0 1");
+        Position otherSide = FenParser.parseFen("r3k2r/pppppppp/8/8/8/8/PPPPPPPP/R3K2R b KQkq - 0 1");
+        Position noCastling = FenParser.parseFen("r3k2r/pppppppp/8/8/8/8/PPPPPPPP/R3K2R w Kkq - 0 1");
+        assertNotEquals(position.getZobristKey(), otherSide.getZobristKey());
+        assertNotEquals(position.getZobristKey(), noCastling.getZobristKey());
+    }
+
+    @Test
+    public void incrementalKeyEqualsFullComputationTest() {
+        Position start = FenParser.parseFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        Position played = play(start, "e2e4", "d7d5", "e4d5", "d8d5", "b1c3");
+        Position parsed = FenParser.parseFen("rnb1kbnr/ppp1pppp/8/3q4/8/2N5/PPPP1PPP/R1BQKBNR b KQkq - 0 3");
+        assertEquals(parsed.getZobristKey(), played.getZobristKey());
+    }
+}
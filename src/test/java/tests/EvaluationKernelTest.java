@@ -0,0 +1,117 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import gametree.ComputeChildrenException;
+import gametree.GameNode;
+import gametree.Node;
+import model.Board;
+import model.Position;
+import movegenerator.MoveGenerator;
+import positionevaluator.EvaluationKernel;
+import positionevaluator.MaterialEntry;
+import positionevaluator.PieceSquareTable;
+import positionevaluator.PositionEvaluator;
+import positionevaluator.ScalarEvaluationKernel;
+import positionevaluator.VectorEvaluationKernel;
+import uciservice.FenParser;
+
+public class EvaluationKernelTest {
+
+    private static final String[] FENS = {
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        "r3k2r/pP5p/8/3pP3/8/8/P5pP/R3K2R w KQkq d6 0 1",
+        "rn1qkbnr/pbpppppp/1p6/8/8/N7/PPPPPPPP/1RBQKBNR b Kkq - 0 1",
+        "2b1k3/8/8/8/8/8/PP6/2B1K3 w - - 0 1",
+        "4k3/8/8/8/8/8/8/R3K3 w - - 0 1"
+    };
+
+    private static boolean isVectorApiAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    private static byte[] getPieces(Board board) {
+        byte[] pieces = new byte[64];
+        for (int square = 0; square < 64; square++) {
+            pieces[square] = board.getByteAt(square / 8, square % 8);
+        }
+        return pieces;
+    }
+
+    private static void verifyPieceSquareSums(EvaluationKernel kernel) {
+        for (String fen : FENS) {
+            Board board = FenParser.parseFen(fen).getBoard();
+            assertEquals(PositionEvaluator.computePieceSquareScore(board, false),
+                kernel.sumPieceSquareValues(getPieces(board), false), fen);
+            assertEquals(PositionEvaluator.computePieceSquareScore(board, true),
+                kernel.sumPieceSquareValues(getPieces(board), true), fen);
+        }
+    }
+
+    private static void verifyTaper(EvaluationKernel kernel) {
+        Random random = new Random(7);
+        // lengths that do and do not fill whole vectors
+        for (int length : new int[] {0, 1, 7, 8, 16, 37, 218}) {
+            int[] midgameScores = new int[length];
+            int[] endgameScores = new int[length];
+            int[] gamePhases = new int[length];
+            int[] imbalances = new int[length];
+            int[] scaleFactors = new int[length];
+            int[] expected = new int[length];
+            for (int i = 0; i < length; i++) {
+                midgameScores[i] = random.nextInt(8001) - 4000;
+                endgameScores[i] = random.nextInt(8001) - 4000;
+                gamePhases[i] = random.nextInt(PieceSquareTable.MAX_GAME_PHASE + 1);
+                imbalances[i] = random.nextInt(301) - 150;
+                scaleFactors[i] = random.nextBoolean() ? MaterialEntry.SCALE_NORMAL : MaterialEntry.SCALE_OPPOSITE_BISHOPS;
+                expected[i] = (PositionEvaluator.taper(midgameScores[i], endgameScores[i], gamePhases[i]) + imbalances[i])
+                    * scaleFactors[i] / MaterialEntry.SCALE_NORMAL;
+            }
+            int[] results = new int[length];
+            kernel.taper(midgameScores, endgameScores, gamePhases, imbalances, scaleFactors, results, length);
+            assertArrayEquals(expected, results, "length " + length);
+        }
+    }
+
+    @Test
+    public void scalarKernelTest() {
+        verifyPieceSquareSums(new ScalarEvaluationKernel());
+        verifyTaper(new ScalarEvaluationKernel());
+    }
+
+    @Test
+    public void vectorKernelTest() {
+        assumeTrue(isVectorApiAvailable(), "requires --add-modules jdk.incubator.vector");
+        verifyPieceSquareSums(new VectorEvaluationKernel());
+        verifyTaper(new VectorEvaluationKernel());
+    }
+
+    @Test
+    public void batchEvaluationEqualsSingleEvaluationTest() {
+        for (String fen : FENS) {
+            Position[] children = MoveGenerator.generatePossibleMoves(FenParser.parseFen(fen));
+            int[] results = new int[children.length];
+            PositionEvaluator.evaluatePositions(children, children.length, results);
+            for (int i = 0; i < children.length; i++) {
+                assertEquals(PositionEvaluator.evaluatePosition(children[i]), results[i], children[i].toStringFen());
+            }
+        }
+    }
+
+    @Test
+    public void computeChildrenStaticValuesTest() throws ComputeChildrenException {
+        GameNode root = new GameNode(FenParser.parseFen(FENS[1]));
+        List<? extends Node<Position>> children = root.getOrComputeChildren();
+        root.computeChildrenStaticValues();
+        for (Node<Position> child : children) {
+            assertEquals(PositionEvaluator.evaluatePosition(child.getContent()), child.computeOrGetStaticValueOrBetter());
+        }
+    }
+}
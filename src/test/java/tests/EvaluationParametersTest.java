@@ -0,0 +1,89 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import model.PieceEncoding;
+import positionevaluator.EvaluationParameters;
+import positionevaluator.MaterialTable;
+import positionevaluator.PawnStructureEvaluator;
+import positionevaluator.PieceSquareTable;
+import positionevaluator.PositionEvaluator;
+import uciservice.FenParser;
+
+public class EvaluationParametersTest {
+
+    private static final int[] defaults = EvaluationParameters.get();
+
+    @AfterEach
+    public void restoreDefaults() {
+        EvaluationParameters.set(defaults);
+    }
+
+    @Test
+    public void defaultParametersTest() {
+        assertEquals(MaterialTable.BISHOP_PAIR_BONUS, defaults[EvaluationParameters.BISHOP_PAIR]);
+        assertEquals(PositionEvaluator.MOBILITY_MIDGAME, defaults[EvaluationParameters.MOBILITY_MIDGAME]);
+        assertEquals(PawnStructureEvaluator.ISOLATED_ENDGAME,
+            defaults[EvaluationParameters.PAWN_STRUCTURE_ENDGAME + PawnStructureEvaluator.ISOLATED]);
+        // white pawn on e2 (rank 6, file 4)
+        assertEquals(PieceSquareTable.getMidgameValue(PieceEncoding.WHITE_PAWN, 6, 4),
+            defaults[EvaluationParameters.PIECE_SQUARE_MIDGAME + (PieceEncoding.WHITE_PAWN - PieceEncoding.WHITE_BISHOP) * 64 + 52]);
+    }
+
+    @Test
+    public void saveAndLoadTest(@TempDir Path directory) throws IOException {
+        int[] parameters = defaults.clone();
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] += i % 7 - 3;
+        }
+        Path file = directory.resolve("parameters.txt");
+        EvaluationParameters.save(file, parameters);
+        assertArrayEquals(parameters, EvaluationParameters.load(file));
+    }
+
+    @Test
+    public void partialFileTest(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("parameters.txt");
+        Files.write(file, List.of("# only the bishop pair", "bishop-pair 40"));
+        int[] parameters = EvaluationParameters.load(file);
+        assertEquals(40, parameters[EvaluationParameters.BISHOP_PAIR]);
+        parameters[EvaluationParameters.BISHOP_PAIR] = defaults[EvaluationParameters.BISHOP_PAIR];
+        assertArrayEquals(defaults, parameters);
+
+        Files.write(file, List.of("unknown 1"));
+        assertThrows(IOException.class, () -> EvaluationParameters.load(file));
+        Files.write(file, List.of("mobility.midgame"));
+        assertThrows(IOException.class, () -> EvaluationParameters.load(file));
+    }
+
+    @Test
+    public void setParametersTest() {
+        String fen = "2b1kb2/4p3/8/8/8/8/4P3/2B1K3 w - - 0 1";
+        int before = PositionEvaluator.evaluatePosition(FenParser.parseFen(fen));
+        int[] parameters = defaults.clone();
+        parameters[EvaluationParameters.BISHOP_PAIR] += 100;
+        // white pawn on e2 (rank 6, file 4), mirrored to e7 for black
+        parameters[EvaluationParameters.PIECE_SQUARE_ENDGAME + (PieceEncoding.WHITE_PAWN - PieceEncoding.WHITE_BISHOP) * 64 + 52] += 1000;
+        EvaluationParameters.set(parameters);
+
+        assertArrayEquals(parameters, EvaluationParameters.get());
+        assertEquals(-defaults[EvaluationParameters.PIECE_SQUARE_ENDGAME + (PieceEncoding.WHITE_PAWN - PieceEncoding.WHITE_BISHOP) * 64 + 52] - 1000,
+            PieceSquareTable.getEndgameValue(PieceEncoding.BLACK_PAWN, 1, 4));
+        // the pawns cancel each other, black gains a larger bishop pair bonus
+        int after = PositionEvaluator.evaluatePosition(FenParser.parseFen(fen));
+        assertNotEquals(before, after);
+        assertEquals(before - 100, after, 1);
+    }
+}
@@ -0,0 +1,98 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import gametree.GameNode;
+import gametree.ImpGameTree;
+import gametree.UninitializedValueException;
+import helper.GameTreeEvaluationHelper;
+import minimax.FlatAlphaBetaPruning;
+import minimax.GameNodeMoveOrderingSelfDestructingAlphaBetaPruning;
+import minimax.TranspositionTable;
+import model.Move;
+import model.Position;
+import movegenerator.MoveListGenerator;
+import uciservice.FenParser;
+
+public class FlatAlphaBetaPruningGameTreeTest extends ExpensiveGameTreeEvaluationTest {
+
+    public FlatAlphaBetaPruningGameTreeTest() {
+        super(new GameTreeEvaluationHelper(() -> new FlatAlphaBetaPruning()));
+    }
+
+    @Test
+    public void sameValueAsTreeEvaluatorTest() throws UninitializedValueException {
+        String[] fens = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/pPppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "1b2q1p1/n1k1r3/3p4/2pp4/5PR1/7P/1PP3KB/2Q5 b - - 0 1"
+        };
+        for (String fen : fens) {
+            FlatAlphaBetaPruning flat = new FlatAlphaBetaPruning();
+            for (int depth = 1; depth <= 4; depth++) {
+                GameNodeMoveOrderingSelfDestructingAlphaBetaPruning tree =
+                    new GameNodeMoveOrderingSelfDestructingAlphaBetaPruning();
+                Position position = FenParser.parseFen(fen);
+                GameNode expected = tree.evaluateTree(new ImpGameTree(position, tree), depth, position.getWhiteNextMove());
+                GameNode actual = flat.evaluateTree(new ImpGameTree(position, flat), depth, position.getWhiteNextMove());
+                assertEquals(expected.getValue(), actual.getValue(), fen + " depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    public void principalVariationHasSearchedDepthTest() {
+        FlatAlphaBetaPruning flat = new FlatAlphaBetaPruning();
+        Position position = FenParser.parseFen("r3k2r/pPppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        GameNode best = flat.evaluateTree(new ImpGameTree(position, flat), 4, true);
+        assertEquals(4, FlatAlphaBetaPruning.getPrincipalVariation(best).size());
+        assertTrue(flat.getHashfull() > 0);
+    }
+
+    @Test
+    public void transpositionTableIsReusedAfterExpectedReplyTest() throws UninitializedValueException {
+        Position position = FenParser.parseFen("r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4");
+        TranspositionTable table = new TranspositionTable(FlatAlphaBetaPruning.DEFAULT_TABLE_SIZE);
+        FlatAlphaBetaPruning previous = new FlatAlphaBetaPruning(table);
+        GameNode best = previous.evaluateTree(new ImpGameTree(position, previous), 5, true);
+        // the position after the move played and the expected reply
+        Position expected = ((GameNode) best.getBestChild()).getContent();
+
+        FlatAlphaBetaPruning reusing = new FlatAlphaBetaPruning(table);
+        GameNode reused = reusing.evaluateTree(new ImpGameTree(expected, reusing), 3, true);
+        FlatAlphaBetaPruning fresh = new FlatAlphaBetaPruning();
+        GameNode searched = fresh.evaluateTree(new ImpGameTree(expected, fresh), 3, true);
+        assertEquals(searched.getValue(), reused.getValue());
+        assertTrue(reusing.getEvaluatedNodeCount() < fresh.getEvaluatedNodeCount());
+    }
+
+    @Test
+    public void rootNodeCountsOfLastSearchTest() throws UninitializedValueException {
+        Position position = FenParser.parseFen("r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4");
+        FlatAlphaBetaPruning flat = new FlatAlphaBetaPruning();
+        GameNode first = flat.evaluateTree(new ImpGameTree(position, flat), 3, true);
+        long sum = 0;
+        for (int move : MoveListGenerator.generateMoves(position)) {
+            int count = flat.getRootNodeCount(Move.unpack(move));
+            // every move of the root is searched at least to its own node
+            assertTrue(count > 0, Move.unpack(move) + " was not counted");
+            sum += count;
+        }
+        // the root itself is not counted below any of its moves
+        assertEquals(flat.getEvaluatedNodeCount() - 1, sum);
+        assertEquals(0, flat.getRootNodeCount(new Move("a2a5")));
+
+        // the next search of the root orders its quiet moves by the counts and replaces them
+        flat.resetEvaluatedNodeCount();
+        GameNode second = flat.evaluateTree(new ImpGameTree(position, flat), 3, true);
+        assertEquals(first.getValue(), second.getValue());
+        sum = 0;
+        for (int move : MoveListGenerator.generateMoves(position)) {
+            sum += flat.getRootNodeCount(Move.unpack(move));
+        }
+        assertEquals(flat.getEvaluatedNodeCount() - 1, sum);
+    }
+}
@@ -1,7 +1,9 @@
 package tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
 
@@ -91,4 +93,34 @@ public abstract class GameNodeTestBase {
         assertThrows(ComputeChildrenException.class, () -> mateNode.getOrComputeChildren());
     }
 
+    @Test
+    public void hasOrComputeChildrenGeneratesChildren() {
+        GameNode node = createRoot(FenParser.parseFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"));
+        assertTrue(node.hasOrComputeChildren());
+        assertEquals(20, node.getChildren().size());
+        assertTrue(node.hasOrComputeChildren());
+        assertEquals(20, node.getChildren().size());
+    }
+
+    @Test
+    public void hasOrComputeChildrenCheckmateReturnsFalse() {
+        GameNode mateNode = createRoot(FenParser.parseFen("8/3K4/8/2rrr3/8/8/8/3k4 w - - 0 1"));
+        assertFalse(mateNode.hasOrComputeChildren());
+    }
+
+    @Test
+    public void hasOrComputeChildrenStalemateReturnsFalse() {
+        GameNode staleNode = createRoot(FenParser.parseFen("k7/8/1Q6/8/8/8/8/K7 b - - 0 1"));
+        assertFalse(staleNode.hasOrComputeChildren());
+    }
+
+    @Test
+    public void hasOrComputeChildrenRemembersTerminalNodes() {
+        TestGameNode testNode = new TestGameNode(FenParser.parseFen("k7/4R3/8/1R6/8/8/8/K7 b - - 0 1"));
+        assertFalse(testNode.hasOrComputeChildren());
+        assertFalse(testNode.hasOrComputeChildren());
+        assertEquals(1, testNode.computeChildrenIfAnyCalls);
+        assertEquals(0, testNode.computeChildrenCalls);
+    }
+
 }
@@ -1,12 +1,14 @@
 package tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import application.Conductor;
@@ -70,6 +72,15 @@ public abstract class GameTreeEvaluationTest {
     public GameTreeEvaluationTest(GameTreeEvaluationHelper gameTreeEvaluator) {
         this.helper = gameTreeEvaluator;
     }
+
+    /**
+     * Iterative deepening sets {@link Conductor#stopCalculating} once it is done and does not reset it
+     * when it starts, evaluations should not be aborted by it or report results of previous tests.
+     */
+    @BeforeEach
+    public void resetStopCalculating() {
+        Conductor.cleanup();
+    }
     
     @Test
     public void illegalDepthTest() {
@@ -301,6 +312,28 @@ public abstract class GameTreeEvaluationTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void ponderMoveIsLegalReplyTest() {
+        Position position = FenParser.parseFen("k7/2n5/3b1b2/3p4/8/2N3P1/4R3/K7 b - - 0 1");
+        GameTreeEvaluator evaluator = helper.instantiateTreeEvaluator();
+        new IterativeDeepening<Position>().evaluateTree(new ImpGameTree(position, evaluator), evaluator, false, -1, 3);
+        assertNotNull(Conductor.ponderMove);
+        // the expected reply has to be playable after the best move
+        assertNotNull(Conductor.bestFollowUp.getFollowUpByMove(Conductor.ponderMove));
+    }
+
+    @Test
+    public void nodeCountSpansAllIterationsTest() {
+        Position position = FenParser.parseFen("k7/2n5/3b1b2/3p4/8/2N3P1/4R3/K7 b - - 0 1");
+        GameTreeEvaluator evaluator = helper.instantiateTreeEvaluator();
+        IterativeDeepening<Position> iterativeDeepening = new IterativeDeepening<Position>();
+        iterativeDeepening.evaluateTree(new ImpGameTree(position, evaluator), evaluator, false, -1, 3);
+        Conductor.cleanup();
+        evaluator.evaluateTree(new ImpGameTree(position, evaluator), 3, false);
+        // iterations 1 and 2 are counted in addition to iteration 3
+        assertTrue(iterativeDeepening.getNodeCount() > evaluator.getEvaluatedNodeCount());
+    }
+
     @Test
     public void conductorHistoryEmptyAfterMovegen(){
         assertEquals(0, Conductor.getPastPositions().size());
@@ -344,13 +377,13 @@ public abstract class GameTreeEvaluationTest {
     @Test
     public void bishopCaptureDepth1BlackTest() throws UninitializedValueException {
         GameNode bestMove = helper.evaluate("rn1qkbnr/pbpppppp/1p6/8/8/N7/PPPPPPPP/1RBQKBNR b Kkq - 0 1", 1, false);
-        assertEquals(-95, bestMove.getValue());
+        assertEquals(-149, bestMove.getValue());
     }
 
     @Test
     public void bishopCaptureDepth1WhiteTest() throws UninitializedValueException {
         GameNode bestMove = helper.evaluate("1rbqkbnr/pppppppp/n7/8/8/1P6/PBPPPPPP/RN1QKBNR w KQk - 0 1", 1, true);
-        assertEquals(95, bestMove.getValue());
+        assertEquals(149, bestMove.getValue());
     }
 
     @Test
@@ -1,7 +1,10 @@
 package tests;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 import classes.IntNode;
@@ -11,8 +14,10 @@ import data.IntNodeWikipediaTestTree;
 import gametree.ImpTree;
 import gametree.Node;
 import gametree.Tree;
+import gametree.UninitializedValueException;
 import helper.IntNodeHelper;
 import helper.IntTreeEvaluationHelper;
+import minimax.TreeEvaluator;
 
 import static java.lang.Integer.MAX_VALUE;
 import static java.lang.Integer.MIN_VALUE;
@@ -247,4 +252,38 @@ public abstract class IntTreeEvaluationTest {
     public void smallAsymmetricTestTreeBlackTest() {
         helper.verifyTreeAndInvertedTree(-6, 4, false, () -> new IntNodeSmallAsymmetricTestTree());
     }
+
+    @Test
+    public void multiPVWhiteTest() throws UninitializedValueException {
+        // children are worth 3, 1 and 4
+        Tree<IntNode> tree = IntNodeHelper.createIntNodeTree(3, 3, 5, 7, 8, 1, 9, 6, 4, 10);
+        TreeEvaluator<Integer> evaluator = helper.instantiateTreeEvaluator();
+        evaluator.setMultiPV(2);
+        Node<Integer> best = evaluator.evaluateTree(tree, 2, true);
+        List<Node<Integer>> lines = evaluator.getBestLines();
+        assertEquals(2, lines.size());
+        assertEquals(best, lines.get(0));
+        assertEquals(4, lines.get(0).getValue());
+        assertEquals(3, lines.get(1).getValue());
+        assertEquals(4, tree.getRoot().getValue());
+    }
+
+    @Test
+    public void multiPVBlackTest() throws UninitializedValueException {
+        // children are worth 7, 9 and 10
+        Tree<IntNode> tree = IntNodeHelper.createIntNodeTree(3, 3, 5, 7, 8, 1, 9, 6, 4, 10);
+        TreeEvaluator<Integer> evaluator = helper.instantiateTreeEvaluator();
+        evaluator.setMultiPV(3);
+        evaluator.evaluateTree(tree, 2, false);
+        List<Node<Integer>> lines = evaluator.getBestLines();
+        assertEquals(3, lines.size());
+        assertEquals(7, lines.get(0).getValue());
+        assertEquals(9, lines.get(1).getValue());
+        assertEquals(10, lines.get(2).getValue());
+    }
+
+    @Test
+    public void illegalMultiPVTest() {
+        assertThrows(IllegalArgumentException.class, () -> helper.instantiateTreeEvaluator().setMultiPV(0));
+    }
 }
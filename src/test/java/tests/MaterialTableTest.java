@@ -0,0 +1,98 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import model.Board;
+import positionevaluator.MaterialEntry;
+import positionevaluator.MaterialTable;
+import positionevaluator.PositionEvaluator;
+import positionevaluator.SpecialisedEndgame;
+import uciservice.FenParser;
+
+public class MaterialTableTest {
+
+    private static MaterialEntry entry(String fen) {
+        return MaterialTable.probe(FenParser.parseFen(fen).getBoard().getPieceCounts());
+    }
+
+    private static int evaluate(String fen) {
+        return PositionEvaluator.evaluatePosition(FenParser.parseFen(fen));
+    }
+
+    @Test
+    public void trivialDrawTest() {
+        assertEquals(0, evaluate("4k3/8/8/8/8/8/8/4K3 w - - 0 1"));
+        assertEquals(0, evaluate("4k3/8/8/8/8/8/8/2B1K3 w - - 0 1"));
+        assertEquals(0, evaluate("4k3/8/8/8/8/8/8/1N2K3 b - - 0 1"));
+        assertEquals(0, evaluate("1n2k1n1/8/8/8/8/8/8/4K3 w - - 0 1"));
+        assertFalse(entry("4k3/8/8/8/8/8/8/1NB1K3 w - - 0 1").isDraw());
+        assertFalse(entry("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1").isDraw());
+        assertFalse(entry("4k3/7p/8/8/8/8/8/2B1K3 w - - 0 1").isDraw());
+    }
+
+    @Test
+    public void specialisedEndgameTest() {
+        assertEquals(SpecialisedEndgame.KRK, entry("4k3/8/8/8/8/8/8/R3K3 w - - 0 1").getSpecialisedEndgame());
+        assertEquals(SpecialisedEndgame.KQK, entry("4k3/q7/8/8/8/8/8/4K3 w - - 0 1").getSpecialisedEndgame());
+        assertNull(entry("4k3/8/8/8/8/8/P7/R3K3 w - - 0 1").getSpecialisedEndgame());
+        assertNull(entry("4k3/8/8/8/8/8/8/RR2K3 w - - 0 1").getSpecialisedEndgame());
+    }
+
+    @Test
+    public void lonelyKingIsPushedToTheEdgeTest() {
+        int central = evaluate("8/8/8/3k4/8/8/8/R3K3 w - - 0 1");
+        int edge = evaluate("3k4/8/8/8/8/8/8/R3K3 w - - 0 1");
+        int corner = evaluate("k7/8/8/8/8/8/8/R3K3 w - - 0 1");
+        assertTrue(central > 0);
+        assertTrue(edge > central);
+        assertTrue(corner > edge);
+        // mirrored for black
+        assertEquals(-edge, evaluate("r3k3/8/8/8/8/8/8/3K4 w - - 0 1"));
+    }
+
+    @Test
+    public void oppositeColoredBishopsTest() {
+        // white bishop on c1 (dark square), black bishop on c8 (light square)
+        String opposite = "2b1k3/8/8/8/8/8/PP6/2B1K3 w - - 0 1";
+        // black bishop on f8 (dark square)
+        String sameColor = "4kb2/8/8/8/8/8/PP6/2B1K3 w - - 0 1";
+        Board oppositeBoard = FenParser.parseFen(opposite).getBoard();
+        Board sameColorBoard = FenParser.parseFen(sameColor).getBoard();
+        MaterialEntry material = MaterialTable.probe(oppositeBoard.getPieceCounts());
+        assertSame(material, MaterialTable.probe(sameColorBoard.getPieceCounts()));
+        assertEquals(MaterialEntry.SCALE_OPPOSITE_BISHOPS, material.getScaleFactor(oppositeBoard));
+        assertEquals(MaterialEntry.SCALE_NORMAL, material.getScaleFactor(sameColorBoard));
+        assertTrue(evaluate(opposite) < evaluate(sameColor));
+    }
+
+    @Test
+    public void bishopPairTest() {
+        assertEquals(MaterialTable.BISHOP_PAIR_BONUS, entry("4k3/8/8/8/8/8/8/2B1KB2 w - - 0 1").getImbalance());
+        assertEquals(-MaterialTable.BISHOP_PAIR_BONUS, entry("2b1kb2/8/8/8/8/8/8/4K3 w - - 0 1").getImbalance());
+        assertEquals(0, entry("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1").getImbalance());
+    }
+
+    @Test
+    public void gamePhaseTest() {
+        assertEquals(24, entry("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1").getGamePhase());
+        assertEquals(6, entry("3qk3/8/8/8/8/8/8/2B1K1N1 w - - 0 1").getGamePhase());
+        assertEquals(24, entry("qqqqk3/8/8/8/8/8/8/QQQQK3 w - - 0 1").getGamePhase());
+    }
+
+    @Test
+    public void probeHitTest() {
+        long pieceCounts = FenParser.parseFen("4k3/ppp5/8/8/8/8/PP6/3RK3 w - - 0 1").getBoard().getPieceCounts();
+        MaterialEntry first = MaterialTable.probe(pieceCounts);
+        long hits = MaterialTable.getHits();
+        assertSame(first, MaterialTable.probe(pieceCounts));
+        assertEquals(hits + 1, MaterialTable.getHits());
+        assertNotEquals(pieceCounts, entry("4k3/ppp5/8/8/8/8/PP6/4K3 w - - 0 1").getPieceCounts());
+    }
+}
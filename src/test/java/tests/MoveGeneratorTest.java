@@ -16,6 +16,7 @@ import gametree.Node;
 import helper.Mirror;
 import helper.MoveGeneratorHelper;
 import helper.PositionHelper;
+import model.Move;
 import model.Position;
 import movegenerator.MoveGenerator;
 import positionevaluator.PositionEvaluator;
@@ -850,7 +851,9 @@ public class MoveGeneratorTest {
             }
         }
         assertNotNull(bishopMove);
-        assertEquals(10, PositionEvaluator.evaluatePosition(bishopMove));
+        // 10 points piece square value, 8 points for the black a7 pawn not being connected,
+        // black pieces can move to 12 squares, white pieces to 6 squares, 4 points each
+        assertEquals(-6, PositionEvaluator.evaluatePosition(bishopMove));
     }
 
 
@@ -868,7 +871,7 @@ public class MoveGeneratorTest {
                         bishopCapture = child.getContent();
                     }
                 }
-                assertEquals(-95, PositionEvaluator.evaluatePosition(bishopCapture));             
+                assertEquals(-149, PositionEvaluator.evaluatePosition(bishopCapture));             
     }
 
     @Test
@@ -977,4 +980,33 @@ public class MoveGeneratorTest {
                 "c7b7", "c7b8", "c7c8", "c7d8", "a1b1", "a1a2");
     }
 
+
+    @Test
+    public void applyMoveMatchesGeneratedPositionsTest() {
+        String[] fens = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p6p/8/8/8/8/P6P/R3K2R w KQkq - 0 1",
+            "r3k2r/p6p/8/8/8/8/P6P/R3K2R b KQkq - 0 1",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+            "4k3/8/8/8/3pP3/8/8/4K3 b - e3 0 1",
+            "1n5k/P6p/8/8/8/8/1p5P/K1N5 w - - 3 20",
+            "1n5k/P6p/8/8/8/8/1p5P/K1N5 b - - 3 20"
+        };
+        for (String fen : fens) {
+            Position position = FenParser.parseFen(fen);
+            for (Position expected : MoveGenerator.generatePossibleMoves(position)) {
+                Position actual = MoveGenerator.applyMove(position, expected.getMove());
+                assertEquals(expected.toStringFen(), actual.toStringFen(), "move " + expected.getMove() + " in " + fen);
+                assertEquals(expected, actual, "move " + expected.getMove() + " in " + fen);
+                assertEquals(expected.getMove(), actual.getMove());
+            }
+        }
+    }
+
+    @Test
+    public void applyMoveRejectsMoveOfWrongPlayerTest() {
+        Position position = FenParser.parseFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        assertThrows(IllegalArgumentException.class, () -> MoveGenerator.applyMove(position, new Move("e7e5")));
+        assertThrows(IllegalArgumentException.class, () -> MoveGenerator.applyMove(position, new Move("e3e4")));
+    }
 }
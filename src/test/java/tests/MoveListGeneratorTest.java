@@ -0,0 +1,97 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import gametree.ComputeChildrenException;
+import gametree.GameNode;
+import gametree.Node;
+import model.Move;
+import model.Position;
+import movegenerator.MoveGenerator;
+import movegenerator.MoveListGenerator;
+import uciservice.FenParser;
+
+public class MoveListGeneratorTest {
+
+    private static final String[] FENS = {
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+        "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+        "r3k2r/p6p/8/8/8/8/P6P/R3K2R b KQkq - 0 1",
+        "8/8/8/2k5/3Pp3/8/8/4K3 b - d3 0 1",
+        "8/8/8/K2Pp2r/8/8/8/7k w - e6 0 1"
+    };
+
+    /**
+     * Compares the moves with the moves of the positions generated by {@link MoveGenerator}, including their order,
+     * for the passed position and its follow-up positions.
+     */
+    private static int compareToPositionGenerator(Position position, int depth) {
+        Position[] expected = MoveGenerator.generatePossibleMoves(position);
+        int[] moves = MoveListGenerator.generateMoves(position);
+        assertEquals(expected.length, moves.length, position.toStringFen());
+        for (int i = 0; i < moves.length; i++) {
+            assertEquals(expected[i].getMove(), Move.unpack(moves[i]), position.toStringFen());
+        }
+        int compared = 1;
+        if (depth > 1) {
+            for (Position followUp : expected) {
+                compared += compareToPositionGenerator(followUp, depth - 1);
+            }
+        }
+        return compared;
+    }
+
+    @Test
+    public void movesMatchGeneratedPositionsTest() {
+        int compared = 0;
+        for (String fen : FENS) {
+            compared += compareToPositionGenerator(FenParser.parseFen(fen), 3);
+        }
+        assertTrue(compared > 1000);
+    }
+
+    @Test
+    public void appliedMovesMatchGeneratedPositionsTest() {
+        for (String fen : FENS) {
+            Position position = FenParser.parseFen(fen);
+            Position[] expected = MoveGenerator.generatePossibleMoves(position);
+            int[] moves = MoveListGenerator.generateMoves(position);
+            for (int i = 0; i < moves.length; i++) {
+                Position applied = MoveGenerator.applyMove(position, Move.unpack(moves[i]));
+                assertEquals(expected[i].toStringFen(), applied.toStringFen());
+                assertEquals(expected[i].getZobristKey(), applied.getZobristKey());
+            }
+        }
+    }
+
+    @Test
+    public void checkmateAndStalemateHaveNoMovesTest() {
+        assertEquals(0, MoveListGenerator.generateMoves(FenParser.parseFen("k7/1Q6/1K6/8/8/8/8/8 b - - 0 1")).length);
+        assertEquals(0, MoveListGenerator.generateMoves(FenParser.parseFen("k7/8/1Q6/8/8/8/8/K7 b - - 0 1")).length);
+    }
+
+    @Test
+    public void childPositionsAreComputedOnAccessTest() throws ComputeChildrenException {
+        for (String fen : FENS) {
+            Position position = FenParser.parseFen(fen);
+            GameNode node = new GameNode(position);
+            List<? extends Node<Position>> children = node.getOrComputeChildren();
+            Position[] expected = MoveGenerator.generatePossibleMoves(position);
+            assertEquals(expected.length, children.size());
+            for (int i = children.size() - 1; i >= 0; i--) {
+                GameNode child = (GameNode) children.get(i);
+                assertEquals(expected[i].getMove(), child.getRepresentedMove());
+                assertEquals(expected[i].toStringFen(), child.getContent().toStringFen());
+                assertEquals(expected[i].getMove(), child.getContent().getMove());
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import model.Move;
+import model.MutablePosition;
+import model.Position;
+import movegenerator.MoveGenerator;
+import movegenerator.MoveListGenerator;
+import uciservice.FenParser;
+
+public class MutablePositionTest {
+
+    private static final String[] FENS = {
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+        "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+        "8/8/8/2k5/3Pp3/8/8/4K3 b - d3 0 1"
+    };
+
+    /**
+     * Plays every move of the position and its follow-up positions on the mutable position
+     * and compares the result to the positions computed by {@link MoveGenerator#applyMove(Position, Move)}.
+     */
+    private static int compareToAppliedMoves(MutablePosition mutable, Position position, int depth) {
+        String fen = position.toStringFen();
+        assertEquals(position.getZobristKey(), mutable.getZobristKey(), fen);
+        assertEquals(fen, mutable.toPosition().toStringFen());
+        int[] moves = MoveListGenerator.generateMoves(position);
+        int[] buffer = new int[MoveListGenerator.MAX_MOVES];
+        int count = MoveListGenerator.generateMoves(mutable, buffer);
+        assertEquals(moves.length, count, fen);
+        int compared = 1;
+        for (int i = 0; i < count; i++) {
+            assertEquals(moves[i], buffer[i], fen);
+            if (depth > 1) {
+                mutable.makeMove(buffer[i]);
+                compared += compareToAppliedMoves(mutable, MoveGenerator.applyMove(position, Move.unpack(buffer[i])), depth - 1);
+                mutable.unmakeMove();
+            }
+        }
+        // taking back the moves restores the position
+        assertEquals(fen, mutable.toPosition().toStringFen());
+        assertEquals(position.getZobristKey(), mutable.getZobristKey(), fen);
+        return compared;
+    }
+
+    @Test
+    public void makeAndUnmakeMatchAppliedMovesTest() {
+        int compared = 0;
+        for (String fen : FENS) {
+            Position position = FenParser.parseFen(fen);
+            compared += compareToAppliedMoves(new MutablePosition(position), position, 3);
+        }
+        assertTrue(compared > 1000);
+    }
+
+    @Test
+    public void threefoldRepetitionTest() {
+        Position position = FenParser.parseFen("4k3/8/8/8/8/8/8/4K1N1 w - - 0 1");
+        MutablePosition mutable = new MutablePosition(position);
+        int[] knightMoves = {
+            Move.pack(62, 45, (byte) 0), Move.pack(4, 12, (byte) 0),
+            Move.pack(45, 62, (byte) 0), Move.pack(12, 4, (byte) 0)
+        };
+        for (int move : knightMoves) {
+            mutable.makeMove(move);
+            assertFalse(mutable.isDraw());
+        }
+        // second occurrence of the starting position
+        for (int i = 0; i < 3; i++) {
+            mutable.makeMove(knightMoves[i]);
+            assertFalse(mutable.isDraw());
+        }
+        mutable.makeMove(knightMoves[3]);
+        assertTrue(mutable.isDraw());
+        mutable.unmakeMove();
+        assertFalse(mutable.isDraw());
+    }
+
+    @Test
+    public void repetitionOfGameHistoryTest() {
+        Position position = FenParser.parseFen("4k3/8/8/8/8/8/8/4K1N1 w - - 4 3");
+        long key = position.getZobristKey();
+        MutablePosition mutable = new MutablePosition(position, new long[] {key, 0, 0, 0});
+        assertFalse(mutable.isDraw());
+        int[] knightMoves = {
+            Move.pack(62, 45, (byte) 0), Move.pack(4, 12, (byte) 0),
+            Move.pack(45, 62, (byte) 0), Move.pack(12, 4, (byte) 0)
+        };
+        for (int move : knightMoves) {
+            mutable.makeMove(move);
+        }
+        assertTrue(mutable.isDraw());
+    }
+
+    @Test
+    public void unmakeWithoutMoveTest() {
+        MutablePosition mutable = new MutablePosition(FenParser.parseFen(FENS[0]));
+        assertThrows(IllegalStateException.class, () -> mutable.unmakeMove());
+    }
+
+    @Test
+    public void growsWithPlayedMovesTest() {
+        Position position = FenParser.parseFen("4k3/8/8/8/8/8/8/4K1N1 w - - 0 1");
+        MutablePosition mutable = new MutablePosition(position);
+        int[] knightMoves = {
+            Move.pack(62, 45, (byte) 0), Move.pack(4, 12, (byte) 0),
+            Move.pack(45, 62, (byte) 0), Move.pack(12, 4, (byte) 0)
+        };
+        for (int i = 0; i < 200; i++) {
+            mutable.makeMove(knightMoves[i % 4]);
+        }
+        assertEquals(200, mutable.getPlayedMoveCount());
+        for (int i = 0; i < 200; i++) {
+            mutable.unmakeMove();
+        }
+        assertEquals(position.getZobristKey(), mutable.getZobristKey());
+    }
+}
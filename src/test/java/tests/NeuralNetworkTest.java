@@ -0,0 +1,132 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import gametree.ComputeChildrenException;
+import gametree.GameNode;
+import gametree.Node;
+import helper.Mirror;
+import model.Position;
+import movegenerator.MoveGenerator;
+import positionevaluator.Accumulator;
+import positionevaluator.NeuralEvaluator;
+import positionevaluator.NeuralNetwork;
+import positionevaluator.PositionEvaluator;
+import uciservice.FenParser;
+
+public class NeuralNetworkTest {
+
+    private static final String[] FENS = {
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        // castling, promotions and en passant captures
+        "r3k2r/pP5p/8/3pP3/8/8/P5pP/R3K2R w KQkq d6 0 1",
+        "r3k2r/pP5p/8/8/3pP3/8/P5pP/R3K2R b KQkq e3 0 1",
+        "2b1k3/8/8/8/8/8/PP6/2B1K3 w - - 0 1"
+    };
+
+    private final NeuralNetwork network = NeuralNetwork.createRandom(16, 1);
+
+    @AfterEach
+    public void disableNeuralEvaluator() {
+        NeuralEvaluator.setNetwork(null);
+        GameNode.getEvaluationCache().clear();
+    }
+
+    private int evaluate(Position position) {
+        return NeuralEvaluator.evaluatePosition(position, new Accumulator(network, position.getBoard()));
+    }
+
+    @Test
+    public void updatedAccumulatorEqualsComputedAccumulatorTest() {
+        for (String fen : FENS) {
+            Position position = FenParser.parseFen(fen);
+            Accumulator accumulator = new Accumulator(network, position.getBoard());
+            for (Position child : MoveGenerator.generatePossibleMoves(position)) {
+                Accumulator updated = accumulator.update(child.getBoard());
+                assertEquals(evaluate(child), NeuralEvaluator.evaluatePosition(child, updated), child.toStringFen());
+                // the other perspective is read first if the other side is to move
+                Accumulator computed = new Accumulator(network, child.getBoard());
+                assertEquals(network.evaluate(computed, !child.getWhiteNextMove()),
+                    network.evaluate(updated, !child.getWhiteNextMove()), child.toStringFen());
+            }
+        }
+    }
+
+    @Test
+    public void mirroredPositionTest() {
+        for (String fen : FENS) {
+            Position position = FenParser.parseFen(fen);
+            assertEquals(evaluate(position), -evaluate(Mirror.mirrorPosition(position)), fen);
+        }
+    }
+
+    @Test
+    public void saveAndLoadTest(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("test.nnue");
+        network.save(file);
+        NeuralNetwork loaded = NeuralNetwork.load(file);
+        assertEquals(network.getHiddenSize(), loaded.getHiddenSize());
+        for (String fen : FENS) {
+            Position position = FenParser.parseFen(fen);
+            assertEquals(evaluate(position),
+                NeuralEvaluator.evaluatePosition(position, new Accumulator(loaded, position.getBoard())), fen);
+        }
+    }
+
+    @Test
+    public void invalidFileTest(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("invalid.nnue");
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        assertThrows(IOException.class, () -> NeuralNetwork.load(file));
+
+        // correct header but missing weights
+        Path truncated = directory.resolve("truncated.nnue");
+        network.save(truncated);
+        Files.write(truncated, Arrays.copyOf(Files.readAllBytes(truncated), 100));
+        assertThrows(IOException.class, () -> NeuralNetwork.load(truncated));
+    }
+
+    @Test
+    public void enableWithoutNetworkTest() {
+        assertThrows(IllegalStateException.class, () -> NeuralEvaluator.setEnabled(true));
+        assertFalse(NeuralEvaluator.isEnabled());
+    }
+
+    @Test
+    public void gameNodeUsesNetworkTest() throws ComputeChildrenException {
+        NeuralEvaluator.setNetwork(network);
+        NeuralEvaluator.setEnabled(true);
+        GameNode.getEvaluationCache().clear();
+        GameNode root = new GameNode(FenParser.parseFen(FENS[1]));
+        List<? extends Node<Position>> children = root.getOrComputeChildren();
+        root.computeChildrenStaticValues();
+        for (Node<Position> child : children) {
+            assertEquals(evaluate(child.getContent()), child.computeOrGetStaticValueOrBetter());
+        }
+        // grandchildren update the accumulator their parent stored when computing them
+        Node<Position> child = children.get(0);
+        for (Node<Position> grandchild : child.getOrComputeChildren()) {
+            assertEquals(evaluate(grandchild.getContent()), grandchild.computeOrGetStaticValueOrBetter(-10, 10));
+        }
+
+        NeuralEvaluator.setEnabled(false);
+        GameNode.getEvaluationCache().clear();
+        GameNode classicalRoot = new GameNode(FenParser.parseFen(FENS[1]));
+        for (Node<Position> classicalChild : classicalRoot.getOrComputeChildren()) {
+            assertEquals(PositionEvaluator.evaluatePosition(classicalChild.getContent()),
+                classicalChild.computeOrGetStaticValueOrBetter());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import gametree.DetachingGameNode;
+import gametree.GameNode;
+import gametree.Node;
+import gametree.NodePool;
+import helper.GameTreeEvaluationHelper;
+import minimax.BaseTreeEvaluator;
+import minimax.GameNodeMoveOrderingSelfDestructingAlphaBetaPruning;
+import model.Position;
+import movegenerator.MoveGenerator;
+import uciservice.FenParser;
+
+public class NodePoolTest {
+
+    private static final String FEN = "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4";
+    private static final int ROUNDS = 20_000;
+
+    private final GameTreeEvaluationHelper helper = new GameTreeEvaluationHelper(
+        () -> new GameNodeMoveOrderingSelfDestructingAlphaBetaPruning());
+
+    /**
+     * Creates and recycles the children of a node repeatedly and returns the bytes allocated per created child.
+     */
+    private static double measureBytesPerChild(GameNode root, Position[] positions) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        // warm up, fills the pool and compiles the methods involved
+        expandAndRecycle(root, positions, ROUNDS);
+        long before = threads.getCurrentThreadAllocatedBytes();
+        expandAndRecycle(root, positions, ROUNDS);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        return (double) allocated / ((long) ROUNDS * positions.length);
+    }
+
+    private static void expandAndRecycle(GameNode root, Position[] positions, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            for (int i = 0; i < positions.length; i++) {
+                root.createChild(positions[i]);
+            }
+            root.recycleChildren();
+        }
+    }
+
+    @Test
+    public void pooledNodesDoNotAllocateTest() {
+        Position[] positions = MoveGenerator.generatePossibleMoves(FenParser.parseFen(FEN));
+        double pooled = measureBytesPerChild(new GameNode(FenParser.parseFen(FEN)), positions);
+        assertTrue(pooled < 1, "allocated " + pooled + " bytes per pooled node");
+    }
+
+    @Test
+    public void unpooledNodesAllocateTest() {
+        // subtypes of GameNode are not pooled, this verifies that the measurement detects allocations
+        Position[] positions = MoveGenerator.generatePossibleMoves(FenParser.parseFen(FEN));
+        double unpooled = measureBytesPerChild(new DetachingGameNode(FenParser.parseFen(FEN)), positions);
+        assertTrue(unpooled >= 16, "allocated " + unpooled + " bytes per unpooled node");
+    }
+
+    @Test
+    public void recycleKeepsBestChildTest() {
+        GameNode root = new GameNode(FenParser.parseFen(FEN));
+        Position[] positions = MoveGenerator.generatePossibleMoves(root.getContent());
+        for (Position position : positions) {
+            root.createChild(position);
+        }
+        GameNode best = (GameNode) root.getChildren().get(3);
+        root.setBestChild(best);
+        root.recycleChildren();
+        assertEquals(0, root.getChildren().size());
+
+        // reusing all pooled nodes must not touch the best child
+        GameNode other = new GameNode(FenParser.parseFen(FEN));
+        for (int i = 0; i < 2 * positions.length; i++) {
+            assertTrue(other.createChild(positions[0]) != best);
+        }
+        assertEquals(positions[3], best.getContent());
+    }
+
+    @Test
+    public void pooledSearchMatchesUnpooledSearchTest() {
+        NodePool pool = GameNode.getNodePool();
+        List<String> expected = searchPrincipalVariation(new DetachingGameNode(FenParser.parseFen(FEN)));
+        for (int search = 0; search < 2; search++) {
+            pool.resetCounters();
+            List<String> variation = searchPrincipalVariation(new GameNode(FenParser.parseFen(FEN)));
+            assertEquals(expected, variation);
+            assertTrue(pool.getReused() > 0);
+        }
+    }
+
+    /**
+     * Searches the node and returns the moves of the principal variation.
+     */
+    private List<String> searchPrincipalVariation(GameNode root) {
+        GameNode best = helper.evaluate(root, 4, true);
+        assertNotNull(best);
+        List<String> moves = new ArrayList<String>();
+        for (Node<Position> node : BaseTreeEvaluator.getPrincipalVariation(best)) {
+            moves.add(((GameNode) node).getRepresentedMove().toStringAlgebraic());
+        }
+        return moves;
+    }
+}
@@ -242,4 +242,24 @@ public class NodeTest {
         assertEquals(2, node.computeOrGetStaticValueOrBetter());
     }
 
+    @Test
+    public void staticValueWithinWindowIsStoredTest() throws UninitializedValueException {
+        EvaluableTestNode node = new EvaluableTestNode(42);
+        assertEquals(42, node.computeOrGetStaticValueOrBetter(0, 100));
+        assertEquals(42, node.computeOrGetStaticValueOrBetter());
+        assertEquals(42, node.computeOrGetStaticValueOrBetter(50, 100));
+        assertEquals(1, node.getComputeStaticValueCalls());
+    }
+
+    @Test
+    public void staticValueOutsideWindowIsRecomputedTest() throws UninitializedValueException {
+        EvaluableTestNode node = new EvaluableTestNode(42);
+        assertEquals(42, node.computeOrGetStaticValueOrBetter(50, 100));
+        assertEquals(42, node.getValue());
+        // the value might have been an estimate
+        assertEquals(42, node.computeOrGetStaticValueOrBetter());
+        assertEquals(2, node.getComputeStaticValueCalls());
+        assertEquals(42, node.computeOrGetStaticValueOrBetter(50, 100));
+        assertEquals(2, node.getComputeStaticValueCalls());
+    }
 }
@@ -0,0 +1,60 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.Test;
+
+import gametree.GameNode;
+import gametree.ImpGameTree;
+import gametree.UninitializedValueException;
+import helper.GameTreeEvaluationHelper;
+import minimax.GameNodeMoveOrderingSelfDestructingAlphaBetaPruning;
+import minimax.GameNodeNonRecursiveMoveOrderingSelfDestructingAlphaBetaPruning;
+import uciservice.FenParser;
+
+public class NonRecursiveMoveOrderingSelfDestructingAlphaBetaPruningGameTreeTest extends ExpensiveGameTreeEvaluationTest {
+
+    public NonRecursiveMoveOrderingSelfDestructingAlphaBetaPruningGameTreeTest() {
+        super(new GameTreeEvaluationHelper(() -> new GameNodeNonRecursiveMoveOrderingSelfDestructingAlphaBetaPruning()));
+    }
+
+    @Test
+    public void verifyDeletionWhiteTest() {
+        GameNode root = new GameNode(FenParser.parseFen("1b2q1p1/n1k1r3/3p4/2pp4/5PR1/7P/1PP3KB/2Q5 w - - 0 1"));
+        helper.evaluate(root, 4, true);
+        assertFalse(root.hasChildren());
+    }
+
+    @Test
+    public void verifyDeletionBlackTest() {
+        GameNode root = new GameNode(FenParser.parseFen("1b2q1p1/n1k1r3/3p4/2pp4/5PR1/7P/1PP3KB/2Q5 b - - 0 1"));
+        helper.evaluate(root, 4, false);
+        assertFalse(root.hasChildren());
+    }
+
+    @Test
+    public void sameSearchAsRecursiveEvaluatorTest() throws UninitializedValueException {
+        String[] fens = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/pPppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "1b2q1p1/n1k1r3/3p4/2pp4/5PR1/7P/1PP3KB/2Q5 b - - 0 1"
+        };
+        for (String fen : fens) {
+            for (int multiPV = 1; multiPV <= 3; multiPV += 2) {
+                GameNodeMoveOrderingSelfDestructingAlphaBetaPruning recursive =
+                    new GameNodeMoveOrderingSelfDestructingAlphaBetaPruning();
+                GameNodeNonRecursiveMoveOrderingSelfDestructingAlphaBetaPruning nonRecursive =
+                    new GameNodeNonRecursiveMoveOrderingSelfDestructingAlphaBetaPruning();
+                recursive.setMultiPV(multiPV);
+                nonRecursive.setMultiPV(multiPV);
+                boolean whitesTurn = FenParser.parseFen(fen).getWhiteNextMove();
+                GameNode expected = recursive.evaluateTree(new ImpGameTree(FenParser.parseFen(fen), recursive), 4, whitesTurn);
+                GameNode actual = nonRecursive.evaluateTree(new ImpGameTree(FenParser.parseFen(fen), nonRecursive), 4, whitesTurn);
+                assertEquals(expected.getRepresentedMove(), actual.getRepresentedMove());
+                assertEquals(expected.getValue(), actual.getValue());
+                assertEquals(recursive.getEvaluatedNodeCount(), nonRecursive.getEvaluatedNodeCount());
+            }
+        }
+    }
+}
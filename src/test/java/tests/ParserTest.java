@@ -1,7 +1,6 @@
 package tests;
 
-import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -52,23 +51,29 @@ public class ParserTest {
         List<Move> oldTurn = new ArrayList<Move>();
         oldTurn.add(new Move("a2a4"));
         oldTurn.add(new Move("a7a5"));
-        assertTrue(UCIParserAlphaBetaPruning.isTheSameGame(startingPosition, oldTurn, parent.getChildren()));
+        assertEquals(2, UCIParserAlphaBetaPruning.getCommonPrefixLength(startingPosition, oldTurn, parent.getChildren()));
         String startingPosition2 = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
-        assertTrue(UCIParserAlphaBetaPruning.isTheSameGame(startingPosition2, oldTurn, parent.getChildren()));
+        assertEquals(2, UCIParserAlphaBetaPruning.getCommonPrefixLength(startingPosition2, oldTurn, parent.getChildren()));
+        Command parent1 = tokenizer.tokenize("position startpos moves a2a4 a7a5 d2d4 d7d5 e2e4");
+        assertEquals(2, UCIParserAlphaBetaPruning.getCommonPrefixLength(startingPosition, oldTurn, parent1.getChildren()));
+        Command parent2 = tokenizer.tokenize("position startpos");
+        assertEquals(0, UCIParserAlphaBetaPruning.getCommonPrefixLength(startingPosition, new ArrayList<Move>(), parent2.getChildren()));
     }
+
     @Test
     public void sameGameTestFalse(){
         Tokenizer tokenizer = new UCITokenizer();
-        Command parent1 = tokenizer.tokenize("position startpos moves a2a4 a7a5 d2d4 d7d5 e2e4");
         String startingPosition = "startpos";
         List<Move> oldTurn = new ArrayList<Move>();
         oldTurn.add(new Move("a2a4"));
         oldTurn.add(new Move("a7a5"));
-        assertFalse(UCIParserAlphaBetaPruning.isTheSameGame(startingPosition, oldTurn, parent1.getChildren()));
+        Command parent1 = tokenizer.tokenize("position startpos moves a2a4");
+        assertEquals(-1, UCIParserAlphaBetaPruning.getCommonPrefixLength(startingPosition, oldTurn, parent1.getChildren()));
         Command parent2 = tokenizer.tokenize("position startpos moves a2a1 a7a5 d2d4 d7d5");
-        assertFalse(UCIParserAlphaBetaPruning.isTheSameGame(startingPosition, oldTurn, parent2.getChildren()));
+        assertEquals(-1, UCIParserAlphaBetaPruning.getCommonPrefixLength(startingPosition, oldTurn, parent2.getChildren()));
         String startingPosition2 = "rnbqkbnr/pppppppp/8/8/8/P7/1PPPPPPP/RNBQKBNR w KQkq - 0 1"; 
         Command parent3 = tokenizer.tokenize("position startpos moves a2a4 a7a5 d2d4 d7d5");
-        assertFalse(UCIParserAlphaBetaPruning.isTheSameGame(startingPosition2, oldTurn, parent3.getChildren()));
+        assertEquals(-1, UCIParserAlphaBetaPruning.getCommonPrefixLength(startingPosition2, oldTurn, parent3.getChildren()));
+        assertEquals(-1, UCIParserAlphaBetaPruning.getCommonPrefixLength(null, oldTurn, parent3.getChildren()));
     }
 }
@@ -0,0 +1,85 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static positionevaluator.PawnStructureEvaluator.*;
+
+import org.junit.jupiter.api.Test;
+
+import model.Position;
+import positionevaluator.PawnStructureEvaluator;
+import uciservice.FenParser;
+
+public class PawnStructureEvaluatorTest {
+
+    private static int midgame(String fen) {
+        return getMidgameScore(computeScore(FenParser.parseFen(fen).getBoard()));
+    }
+
+    private static int endgame(String fen) {
+        return getEndgameScore(computeScore(FenParser.parseFen(fen).getBoard()));
+    }
+
+    @Test
+    public void packTest() {
+        int[] scores = {0, 1, -1, 130, -130, 2000, -2000};
+        for (int midgame : scores) {
+            for (int endgame : scores) {
+                int packed = pack(midgame, endgame);
+                assertEquals(midgame, getMidgameScore(packed));
+                assertEquals(endgame, getEndgameScore(packed));
+            }
+        }
+    }
+
+    @Test
+    public void startingPositionIsBalancedTest() {
+        assertEquals(0, midgame("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"));
+        assertEquals(0, endgame("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"));
+    }
+
+    @Test
+    public void isolatedPawnTest() {
+        // a passed pawn on its starting rank gets no bonus
+        assertEquals(ISOLATED_MIDGAME, midgame("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1"));
+        assertEquals(-ISOLATED_MIDGAME, midgame("4k3/4p3/8/8/8/8/8/4K3 w - - 0 1"));
+    }
+
+    @Test
+    public void doubledPawnTest() {
+        // both pawns are isolated, the pawn on e3 gets 10 points for being passed
+        assertEquals(DOUBLED_ENDGAME + 2 * ISOLATED_ENDGAME + 10, endgame("4k3/8/8/8/8/4P3/4P3/4K3 w - - 0 1"));
+    }
+
+    @Test
+    public void passedPawnTest() {
+        // isolated passed pawn on the seventh rank
+        assertEquals(ISOLATED_ENDGAME + 90, endgame("4k3/4P3/8/8/8/8/8/4K3 w - - 0 1"));
+        assertEquals(-(ISOLATED_ENDGAME + 90), endgame("4k3/8/8/8/8/8/4p3/4K3 w - - 0 1"));
+        // enemy pawns on adjacent files in front stop both pawns from being passed
+        assertEquals(0, endgame("4k3/3p4/8/8/8/8/4P3/4K3 w - - 0 1"));
+    }
+
+    @Test
+    public void connectedPawnTest() {
+        // d3 defends e4, both are passed, d3 itself is neither connected nor backward
+        assertEquals(CONNECTED_MIDGAME + 10 + 5, midgame("4k3/8/8/8/4P3/3P4/8/4K3 w - - 0 1"));
+    }
+
+    @Test
+    public void backwardPawnTest() {
+        // d3 cannot advance safely as e5 attacks d4 and its neighbour c4 is in front,
+        // c4 is defended by d3 and passed, e5 is isolated
+        assertEquals(BACKWARD_MIDGAME + CONNECTED_MIDGAME + 10 - ISOLATED_MIDGAME,
+            midgame("4k3/8/8/4p3/2P5/3P4/8/4K3 w - - 0 1"));
+    }
+
+    @Test
+    public void pawnHashTableTest() {
+        Position position = FenParser.parseFen("4k3/1pp5/8/8/8/8/1PP5/4K3 w - - 0 1");
+        int score = PawnStructureEvaluator.evaluate(position.getBoard());
+        long hits = getPawnHashTable().getHits();
+        assertEquals(score, PawnStructureEvaluator.evaluate(position.getBoard().copyBoard()));
+        assertEquals(hits + 1, getPawnHashTable().getHits());
+        assertEquals(computeScore(position.getBoard()), score);
+    }
+}
@@ -1,10 +1,16 @@
 package tests;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
+import model.Board;
+import model.Position;
+import model.ZobristKeys;
+import movegenerator.MoveGenerator;
 import positionevaluator.PositionEvaluator;
 import uciservice.FenParser;
+import utility.PerformanceData;
 
 public class PositionEvaluatorTest {
 
@@ -34,12 +40,25 @@ public class PositionEvaluatorTest {
          * The positioning of the black Bishops adds 10 points each.
          * The positioning of the black Queen adds 5 points
          * The positioning of the black Pawns subtracts 10 points
-         * The positioning of the Kings has no influence.
-         * Thus the total comes to -4205.
+         * The midgame value of the black King on e8 is 0, the white King on h1 adds 20 points.
+         * Thus the midgame total comes to -4035 (without the pair of Bishops).
+         *
+         * In the endgame the black Pawns are worth 10 points more (0 instead of -10),
+         * the black King on e8 adds 30 points and the white King on h1 subtracts 50 points.
+         * Thus the endgame total comes to -4065 (without the pair of Bishops).
+         *
+         * The eight black Pawns stand side by side, each connected Pawn subtracts 8 points in the midgame
+         * and 6 points in the endgame, so the totals come to -4099 and -4113.
+         *
+         * The black Knights can move to 4 squares, which subtracts 16 points in the midgame
+         * and 8 points in the endgame, so the totals come to -4115 and -4121.
+         *
+         * The black pieces add up to a game phase of 12 out of 24,
+         * so the total comes to (-4115 - 4121) / 2 - 150 = -4268.
         */
     @Test
     public void onlyWhiteKingVsFullBlackStartingBoardTest(){
-        assertEquals(-4205,PositionEvaluator.evaluatePosition(FenParser.parseFen("rnbqkbnr/pppppppp/8/8/8/8/8/7K b kq - 1 1")));
+        assertEquals(-4268,PositionEvaluator.evaluatePosition(FenParser.parseFen("rnbqkbnr/pppppppp/8/8/8/8/8/7K b kq - 1 1")));
     }
 
     /*
@@ -50,12 +69,13 @@ public class PositionEvaluatorTest {
          * The positioning of the white Bishops subtracts 10 points each.
          * The positioning of the white Queen subtracts 5 points
          * The positioning of the white Pawns adds 5+10+10-20-20+10+10+5 = 10 points
-         * The positioning of the Kings has no influence.
-         * Thus the total comes to 4205.
+         * Like {@link #onlyWhiteKingVsFullBlackStartingBoardTest()} with colors switched,
+         * the black King on a8 subtracts 20 points in the midgame and adds 50 points in the endgame.
+         * Including the connected Pawns and mobility the total comes to (4115 + 4121) / 2 + 150 = 4268.
         */
     @Test
     public void onlyBlackKingVsFullWhiteStartingBoardTest(){
-        assertEquals(4205,PositionEvaluator.evaluatePosition(
+        assertEquals(4268,PositionEvaluator.evaluatePosition(
             FenParser.parseFen("k7/8/8/8/8/8/PPPPPPPP/RNBQKBNR b kq - 1 1")));
     }
 
@@ -66,12 +86,17 @@ public class PositionEvaluatorTest {
          * The positioning of the black Bishop adds 10 points.
          * The positioning of the black Queen adds 5 points
          * The positioning of the black Pawns subtracts 5+10+10-20-20+10+10+5 = 10 points
-         * The positioning of the Kings has no influence.
-         * Thus the total comes to -3690.
+         * The white King on h1 adds 20 points in the midgame (-3670)
+         * and subtracts 20 points in the endgame (black Pawns +10, black King on e8 +30, white King -50) (-3700).
+         * The connected black Pawns subtract 64 points in the midgame (-3734) and 48 points in the endgame (-3748).
+         * The black Knights can move to 4 squares, subtracting another 16 points in the midgame (-3750)
+         * and 8 points in the endgame (-3756).
+         * The black pieces add up to a game phase of 11 out of 24,
+         * so the total comes to (-3750 * 11 - 3756 * 13) / 24 = -3753.
         */
     @Test
     public void onlyWhiteKingVsBlackStartingBoardWithoutBishopTest(){
-        assertEquals(-3690,PositionEvaluator.evaluatePosition(
+        assertEquals(-3753,PositionEvaluator.evaluatePosition(
             FenParser.parseFen("rnbqk1nr/pppppppp/8/8/8/8/8/7K b kq - 1 1")));
     }
 
@@ -82,12 +107,75 @@ public class PositionEvaluatorTest {
          * The positioning of the white Bishop subtracts 10 points.
          * The positioning of the white Queen subtracts 5 points
          * The positioning of the white Pawns adds 5+10+10-20-20+10+10+5 = 10 points
-         * The positioning of the Kings has no influence.
-         * Thus the total comes to 3690.
+         * Like {@link #onlyWhiteKingVsBlackStartingBoardWithoutBishopTest()} with colors switched,
+         * except for mobility: the missing Bishop stood on c1 instead of f8,
+         * so the white Queen can additionally move to c1 (5 squares, 20 points midgame, 10 points endgame).
+         * Thus the total comes to (3754 * 11 + 3758 * 13) / 24 = 3756.
         */
     @Test
     public void onlyWhiteKingVsFullBlackStartingBoardWithoutBishopTest(){
-        assertEquals(3690,PositionEvaluator.evaluatePosition(
+        assertEquals(3756,PositionEvaluator.evaluatePosition(
             FenParser.parseFen("k7/8/8/8/8/8/PPPPPPPP/RN1QKBNR b kq - 1 1")));
     }
+
+    @Test
+    public void gamePhaseTest(){
+        assertEquals(24, FenParser.parseFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1").getGamePhase());
+        assertEquals(0, FenParser.parseFen("4k3/pppppppp/8/8/8/8/PPPPPPPP/4K3 w - - 0 1").getGamePhase());
+        assertEquals(6, FenParser.parseFen("3qk3/8/8/8/8/8/8/2B1K1N1 w - - 0 1").getGamePhase());
+        // promoted pieces may exceed the phase of the starting position
+        assertEquals(24, FenParser.parseFen("qqqqk3/8/8/8/8/8/8/QQQQK3 w - - 0 1").getGamePhase());
+    }
+
+    @Test
+    public void kingPrefersCenterInEndgameTest(){
+        int cornerKing = PositionEvaluator.evaluatePosition(FenParser.parseFen("4k3/pp6/8/8/8/8/PP6/K7 w - - 0 1"));
+        int centralKing = PositionEvaluator.evaluatePosition(FenParser.parseFen("4k3/pp6/8/8/3K4/8/PP6/8 w - - 0 1"));
+        assertTrue(centralKing > cornerKing);
+        // in the midgame the king should stay back
+        cornerKing = PositionEvaluator.evaluatePosition(FenParser.parseFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQ1BNK w - - 0 1"));
+        centralKing = PositionEvaluator.evaluatePosition(FenParser.parseFen("rnbqkbnr/pppppppp/8/8/3K4/8/PPPPPPPP/RNBQ1BN1 w - - 0 1"));
+        assertTrue(centralKing < cornerKing);
+    }
+
+    @Test
+    public void incrementalScoreEqualsFullComputationTest(){
+        Position position = FenParser.parseFen("r3k2r/pP5p/8/3pP3/8/8/P5pP/R3K2R w KQkq d6 0 1");
+        // play through a few plies, always taking the first generated move
+        for (int ply = 0; ply < 6; ply++) {
+            for (Position followUp : MoveGenerator.generatePossibleMoves(position)) {
+                Board board = followUp.getBoard();
+                assertEquals(PositionEvaluator.computePieceSquareScore(board, false), board.getMidgameScore(),
+                    "after " + followUp.getMove() + " in " + position.toStringFen());
+                assertEquals(PositionEvaluator.computePieceSquareScore(board, true), board.getEndgameScore(),
+                    "after " + followUp.getMove() + " in " + position.toStringFen());
+                assertEquals(PositionEvaluator.computeGamePhase(board), board.getGamePhase(),
+                    "after " + followUp.getMove() + " in " + position.toStringFen());
+                assertEquals(ZobristKeys.computePawnKey(board), board.getPawnKey(),
+                    "after " + followUp.getMove() + " in " + position.toStringFen());
+                assertEquals(PositionEvaluator.computePieceCounts(board), board.getPieceCounts(),
+                    "after " + followUp.getMove() + " in " + position.toStringFen());
+            }
+            position = MoveGenerator.generatePossibleMoves(position)[0];
+        }
+    }
+
+    @Test
+    public void lazyEvaluationTest(){
+        // white is a rook up, both sides have doubled and isolated pawns
+        Position position = FenParser.parseFen("4k3/p7/p7/8/8/P7/P7/R3K3 w - - 0 1");
+        int exact = PositionEvaluator.evaluatePosition(position);
+        int exits = PerformanceData.lazyEvaluationExits;
+        assertEquals(exact, PositionEvaluator.evaluatePosition(position, exact - 1, exact + 1));
+        assertEquals(exits, PerformanceData.lazyEvaluationExits);
+
+        // far above the window, the estimate has to be above beta
+        int estimate = PositionEvaluator.evaluatePosition(position, -100, 0);
+        assertEquals(exits + 1, PerformanceData.lazyEvaluationExits);
+        assertTrue(estimate >= 0);
+        // far below the window, the estimate has to be below alpha
+        estimate = PositionEvaluator.evaluatePosition(position, 2000, 2100);
+        assertEquals(exits + 2, PerformanceData.lazyEvaluationExits);
+        assertTrue(estimate <= 2000);
+    }
 }
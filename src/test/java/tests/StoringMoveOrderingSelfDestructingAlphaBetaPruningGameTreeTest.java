@@ -1,16 +1,27 @@
 package tests;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.jupiter.api.Test;
 
+import application.Conductor;
 import gametree.GameNode;
 import gametree.GameTree;
 import gametree.ImpGameTree;
 import gametree.Node;
 import helper.GameTreeEvaluationHelper;
+import minimax.BaseTreeEvaluator;
 import minimax.GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning;
+import minimax.StoringMoveOrderingSelfDestructingAlphaBetaPruning;
+import model.Move;
 import model.Position;
 import uciservice.FenParser;
 
@@ -106,4 +117,146 @@ public class StoringMoveOrderingSelfDestructingAlphaBetaPruningGameTreeTest exte
         GameNode root = tree.getRoot();
         assertFalse(root.hasChildren());
     }
+
+    @Test
+    public void memoryBudgetIsRespectedTest() {
+        String fen = "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4";
+        long budget = 200L * GameNode.ESTIMATED_BYTES;
+        GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning unlimited = new GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning(
+                StoringMoveOrderingSelfDestructingAlphaBetaPruning.ALL_LEVELS);
+        GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning limited = new GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning(
+                StoringMoveOrderingSelfDestructingAlphaBetaPruning.ALL_LEVELS, budget);
+        GameTree unlimitedTree = new ImpGameTree(FenParser.parseFen(fen), unlimited);
+        GameTree limitedTree = new ImpGameTree(FenParser.parseFen(fen), limited);
+
+        for (int depth = 1; depth <= 4; depth++) {
+            GameNode expected = unlimited.evaluateTree(unlimitedTree, depth, true);
+            GameNode best = limited.evaluateTree(limitedTree, depth, true);
+            assertEquals(expected.getRepresentedMove(), best.getRepresentedMove());
+            // evicting subtrees keeps the principal variation
+            assertEquals(BaseTreeEvaluator.getPrincipalVariation(expected).size(),
+                BaseTreeEvaluator.getPrincipalVariation(best).size());
+            assertTrue(limited.getStoredBytes() <= budget, limited.getStoredBytes() + " bytes stored");
+        }
+        assertTrue(limited.getEvictedNodeCount() > 0);
+        assertEquals(0, unlimited.getEvictedNodeCount());
+        assertTrue(unlimited.getStoredBytes() > budget);
+    }
+
+    @Test
+    public void stopAbortsWholeSearchTest() throws InterruptedException {
+        GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning evaluator = new GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning(
+                StoringMoveOrderingSelfDestructingAlphaBetaPruning.ALL_LEVELS);
+        GameTree tree = new ImpGameTree(FenParser.parseFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"), evaluator);
+        // a search to depth 7 takes far longer than the test waits for it
+        Thread search = new Thread(() -> evaluator.evaluateTree(tree, 7, true));
+        search.start();
+        try {
+            Thread.sleep(500);
+            assertTrue(search.isAlive());
+            long stopTime = System.nanoTime();
+            Conductor.stopCalculating = true;
+            search.join(5000);
+            assertFalse(search.isAlive(), "search did not stop");
+            assertTrue(System.nanoTime() - stopTime < TimeUnit.SECONDS.toNanos(5));
+        } finally {
+            Conductor.stopCalculating = true;
+            search.join();
+        }
+    }
+
+    /**
+     * Evaluates a tree storing all levels and returns the moves to the grandchild of the root
+     * on the principal variation, like the move played and the expected reply.
+     */
+    private static List<Move> evaluateStoredTree(GameTree tree, int depth) {
+        GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning evaluator = new GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning(
+                StoringMoveOrderingSelfDestructingAlphaBetaPruning.ALL_LEVELS);
+        GameNode best = evaluator.evaluateTree(tree, depth, true);
+        return List.of(best.getRepresentedMove(), ((GameNode) best.getBestChild()).getRepresentedMove());
+    }
+
+    private static long countDescendants(Node<Position> node) {
+        if (!node.hasChildren()) {
+            return 0;
+        }
+        long count = node.getChildren().size();
+        for (Node<Position> child : node.getChildren()) {
+            count += countDescendants(child);
+        }
+        return count;
+    }
+
+    @Test
+    public void detachStoredNodeTest() {
+        String fen = "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4";
+        GameTree tree = new ImpGameTree(FenParser.parseFen(fen), null);
+        List<Move> moves = evaluateStoredTree(tree, 4);
+        GameNode expected = tree.getRoot();
+        Position position = FenParser.parseFen(fen);
+        for (Move move : moves) {
+            expected = (GameNode) expected.getBestChild();
+            position = position.getFollowUpByMove(move);
+        }
+
+        Node<Position> parent = expected.getParent();
+
+        GameNode detached = Conductor.detachStoredNode(tree, moves, position);
+        assertSame(expected, detached);
+        assertNull(detached.getParent());
+        assertFalse(parent.getChildren().contains(detached));
+        // the content is replaced by the position of the game, which has the same key
+        assertSame(position, detached.getContent());
+        assertTrue(detached.hasChildren());
+    }
+
+    @Test
+    public void detachStoredNodeFallbackTest() {
+        String fen = "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4";
+        GameTree tree = new ImpGameTree(FenParser.parseFen(fen), null);
+        List<Move> moves = evaluateStoredTree(tree, 3);
+        Position position = FenParser.parseFen(fen);
+        for (Move move : moves) {
+            position = position.getFollowUpByMove(move);
+        }
+        // the same moves played from a different position lead to a position with a different key
+        Position other = FenParser.parseFen("r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w Kkq - 4 4");
+        for (Move move : moves) {
+            other = other.getFollowUpByMove(move);
+        }
+        assertNull(Conductor.detachStoredNode(tree, moves, other));
+        assertNull(Conductor.detachStoredNode(tree, moves.subList(1, 2), position));
+        assertNull(Conductor.detachStoredNode(tree, List.of(moves.get(1), moves.get(0)), position));
+        assertNull(Conductor.detachStoredNode(null, moves, position));
+        // the tree is unchanged by failed lookups
+        assertNotNull(Conductor.detachStoredNode(tree, moves, position));
+    }
+
+    @Test
+    public void reusedSubtreeIsCountedTest() {
+        String fen = "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4";
+        GameTree tree = new ImpGameTree(FenParser.parseFen(fen), null);
+        List<Move> moves = evaluateStoredTree(tree, 4);
+        Position position = FenParser.parseFen(fen);
+        for (Move move : moves) {
+            position = position.getFollowUpByMove(move);
+        }
+        GameNode detached = Conductor.detachStoredNode(tree, moves, position);
+        long stored = countDescendants(detached);
+        assertTrue(stored > 0);
+
+        GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning unlimited = new GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning(
+                StoringMoveOrderingSelfDestructingAlphaBetaPruning.ALL_LEVELS);
+        unlimited.accountForStoredNodes(detached);
+        assertEquals(stored, unlimited.getStoredNodeCount());
+
+        // a subtree exceeding the budget of the next search is evicted except for its principal variation
+        long budget = (stored / 2) * GameNode.ESTIMATED_BYTES;
+        GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning limited = new GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning(
+                StoringMoveOrderingSelfDestructingAlphaBetaPruning.ALL_LEVELS, budget);
+        limited.accountForStoredNodes(detached);
+        assertTrue(limited.getStoredBytes() <= budget, limited.getStoredBytes() + " bytes stored");
+        assertTrue(limited.getEvictedNodeCount() > 0);
+        assertEquals(countDescendants(detached), limited.getStoredNodeCount());
+    }
 }
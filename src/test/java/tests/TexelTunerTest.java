@@ -0,0 +1,115 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import model.Position;
+import positionevaluator.EvaluationParameters;
+import positionevaluator.PositionEvaluator;
+import tuner.TexelTuner;
+import tuner.TrainingSet;
+import uciservice.FenParser;
+
+public class TexelTunerTest {
+
+    private static final String[] FENS = {
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4",
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        // opposite coloured bishops are scaled
+        "4kb2/5p2/8/8/8/8/5P2/2B1K3 b - - 0 1",
+        "2kr3r/ppp2ppp/2n5/2b1p3/4P1n1/2N2N2/PPP2PPP/R1B2RK1 b - - 3 10"
+    };
+
+    @Test
+    public void parseResultTest() {
+        assertEquals(1, TrainingSet.parseResult("8/8/8/8/8/8/8/K6k w - - c9 \"1-0\";"));
+        assertEquals(0, TrainingSet.parseResult("8/8/8/8/8/8/8/K6k w - - c9 \"0-1\";"));
+        assertEquals(0.5, TrainingSet.parseResult("8/8/8/8/8/8/8/K6k w - - c9 \"1/2-1/2\";"));
+        assertEquals(1, TrainingSet.parseResult("8/8/8/8/8/8/8/K6k w - - 0 1 [1.0]"));
+        assertEquals(0.5, TrainingSet.parseResult("8/8/8/8/8/8/8/K6k w - - 0 1 [0.5]"));
+        assertEquals(0, TrainingSet.parseResult("8/8/8/8/8/8/8/K6k w - - 0 1 [0.0]"));
+        assertTrue(Double.isNaN(TrainingSet.parseResult("8/8/8/8/8/8/8/K6k w - - 0 1")));
+    }
+
+    @Test
+    public void parsePositionTest() {
+        Position epd = TrainingSet.parsePosition(FENS[1].substring(0, FENS[1].length() - 4) + " c9 \"1-0\";");
+        assertNotNull(epd);
+        assertEquals(FenParser.parseFen(FENS[1].substring(0, FENS[1].length() - 4) + " 0 1").toStringFen(), epd.toStringFen());
+        Position fen = TrainingSet.parsePosition(FENS[1] + " [0.5]");
+        assertEquals(FenParser.parseFen(FENS[1]).toStringFen(), fen.toStringFen());
+        assertNull(TrainingSet.parsePosition("not a position"));
+        assertNull(TrainingSet.parsePosition("rnbqkbnr/pppppppp/8/8 w KQkq - 0 1"));
+    }
+
+    @Test
+    public void linearEvaluationTest() {
+        TrainingSet trainingSet = new TrainingSet();
+        for (String fen : FENS) {
+            assertTrue(trainingSet.add(FenParser.parseFen(fen), 0.5));
+        }
+        TexelTuner tuner = new TexelTuner(trainingSet, EvaluationParameters.get());
+        for (int i = 0; i < FENS.length; i++) {
+            // the evaluator rounds twice when tapering and scaling
+            assertEquals(PositionEvaluator.evaluatePosition(FenParser.parseFen(FENS[i])), tuner.evaluate(i), 2, FENS[i]);
+        }
+    }
+
+    @Test
+    public void skipTrivialPositionsTest() {
+        TrainingSet trainingSet = new TrainingSet();
+        // drawn by insufficient material
+        assertFalse(trainingSet.add(FenParser.parseFen("8/8/4k3/8/8/3NK3/8/8 w - - 0 1"), 0.5));
+        // specialised endgame
+        assertFalse(trainingSet.add(FenParser.parseFen("8/8/4k3/8/8/3RK3/8/8 w - - 0 1"), 1));
+        assertEquals(0, trainingSet.size());
+    }
+
+    @Test
+    public void tuningReducesErrorTest() {
+        TrainingSet trainingSet = new TrainingSet();
+        double[] results = {0.5, 1, 0, 0, 0.5, 1};
+        for (int i = 0; i < FENS.length; i++) {
+            trainingSet.add(FenParser.parseFen(FENS[i]), results[i]);
+        }
+        TexelTuner tuner = new TexelTuner(trainingSet, EvaluationParameters.get());
+        double k = tuner.findScalingConstant();
+        double initialError = tuner.computeError(k);
+        for (int epoch = 0; epoch < 50; epoch++) {
+            tuner.step(k, 1);
+        }
+        assertTrue(tuner.computeError(k) < initialError);
+        assertEquals(EvaluationParameters.COUNT, tuner.getParameters().length);
+    }
+
+    @Test
+    public void loadTest(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("positions.epd");
+        Files.write(file, List.of(
+            FENS[0] + " [0.5]",
+            FENS[1].substring(0, FENS[1].length() - 4) + " c9 \"1-0\";",
+            "",
+            // no result
+            FENS[2],
+            // invalid position
+            "rnbqkbnr/pppppppp/8/8 w KQkq - c9 \"0-1\";",
+            // specialised endgame
+            "8/8/4k3/8/8/3RK3/8/8 w - - 0 1 [1.0]"));
+        TrainingSet trainingSet = TrainingSet.load(List.of(file));
+        assertEquals(2, trainingSet.size());
+        assertEquals(3, trainingSet.getSkipped());
+    }
+}
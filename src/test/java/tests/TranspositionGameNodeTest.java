@@ -0,0 +1,88 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import gametree.ComputeChildrenException;
+import gametree.GameNode;
+import gametree.ImpGameTree;
+import gametree.Node;
+import gametree.TranspositionGameNode;
+import gametree.UninitializedValueException;
+import minimax.GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning;
+import model.Move;
+import model.Position;
+import movegenerator.MoveGenerator;
+import uciservice.FenParser;
+
+public class TranspositionGameNodeTest {
+
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final String FEN = "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4";
+
+    // shared nodes represent the move of the parent that created them, so children are found by their position
+    private static GameNode getChild(GameNode node, String move) throws ComputeChildrenException {
+        long key = MoveGenerator.applyMove(node.getContent(), new Move(move)).getZobristKey();
+        for (Node<Position> child : node.getOrComputeChildren()) {
+            if (child.getContent().getZobristKey() == key) {
+                return (GameNode) child;
+            }
+        }
+        throw new IllegalArgumentException(move + " is not a child");
+    }
+
+    @Test
+    public void transpositionsAreSharedTest() throws ComputeChildrenException {
+        TranspositionGameNode root = new TranspositionGameNode(FenParser.parseFen(START), 3);
+        GameNode viaKnightF3 = getChild(getChild(getChild(root, "g1f3"), "g8f6"), "b1c3");
+        GameNode viaKnightC3 = getChild(getChild(getChild(root, "b1c3"), "g8f6"), "g1f3");
+        assertSame(viaKnightF3, viaKnightC3);
+        assertEquals(2, ((TranspositionGameNode) viaKnightF3).getParentCount());
+        assertTrue(root.getTranspositions().getMergedNodeCount() > 0);
+
+        // beneath the merged levels nodes are not shared
+        GameNode child = getChild(viaKnightF3, "b8c6");
+        assertEquals(GameNode.class, child.getClass());
+    }
+
+    @Test
+    public void removedNodesAreNotSharedTest() throws ComputeChildrenException {
+        TranspositionGameNode root = new TranspositionGameNode(FenParser.parseFen(START), 3);
+        GameNode knightF3 = getChild(root, "g1f3");
+        GameNode knightC3 = getChild(root, "b1c3");
+        GameNode shared = getChild(getChild(knightF3, "g8f6"), "b1c3");
+        getChild(getChild(knightC3, "g8f6"), "g1f3");
+
+        knightF3.deleteChildren();
+        assertEquals(1, ((TranspositionGameNode) shared).getParentCount());
+        assertSame(shared, getChild(getChild(knightC3, "g8f6"), "g1f3"));
+
+        root.deleteChildren();
+        assertEquals(0, ((TranspositionGameNode) shared).getParentCount());
+        assertEquals(0, root.getTranspositions().size());
+    }
+
+    @Test
+    public void searchMatchesTreeSearchTest() throws UninitializedValueException {
+        int storedLevels = 3;
+        GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning treeEvaluator =
+            new GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning(storedLevels);
+        ImpGameTree tree = new ImpGameTree(FenParser.parseFen(FEN), treeEvaluator);
+        GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning graphEvaluator =
+            new GameNodeStoringMoveOrderingSelfDestructingAlphaBetaPruning(storedLevels);
+        ImpGameTree graph = new ImpGameTree(FenParser.parseFen(FEN), graphEvaluator, storedLevels);
+
+        for (int depth = 1; depth <= 4; depth++) {
+            treeEvaluator.evaluateTree(tree, depth, true);
+            graphEvaluator.evaluateTree(graph, depth, true);
+            assertEquals(tree.getRoot().getValue(), graph.getRoot().getValue());
+        }
+        TranspositionGameNode root = (TranspositionGameNode) graph.getRoot();
+        assertTrue(root.getTranspositions().getMergedNodeCount() > 0);
+        graph.delete();
+        assertEquals(0, root.getTranspositions().size());
+    }
+}